@@ -0,0 +1,78 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import com.github.spud.sample.ai.agent.domain.message.AgentMessageMapper;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.AbstractMessage;
+
+/**
+ * AgentMessageMapper 往返：每条消息加载历史（实体 → 领域 → Spring AI）和持久化追加消息（反向），
+ * 以及追加消息不经领域模型直接映射为实体
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AgentMessageMapperBenchmark {
+
+  /**
+   * 历史窗口大小：默认窗口（10）、长会话、未裁剪的全量历史
+   */
+  @Param({"10", "100", "1000"})
+  private int historySize;
+
+  private final AgentMessageMapper mapper = new AgentMessageMapper();
+  private final ReActAgentSession session = new ReActAgentSession();
+  private List<AbstractMessage> springMessages;
+  private List<ReActAgentMessage> entities;
+
+  @Setup
+  public void setUp() {
+    session.setConversationId("benchmark");
+    springMessages = BenchmarkFixtures.conversation(historySize);
+    entities = toEntities(springMessages);
+  }
+
+  @Benchmark
+  public List<AbstractMessage> loadHistory() {
+    return mapper.toSpringMessages(mapper.toDomainList(entities));
+  }
+
+  @Benchmark
+  public List<ReActAgentMessage> persistAppended() {
+    return toEntities(springMessages);
+  }
+
+  @Benchmark
+  public List<ReActAgentMessage> persistAppendedDirect() {
+    List<ReActAgentMessage> result = new ArrayList<>(springMessages.size());
+    for (AbstractMessage message : springMessages) {
+      result.add(mapper.toEntity(message, session));
+    }
+    return result;
+  }
+
+  private List<ReActAgentMessage> toEntities(List<AbstractMessage> messages) {
+    List<ReActAgentMessage> result = new ArrayList<>(messages.size());
+    for (AbstractMessage message : messages) {
+      result.add(mapper.toEntity(mapper.fromSpringMessage(message), session));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,110 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.ai.chat.messages.AbstractMessage;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+/**
+ * 基准共用的测试数据：典型规模的会话历史、工具定义，以及不走网络的内存 Redis
+ */
+final class BenchmarkFixtures {
+
+  static final String TOOL_INPUT_SCHEMA = """
+    {"type":"object","properties":{"query":{"type":"string","description":"Search query"},\
+    "topK":{"type":"integer","description":"Number of results","default":5}},\
+    "required":["query"]}""";
+
+  private BenchmarkFixtures() {
+  }
+
+  /**
+   * ReAct 会话历史：每轮为 user → assistant(tool_calls) → tool → assistant(answer)
+   */
+  static List<AbstractMessage> conversation(int size) {
+    List<AbstractMessage> messages = new ArrayList<>(size);
+    for (int turn = 0; messages.size() < size; turn++) {
+      messages.add(new UserMessage("What is the weather in city " + turn + " today?"));
+      String callId = "call-" + turn;
+      String arguments = "{\"query\":\"weather city " + turn + "\",\"topK\":5}";
+      messages.add(new AssistantMessage("Let me look that up.", Map.of(),
+        List.of(new AssistantMessage.ToolCall(callId, "function", "rag_retrieve", arguments))));
+      messages.add(new ToolResponseMessage(List.of(new ToolResponseMessage.ToolResponse(callId,
+        "rag_retrieve", text("Sunny, 21 degrees, light wind from the west. ", 400)))));
+      messages.add(new AssistantMessage("It is sunny and 21 degrees in city " + turn + "."));
+    }
+    return new ArrayList<>(messages.subList(0, size));
+  }
+
+  static ToolDefinition toolDefinition(String name) {
+    return ToolDefinition.builder()
+      .name(name)
+      .description("Looks up " + name + " records matching the query and returns them as text")
+      .inputSchema(TOOL_INPUT_SCHEMA)
+      .build();
+  }
+
+  static ToolCallback tool(String name) {
+    ToolDefinition definition = toolDefinition(name);
+    return new ToolCallback() {
+      @Override
+      public ToolDefinition getToolDefinition() {
+        return definition;
+      }
+
+      @Override
+      public String call(String toolInput) {
+        return name;
+      }
+    };
+  }
+
+  static List<ToolCallback> tools(int count) {
+    List<ToolCallback> tools = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      tools.add(tool(String.format("tool_%03d", i)));
+    }
+    return tools;
+  }
+
+  static String text(String sentence, int length) {
+    StringBuilder sb = new StringBuilder(length + sentence.length());
+    while (sb.length() < length) {
+      sb.append(sentence);
+    }
+    return sb.substring(0, length);
+  }
+
+  /**
+   * 只实现 get / set 的内存 Redis，基准只测量编解码与键计算
+   */
+  static StringRedisTemplate inMemoryRedis() {
+    Map<String, String> store = new ConcurrentHashMap<>();
+    @SuppressWarnings("unchecked")
+    ValueOperations<String, String> ops = (ValueOperations<String, String>) Proxy.newProxyInstance(
+      BenchmarkFixtures.class.getClassLoader(), new Class<?>[]{ValueOperations.class},
+      (proxy, method, args) -> switch (method.getName()) {
+        case "get" -> store.get((String) args[0]);
+        case "set" -> {
+          store.put((String) args[0], (String) args[1]);
+          yield null;
+        }
+        default -> throw new UnsupportedOperationException(method.getName());
+      });
+    return new StringRedisTemplate() {
+      @Override
+      public ValueOperations<String, String> opsForValue() {
+        return ops;
+      }
+    };
+  }
+}
@@ -0,0 +1,30 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准入口：接受标准 JMH 命令行参数，并始终启用 gc profiler 以报告分配速率（gc.alloc.rate.norm）
+ * <pre>
+ * java -jar target/benchmarks.jar                        # 全部基准
+ * java -jar target/benchmarks.jar JsonUtils -p documents=100
+ * java -jar target/benchmarks.jar -rf json -rff baseline.json
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    new Runner(new OptionsBuilder()
+      .parent(new CommandLineOptions(args))
+      .addProfiler(GCProfiler.class)
+      .build())
+      .run();
+  }
+}
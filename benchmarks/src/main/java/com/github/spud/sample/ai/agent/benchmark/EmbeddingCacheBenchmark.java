@@ -0,0 +1,66 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.domain.rag.EmbeddingCache;
+import com.github.spud.sample.ai.agent.domain.rag.RagProperties;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * EmbeddingCache 序列化 / 反序列化（put / get 经内存 Redis，只测键计算与向量编解码）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmbeddingCacheBenchmark {
+
+  private static final String MODEL = "benchmark-embedding";
+
+  /**
+   * 向量维度：常见 embedding 模型的输出维度
+   */
+  @Param({"768", "1536", "3072"})
+  private int dimensions;
+
+  private EmbeddingCache cache;
+  private String text;
+  private float[] embedding;
+
+  @Setup
+  public void setUp() {
+    cache = new EmbeddingCache(BenchmarkFixtures.inMemoryRedis(), new RagProperties(),
+      AgentMetrics.NOOP);
+    text = BenchmarkFixtures.text("A chunk of a knowledge base document about the weather. ", 1000);
+    Random random = new Random(42);
+    embedding = new float[dimensions];
+    for (int i = 0; i < dimensions; i++) {
+      embedding[i] = random.nextFloat() * 2 - 1;
+    }
+    cache.put(text, MODEL, embedding);
+  }
+
+  @Benchmark
+  public void put() {
+    cache.put(text, MODEL, embedding);
+  }
+
+  @Benchmark
+  public Optional<float[]> get() {
+    return cache.get(text, MODEL);
+  }
+}
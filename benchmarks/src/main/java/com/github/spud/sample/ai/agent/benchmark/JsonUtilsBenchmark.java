@@ -0,0 +1,92 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JsonUtils 解析与编码：工具参数（小对象，每次工具调用一次）与检索结果 / 消息元数据（文档列表）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonUtilsBenchmark {
+
+  private static final TypeReference<List<Map<String, Object>>> DOCUMENTS =
+    new TypeReference<>() {
+    };
+
+  private static final String TOOL_ARGUMENTS =
+    "{\"query\":\"what is the weather in city 7 today\",\"topK\":5}";
+
+  @Param({"1", "10", "100"})
+  private int documents;
+
+  private List<Map<String, Object>> documentList;
+  private String documentsJson;
+
+  @Setup
+  public void setUp() {
+    List<Map<String, Object>> list = new ArrayList<>(documents);
+    for (int i = 0; i < documents; i++) {
+      Map<String, Object> doc = new LinkedHashMap<>();
+      doc.put("id", "doc-" + i);
+      doc.put("content", BenchmarkFixtures.text("Sunny, 21 degrees, light wind. ", 500));
+      doc.put("metadata", Map.of("source", "weather-" + i + ".md", "chunk_index", i));
+      doc.put("score", 1.0 - i * 0.001);
+      list.add(doc);
+    }
+    documentList = list;
+    documentsJson = JsonUtils.toJson(list);
+  }
+
+  @Benchmark
+  public String toolArgumentsReadTree() {
+    JsonNode node = JsonUtils.readTree(TOOL_ARGUMENTS);
+    return node.path("query").asText();
+  }
+
+  @Benchmark
+  public String toolArgumentsReadField() {
+    return JsonUtils.readField(TOOL_ARGUMENTS, "query");
+  }
+
+  @Benchmark
+  public Map<?, ?> toolArgumentsFromJson() {
+    return JsonUtils.fromJson(TOOL_ARGUMENTS, Map.class);
+  }
+
+  @Benchmark
+  public List<Map<String, Object>> documentsFromJson() {
+    return JsonUtils.fromJson(documentsJson, DOCUMENTS);
+  }
+
+  @Benchmark
+  public String documentsToJson() {
+    return JsonUtils.toJson(documentList);
+  }
+
+  @Benchmark
+  public JsonNode documentsReadTree() {
+    return JsonUtils.readTree(documentsJson);
+  }
+}
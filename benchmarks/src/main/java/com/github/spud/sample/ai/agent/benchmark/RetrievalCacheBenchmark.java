@@ -0,0 +1,75 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.domain.rag.RagProperties;
+import com.github.spud.sample.ai.agent.domain.rag.RetrievalCache;
+import com.github.spud.sample.ai.agent.domain.rag.RetrievalCache.CachedDocument;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+
+/**
+ * RetrievalCache JSON 编解码（put / get 经内存 Redis）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetrievalCacheBenchmark {
+
+  private static final String QUERY = "what is the weather in city 7 today";
+
+  @Param({"5", "20"})
+  private int topK;
+
+  /**
+   * 每个分块的字符数（对应 app.rag.chunk-size）
+   */
+  @Param({"500", "1000"})
+  private int chunkSize;
+
+  private RetrievalCache cache;
+  private List<Document> documents;
+
+  @Setup
+  public void setUp() {
+    cache = new RetrievalCache(BenchmarkFixtures.inMemoryRedis(), new RagProperties(),
+      AgentMetrics.NOOP);
+    documents = new ArrayList<>(topK);
+    for (int i = 0; i < topK; i++) {
+      documents.add(Document.builder()
+        .id("doc-" + i)
+        .text(BenchmarkFixtures.text("Sunny, 21 degrees, light wind from the west. ", chunkSize))
+        .metadata(Map.of("source", "weather-" + i + ".md", "chunk_index", i))
+        .score(1.0 - i * 0.01)
+        .build());
+    }
+    cache.put(QUERY, topK, null, documents);
+  }
+
+  @Benchmark
+  public void put() {
+    cache.put(QUERY, topK, null, documents);
+  }
+
+  @Benchmark
+  public Optional<List<CachedDocument>> get() {
+    return cache.get(QUERY, topK, null);
+  }
+}
@@ -0,0 +1,65 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import com.github.spud.sample.ai.agent.domain.agent.StuckDetector;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.AssistantMessage;
+
+/**
+ * BaseAgent.isStuck 的开销：运行开始时按历史重建 {@link StuckDetector}，之后每步记录一条助手消息并检查
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StuckDetectionBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int historySize;
+
+  private List<AssistantMessage> assistantMessages;
+  private StuckDetector detector;
+  private AssistantMessage step;
+
+  @Setup
+  public void setUp() {
+    assistantMessages = BenchmarkFixtures.conversation(historySize).stream()
+      .filter(AssistantMessage.class::isInstance)
+      .map(AssistantMessage.class::cast)
+      .toList();
+    detector = new StuckDetector();
+    assistantMessages.forEach(detector::record);
+    step = new AssistantMessage("Let me look that up.", Map.of(),
+      List.of(new AssistantMessage.ToolCall("call-x", "function", "rag_retrieve",
+        "{ \"query\": \"weather city 0\", \"topK\": 5 }")));
+  }
+
+  @Benchmark
+  public boolean rebuildFromHistory() {
+    StuckDetector rebuilt = new StuckDetector();
+    for (AssistantMessage message : assistantMessages) {
+      rebuilt.record(message);
+    }
+    return rebuilt.isStuck(2);
+  }
+
+  @Benchmark
+  public boolean recordStepAndCheck() {
+    detector.record(step);
+    return detector.isStuck(2);
+  }
+}
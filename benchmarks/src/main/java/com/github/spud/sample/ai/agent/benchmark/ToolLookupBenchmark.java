@@ -0,0 +1,81 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import com.github.spud.sample.ai.agent.domain.agent.ToolCallAgent;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+
+/**
+ * ToolCallAgent.executeToolCall：按工具名查找回调并执行（工具本身为空操作，只测查找与调用开销）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToolLookupBenchmark {
+
+  private static final MethodHandle EXECUTE_TOOL_CALL;
+
+  static {
+    try {
+      EXECUTE_TOOL_CALL = MethodHandles.privateLookupIn(ToolCallAgent.class, MethodHandles.lookup())
+        .findVirtual(ToolCallAgent.class, "executeToolCall",
+          MethodType.methodType(String.class, ToolCall.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * 可用工具数：内置工具、内置 + 少量 MCP server、大量 MCP 工具
+   */
+  @Param({"5", "20", "100"})
+  private int toolCount;
+
+  private ToolCallAgent agent;
+  private ToolCall firstTool;
+  private ToolCall lastTool;
+
+  @Setup
+  public void setUp() {
+    agent = ToolCallAgent.builder()
+      .name("benchmark")
+      .conversationId("benchmark")
+      .messages(new ArrayList<>())
+      .availableCallbacks(new ArrayList<>(BenchmarkFixtures.tools(toolCount)))
+      .build();
+    firstTool = toolCall(0);
+    lastTool = toolCall(toolCount - 1);
+  }
+
+  @Benchmark
+  public String firstTool() throws Throwable {
+    return (String) EXECUTE_TOOL_CALL.invokeExact(agent, firstTool);
+  }
+
+  @Benchmark
+  public String lastTool() throws Throwable {
+    return (String) EXECUTE_TOOL_CALL.invokeExact(agent, lastTool);
+  }
+
+  private static ToolCall toolCall(int index) {
+    return new ToolCall("call-" + index, "function", String.format("tool_%03d", index),
+      "{\"query\":\"benchmark\"}");
+  }
+}
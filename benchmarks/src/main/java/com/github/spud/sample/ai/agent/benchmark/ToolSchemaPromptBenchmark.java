@@ -0,0 +1,42 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import com.github.spud.sample.ai.agent.domain.tools.ToolRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ToolRegistry.buildThinkToolSchemaPrompt：THINK 阶段注入的工具清单文本
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ToolSchemaPromptBenchmark {
+
+  @Param({"5", "20", "100"})
+  private int toolCount;
+
+  private final ToolRegistry registry = new ToolRegistry();
+
+  @Setup
+  public void setUp() {
+    BenchmarkFixtures.tools(toolCount).forEach(registry::register);
+  }
+
+  @Benchmark
+  public String buildThinkToolSchemaPrompt() {
+    return registry.buildThinkToolSchemaPrompt();
+  }
+}
@@ -0,0 +1,90 @@
+package com.github.spud.sample.ai.agent.application.config;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Agent 阻塞任务调度器
+ * <p>
+ * Agent 运行、工具调用与持久化都是阻塞 IO（LLM HTTP、同步 MCP、JDBC），统一从这里获取调度器：
+ * <ul>
+ *   <li>bounded-elastic（默认）: Reactor boundedElastic，线程数上限 10×CPU，超过后排队</li>
+ *   <li>virtual: 每个任务一个虚拟线程，阻塞时不占用平台线程。构建仍面向 Java 17，
+ *   只需在 Java 21+ 运行时启动；低版本运行时回退到 bounded-elastic</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class AgentSchedulers {
+
+  public static final String MODE_BOUNDED_ELASTIC = "bounded-elastic";
+  public static final String MODE_VIRTUAL = "virtual";
+
+  private final String mode;
+  private final ExecutorService virtualExecutor;
+  private final Scheduler scheduler;
+
+  public AgentSchedulers(@Value("${app.agent.scheduler.mode:bounded-elastic}") String mode) {
+    ExecutorService executor = MODE_VIRTUAL.equalsIgnoreCase(mode) ? newVirtualExecutor() : null;
+    this.virtualExecutor = executor;
+    this.mode = executor != null ? MODE_VIRTUAL : MODE_BOUNDED_ELASTIC;
+    this.scheduler = executor != null
+      ? Schedulers.fromExecutorService(executor, "agent-virtual")
+      : Schedulers.boundedElastic();
+    log.info("Agent scheduler mode: {}", this.mode);
+  }
+
+  /**
+   * Agent 运行（THINK/ACT 循环）
+   */
+  public Scheduler agentRuns() {
+    return scheduler;
+  }
+
+  /**
+   * 工具调用（含投机预执行）
+   */
+  public Scheduler tools() {
+    return scheduler;
+  }
+
+  /**
+   * 数据库读写
+   */
+  public Scheduler persistence() {
+    return scheduler;
+  }
+
+  public String getMode() {
+    return mode;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (virtualExecutor != null) {
+      scheduler.dispose();
+      virtualExecutor.shutdown();
+    }
+  }
+
+  /**
+   * 通过反射创建虚拟线程执行器：Java 17 编译的同一构件在 Java 21+ 运行时即可启用虚拟线程
+   */
+  static ExecutorService newVirtualExecutor() {
+    try {
+      return (ExecutorService) Executors.class
+        .getMethod("newVirtualThreadPerTaskExecutor")
+        .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      log.warn("Virtual threads require Java 21+ (running {}), falling back to {}",
+        System.getProperty("java.version"), MODE_BOUNDED_ELASTIC);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.github.spud.sample.ai.agent.application.config;
+
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 应用 ObjectMapper 与 {@link JsonUtils} 使用同一套调优（Blackbird 模块等）
+ */
+@Configuration
+public class JacksonConfig {
+
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer jsonUtilsTuning() {
+    return JsonUtils::customize;
+  }
+}
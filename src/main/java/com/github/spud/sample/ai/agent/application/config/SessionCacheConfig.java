@@ -0,0 +1,28 @@
+package com.github.spud.sample.ai.agent.application.config;
+
+import com.github.spud.sample.ai.agent.domain.session.SessionConfigCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 会话配置缓存的跨节点失效：订阅 Redis 频道，收到消息后淘汰本地快照
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.session.cache.invalidation.enabled", havingValue = "true",
+  matchIfMissing = true)
+public class SessionCacheConfig {
+
+  @Bean
+  public RedisMessageListenerContainer sessionCacheInvalidationListener(
+    RedisConnectionFactory connectionFactory, SessionConfigCache sessionConfigCache) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(sessionConfigCache,
+      new ChannelTopic(sessionConfigCache.getChannel()));
+    return container;
+  }
+}
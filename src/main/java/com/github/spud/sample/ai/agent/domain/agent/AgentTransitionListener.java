@@ -0,0 +1,14 @@
+package com.github.spud.sample.ai.agent.domain.agent;
+
+import com.github.spud.sample.ai.agent.domain.state.AgentEvent;
+import com.github.spud.sample.ai.agent.domain.state.AgentState;
+
+/**
+ * Callback for agent state transitions, e.g. for tracing. Invoked synchronously on the agent's
+ * execution thread after the state has changed; implementations must be cheap and must not throw.
+ */
+@FunctionalInterface
+public interface AgentTransitionListener {
+
+  void onTransition(BaseAgent agent, AgentState from, AgentEvent event, AgentState to);
+}
@@ -1,31 +1,41 @@
 package com.github.spud.sample.ai.agent.domain.agent;
 
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.domain.state.AgentEvent;
 import com.github.spud.sample.ai.agent.domain.state.AgentState;
+import com.github.spud.sample.ai.agent.domain.state.AgentStateEngine;
+import com.github.spud.sample.ai.agent.domain.trace.AgentRunTrace;
+import com.github.spud.sample.ai.agent.domain.trace.AgentTracer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.function.Consumer;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.AbstractMessage;
-import org.springframework.ai.chat.messages.Message;
-import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 @Slf4j
 @Getter
 @SuperBuilder
 public abstract class BaseAgent {
 
+  private static final String STUCK_PROMPT = "Observed duplicate responses. Consider new strategies and avoid repeating ineffective paths already attempted.";
+
   protected String name;
 
   protected String description;
 
+  // Conversation this agent serves (null for ad-hoc agents)
+  protected String conversationId;
+
   protected String systemPrompt;
 
   protected String nextStepPrompt;
@@ -48,69 +58,100 @@ public abstract class BaseAgent {
 
   protected String finalAnswer;
 
-  public <T> Mono<T> stateContext(AgentState newState, Supplier<Mono<T>> work) {
+  /**
+   * Transient stuck warning for the current run. Injected into the outgoing prompt only and never
+   * stored in {@link #messages}; a new stuck detection replaces the previous warning.
+   */
+  protected String stuckPrompt;
 
-    if (newState == null) {
-      return Mono.error(new IllegalArgumentException("Invalid state: " + null));
-    }
-    AgentState previousState = this.state;
-    this.state = newState;
-    Mono<T> inner;
-    try {
-      inner = work.get();
-    } catch (Exception e) {
-      this.state = previousState;
-      return Mono.error(e);
-    }
-    return inner
-      .onErrorResume(e -> {
-        this.state = AgentState.ERROR;
-        return Mono.error(e);
-      })
-      .doFinally(signal -> this.state = previousState);
-  }
+  // Rolling duplicate counts for assistant messages of the current run
+  @Builder.Default
+  protected StuckDetector stuckDetector = new StuckDetector();
+
+  // Compiled transition table enforcing AgentStateConfig; shared, immutable
+  @Builder.Default
+  protected AgentStateEngine stateEngine = AgentStateEngine.standard();
+
+  @Builder.Default
+  protected List<AgentTransitionListener> transitionListeners = new ArrayList<>();
+
+  // Receives every message as it is appended (e.g. the write-behind message journal); optional
+  protected Consumer<AbstractMessage> messageSink;
+
+  // Per-step tracing (optional); only sampled runs get a trace
+  protected AgentTracer tracer;
+
+  // Trace of the current run, null when the run is not traced
+  protected AgentRunTrace runTrace;
+
+  // Metrics and observations (no-op unless injected)
+  @Builder.Default
+  protected AgentMetrics metrics = AgentMetrics.NOOP;
 
   public Mono<String> run(String request) {
     if (this.state != AgentState.IDLE) {
       throw new IllegalStateException("Cannot run agent from state: " + this.state);
     }
+    // Seed the detector with the loaded history once per run
+    this.stuckDetector.reset();
+    for (AbstractMessage message : this.messages) {
+      if (message instanceof AssistantMessage assistantMessage) {
+        this.stuckDetector.record(assistantMessage);
+      }
+    }
     if (StringUtils.hasText(request)) {
       UserMessage userMessage = new UserMessage(request);
-      this.messages.add(userMessage);
+      appendMessage(userMessage);
     }
     List<String> results = new ArrayList<>();
 
     return Mono.defer(() -> {
-      this.state = AgentState.ACTING;
+      this.runTrace = this.tracer != null ? this.tracer.startRun(this.conversationId) : null;
+      AgentMetrics.RunScope runScope = this.metrics.startRun(agentType(), this.conversationId);
+      fire(AgentEvent.START);
 
       return Flux.range(1, this.maxSteps)
         .concatMap(i -> {
           // Check FINISHED state at the start of each step
-          if (this.state == AgentState.FINISHED) {
+          if (AgentState.isFinal(this.state)) {
             log.info("Agent already finished, skipping step {}", i);
             return Mono.empty();
           }
 
           this.currentStep = i;
           log.info("Executing step {}/{}", this.currentStep, this.maxSteps);
+          if (this.runTrace != null) {
+            this.runTrace.beginStep(i);
+          }
           return this.step()
             .doOnNext(stepResult -> {
               if (isStuck()) {
                 handleStuckState();
               }
               results.add("Step " + this.currentStep + ": " + stepResult);
+              traceStepEnd(null);
             })
             .onErrorResume(e -> {
               // If the error is fatal, rethrow to abort the run. Otherwise record and continue.
               if (e instanceof FatalAgentException) {
+                if (!AgentState.isFinal(this.state)) {
+                  fire(AgentEvent.FAIL);
+                }
+                traceStepEnd(e);
                 return Mono.error(e);
               }
+              // A failed ACT still completes the step; go back to THINKING
+              if (this.state == AgentState.ACTING) {
+                fire(AgentEvent.ACT_DONE);
+              }
+              traceStepEnd(e);
               results.add("Step " + this.currentStep + ": Error - " + e.getMessage());
               return Mono.empty();
             });
         })
         .then(Mono.fromCallable(() -> {
-          if (this.currentStep >= this.maxSteps) {
+          if (!AgentState.isFinal(this.state)) {
+            fire(AgentEvent.STOP_MAX_STEPS);
             results.add("Terminated: Reached max steps (" + this.maxSteps + ")");
           }
           // Priority: return finalAnswer if set (terminate tool called)
@@ -119,46 +160,123 @@ public abstract class BaseAgent {
           }
           return results.isEmpty() ? "No steps executed" : String.join("\n", results);
         }))
+        .doOnError(runScope::error)
         .doFinally(signal -> {
+          runScope.stop(runOutcome(signal), this.currentStep);
+          if (this.runTrace != null) {
+            this.runTrace.abandon();
+            this.runTrace = null;
+          }
           cleanup();
           this.currentStep = 0;
+          // Reset for the next run; FINISHED/ERROR are terminal within a run
           this.state = AgentState.IDLE;
           this.finalAnswer = null; // Reset finalAnswer for next run
+          this.stuckPrompt = null;
         });
     });
   }
 
   protected abstract Mono<String> step();
 
+  /**
+   * Agent type tag for metrics (bounded: one value per agent class)
+   */
+  protected String agentType() {
+    return getClass().getSimpleName();
+  }
+
+  private String runOutcome(SignalType signal) {
+    if (signal == SignalType.ON_ERROR) {
+      return "error";
+    }
+    if (signal == SignalType.CANCEL) {
+      return "cancelled";
+    }
+    return StringUtils.hasText(this.finalAnswer) ? "answered" : "max_steps";
+  }
+
+  /**
+   * Replace the conversation history of an idle agent so a cached instance can be reused for the
+   * next message of the same session
+   */
+  public void resetHistory(List<AbstractMessage> history) {
+    if (this.state != AgentState.IDLE) {
+      throw new IllegalStateException("Cannot reset history of agent in state: " + this.state);
+    }
+    this.messages = history;
+  }
+
+  /**
+   * Fire a state event through the engine and notify transition listeners
+   *
+   * @throws FatalAgentException the current state does not accept the event
+   */
+  protected void fire(AgentEvent event) {
+    AgentState from = this.state;
+    AgentState to;
+    try {
+      to = this.stateEngine.fire(from, event);
+    } catch (IllegalStateException e) {
+      throw new FatalAgentException(e.getMessage(), e);
+    }
+    this.state = to;
+    log.debug("Agent '{}' transition: {} --({})--> {}", this.name, from, event, to);
+    if (this.runTrace != null) {
+      this.runTrace.onTransition(event, to);
+    }
+    for (AgentTransitionListener listener : this.transitionListeners) {
+      try {
+        listener.onTransition(this, from, event, to);
+      } catch (Exception e) {
+        log.warn("Transition listener failed for agent '{}': {}", this.name, e.getMessage());
+      }
+    }
+  }
+
+  private void traceStepEnd(Throwable error) {
+    if (this.runTrace != null) {
+      this.runTrace.endStep(this.state, error);
+    }
+  }
+
+  public void addTransitionListener(AgentTransitionListener listener) {
+    this.transitionListeners.add(listener);
+  }
+
+  /**
+   * Set (or clear with null) the sink receiving messages as they are appended during a run
+   */
+  public void setMessageSink(Consumer<AbstractMessage> messageSink) {
+    this.messageSink = messageSink;
+  }
+
   protected void cleanup() {
     log.info("Cleaning up resources for agent '{}'...", this.name);
     // Override in subclasses to clean up specific resources
   }
 
   protected void handleStuckState() {
-    String stuckPrompt = "Observed duplicate responses. Consider new strategies and avoid repeating ineffective paths already attempted.";
-    this.nextStepPrompt = stuckPrompt + "\n" + this.nextStepPrompt;
-    log.warn("Agent detected stuck state. Added prompt: {}", stuckPrompt);
+    this.stuckPrompt = STUCK_PROMPT;
+    log.warn("Agent detected stuck state. Added prompt: {}", STUCK_PROMPT);
   }
 
-  protected Boolean isStuck() {
-    if (this.messages.size() < 2) {
-      return false;
-    }
-    String lastResponse = this.messages.get(this.messages.size() - 1).getText();
-    if (!StringUtils.hasText(lastResponse)) {
-      return false;
+  /**
+   * Append a message to history, keeping the stuck detector in sync. All agent-produced messages
+   * must go through here.
+   */
+  protected void appendMessage(AbstractMessage message) {
+    this.messages.add(message);
+    if (this.messageSink != null) {
+      this.messageSink.accept(message);
     }
-    int duplicateCount = 0;
-    // Exclude the last message from counting (iterate up to size-2)
-    for (int i = messages.size() - 2; i >= 0; i--) {
-      Message message = messages.get(i);
-      if (message.getMessageType().equals(MessageType.ASSISTANT) && lastResponse.equals(
-        message.getText())) {
-        duplicateCount++;
-      }
+    if (message instanceof AssistantMessage assistantMessage) {
+      this.stuckDetector.record(assistantMessage);
     }
-    return duplicateCount >= this.duplicateThreshold;
+  }
+
+  protected Boolean isStuck() {
+    return this.stuckDetector.isStuck(this.duplicateThreshold);
   }
 
 }
@@ -2,6 +2,7 @@ package com.github.spud.sample.ai.agent.domain.agent;
 
 import com.github.spud.sample.ai.agent.domain.mcp.McpClientManager;
 import com.github.spud.sample.ai.agent.domain.mcp.McpToolCallback;
+import com.github.spud.sample.ai.agent.domain.state.AgentEvent;
 import com.github.spud.sample.ai.agent.domain.state.AgentState;
 import java.util.ArrayList;
 import java.util.List;
@@ -39,6 +40,12 @@ public class McpAgent extends ToolCallAgent {
   // Enabled MCP servers list
   private List<String> enabledMcpServers;
 
+  // Local callbacks captured before MCP callbacks are merged in (base for every refresh)
+  private List<ToolCallback> localCallbacks;
+
+  // MCP tool summary, appended to the system prompt instead of being stored in history
+  private String mcpToolsInfo;
+
   /**
    * Initialize MCP Agent with enabled servers
    */
@@ -46,14 +53,16 @@ public class McpAgent extends ToolCallAgent {
     this.enabledMcpServers = enabledMcpServers;
     this.refreshToolsInterval = refreshToolsInterval;
 
+    this.localCallbacks = new ArrayList<>(availableCallbacks);
+
     log.info("Initializing MCP Agent with servers: {}, refresh interval: {}",
       enabledMcpServers, refreshToolsInterval);
 
     // Build MCP tool callbacks and inject into availableCallbacks
     buildMcpCallbacks();
 
-    // Add tool info to system messages
-    addToolInfoToSystemMessages();
+    // Build tool info for the system prompt
+    buildToolInfo();
   }
 
   /**
@@ -85,7 +94,7 @@ public class McpAgent extends ToolCallAgent {
       mcpCallbacks.size(), enabledMcpServers.size());
 
     // Combine local tools (from toolRegistry) with MCP tools
-    List<ToolCallback> combinedCallbacks = new ArrayList<>(availableCallbacks);
+    List<ToolCallback> combinedCallbacks = new ArrayList<>(localCallbacks);
     combinedCallbacks.addAll(mcpCallbacks);
 
     this.availableCallbacks = combinedCallbacks;
@@ -124,19 +133,25 @@ public class McpAgent extends ToolCallAgent {
   }
 
   /**
-   * Refresh tool list
+   * Refresh tool list: every refreshToolsInterval steps, and when a cached agent is reused for a
+   * new run (runs shorter than the interval would otherwise never refresh)
    */
-  private void refreshTools() {
-    log.debug("Refreshing MCP tools (step interval reached)");
+  public void refreshTools() {
+    log.debug("Refreshing MCP tools");
+    stepsSinceLastRefresh = 0;
 
+    long start = System.nanoTime();
     try {
       // Rebuild MCP callbacks
       buildMcpCallbacks();
+      buildToolInfo();
 
       log.info("Refreshed MCP tools, total available callbacks: {}", availableCallbacks.size());
-
+      this.metrics.recordMcpToolRefresh(System.nanoTime() - start,
+        availableCallbacks.size() - localCallbacks.size(), true);
     } catch (Exception e) {
       log.error("Error refreshing MCP tools", e);
+      this.metrics.recordMcpToolRefresh(System.nanoTime() - start, 0, false);
     }
   }
 
@@ -153,27 +168,38 @@ public class McpAgent extends ToolCallAgent {
 
     if (allDisconnected) {
       log.warn("All MCP services are unavailable, ending agent execution");
-      this.messages.add(new SystemMessage(
+      appendMessage(new SystemMessage(
         "MCP service is no longer available, ending interaction"));
-      this.state = AgentState.FINISHED;
+      if (!AgentState.isFinal(this.state)) {
+        fire(AgentEvent.TOOL_TERMINATE);
+      }
       this.finalAnswer = "MCP service unavailable - agent terminated";
     }
   }
 
   /**
-   * Add tool info to system messages
+   * Build tool info for the system prompt
    */
-  private void addToolInfoToSystemMessages() {
+  private void buildToolInfo() {
     long mcpToolCount = availableCallbacks.stream()
       .filter(cb -> cb.getToolDefinition().name().startsWith("mcp."))
       .count();
 
+    this.mcpToolsInfo = null;
     if (mcpToolCount > 0) {
-      String toolsInfo = String.format(
+      this.mcpToolsInfo = String.format(
         "You have access to %d MCP tools from enabled servers.", mcpToolCount);
-      this.messages.add(new SystemMessage(toolsInfo));
-      log.info("Added {} MCP tools to system messages", mcpToolCount);
+      log.info("Added {} MCP tools to system prompt", mcpToolCount);
+    }
+  }
+
+  @Override
+  protected String buildSystemPrompt() {
+    String system = super.buildSystemPrompt();
+    if (mcpToolsInfo == null) {
+      return system;
     }
+    return system != null ? system + "\n\n" + mcpToolsInfo : mcpToolsInfo;
   }
 
   @Override
@@ -1,5 +1,8 @@
 package com.github.spud.sample.ai.agent.domain.agent;
 
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.domain.state.AgentEvent;
+import com.github.spud.sample.ai.agent.domain.state.AgentState;
 import lombok.experimental.SuperBuilder;
 import reactor.core.publisher.Mono;
 
@@ -12,13 +15,20 @@ public abstract class ReActAgent extends BaseAgent {
 
   @Override
   protected final Mono<String> step() {
-    return this.think()
+    return this.metrics.timePhase(AgentMetrics.PHASE_THINK, agentType(), this.think())
       .defaultIfEmpty(false)
       .flatMap(shouldAct -> {
         if (!shouldAct) {
           return Mono.just("Thinking complete - no action needed");
         }
-        return this.act();
+        fire(AgentEvent.THINK_DONE_WITH_TOOLS);
+        return this.metrics.timePhase(AgentMetrics.PHASE_ACT, agentType(), this.act())
+          .doOnNext(result -> {
+            // ACT may already have finished the run (e.g. terminate)
+            if (this.state == AgentState.ACTING) {
+              fire(AgentEvent.ACT_DONE);
+            }
+          });
       });
   }
 }
@@ -0,0 +1,169 @@
+package com.github.spud.sample.ai.agent.domain.agent;
+
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Speculative tool execution for a streamed THINK call.
+ * <p>
+ * While the completion streams in, every side-effect-free tool call whose arguments are complete is
+ * started on the tool scheduler, overlapping tool latency with the rest of the model output.
+ * ACT then picks up the prefetched result instead of executing the call again. Prefetched results
+ * for calls that are not part of the final response are cancelled and discarded.
+ */
+@Slf4j
+class SpeculativeToolPrefetcher {
+
+  private final Predicate<String> sideEffectFree;
+  private final Function<ToolCall, String> executor;
+  private final Scheduler scheduler;
+
+  // tool call id -> in-flight or finished execution
+  private final Map<String, Prefetch> prefetched = new HashMap<>();
+
+  SpeculativeToolPrefetcher(Predicate<String> sideEffectFree, Function<ToolCall, String> executor,
+    Scheduler scheduler) {
+    this.sideEffectFree = sideEffectFree;
+    this.executor = executor;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Consume a streamed completion, prefetching tool calls as they complete, and aggregate it into a
+   * single response equivalent to a blocking call
+   */
+  ChatResponse collect(Flux<ChatResponse> stream) {
+    StringBuilder text = new StringBuilder();
+    Map<String, ToolCall> toolCalls = new LinkedHashMap<>();
+    Map<String, Object> outputMetadata = new HashMap<>();
+    ChatResponseMetadata[] responseMetadata = new ChatResponseMetadata[1];
+    String[] currentId = new String[1];
+
+    stream.doOnNext(chunk -> {
+      if (chunk.getMetadata() != null && (responseMetadata[0] == null
+        || chunk.getMetadata().getUsage().getPromptTokens() != null)) {
+        responseMetadata[0] = chunk.getMetadata();
+      }
+      if (chunk.getResult() == null || chunk.getResult().getOutput() == null) {
+        return;
+      }
+      AssistantMessage output = chunk.getResult().getOutput();
+      if (output.getText() != null) {
+        text.append(output.getText());
+      }
+      outputMetadata.putAll(output.getMetadata());
+      for (ToolCall delta : output.getToolCalls()) {
+        if (StringUtils.hasText(delta.id())) {
+          // A new call id means the previous call's arguments are complete
+          if (currentId[0] != null && !currentId[0].equals(delta.id())) {
+            offer(toolCalls.get(currentId[0]), true);
+          }
+          currentId[0] = delta.id();
+          toolCalls.put(delta.id(), delta);
+        } else if (currentId[0] != null) {
+          ToolCall current = toolCalls.get(currentId[0]);
+          toolCalls.put(current.id(), new ToolCall(current.id(), current.type(), current.name(),
+            Objects.toString(current.arguments(), "") + Objects.toString(delta.arguments(), "")));
+        }
+      }
+      if (currentId[0] != null) {
+        offer(toolCalls.get(currentId[0]), false);
+      }
+    }).blockLast();
+
+    List<ToolCall> finalCalls = new ArrayList<>(toolCalls.values());
+    finalCalls.forEach(call -> offer(call, true));
+    retainOnly(finalCalls);
+
+    AssistantMessage message = new AssistantMessage(text.toString(), outputMetadata, finalCalls);
+    return responseMetadata[0] != null
+      ? new ChatResponse(List.of(new Generation(message)), responseMetadata[0])
+      : new ChatResponse(List.of(new Generation(message)));
+  }
+
+  /**
+   * Take the prefetched result for a tool call, or null if it was not prefetched
+   */
+  String take(ToolCall toolCall) {
+    Prefetch prefetch = prefetched.remove(toolCall.id());
+    if (prefetch == null || !prefetch.matches(toolCall)) {
+      return null;
+    }
+    try {
+      log.debug("Using prefetched result for tool {} (id: {})", toolCall.name(), toolCall.id());
+      return prefetch.result().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Cancel and drop all prefetched executions
+   */
+  void clear() {
+    prefetched.values().forEach(prefetch -> prefetch.result().cancel(true));
+    prefetched.clear();
+  }
+
+  private void offer(ToolCall toolCall, boolean streamComplete) {
+    if (toolCall == null || !StringUtils.hasText(toolCall.id())
+      || prefetched.containsKey(toolCall.id()) || !sideEffectFree.test(toolCall.name())) {
+      return;
+    }
+    if (!streamComplete && !isCompleteJson(toolCall.arguments())) {
+      return;
+    }
+    log.debug("Prefetching side-effect-free tool {} (id: {})", toolCall.name(), toolCall.id());
+    CompletableFuture<String> result = Mono.fromCallable(() -> executor.apply(toolCall))
+      .subscribeOn(scheduler)
+      .toFuture();
+    prefetched.put(toolCall.id(), new Prefetch(toolCall, result));
+  }
+
+  private void retainOnly(List<ToolCall> finalCalls) {
+    prefetched.entrySet().removeIf(entry -> {
+      boolean kept = finalCalls.stream().anyMatch(entry.getValue()::matches);
+      if (!kept) {
+        log.debug("Discarding prefetched tool call not in final response: {}",
+          entry.getValue().toolCall().name());
+        entry.getValue().result().cancel(true);
+      }
+      return !kept;
+    });
+  }
+
+  private static boolean isCompleteJson(String arguments) {
+    return StringUtils.hasText(arguments) && JsonUtils.isValidJson(arguments);
+  }
+
+  private record Prefetch(ToolCall toolCall, CompletableFuture<String> result) {
+
+    boolean matches(ToolCall other) {
+      return Objects.equals(toolCall.id(), other.id())
+        && Objects.equals(toolCall.name(), other.name())
+        && Objects.equals(toolCall.arguments(), other.arguments());
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.github.spud.sample.ai.agent.domain.agent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.util.StringUtils;
+
+/**
+ * Incremental duplicate detector for assistant messages within a single run.
+ * <p>
+ * Each assistant message is recorded once when appended, so checking for a stuck state is O(1)
+ * instead of a backwards scan over the whole history. Two fingerprints are counted:
+ * <ul>
+ *   <li>normalized text (case and whitespace insensitive)</li>
+ *   <li>tool-call signature (names plus whitespace-stripped arguments), which catches loops where
+ *   the model repeats the same calls with trivially different text</li>
+ * </ul>
+ */
+public class StuckDetector {
+
+  private final Map<String, Integer> contentCounts = new HashMap<>();
+
+  private final Map<String, Integer> toolCallCounts = new HashMap<>();
+
+  // Number of earlier assistant messages the most recent one duplicates
+  private int lastDuplicateCount;
+
+  /**
+   * Record an appended assistant message
+   */
+  public void record(AssistantMessage message) {
+    int duplicates = 0;
+
+    String content = normalize(message.getText());
+    if (!content.isEmpty()) {
+      duplicates = contentCounts.merge(content, 1, Integer::sum) - 1;
+    }
+
+    String signature = toolCallSignature(message.getToolCalls());
+    if (signature != null) {
+      duplicates = Math.max(duplicates, toolCallCounts.merge(signature, 1, Integer::sum) - 1);
+    }
+
+    this.lastDuplicateCount = duplicates;
+  }
+
+  /**
+   * Whether the most recent assistant message repeats at least {@code threshold} earlier ones
+   */
+  public boolean isStuck(int threshold) {
+    return lastDuplicateCount >= threshold;
+  }
+
+  public int getLastDuplicateCount() {
+    return lastDuplicateCount;
+  }
+
+  public void reset() {
+    contentCounts.clear();
+    toolCallCounts.clear();
+    lastDuplicateCount = 0;
+  }
+
+  private static String normalize(String text) {
+    if (!StringUtils.hasText(text)) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder(text.length());
+    boolean pendingSpace = false;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (Character.isWhitespace(c)) {
+        pendingSpace = sb.length() > 0;
+        continue;
+      }
+      if (pendingSpace) {
+        sb.append(' ');
+        pendingSpace = false;
+      }
+      sb.append(c);
+    }
+    return sb.toString().toLowerCase(Locale.ROOT);
+  }
+
+  private static String toolCallSignature(List<ToolCall> toolCalls) {
+    if (toolCalls == null || toolCalls.isEmpty()) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder();
+    for (ToolCall toolCall : toolCalls) {
+      sb.append(toolCall.name()).append('(')
+        .append(StringUtils.trimAllWhitespace(toolCall.arguments()))
+        .append(");");
+    }
+    return sb.toString();
+  }
+}
@@ -1,17 +1,29 @@
 package com.github.spud.sample.ai.agent.domain.agent;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.github.spud.sample.ai.agent.domain.state.AgentState;
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.domain.model.LlmDispatchAdvisor;
+import com.github.spud.sample.ai.agent.domain.model.LlmHedger;
+import com.github.spud.sample.ai.agent.domain.model.LlmOverloadedException;
+import com.github.spud.sample.ai.agent.domain.model.LlmPriority;
+import com.github.spud.sample.ai.agent.domain.model.ModelRoute;
+import com.github.spud.sample.ai.agent.domain.model.ModelRoutingPolicy;
+import com.github.spud.sample.ai.agent.domain.model.PromptCacheHints;
+import com.github.spud.sample.ai.agent.domain.state.AgentEvent;
+import com.github.spud.sample.ai.agent.domain.state.CompletionPolicy;
 import com.github.spud.sample.ai.agent.domain.state.ToolChoice;
+import com.github.spud.sample.ai.agent.domain.trace.AgentTraceContext;
 import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
 import org.springframework.ai.chat.messages.Message;
@@ -19,10 +31,14 @@ import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.ToolResponseMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
 import org.springframework.ai.tool.ToolCallback;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 @Slf4j
 @Getter
@@ -44,9 +60,54 @@ public class ToolCallAgent extends ReActAgent {
   @Builder.Default
   private ToolChoice toolChoice = ToolChoice.AUTO;
 
+  // How a reply without tool calls ends the run (ToolChoice.NONE always accepts the text,
+  // ToolChoice.REQUIRED always waits for terminate)
+  @Builder.Default
+  private CompletionPolicy completionPolicy = CompletionPolicy.TEXT_ANSWER;
+
   @Builder.Default
   public List<ToolCall> pendingToolCalls = new ArrayList<>();
 
+  // Set when the last response lacked required tool calls; the correction prompt is sent once
+  // with the next THINK call and never stored in history
+  private boolean correctionPending;
+
+  // Correction prompts issued in the current run
+  private int corrections;
+
+  // Provider-side prompt cache hints (optional)
+  protected PromptCacheHints promptCacheHints;
+
+  // Model route for THINK calls (null: use chatClient with its defaults)
+  protected ModelRoute primaryRoute;
+
+  // Optional cheaper model for intermediate steps, used by ModelRoutingPolicy.CHEAP_STEPS
+  protected ModelRoute cheapRoute;
+
+  @Builder.Default
+  protected ModelRoutingPolicy routingPolicy = ModelRoutingPolicy.PRIMARY_ONLY;
+
+  // Hedging / fallback across models (null or inactive: call the route directly)
+  protected LlmHedger hedger;
+
+  // Scheduling priority of this agent's LLM calls in the central dispatcher
+  @Builder.Default
+  private LlmPriority llmPriority = LlmPriority.INTERACTIVE;
+
+  // Stream THINK and start side-effect-free tool calls as soon as their arguments are complete
+  @Builder.Default
+  private boolean speculativeToolExecution = false;
+
+  // Tools that are safe to execute speculatively (e.g. ToolRegistry::isSideEffectFree)
+  @Builder.Default
+  private Predicate<String> sideEffectFreeTools = name -> false;
+
+  // Scheduler for blocking tool executions started off the agent's own thread
+  @Builder.Default
+  private Scheduler toolScheduler = Schedulers.boundedElastic();
+
+  private SpeculativeToolPrefetcher prefetcher;
+
   // Available tool callbacks for this agent (can be local + MCP)
   // Subclasses like McpAgent can provide combined callbacks
   @Builder.Default
@@ -55,33 +116,47 @@ public class ToolCallAgent extends ReActAgent {
   @Override
   public Mono<Boolean> think() {
     return Mono.fromCallable(() -> {
-        // Add next step prompt if provided
-        if (StringUtils.hasText(this.nextStepPrompt)) {
-          this.messages.add(new UserMessage(this.nextStepPrompt));
-        }
-
-        // Build prompt messages
+        // Build prompt messages: cacheable prefix (system prompt + history) first, so providers
+        // with prefix caching can reuse it; per-step instructions last, never into history
         List<Message> promptMessages = new ArrayList<>();
-        if (StringUtils.hasText(this.systemPrompt)) {
-          promptMessages.add(new SystemMessage(this.systemPrompt));
+        String system = buildSystemPrompt();
+        if (StringUtils.hasText(system)) {
+          promptMessages.add(new SystemMessage(system));
         }
         if (this.messages != null) {
           promptMessages.addAll(this.messages);
         }
-
-        // Call LLM with Prompt that disables automatic tool execution
-        // Key: use ChatClient.prompt().call() but WITHOUT .toolCallbacks()
-        // This way we get tool_calls in response but Spring AI doesn't execute them
+        promptMessages.addAll(buildStepInstructions());
+
+        // One THINK call per step (see callModel). The tool callbacks are always attached so the
+        // model sees the tool schemas; the returned tool_calls are executed by ACT.
+        // - Blocking path (default, and every hedged attempt): .call().chatResponse() with the
+        //   route's options as configured.
+        // - Streaming path (speculativeToolExecution): .stream() collected by the prefetcher. Only
+        //   this path turns internal tool execution off explicitly, in streamWithPrefetch.
         ChatResponse chatResponse;
         try {
           log.debug("Calling chat client in think() with {} messages", promptMessages.size());
 
-          // Create Prompt with messages only, NO tool options
+          // Messages only; options are supplied per request by callModel
           Prompt prompt = new Prompt(promptMessages);
 
-          // CRITICAL: Use .call().chatResponse() instead of .stream() or .content()
-          // This prevents ChatClient from auto-executing tools
-          chatResponse = this.chatClient.prompt(prompt).toolCallbacks(new ArrayList<>(this.availableCallbacks)).call().chatResponse();
+          List<ToolCallback> callbacks = stableCallbacks();
+          ModelRoute route = selectRoute();
+          chatResponse = callRoute(route, prompt, callbacks);
+          if (route == this.cheapRoute && isFinalSynthesis(chatResponse)) {
+            // The cheap model wants to answer: let the primary model write the final answer
+            log.info("Escalating final synthesis from {} to {}", route.spec(),
+              primaryRoute().spec());
+            if (this.prefetcher != null) {
+              this.prefetcher.clear();
+            }
+            chatResponse = callRoute(primaryRoute(), prompt, callbacks);
+          }
+        } catch (LlmOverloadedException e) {
+          // Shed load: retrying in the next step would only add pressure
+          log.warn("LLM request rejected by dispatcher: {}", e.getMessage());
+          throw new FatalAgentException(e.getMessage(), e);
         } catch (Exception e) {
           log.error("Error calling chat client during think(): {}", e.getMessage(), e);
           throw e;
@@ -98,40 +173,26 @@ public class ToolCallAgent extends ReActAgent {
 
         if (this.toolChoice.equals(ToolChoice.NONE)) {
           if (StringUtils.hasText(content)) {
-            this.messages.add(assistantMessage);
-            return true;
+            appendMessage(assistantMessage);
+            acceptTextAnswer(content);
           }
           return false;
         }
 
         // Append assistant message to history
-        this.messages.add(assistantMessage);
+        appendMessage(assistantMessage);
 
         // Extract tool calls from assistant message
         List<ToolCall> toolCalls = assistantMessage.getToolCalls();
         this.pendingToolCalls = !toolCalls.isEmpty() ? new ArrayList<>(toolCalls) : new ArrayList<>();
+        if (this.runTrace != null) {
+          this.runTrace.recordToolCalls(toolCalls);
+        }
 
         log.debug("content: {}", content);
         log.info("Think phase complete: content length={}, tool_calls={}",
           content.length(), this.pendingToolCalls.size());
 
-        if (this.toolChoice.equals(ToolChoice.REQUIRED) && this.pendingToolCalls.isEmpty()) {
-          log.warn("ToolChoice.REQUIRED but no tool calls in response, injecting correction prompt");
-          this.messages.add(new SystemMessage(NO_TOOL_CALLS_CORRECTION_PROMPT));
-          return false; // Stay in THINK (will retry next step)
-        }
-
-        if (this.toolChoice.equals(ToolChoice.AUTO) && this.pendingToolCalls.isEmpty()) {
-          // Only consider task complete if terminate tool is called
-          boolean hasTerminateToolCall = !toolCalls.isEmpty() && toolCalls.stream().anyMatch(tc -> tc.name().equals("terminate"));
-          if (hasTerminateToolCall) {
-            return true;
-          } else {
-            log.warn("AUTO tool choice but no terminate tool call. Task not complete.");
-            return false;
-          }
-        }
-
         // Decide whether to ACT
         if (!this.pendingToolCalls.isEmpty()) {
           log.debug("Tool calls found: {}",
@@ -141,14 +202,181 @@ public class ToolCallAgent extends ReActAgent {
           return true; // Enter ACT phase
         }
 
-        // No tool calls: inject correction prompt
-        log.warn("No tool calls in response, injecting correction prompt");
-        this.messages.add(new SystemMessage(NO_TOOL_CALLS_CORRECTION_PROMPT));
+        // No tool calls: accept the text or ask for terminate, per the completion policy
+        if (StringUtils.hasText(content) && acceptsTextAnswer()) {
+          acceptTextAnswer(content);
+          return false;
+        }
+        log.warn("No tool calls in response ({} policy), injecting correction prompt",
+          this.completionPolicy);
+        this.correctionPending = true;
+        this.corrections++;
         return false; // Stay in THINK (will retry next step)
       })
       .onErrorStop();
   }
 
+  /**
+   * Whether a text-only reply ends the run. A session that requires tool calls (REQUIRED) always
+   * waits for terminate, whatever the global completion policy says.
+   */
+  private boolean acceptsTextAnswer() {
+    if (this.toolChoice == ToolChoice.REQUIRED) {
+      return false;
+    }
+    return switch (this.completionPolicy) {
+      case TEXT_ANSWER -> true;
+      case CORRECT_ONCE -> this.corrections > 0;
+      case REQUIRE_TERMINATE -> false;
+    };
+  }
+
+  /**
+   * Finish the run with a plain-text reply as the final answer, without a terminate round trip
+   */
+  private void acceptTextAnswer(String content) {
+    this.finalAnswer = content;
+    fire(AgentEvent.THINK_DONE_NO_TOOLS);
+    this.metrics.recordAnswerSteps(agentType(),
+      this.corrections > 0 ? AgentMetrics.COMPLETION_CORRECTED : AgentMetrics.COMPLETION_TEXT,
+      this.currentStep);
+    log.info("Text answer accepted at step {}: finalAnswer={}", this.currentStep,
+      StringUtils.truncate(content, 100));
+  }
+
+  /**
+   * Route for this THINK step according to the routing policy
+   */
+  private ModelRoute selectRoute() {
+    if (this.routingPolicy == ModelRoutingPolicy.CHEAP_STEPS && this.cheapRoute != null) {
+      return this.cheapRoute;
+    }
+    return primaryRoute();
+  }
+
+  private ModelRoute primaryRoute() {
+    return this.primaryRoute != null ? this.primaryRoute : new ModelRoute(null, this.chatClient, null);
+  }
+
+  /**
+   * A response that ends the task (terminate, or no tool call at all)
+   */
+  private static boolean isFinalSynthesis(ChatResponse chatResponse) {
+    if (chatResponse == null || chatResponse.getResult() == null) {
+      return false;
+    }
+    List<ToolCall> toolCalls = chatResponse.getResult().getOutput().getToolCalls();
+    return toolCalls.isEmpty()
+      || toolCalls.stream().anyMatch(tc -> TERMINATE_TOOL_NAME.equals(tc.name()));
+  }
+
+  /**
+   * Issue one THINK call on the given route, hedged / failed over by the hedger when configured.
+   * Hedged attempts may run concurrently, so they use blocking calls without speculative prefetch.
+   */
+  private ChatResponse callRoute(ModelRoute route, Prompt prompt, List<ToolCallback> callbacks) {
+    long start = System.nanoTime();
+    ChatResponse chatResponse;
+    if (this.hedger != null && this.hedger.isActive()) {
+      chatResponse = this.hedger.call(route, r -> callModel(r, prompt, callbacks, false));
+    } else {
+      chatResponse = callModel(route, prompt, callbacks, this.speculativeToolExecution);
+    }
+    long duration = System.nanoTime() - start;
+    this.metrics.recordLlmCall(route.provider(), duration, chatResponse);
+    if (this.runTrace != null) {
+      this.runTrace.recordLlmCall(route.spec() != null ? route.spec().toString() : null,
+        duration, chatResponse,
+        "messages=" + prompt.getInstructions().size() + ", tools=" + callbacks.size());
+    }
+    return chatResponse;
+  }
+
+  private ChatResponse callModel(ModelRoute route, Prompt prompt, List<ToolCallback> callbacks,
+    boolean speculative) {
+    ChatClient.ChatClientRequestSpec request = route.client().prompt(prompt)
+      .toolCallbacks(callbacks)
+      .advisors(a -> a.param(LlmDispatchAdvisor.PRIORITY, this.llmPriority));
+    if (this.conversationId != null) {
+      request = request.advisors(
+        a -> a.param(LlmDispatchAdvisor.CONVERSATION_ID, this.conversationId));
+    }
+    // Request options replace the client's defaults, so always start from the route's options
+    ChatOptions options = this.promptCacheHints != null
+      ? this.promptCacheHints.options(route.provider(), route.options())
+      : route.options();
+
+    ChatResponse chatResponse;
+    if (speculative) {
+      chatResponse = streamWithPrefetch(request, options);
+    } else {
+      if (options != null) {
+        request = request.options(options);
+      }
+      chatResponse = request.call().chatResponse();
+    }
+    if (this.promptCacheHints != null) {
+      this.promptCacheHints.recordUsage(route.provider(), chatResponse);
+    }
+    return chatResponse;
+  }
+
+  /**
+   * Stream the THINK call, prefetching side-effect-free tool calls while the rest of the completion
+   * is still being generated. Tool calls are executed by ACT, so the model's internal tool
+   * execution is turned off for this request.
+   */
+  private ChatResponse streamWithPrefetch(ChatClient.ChatClientRequestSpec request,
+    ChatOptions baseOptions) {
+    ToolCallingChatOptions options = baseOptions instanceof ToolCallingChatOptions toolOptions
+      ? toolOptions.copy() : ToolCallingChatOptions.builder().build();
+    options.setInternalToolExecutionEnabled(false);
+    if (this.prefetcher == null) {
+      this.prefetcher = new SpeculativeToolPrefetcher(this.sideEffectFreeTools, this::executeToolCall,
+        this.toolScheduler);
+    }
+    this.prefetcher.clear();
+    return this.prefetcher.collect(request.options(options).stream().chatResponse());
+  }
+
+  /**
+   * System prompt of the cacheable prefix. Must be deterministic for a given agent configuration;
+   * subclasses may append stable context but never per-step content.
+   */
+  protected String buildSystemPrompt() {
+    return this.systemPrompt;
+  }
+
+  /**
+   * Tool callbacks ordered by name, so the tool schema block is byte-stable across calls regardless
+   * of the order the callbacks were collected in
+   */
+  protected List<ToolCallback> stableCallbacks() {
+    List<ToolCallback> sorted = new ArrayList<>(this.availableCallbacks);
+    sorted.sort(Comparator.comparing(cb -> cb.getToolDefinition().name()));
+    return sorted;
+  }
+
+  /**
+   * Build transient instructions for the next THINK call: a pending correction prompt, then the
+   * current stuck warning and the next step prompt. These are appended to the outgoing
+   * {@link Prompt} only, so they neither accumulate in history nor get persisted.
+   */
+  protected List<Message> buildStepInstructions() {
+    List<Message> instructions = new ArrayList<>(2);
+    if (this.correctionPending) {
+      instructions.add(new SystemMessage(NO_TOOL_CALLS_CORRECTION_PROMPT));
+      this.correctionPending = false;
+    }
+    String stepPrompt = StringUtils.hasText(this.stuckPrompt)
+      ? this.stuckPrompt + (StringUtils.hasText(this.nextStepPrompt) ? "\n" + this.nextStepPrompt : "")
+      : this.nextStepPrompt;
+    if (StringUtils.hasText(stepPrompt)) {
+      instructions.add(new UserMessage(stepPrompt));
+    }
+    return instructions;
+  }
+
   @Override
   protected Mono<String> act() {
     return Mono.fromCallable(() -> {
@@ -166,11 +394,18 @@ public class ToolCallAgent extends ReActAgent {
       // Execute tool calls directly using ToolCallback
       List<String> resultSummaries = new ArrayList<>();
       for (ToolCall toolCall : toolCallsToExecute) {
+        long toolStart = System.nanoTime();
         try {
           log.info("🔧 Executing tool: {} (id: {})", toolCall.name(), toolCall.id());
 
-          // Execute tool and get result
-          String toolResult = executeToolCall(toolCall);
+          // Execute tool and get result, reusing a speculative execution started during THINK
+          String toolResult = this.prefetcher != null ? this.prefetcher.take(toolCall) : null;
+          if (toolResult == null) {
+            toolResult = executeToolCall(toolCall);
+          }
+          if (this.runTrace != null) {
+            this.runTrace.recordToolResult(toolCall, System.nanoTime() - toolStart, toolResult, null);
+          }
 
           // Create and append tool response message (aligned with Python)
           // ToolResponseMessage expects List<ToolResponse>
@@ -178,7 +413,7 @@ public class ToolCallAgent extends ReActAgent {
             new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), toolResult);
           ToolResponseMessage toolResponseMessage = new ToolResponseMessage(
             Collections.singletonList(toolResponse));
-          this.messages.add(toolResponseMessage);
+          appendMessage(toolResponseMessage);
 
           resultSummaries.add(String.format("Tool '%s': %s",
             toolCall.name(),
@@ -192,20 +427,26 @@ public class ToolCallAgent extends ReActAgent {
           }
         } catch (Exception e) {
           log.error("Error executing tool {}: {}", toolCall.name(), e.getMessage(), e);
+          if (this.runTrace != null) {
+            this.runTrace.recordToolResult(toolCall, System.nanoTime() - toolStart, null, e);
+          }
           // Add error as tool response
           ToolResponseMessage.ToolResponse errorResponse =
             new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(),
               "Error: " + e.getMessage());
           ToolResponseMessage errorMessage = new ToolResponseMessage(
             Collections.singletonList(errorResponse));
-          this.messages.add(errorMessage);
+          appendMessage(errorMessage);
           resultSummaries.add(String.format("Tool '%s': Error - %s",
             toolCall.name(), e.getMessage()));
         }
       }
 
-      // Clear pending tool calls
+      // Clear pending tool calls and any prefetched result that was not consumed
       this.pendingToolCalls.clear();
+      if (this.prefetcher != null) {
+        this.prefetcher.clear();
+      }
 
       return String.join("\n", resultSummaries);
     });
@@ -253,34 +494,42 @@ public class ToolCallAgent extends ReActAgent {
       throw new FatalAgentException(msg);
     }
 
-    // Execute using callback
-    return callback.call(toolCall.arguments());
+    // Execute using callback, exposing the run's trace to tools that record into it (e.g. RAG)
+    ToolCallback target = callback;
+    return this.metrics.observeTool(target.getToolDefinition().name(), this.conversationId,
+      () -> AgentTraceContext.call(this.runTrace, () -> target.call(toolCall.arguments())));
   }
 
   /**
    * Handle terminate tool: parse answer and set finalAnswer
    */
   private void handleTerminate(String arguments) {
+    String answer;
     try {
-      JsonNode jsonNode = JsonUtils.readTree(arguments);
-      String answer = jsonNode.has("answer")
-        ? jsonNode.get("answer").asText()
-        : "Task completed";
-
-      this.finalAnswer = answer;
-      this.state = AgentState.FINISHED;
-
-      log.info("Terminate handled: finalAnswer={}", StringUtils.truncate(answer, 100));
+      answer = JsonUtils.readField(arguments, "answer");
+      if (answer == null) {
+        answer = "Task completed";
+      }
     } catch (Exception e) {
       log.error("Error parsing terminate arguments: {}", e.getMessage(), e);
-      this.finalAnswer = "Task completed (error parsing terminate arguments)";
-      this.state = AgentState.FINISHED;
+      answer = "Task completed (error parsing terminate arguments)";
     }
+
+    this.finalAnswer = answer;
+    fire(AgentEvent.TOOL_TERMINATE);
+    this.metrics.recordAnswerSteps(agentType(), AgentMetrics.COMPLETION_TERMINATE,
+      this.currentStep);
+    log.info("Terminate handled: finalAnswer={}", StringUtils.truncate(answer, 100));
   }
 
   @Override
   protected void cleanup() {
     log.info("🧹 Cleaning up resources for agent {}...", this.name);
-    // TODO: implement any necessary cleanup logic here
+    this.correctionPending = false;
+    this.corrections = 0;
+    this.pendingToolCalls.clear();
+    if (this.prefetcher != null) {
+      this.prefetcher.clear();
+    }
   }
 }
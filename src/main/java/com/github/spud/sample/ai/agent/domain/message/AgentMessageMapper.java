@@ -1,13 +1,20 @@
 package com.github.spud.sample.ai.agent.domain.message;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.springframework.ai.chat.messages.AbstractMessage;
 import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.MessageType;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.ToolResponseMessage;
 import org.springframework.ai.chat.messages.UserMessage;
@@ -15,10 +22,21 @@ import org.springframework.stereotype.Component;
 
 /**
  * Mapper for converting between domain messages, persistence entities, and Spring AI messages
+ * <p>
+ * The agent run path maps directly: history rows to Spring AI messages ({@link #fromRow}) and
+ * appended Spring AI messages to entities ({@link #toEntity(AbstractMessage, ReActAgentSession)}).
+ * {@link AgentMessage} is only used where the domain model is exposed.
  */
 @Component
 public class AgentMessageMapper {
 
+  private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+  };
+
+  private static final TypeReference<List<Map<String, Object>>> TOOL_CALLS_TYPE =
+    new TypeReference<>() {
+    };
+
   /**
    * Convert domain message to persistence entity
    */
@@ -71,6 +89,45 @@ public class AgentMessageMapper {
     for (AgentMessage domain : domains) {
       messages.add(toSpringMessage(domain));
     }
+    return pairToolCalls(messages);
+  }
+
+  /**
+   * Pair tool calls with tool responses within a history window
+   * <p>
+   * A history window may start after the assistant message that issued a call, and a run that
+   * stopped early (terminate, error) may leave calls without responses. Providers reject either,
+   * so unmatched tool calls are dropped from assistant messages and unmatched tool responses are
+   * dropped entirely.
+   *
+   * @return a new mutable list (the agent appends to it)
+   */
+  public List<AbstractMessage> pairToolCalls(List<AbstractMessage> history) {
+    Set<String> answered = new HashSet<>();
+    for (AbstractMessage message : history) {
+      if (message instanceof ToolResponseMessage toolMsg) {
+        for (ToolResponseMessage.ToolResponse response : toolMsg.getResponses()) {
+          answered.add(response.id());
+        }
+      }
+    }
+
+    List<AbstractMessage> messages = new ArrayList<>(history.size());
+    Set<String> issued = new HashSet<>();
+    for (AbstractMessage message : history) {
+      if (message instanceof AssistantMessage assistantMsg && assistantMsg.hasToolCalls()) {
+        message = retainAnsweredToolCalls(assistantMsg, answered);
+        for (AssistantMessage.ToolCall toolCall : ((AssistantMessage) message).getToolCalls()) {
+          issued.add(toolCall.id());
+        }
+      } else if (message instanceof ToolResponseMessage toolMsg) {
+        message = retainIssuedResponses(toolMsg, issued);
+        if (message == null) {
+          continue;
+        }
+      }
+      messages.add(message);
+    }
     return messages;
   }
 
@@ -78,40 +135,90 @@ public class AgentMessageMapper {
    * Convert single domain message to Spring AI message
    */
   public AbstractMessage toSpringMessage(AgentMessage domain) {
-    Map<String, Object> metadata = domain.getMetadata() != null ? domain.getMetadata() : new HashMap<>();
-    
-    switch (domain.getMessageType()) {
+    return toSpringMessage(domain.getMessageType(), domain.getContent(), domain.getMetadata(),
+      domain.getToolCallId(), domain.getToolName(), domain.getToolCalls());
+  }
+
+  /**
+   * Build a Spring AI message straight from a react_agent_message row (history read path)
+   * <p>
+   * Skips the entity and {@link AgentMessage} copies; JSON columns are only parsed for message
+   * types that use them. Expects the columns message_type, content, tool_call_id, tool_name,
+   * metadata and tool_calls.
+   */
+  public AbstractMessage fromRow(ResultSet rs, int rowNum) throws SQLException {
+    MessageType type = MessageType.valueOf(rs.getString("message_type"));
+    String content = rs.getString("content");
+    if (type != MessageType.ASSISTANT && type != MessageType.TOOL) {
+      return toSpringMessage(type, content, null, null, null, null);
+    }
+    return toSpringMessage(type, content, parseJson(rs.getString("metadata"), METADATA_TYPE),
+      rs.getString("tool_call_id"), rs.getString("tool_name"),
+      parseJson(rs.getString("tool_calls"), TOOL_CALLS_TYPE));
+  }
+
+  private static AbstractMessage toSpringMessage(MessageType messageType, String content,
+    Map<String, Object> storedMetadata, String toolCallId, String toolName,
+    List<Map<String, Object>> storedToolCalls) {
+    Map<String, Object> metadata = storedMetadata != null ? storedMetadata : new HashMap<>();
+
+    switch (messageType) {
       case USER:
-        return new UserMessage(domain.getContent());
-      
+        return new UserMessage(content);
+
       case ASSISTANT:
-        // For assistant messages with tool calls, we need to reconstruct them
-        // For now, create simple assistant message
-        return new AssistantMessage(domain.getContent(), metadata);
-      
+        return new AssistantMessage(content, metadata, toToolCalls(storedToolCalls));
+
       case SYSTEM:
-        return new SystemMessage(domain.getContent());
-      
+        return new SystemMessage(content);
+
       case TOOL:
-        // Tool response messages need special handling
-        if (domain.getToolCallId() != null && domain.getToolName() != null) {
-          ToolResponseMessage.ToolResponse toolResponse = 
-            new ToolResponseMessage.ToolResponse(
-              domain.getToolCallId(), 
-              domain.getToolName(), 
-              domain.getContent()
-            );
-          return new ToolResponseMessage(List.of(toolResponse));
+        // Multi-response messages keep every response in tool_calls
+        if (storedToolCalls != null && !storedToolCalls.isEmpty()) {
+          return new ToolResponseMessage(toToolResponses(storedToolCalls), metadata);
+        }
+        if (toolCallId != null && toolName != null) {
+          ToolResponseMessage.ToolResponse toolResponse =
+            new ToolResponseMessage.ToolResponse(toolCallId, toolName, content);
+          return new ToolResponseMessage(List.of(toolResponse), metadata);
         }
         // Fallback to system message if tool metadata incomplete
-        return new SystemMessage(domain.getContent());
-      
+        return new SystemMessage(content);
+
       default:
         // Default to system message for unknown types
-        return new SystemMessage(domain.getContent());
+        return new SystemMessage(content);
     }
   }
 
+  /**
+   * Convert a Spring AI message straight to a persistence entity (append path)
+   * <p>
+   * Same columns as {@code toEntity(fromSpringMessage(message), session)}, without the
+   * intermediate {@link AgentMessage} and its copies; the entity shares the message's metadata map.
+   */
+  public ReActAgentMessage toEntity(AbstractMessage springMessage, ReActAgentSession session) {
+    ReActAgentMessage entity = new ReActAgentMessage();
+    entity.setConversation(session);
+    entity.setMessageType(springMessage.getMessageType());
+    entity.setContent(springMessage.getText() != null ? springMessage.getText() : "");
+    entity.setMetadata(springMessage.getMetadata());
+
+    if (springMessage instanceof AssistantMessage assistantMsg) {
+      entity.setToolCalls(fromToolCalls(assistantMsg.getToolCalls()));
+    } else if (springMessage instanceof ToolResponseMessage toolMsg) {
+      List<ToolResponseMessage.ToolResponse> responses = toolMsg.getResponses();
+      if (!responses.isEmpty()) {
+        ToolResponseMessage.ToolResponse response = responses.get(0);
+        entity.setToolCallId(response.id());
+        entity.setToolName(response.name());
+        entity.setContent(response.responseData() != null ? response.responseData() : "");
+      }
+      entity.setToolCalls(fromToolResponses(responses));
+    }
+    return entity;
+  }
+
   /**
    * Convert Spring AI message to domain (for storing new messages from agent)
    */
@@ -124,28 +231,119 @@ public class AgentMessageMapper {
     // Extract tool-related fields if present
     if (springMessage instanceof AssistantMessage assistantMsg) {
       // Capture tool calls from AssistantMessage
-      List<AssistantMessage.ToolCall> toolCalls = assistantMsg.getToolCalls();
-      if (toolCalls != null && !toolCalls.isEmpty()) {
-        List<Map<String, Object>> toolCallsList = new ArrayList<>();
-        for (AssistantMessage.ToolCall tc : toolCalls) {
-          Map<String, Object> tcMap = new HashMap<>();
-          tcMap.put("id", tc.id());
-          tcMap.put("name", tc.name());
-          tcMap.put("arguments", tc.arguments());
-          toolCallsList.add(tcMap);
-        }
-        builder.toolCalls(toolCallsList);
-      }
+      builder.toolCalls(fromToolCalls(assistantMsg.getToolCalls()));
     } else if (springMessage instanceof ToolResponseMessage toolMsg) {
-      // Extract tool response details
-      if (!toolMsg.getResponses().isEmpty()) {
-        ToolResponseMessage.ToolResponse response = toolMsg.getResponses().get(0);
+      // The first response goes to the tool columns; all of them are kept in tool_calls when
+      // there is more than one
+      List<ToolResponseMessage.ToolResponse> responses = toolMsg.getResponses();
+      if (!responses.isEmpty()) {
+        ToolResponseMessage.ToolResponse response = responses.get(0);
         builder.toolCallId(response.id())
           .toolName(response.name())
           .content(response.responseData());
       }
+      builder.toolCalls(fromToolResponses(responses));
     }
 
     return builder.build();
   }
+
+  private static List<Map<String, Object>> fromToolCalls(List<AssistantMessage.ToolCall> toolCalls) {
+    if (toolCalls == null || toolCalls.isEmpty()) {
+      return null;
+    }
+    List<Map<String, Object>> toolCallsList = new ArrayList<>(toolCalls.size());
+    for (AssistantMessage.ToolCall tc : toolCalls) {
+      Map<String, Object> tcMap = new HashMap<>();
+      tcMap.put("id", tc.id());
+      tcMap.put("type", tc.type());
+      tcMap.put("name", tc.name());
+      tcMap.put("arguments", tc.arguments());
+      toolCallsList.add(tcMap);
+    }
+    return toolCallsList;
+  }
+
+  /**
+   * Only multi-response messages need tool_calls; a single response fits the tool columns
+   */
+  private static List<Map<String, Object>> fromToolResponses(
+    List<ToolResponseMessage.ToolResponse> responses) {
+    if (responses.size() < 2) {
+      return null;
+    }
+    List<Map<String, Object>> responsesList = new ArrayList<>(responses.size());
+    for (ToolResponseMessage.ToolResponse r : responses) {
+      Map<String, Object> rMap = new HashMap<>();
+      rMap.put("id", r.id());
+      rMap.put("name", r.name());
+      rMap.put("responseData", r.responseData());
+      responsesList.add(rMap);
+    }
+    return responsesList;
+  }
+
+  private static List<AssistantMessage.ToolCall> toToolCalls(List<Map<String, Object>> stored) {
+    if (stored == null || stored.isEmpty()) {
+      return List.of();
+    }
+    List<AssistantMessage.ToolCall> toolCalls = new ArrayList<>(stored.size());
+    for (Map<String, Object> tc : stored) {
+      String type = asString(tc.get("type"));
+      toolCalls.add(new AssistantMessage.ToolCall(asString(tc.get("id")),
+        type != null ? type : "function", asString(tc.get("name")), asString(tc.get("arguments"))));
+    }
+    return toolCalls;
+  }
+
+  private static List<ToolResponseMessage.ToolResponse> toToolResponses(
+    List<Map<String, Object>> stored) {
+    List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(stored.size());
+    for (Map<String, Object> r : stored) {
+      responses.add(new ToolResponseMessage.ToolResponse(asString(r.get("id")),
+        asString(r.get("name")), asString(r.get("responseData"))));
+    }
+    return responses;
+  }
+
+  private static AssistantMessage retainAnsweredToolCalls(AssistantMessage message,
+    Set<String> answered) {
+    List<AssistantMessage.ToolCall> toolCalls = message.getToolCalls();
+    List<AssistantMessage.ToolCall> kept = new ArrayList<>(toolCalls.size());
+    for (AssistantMessage.ToolCall toolCall : toolCalls) {
+      if (answered.contains(toolCall.id())) {
+        kept.add(toolCall);
+      }
+    }
+    if (kept.size() == toolCalls.size()) {
+      return message;
+    }
+    return new AssistantMessage(message.getText(), message.getMetadata(), kept);
+  }
+
+  private static ToolResponseMessage retainIssuedResponses(ToolResponseMessage message,
+    Set<String> issued) {
+    List<ToolResponseMessage.ToolResponse> responses = message.getResponses();
+    List<ToolResponseMessage.ToolResponse> kept = new ArrayList<>(responses.size());
+    for (ToolResponseMessage.ToolResponse response : responses) {
+      if (issued.contains(response.id())) {
+        kept.add(response);
+      }
+    }
+    if (kept.isEmpty()) {
+      return null;
+    }
+    if (kept.size() == responses.size()) {
+      return message;
+    }
+    return new ToolResponseMessage(kept, message.getMetadata());
+  }
+
+  private static <T> T parseJson(String json, TypeReference<T> type) {
+    return json != null ? JsonUtils.fromJson(json, type) : null;
+  }
+
+  private static String asString(Object value) {
+    return value != null ? value.toString() : null;
+  }
 }
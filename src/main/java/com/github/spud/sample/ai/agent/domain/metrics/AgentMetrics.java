@@ -0,0 +1,305 @@
+package com.github.spud.sample.ai.agent.domain.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * ReAct 流水线指标与观测
+ * <p>
+ * 指标标签只使用有界取值（agent 类型、阶段、provider、工具名、结果）；工具名超过上限后归入 {@code other}。
+ * conversationId 只作为 Observation 的高基数键出现在 span 上，不进入指标标签。
+ * <ul>
+ *   <li>agent.run（Observation / Timer）：一次运行的耗时，agent.type / outcome</li>
+ *   <li>agent.run.steps：每次运行执行的步数</li>
+ *   <li>agent.answer.steps：得到最终回答所用的步数，按完成方式（terminate / text / corrected）</li>
+ *   <li>agent.phase：THINK / ACT 阶段耗时</li>
+ *   <li>agent.llm.call / agent.llm.tokens：LLM 调用耗时与 token 用量（按 provider）</li>
+ *   <li>agent.tool（Observation / Timer）：工具调用耗时，按工具名</li>
+ *   <li>agent.session.load：会话加载结果（ok / stale_retry / conflict / not_found）</li>
+ *   <li>agent.history.messages / agent.run.appended.messages：历史与追加消息数</li>
+ *   <li>agent.cache.requests：embedding / 检索缓存命中</li>
+ *   <li>agent.journal.flush.failures / agent.journal.dead.letters：写后日志刷写失败次数（retry /
+ *   dead_letter）与移入死信文件的消息数</li>
+ * </ul>
+ */
+@Component
+public class AgentMetrics {
+
+  /**
+   * 不记录任何数据（未注入指标的 Agent 与测试使用）
+   */
+  public static final AgentMetrics NOOP = new AgentMetrics(new CompositeMeterRegistry(),
+    ObservationRegistry.NOOP, 0);
+
+  public static final String PHASE_THINK = "think";
+  public static final String PHASE_ACT = "act";
+
+  public static final String COMPLETION_TERMINATE = "terminate";
+  public static final String COMPLETION_TEXT = "text";
+  public static final String COMPLETION_CORRECTED = "corrected";
+
+  private static final String OTHER = "other";
+  private static final String UNKNOWN = "unknown";
+
+  private final MeterRegistry meterRegistry;
+  private final ObservationRegistry observationRegistry;
+  private final int maxToolTags;
+  private final Set<String> toolTags = ConcurrentHashMap.newKeySet();
+
+  @Autowired
+  public AgentMetrics(ObjectProvider<MeterRegistry> meterRegistry,
+    ObjectProvider<ObservationRegistry> observationRegistry,
+    @Value("${app.metrics.max-tool-tags:100}") int maxToolTags) {
+    this(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+      observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP), maxToolTags);
+  }
+
+  public AgentMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry,
+    int maxToolTags) {
+    this.meterRegistry = meterRegistry;
+    this.observationRegistry = observationRegistry;
+    this.maxToolTags = maxToolTags;
+  }
+
+  public ObservationRegistry getObservationRegistry() {
+    return observationRegistry;
+  }
+
+  /**
+   * 开始一次 Agent 运行的观测
+   */
+  public RunScope startRun(String agentType, String conversationId) {
+    Observation observation = Observation.createNotStarted("agent.run", observationRegistry)
+      .contextualName("agent run")
+      .lowCardinalityKeyValue("agent.type", agentType)
+      .highCardinalityKeyValue("conversation.id", orUnknown(conversationId))
+      .start();
+    return new RunScope(agentType, observation);
+  }
+
+  /**
+   * 为 THINK / ACT 阶段计时
+   */
+  public <T> Mono<T> timePhase(String phase, String agentType, Mono<T> phaseMono) {
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return phaseMono.doFinally(signal -> Timer.builder("agent.phase")
+        .description("THINK / ACT phase latency")
+        .tag("phase", phase)
+        .tag("agent.type", agentType)
+        .tag("outcome", signal == SignalType.ON_ERROR ? "error" : "success")
+        .register(meterRegistry)
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    });
+  }
+
+  /**
+   * 一次 LLM 调用（含对冲 / 回退）的耗时与 token 用量
+   */
+  public void recordLlmCall(String provider, long durationNanos, ChatResponse response) {
+    String providerTag = provider != null ? provider : "default";
+    Timer.builder("agent.llm.call")
+      .description("LLM call latency as seen by the agent")
+      .tag("provider", providerTag)
+      .register(meterRegistry)
+      .record(durationNanos, TimeUnit.NANOSECONDS);
+    if (response == null || response.getMetadata() == null) {
+      return;
+    }
+    Usage usage = response.getMetadata().getUsage();
+    if (usage == null) {
+      return;
+    }
+    recordTokens(providerTag, "prompt", usage.getPromptTokens());
+    recordTokens(providerTag, "completion", usage.getCompletionTokens());
+  }
+
+  /**
+   * 得到最终回答时的步数：completion = terminate（terminate 工具）/ text（直接文本回答）/
+   * corrected（纠正提示之后的文本回答）
+   */
+  public void recordAnswerSteps(String agentType, String completion, int steps) {
+    DistributionSummary.builder("agent.answer.steps")
+      .description("Steps taken to reach the final answer")
+      .tag("agent.type", agentType)
+      .tag("completion", completion)
+      .register(meterRegistry)
+      .record(steps);
+  }
+
+  /**
+   * 观测一次工具调用
+   */
+  public <T> T observeTool(String toolName, String conversationId, Supplier<T> call) {
+    return Observation.createNotStarted("agent.tool", observationRegistry)
+      .contextualName("tool " + toolTag(toolName))
+      .lowCardinalityKeyValue("tool", toolTag(toolName))
+      .highCardinalityKeyValue("conversation.id", orUnknown(conversationId))
+      .observe(call);
+  }
+
+  public void recordMcpToolRefresh(long durationNanos, int mcpTools, boolean success) {
+    Timer.builder("agent.mcp.tools.refresh")
+      .description("MCP tool catalogue refresh latency")
+      .tag("outcome", success ? "success" : "error")
+      .register(meterRegistry)
+      .record(durationNanos, TimeUnit.NANOSECONDS);
+    if (success) {
+      DistributionSummary.builder("agent.mcp.tools")
+        .description("MCP tools available to an agent after a refresh")
+        .register(meterRegistry)
+        .record(mcpTools);
+    }
+  }
+
+  /**
+   * 会话加载结果：ok / stale_retry / conflict / not_found
+   */
+  public void recordSessionLoad(String outcome) {
+    Counter.builder("agent.session.load")
+      .description("Session loads for sendMessage by outcome")
+      .tag("outcome", outcome)
+      .register(meterRegistry)
+      .increment();
+  }
+
+  public void recordHistorySize(int messages) {
+    DistributionSummary.builder("agent.history.messages")
+      .description("History messages loaded for a run")
+      .register(meterRegistry)
+      .record(messages);
+  }
+
+  public void recordAppendedMessages(int messages) {
+    DistributionSummary.builder("agent.run.appended.messages")
+      .description("Messages appended by a run")
+      .register(meterRegistry)
+      .record(messages);
+  }
+
+  /**
+   * 写后日志一次刷写失败；deadLettered 表示该批已达重试上限并移入死信文件
+   */
+  public void recordJournalFlushFailure(boolean deadLettered, int messages) {
+    Counter.builder("agent.journal.flush.failures")
+      .description("Failed write-behind journal flushes")
+      .tag("result", deadLettered ? "dead_letter" : "retry")
+      .register(meterRegistry)
+      .increment();
+    if (deadLettered) {
+      Counter.builder("agent.journal.dead.letters")
+        .description("Journaled messages moved to the dead-letter file")
+        .register(meterRegistry)
+        .increment(messages);
+    }
+  }
+
+  /**
+   * 缓存命中：cache = embedding / retrieval
+   */
+  public void recordCache(String cache, boolean hit) {
+    Counter.builder("agent.cache.requests")
+      .description("Cache lookups by result")
+      .tag("cache", cache)
+      .tag("result", hit ? "hit" : "miss")
+      .register(meterRegistry)
+      .increment();
+  }
+
+  public void recordRetrieval(boolean cached, long durationNanos, int documents) {
+    Timer.builder("agent.rag.retrieve")
+      .description("RAG retrieval latency")
+      .tag("cached", String.valueOf(cached))
+      .register(meterRegistry)
+      .record(durationNanos, TimeUnit.NANOSECONDS);
+    DistributionSummary.builder("agent.rag.documents")
+      .description("Documents returned by a retrieval")
+      .register(meterRegistry)
+      .record(documents);
+  }
+
+  private void recordTokens(String provider, String type, Integer tokens) {
+    if (tokens == null || tokens <= 0) {
+      return;
+    }
+    DistributionSummary.builder("agent.llm.tokens")
+      .description("Tokens per LLM call")
+      .baseUnit("tokens")
+      .tag("provider", provider)
+      .tag("type", type)
+      .register(meterRegistry)
+      .record(tokens);
+  }
+
+  /**
+   * 工具名标签，超过上限后新出现的工具归入 other，避免 MCP 工具撑爆指标基数
+   */
+  private String toolTag(String toolName) {
+    if (toolName == null || toolName.isEmpty()) {
+      return UNKNOWN;
+    }
+    if (toolTags.contains(toolName)) {
+      return toolName;
+    }
+    if (toolTags.size() < maxToolTags) {
+      toolTags.add(toolName);
+      return toolName;
+    }
+    return OTHER;
+  }
+
+  private static String orUnknown(String value) {
+    return value != null ? value : UNKNOWN;
+  }
+
+  /**
+   * 一次运行的观测，结束时记录结果与步数
+   */
+  public class RunScope {
+
+    private final String agentType;
+    private final Observation observation;
+
+    RunScope(String agentType, Observation observation) {
+      this.agentType = agentType;
+      this.observation = observation;
+    }
+
+    public void error(Throwable error) {
+      observation.error(error);
+    }
+
+    /**
+     * @param outcome answered / max_steps / error / cancelled
+     * @param steps   执行的步数
+     */
+    public void stop(String outcome, int steps) {
+      observation.lowCardinalityKeyValue("outcome", outcome);
+      observation.stop();
+      DistributionSummary.builder("agent.run.steps")
+        .description("Steps executed per agent run")
+        .tag("agent.type", agentType)
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .record(steps);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.ollama.api.OllamaOptions;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * ChatClient 注册中心
+ * <p>
+ * 按 {@link ModelSpec}（provider + 模型 + 采样参数）缓存预构建的 ChatClient，避免每次请求重新构建；
+ * 所有 ChatClient 都挂载 {@link LlmDispatchAdvisor}，统一经过全局调度；启用响应缓存时再挂载
+ * {@link LlmResponseCacheAdvisor}。
+ */
+@Slf4j
+@Component
+public class ChatClientRegistry {
+
+  private final ChatModel openAiChatModel;
+  private final ChatModel ollamaChatModel;
+  private final LlmDispatcher llmDispatcher;
+  private final LlmResponseCache llmResponseCache;
+  private final Map<ModelSpec, ModelRoute> routes = new ConcurrentHashMap<>();
+
+  public ChatClientRegistry(
+    @Qualifier("openAiChatModel") ChatModel openAiChatModel,
+    @Qualifier("ollamaChatModel") ChatModel ollamaChatModel,
+    LlmDispatcher llmDispatcher,
+    LlmResponseCache llmResponseCache) {
+    this.openAiChatModel = openAiChatModel;
+    this.ollamaChatModel = ollamaChatModel;
+    this.llmDispatcher = llmDispatcher;
+    this.llmResponseCache = llmResponseCache;
+  }
+
+  /**
+   * 获取（或构建并缓存）指定模型的路由
+   */
+  public ModelRoute route(ModelSpec spec) {
+    return routes.computeIfAbsent(spec, this::build);
+  }
+
+  public ChatClient client(ModelSpec spec) {
+    return route(spec).client();
+  }
+
+  public int size() {
+    return routes.size();
+  }
+
+  private ModelRoute build(ModelSpec spec) {
+    ChatModel chatModel = spec.isOllama() ? ollamaChatModel : openAiChatModel;
+    ChatOptions options = baseOptions(spec);
+
+    ChatClient.Builder builder = ChatClient.builder(chatModel)
+      .defaultAdvisors(new LlmDispatchAdvisor(llmDispatcher, spec.provider()));
+    if (llmResponseCache.isEnabled()) {
+      builder.defaultAdvisors(new LlmResponseCacheAdvisor(llmResponseCache, spec.provider()));
+    }
+    if (options != null) {
+      builder.defaultOptions(options);
+    }
+    log.info("Built ChatClient for model {}", spec);
+    return new ModelRoute(spec, builder.build(), options);
+  }
+
+  private static ChatOptions baseOptions(ModelSpec spec) {
+    if (spec.model() == null && spec.temperature() == null) {
+      return null;
+    }
+    if (spec.isOllama()) {
+      return OllamaOptions.builder().model(spec.model()).temperature(spec.temperature()).build();
+    }
+    return OpenAiChatOptions.builder().model(spec.model()).temperature(spec.temperature()).build();
+  }
+}
@@ -0,0 +1,90 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+
+/**
+ * 将 ChatClient 调用接入 {@link LlmDispatcher}，在发往模型前获取调度许可
+ * <p>
+ * 会话与优先级通过 advisor 参数传入：
+ * <pre>
+ * chatClient.prompt(prompt)
+ *   .advisors(a -> a.param(LlmDispatchAdvisor.CONVERSATION_ID, conversationId)
+ *     .param(LlmDispatchAdvisor.PRIORITY, LlmPriority.INTERACTIVE))
+ * </pre>
+ */
+public class LlmDispatchAdvisor implements CallAdvisor, StreamAdvisor {
+
+  public static final String CONVERSATION_ID = "llm_dispatch_conversation_id";
+  public static final String PRIORITY = "llm_dispatch_priority";
+
+  // Innermost of the user advisors: cached / short-circuited responses never take a permit
+  private static final int ORDER = Ordered.LOWEST_PRECEDENCE - 1000;
+
+  private final LlmDispatcher dispatcher;
+  private final String provider;
+
+  public LlmDispatchAdvisor(LlmDispatcher dispatcher, String provider) {
+    this.dispatcher = dispatcher;
+    this.provider = provider;
+  }
+
+  @Override
+  public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+    try (LlmDispatcher.Permit permit = acquire(request)) {
+      ChatClientResponse response = chain.nextCall(request);
+      permit.complete(totalTokens(response.chatResponse()));
+      return response;
+    }
+  }
+
+  @Override
+  public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+    return Flux.using(
+      () -> acquire(request),
+      permit -> chain.nextStream(request)
+        .doOnNext(response -> {
+          int tokens = totalTokens(response.chatResponse());
+          if (tokens >= 0) {
+            permit.complete(tokens);
+          }
+        }),
+      LlmDispatcher.Permit::close);
+  }
+
+  private LlmDispatcher.Permit acquire(ChatClientRequest request) {
+    Object conversationId = request.context().get(CONVERSATION_ID);
+    Object priority = request.context().get(PRIORITY);
+    return dispatcher.acquire(provider,
+      conversationId != null ? conversationId.toString() : null,
+      priority instanceof LlmPriority p ? p : LlmPriority.INTERACTIVE,
+      dispatcher.estimateTokens(request.prompt()));
+  }
+
+  private static int totalTokens(ChatResponse chatResponse) {
+    if (chatResponse == null || chatResponse.getMetadata() == null) {
+      return -1;
+    }
+    Usage usage = chatResponse.getMetadata().getUsage();
+    return usage != null && usage.getTotalTokens() != null && usage.getTotalTokens() > 0
+      ? usage.getTotalTokens() : -1;
+  }
+
+  @Override
+  public String getName() {
+    return "LlmDispatchAdvisor";
+  }
+
+  @Override
+  public int getOrder() {
+    return ORDER;
+  }
+}
@@ -0,0 +1,72 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * LLM 调度层配置
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.model.dispatch")
+public class LlmDispatchProperties {
+
+  /**
+   * 是否启用调度（关闭时请求直接发往 provider）
+   */
+  private boolean enabled = true;
+
+  /**
+   * 每个 provider 最多排队的请求数，超过后立即拒绝
+   */
+  private int maxQueueSize = 200;
+
+  /**
+   * 最长排队等待时间（毫秒），超时后拒绝
+   */
+  private long maxWaitMs = 30000;
+
+  /**
+   * 估算 TPM 时为补全预留的 token 数（调用结束后按实际 usage 修正）
+   */
+  private int completionTokenReserve = 512;
+
+  /**
+   * 未单独配置的 provider 使用的限制
+   */
+  private Limits defaults = new Limits();
+
+  /**
+   * provider -> 限制
+   */
+  private Map<String, Limits> providers = new HashMap<>();
+
+  public Limits limitsFor(String provider) {
+    return providers.getOrDefault(provider.toLowerCase(), defaults);
+  }
+
+  @Getter
+  @Setter
+  public static class Limits {
+
+    /**
+     * 每分钟请求数，0 表示不限制
+     */
+    private int rpm = 0;
+
+    /**
+     * 每分钟 token 数，0 表示不限制
+     */
+    private int tpm = 0;
+
+    /**
+     * 最大并发请求数
+     */
+    private int maxConcurrent = 16;
+  }
+}
@@ -0,0 +1,333 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.prompt.Prompt;
+
+/**
+ * 全局 LLM 请求调度器
+ * <p>
+ * 每个 provider 一条调度通道（lane），在请求发往 provider 之前统一进行准入控制：
+ * <ul>
+ *   <li>RPM / TPM 令牌桶：按分钟配额连续补充，TPM 先按估算值扣减，调用结束后按实际 usage 修正</li>
+ *   <li>并发上限：同时在途的请求数</li>
+ *   <li>优先级：INTERACTIVE 严格优先于 BATCH</li>
+ *   <li>公平性：同一优先级内按会话轮转，单个会话的长任务不会饿死其他会话</li>
+ *   <li>提前卸载：排队已满或等待超时立即抛出 {@link LlmOverloadedException}，不把压力传给 provider（避免 429 + 重试放大）</li>
+ * </ul>
+ */
+@Slf4j
+public class LlmDispatcher {
+
+  private final LlmDispatchProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+  public LlmDispatcher(LlmDispatchProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * 获取调用许可，阻塞直到被调度或被拒绝
+   *
+   * @param provider        provider 名称（openai / ollama）
+   * @param conversationId  会话 ID，用于公平轮转；为空时归入匿名队列
+   * @param priority        优先级
+   * @param estimatedTokens 估算的 token 消耗（prompt + 补全预留）
+   * @throws LlmOverloadedException 排队已满或等待超时
+   */
+  public Permit acquire(String provider, String conversationId, LlmPriority priority,
+    int estimatedTokens) {
+    if (!properties.isEnabled()) {
+      return Permit.NOOP;
+    }
+    return lane(provider).acquire(
+      conversationId != null ? conversationId : "",
+      priority != null ? priority : LlmPriority.INTERACTIVE,
+      Math.max(1, estimatedTokens));
+  }
+
+  /**
+   * 估算请求 token 数：按 ~4 字符 / token 粗略估算 prompt，加上补全预留
+   */
+  public int estimateTokens(Prompt prompt) {
+    long chars = 0;
+    for (Message message : prompt.getInstructions()) {
+      if (message.getText() != null) {
+        chars += message.getText().length();
+      }
+    }
+    return (int) Math.min(Integer.MAX_VALUE, chars / 4 + properties.getCompletionTokenReserve());
+  }
+
+  private Lane lane(String provider) {
+    return lanes.computeIfAbsent(provider.toLowerCase(), Lane::new);
+  }
+
+  /**
+   * 调用许可，调用结束后必须关闭
+   */
+  public static class Permit implements AutoCloseable {
+
+    static final Permit NOOP = new Permit(null, 0);
+
+    private final Lane lane;
+    private final int estimatedTokens;
+    private int actualTokens = -1;
+    private boolean closed;
+
+    private Permit(Lane lane, int estimatedTokens) {
+      this.lane = lane;
+      this.estimatedTokens = estimatedTokens;
+    }
+
+    /**
+     * 记录实际消耗的 token 数，用于修正 TPM 令牌桶
+     */
+    public void complete(int actualTokens) {
+      this.actualTokens = actualTokens;
+    }
+
+    @Override
+    public void close() {
+      if (lane == null || closed) {
+        return;
+      }
+      closed = true;
+      lane.release(estimatedTokens, actualTokens);
+    }
+  }
+
+  /**
+   * 单个 provider 的调度通道
+   */
+  private final class Lane {
+
+    private final String provider;
+    private final LlmDispatchProperties.Limits limits;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+
+    // priority ordinal -> conversationId -> 等待中的请求；LinkedHashMap 顺序即轮转顺序
+    private final List<LinkedHashMap<String, ArrayDeque<Ticket>>> queues = new ArrayList<>();
+
+    private int inFlight;
+    private int queued;
+
+    private final Counter rejected;
+
+    Lane(String provider) {
+      this.provider = provider;
+      this.limits = properties.limitsFor(provider);
+      this.requestBucket = new TokenBucket(limits.getRpm());
+      this.tokenBucket = new TokenBucket(limits.getTpm());
+      for (int i = 0; i < LlmPriority.values().length; i++) {
+        queues.add(new LinkedHashMap<>());
+      }
+      this.rejected = Counter.builder("agent.llm.dispatch.rejected")
+        .description("LLM requests rejected by the dispatcher")
+        .tag("provider", provider)
+        .register(meterRegistry);
+      Gauge.builder("agent.llm.dispatch.queued", this, lane -> lane.queued)
+        .description("LLM requests waiting in the dispatcher")
+        .tag("provider", provider)
+        .register(meterRegistry);
+      Gauge.builder("agent.llm.dispatch.in.flight", this, lane -> lane.inFlight)
+        .description("LLM requests admitted and not yet finished")
+        .tag("provider", provider)
+        .register(meterRegistry);
+      log.info("LLM dispatch lane: provider={}, rpm={}, tpm={}, maxConcurrent={}",
+        provider, limits.getRpm(), limits.getTpm(), limits.getMaxConcurrent());
+    }
+
+    Permit acquire(String conversationId, LlmPriority priority, int estimatedTokens) {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getMaxWaitMs());
+      lock.lock();
+      try {
+        if (queued >= properties.getMaxQueueSize()) {
+          rejected.increment();
+          throw new LlmOverloadedException(provider,
+            "queue full (" + queued + " requests waiting)");
+        }
+        Ticket ticket = new Ticket(conversationId, estimatedTokens);
+        queues.get(priority.ordinal())
+          .computeIfAbsent(conversationId, k -> new ArrayDeque<>())
+          .addLast(ticket);
+        queued++;
+
+        boolean admitted = false;
+        try {
+          while (true) {
+            long waitNanos = Long.MAX_VALUE;
+            if (head() == ticket) {
+              waitNanos = tryAdmit(ticket);
+              if (waitNanos == 0) {
+                admitted = true;
+                return new Permit(this, estimatedTokens);
+              }
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+              rejected.increment();
+              throw new LlmOverloadedException(provider,
+                "no capacity within " + properties.getMaxWaitMs() + "ms");
+            }
+            changed.awaitNanos(Math.min(waitNanos, remaining));
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new LlmOverloadedException(provider, "interrupted while waiting", e);
+        } finally {
+          queued--;
+          if (!admitted) {
+            remove(priority, ticket);
+          }
+          changed.signalAll();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void release(int estimatedTokens, int actualTokens) {
+      lock.lock();
+      try {
+        inFlight--;
+        if (actualTokens >= 0) {
+          // Refund over-estimates, charge under-estimates
+          tokenBucket.adjust(estimatedTokens - actualTokens);
+        }
+        changed.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * 尝试放行队首请求
+     *
+     * @return 0 表示已放行；否则为建议的等待时间（纳秒）
+     */
+    private long tryAdmit(Ticket ticket) {
+      if (inFlight >= limits.getMaxConcurrent()) {
+        return Long.MAX_VALUE; // woken by release()
+      }
+      long wait = Math.max(requestBucket.nanosUntil(1), tokenBucket.nanosUntil(ticket.tokens()));
+      if (wait > 0) {
+        return wait;
+      }
+      requestBucket.take(1);
+      tokenBucket.take(ticket.tokens());
+      inFlight++;
+      dequeueHead();
+      return 0;
+    }
+
+    /**
+     * 下一个应被调度的请求：最高优先级中，轮转顺序第一个会话的最早请求
+     */
+    private Ticket head() {
+      for (LinkedHashMap<String, ArrayDeque<Ticket>> level : queues) {
+        if (!level.isEmpty()) {
+          return level.values().iterator().next().peekFirst();
+        }
+      }
+      return null;
+    }
+
+    private void dequeueHead() {
+      for (LinkedHashMap<String, ArrayDeque<Ticket>> level : queues) {
+        if (level.isEmpty()) {
+          continue;
+        }
+        Iterator<Map.Entry<String, ArrayDeque<Ticket>>> it = level.entrySet().iterator();
+        Map.Entry<String, ArrayDeque<Ticket>> first = it.next();
+        ArrayDeque<Ticket> tickets = first.getValue();
+        tickets.pollFirst();
+        it.remove();
+        if (!tickets.isEmpty()) {
+          // Served conversation goes to the back of the rotation
+          level.put(first.getKey(), tickets);
+        }
+        return;
+      }
+    }
+
+    private void remove(LlmPriority priority, Ticket ticket) {
+      LinkedHashMap<String, ArrayDeque<Ticket>> level = queues.get(priority.ordinal());
+      ArrayDeque<Ticket> tickets = level.get(ticket.conversationId());
+      if (tickets != null) {
+        tickets.remove(ticket);
+        if (tickets.isEmpty()) {
+          level.remove(ticket.conversationId());
+        }
+      }
+    }
+  }
+
+  private record Ticket(String conversationId, int tokens) {
+
+  }
+
+  /**
+   * 按分钟配额连续补充的令牌桶（容量 = 每分钟配额），配额为 0 表示不限制。仅在 Lane 锁内访问。
+   */
+  private static final class TokenBucket {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final long perMinute;
+    private double available;
+    private long lastRefill;
+
+    TokenBucket(long perMinute) {
+      this.perMinute = perMinute;
+      this.available = perMinute;
+      this.lastRefill = System.nanoTime();
+    }
+
+    long nanosUntil(long amount) {
+      if (perMinute <= 0) {
+        return 0;
+      }
+      refill();
+      // A request larger than the whole bucket is admitted once the bucket is full
+      double needed = Math.min(amount, perMinute) - available;
+      return needed <= 0 ? 0 : Math.max(1, (long) Math.ceil(needed * MINUTE_NANOS / perMinute));
+    }
+
+    void take(long amount) {
+      if (perMinute > 0) {
+        available -= amount;
+      }
+    }
+
+    void adjust(long delta) {
+      if (perMinute > 0) {
+        available = Math.min(perMinute, available + delta);
+      }
+    }
+
+    private void refill() {
+      long now = System.nanoTime();
+      available = Math.min(perMinute, available + (double) (now - lastRefill) * perMinute / MINUTE_NANOS);
+      lastRefill = now;
+    }
+  }
+}
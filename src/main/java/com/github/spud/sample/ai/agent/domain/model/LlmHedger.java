@@ -0,0 +1,184 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * LLM 对冲请求与故障回退
+ * <p>
+ * 对冲：主模型调用在「近期延迟 p95」内未返回（或已失败）时，向备用模型发出相同请求，先成功者胜出，
+ * 落后的调用被取消（不再等待其结果）。延迟阈值按路由统计，样本不足时使用固定初始值。
+ * <p>
+ * 回退：主模型（及对冲）全部失败后，按配置顺序依次尝试回退模型，第一个成功的结果返回。
+ */
+@Slf4j
+public class LlmHedger {
+
+  private final LlmHedgingProperties properties;
+  private final ChatClientRegistry registry;
+  private final Scheduler scheduler;
+  private final MeterRegistry meterRegistry;
+  private final Map<ModelSpec, LatencyWindow> latencies = new ConcurrentHashMap<>();
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+  public LlmHedger(LlmHedgingProperties properties, ChatClientRegistry registry, Scheduler scheduler,
+    MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.registry = registry;
+    this.scheduler = scheduler;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * 是否需要经过对冲 / 回退（两者都未配置时调用方直接调用模型）
+   */
+  public boolean isActive() {
+    return properties.isEnabled() || !properties.getFallbacks().isEmpty();
+  }
+
+  /**
+   * 在主路由上执行调用，按配置对冲与回退
+   *
+   * @param primary 主路由
+   * @param call    在给定路由上执行一次阻塞调用；对冲时可能在两个线程上并发执行，必须线程安全
+   */
+  public ChatResponse call(ModelRoute primary, Function<ModelRoute, ChatResponse> call) {
+    ModelRoute secondary = properties.isEnabled() ? route(properties.getSecondary(), primary) : null;
+    List<ModelRoute> fallbacks = new ArrayList<>();
+    for (String fallback : properties.getFallbacks()) {
+      ModelRoute route = route(fallback, primary);
+      if (route != null && route != secondary) {
+        fallbacks.add(route);
+      }
+    }
+
+    Mono<ChatResponse> result = secondary != null
+      ? hedged(primary, secondary, call)
+      : timed(primary, call);
+    for (ModelRoute fallback : fallbacks) {
+      result = result.onErrorResume(e -> {
+        log.warn("LLM call failed ({}), falling back to {}", e.getMessage(), fallback.spec());
+        counter("fallback", fallback.provider()).increment();
+        return timed(fallback, call);
+      });
+    }
+    try {
+      return result.block();
+    } catch (RuntimeException e) {
+      throw (RuntimeException) Exceptions.unwrap(e);
+    }
+  }
+
+  /**
+   * 当前主路由的对冲延迟
+   */
+  public Duration hedgeDelay(ModelRoute primary) {
+    LatencyWindow window = latencies.get(primary.spec());
+    long nanos = window != null
+      ? window.percentile(properties.getPercentile(), properties.getMinSamples()) : -1;
+    if (nanos < 0) {
+      return properties.getInitialDelay();
+    }
+    Duration delay = Duration.ofNanos(nanos);
+    if (delay.compareTo(properties.getMinDelay()) < 0) {
+      return properties.getMinDelay();
+    }
+    return delay.compareTo(properties.getMaxDelay()) > 0 ? properties.getMaxDelay() : delay;
+  }
+
+  private Mono<ChatResponse> hedged(ModelRoute primary, ModelRoute secondary,
+    Function<ModelRoute, ChatResponse> call) {
+    Duration delay = hedgeDelay(primary);
+    Sinks.One<Throwable> primaryError = Sinks.one();
+    Mono<ChatResponse> first = timed(primary, call)
+      .doOnError(primaryError::tryEmitValue);
+    // Fire the hedge after the delay, or right away once the primary has failed
+    Mono<ChatResponse> hedge = Mono.firstWithSignal(Mono.delay(delay).then(),
+        primaryError.asMono().then())
+      .then(Mono.defer(() -> {
+        log.info("Hedging LLM call to {} after {}ms", secondary.spec(), delay.toMillis());
+        counter("hedge", secondary.provider()).increment();
+        return timed(secondary, call)
+          .doOnSuccess(r -> counter("hedge_win", secondary.provider()).increment());
+      }));
+    // Both failed: surface the primary's error rather than Reactor's NoSuchElementException
+    return Mono.firstWithValue(first, hedge)
+      .onErrorResume(NoSuchElementException.class,
+        e -> primaryError.asMono().flatMap(Mono::<ChatResponse>error)
+          .switchIfEmpty(Mono.error(e)));
+  }
+
+  private Mono<ChatResponse> timed(ModelRoute route, Function<ModelRoute, ChatResponse> call) {
+    return Mono.fromCallable(() -> {
+      long start = System.nanoTime();
+      ChatResponse response = call.apply(route);
+      latencies.computeIfAbsent(route.spec(), spec -> new LatencyWindow(properties.getWindow()))
+        .record(System.nanoTime() - start);
+      return response;
+    }).subscribeOn(scheduler);
+  }
+
+  private ModelRoute route(String model, ModelRoute primary) {
+    ModelSpec spec = ModelSpec.parse(model, ModelSpec.OLLAMA);
+    if (primary.spec() != null) {
+      spec = spec.withTemperature(primary.spec().temperature());
+    }
+    return spec.equals(primary.spec()) ? null : registry.route(spec);
+  }
+
+  private Counter counter(String outcome, String provider) {
+    return counters.computeIfAbsent(outcome + ":" + provider, key ->
+      Counter.builder("agent.llm.hedging")
+        .description("LLM calls hedged or failed over to another model")
+        .tag("outcome", outcome)
+        .tag("provider", provider)
+        .register(meterRegistry));
+  }
+
+  /**
+   * 最近 N 次成功调用的延迟（环形缓冲）
+   */
+  private static final class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    LatencyWindow(int size) {
+      this.samples = new long[Math.max(1, size)];
+    }
+
+    synchronized void record(long nanos) {
+      samples[next] = nanos;
+      next = (next + 1) % samples.length;
+      count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * @return 分位数（纳秒），样本不足时返回 -1
+     */
+    synchronized long percentile(double percentile, int minSamples) {
+      if (count < Math.max(1, minSamples)) {
+        return -1;
+      }
+      long[] sorted = Arrays.copyOf(samples, count);
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile * count) - 1;
+      return sorted[Math.min(count - 1, Math.max(0, index))];
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * LLM 对冲请求与故障回退配置
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.model.hedging")
+public class LlmHedgingProperties {
+
+  /**
+   * 是否启用对冲：主模型在延迟阈值内未返回时，向备用模型发出相同请求，先完成者胜出
+   */
+  private boolean enabled = false;
+
+  /**
+   * 对冲目标模型（provider[:model]）
+   */
+  private String secondary = ModelSpec.OLLAMA;
+
+  /**
+   * 对冲延迟取主模型近期成功调用延迟的该分位数
+   */
+  private double percentile = 0.95;
+
+  /**
+   * 计算分位数所用的最近样本数
+   */
+  private int window = 200;
+
+  /**
+   * 样本数不足时使用固定延迟
+   */
+  private int minSamples = 20;
+
+  private Duration initialDelay = Duration.ofSeconds(10);
+
+  private Duration minDelay = Duration.ofMillis(500);
+
+  private Duration maxDelay = Duration.ofSeconds(30);
+
+  /**
+   * 出错时依次尝试的回退模型（provider[:model]），与对冲是否启用无关
+   */
+  private List<String> fallbacks = new ArrayList<>();
+}
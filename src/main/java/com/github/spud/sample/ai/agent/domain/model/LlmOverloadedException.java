@@ -0,0 +1,22 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import lombok.Getter;
+
+/**
+ * LLM 调度层拒绝请求（排队已满或等待超时），在发往 provider 之前提前卸载负载
+ */
+@Getter
+public class LlmOverloadedException extends RuntimeException {
+
+  private final String provider;
+
+  public LlmOverloadedException(String provider, String reason) {
+    super("LLM provider '" + provider + "' overloaded: " + reason);
+    this.provider = provider;
+  }
+
+  public LlmOverloadedException(String provider, String reason, Throwable cause) {
+    super("LLM provider '" + provider + "' overloaded: " + reason, cause);
+    this.provider = provider;
+  }
+}
@@ -0,0 +1,16 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+/**
+ * LLM 请求优先级（按声明顺序，越靠前越优先）
+ */
+public enum LlmPriority {
+  /**
+   * 交互式请求（用户在线等待）
+   */
+  INTERACTIVE,
+
+  /**
+   * 批处理 / 后台请求
+   */
+  BATCH
+}
@@ -0,0 +1,229 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.DigestUtils;
+
+/**
+ * LLM 响应缓存
+ * <p>
+ * 用于回放、CI、评测等重复发送字节相同 prompt 的场景：以 prompt 消息、工具定义、模型参数的规范化哈希为键，
+ * 将模型响应（文本 + 工具调用）存入 Redis。只有确定性的请求（temperature 显式为 0）才会被缓存。
+ */
+@Slf4j
+public class LlmResponseCache {
+
+  /**
+   * 命中缓存的响应在 ChatResponseMetadata 中带有该键（值为 true）
+   */
+  public static final String CACHE_HIT_METADATA = "llm_response_cache_hit";
+
+  private static final String KEY_PREFIX = "llm:response:";
+
+  private final StringRedisTemplate redisTemplate;
+  private final boolean enabled;
+  private final Duration ttl;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+  public LlmResponseCache(StringRedisTemplate redisTemplate, boolean enabled, Duration ttl,
+    MeterRegistry meterRegistry) {
+    this.redisTemplate = redisTemplate;
+    this.enabled = enabled;
+    this.ttl = ttl;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * 请求是否可缓存：已启用且采样确定（temperature 显式 ≤ 0）
+   */
+  public boolean isCacheable(Prompt prompt) {
+    if (!enabled) {
+      return false;
+    }
+    ChatOptions options = prompt.getOptions();
+    return options != null && options.getTemperature() != null && options.getTemperature() <= 0;
+  }
+
+  /**
+   * 规范化哈希：provider + 模型参数 + 工具定义 + 消息序列
+   * <p>
+   * 工具调用 ID 由 provider 随机生成、不影响模型输出，因此不参与哈希。
+   */
+  public String key(String provider, Prompt prompt) {
+    Map<String, Object> canonical = new LinkedHashMap<>();
+    canonical.put("provider", provider);
+    canonical.put("options", canonicalOptions(prompt.getOptions()));
+    canonical.put("tools", canonicalTools(prompt.getOptions()));
+    canonical.put("messages", prompt.getInstructions().stream()
+      .map(LlmResponseCache::canonicalMessage)
+      .toList());
+    String hash = DigestUtils.md5DigestAsHex(
+      JsonUtils.toJson(canonical).getBytes(StandardCharsets.UTF_8));
+    return KEY_PREFIX + provider + ":" + hash;
+  }
+
+  public Optional<ChatResponse> get(String provider, String key) {
+    try {
+      String cached = redisTemplate.opsForValue().get(key);
+      if (cached != null) {
+        counters(provider)[0].increment();
+        log.debug("LLM response cache hit: {}", key);
+        return Optional.of(JsonUtils.fromJson(cached, CachedResponse.class).toChatResponse());
+      }
+    } catch (Exception e) {
+      log.warn("Failed to read LLM response cache: {}", e.getMessage());
+    }
+    counters(provider)[1].increment();
+    return Optional.empty();
+  }
+
+  public void put(String key, ChatResponse chatResponse) {
+    CachedResponse cached = CachedResponse.of(chatResponse);
+    if (cached == null) {
+      return;
+    }
+    try {
+      redisTemplate.opsForValue().set(key, JsonUtils.toJson(cached), ttl);
+      log.debug("Cached LLM response: {}", key);
+    } catch (Exception e) {
+      log.warn("Failed to write LLM response cache: {}", e.getMessage());
+    }
+  }
+
+  private Counter[] counters(String provider) {
+    return counters.computeIfAbsent(provider, p -> new Counter[]{
+      Counter.builder("agent.llm.response.cache")
+        .description("LLM response cache lookups")
+        .tag("provider", p)
+        .tag("result", "hit")
+        .register(meterRegistry),
+      Counter.builder("agent.llm.response.cache")
+        .description("LLM response cache lookups")
+        .tag("provider", p)
+        .tag("result", "miss")
+        .register(meterRegistry)
+    });
+  }
+
+  private static Map<String, Object> canonicalOptions(ChatOptions options) {
+    Map<String, Object> canonical = new LinkedHashMap<>();
+    if (options == null) {
+      return canonical;
+    }
+    canonical.put("model", options.getModel());
+    canonical.put("temperature", options.getTemperature());
+    canonical.put("topP", options.getTopP());
+    canonical.put("topK", options.getTopK());
+    canonical.put("maxTokens", options.getMaxTokens());
+    canonical.put("stop", options.getStopSequences());
+    canonical.put("frequencyPenalty", options.getFrequencyPenalty());
+    canonical.put("presencePenalty", options.getPresencePenalty());
+    return canonical;
+  }
+
+  private static List<Object> canonicalTools(ChatOptions options) {
+    List<Object> tools = new ArrayList<>();
+    if (options instanceof ToolCallingChatOptions toolOptions) {
+      for (ToolCallback callback : toolOptions.getToolCallbacks()) {
+        ToolDefinition definition = callback.getToolDefinition();
+        tools.add(Arrays.asList(definition.name(), definition.description(),
+          definition.inputSchema()));
+      }
+      tools.addAll(toolOptions.getToolNames().stream().sorted().toList());
+    }
+    return tools;
+  }
+
+  private static Map<String, Object> canonicalMessage(Message message) {
+    Map<String, Object> canonical = new LinkedHashMap<>();
+    canonical.put("type", message.getMessageType().name());
+    canonical.put("text", message.getText());
+    if (message instanceof AssistantMessage assistant && assistant.hasToolCalls()) {
+      canonical.put("toolCalls", assistant.getToolCalls().stream()
+        .map(tc -> Arrays.asList(tc.name(), String.valueOf(tc.arguments())))
+        .toList());
+    }
+    if (message instanceof ToolResponseMessage toolResponse) {
+      canonical.put("toolResponses", toolResponse.getResponses().stream()
+        .map(r -> Arrays.asList(r.name(), String.valueOf(r.responseData())))
+        .toList());
+    }
+    return canonical;
+  }
+
+  /**
+   * 缓存的响应结构
+   */
+  public record CachedResponse(
+    String text,
+    List<CachedToolCall> toolCalls,
+    String finishReason,
+    String model
+  ) {
+
+    static CachedResponse of(ChatResponse chatResponse) {
+      if (chatResponse == null || chatResponse.getResult() == null
+        || chatResponse.getResult().getOutput() == null) {
+        return null;
+      }
+      AssistantMessage output = chatResponse.getResult().getOutput();
+      ChatGenerationMetadata generation = chatResponse.getResult().getMetadata();
+      return new CachedResponse(
+        output.getText(),
+        output.getToolCalls().stream()
+          .map(tc -> new CachedToolCall(tc.id(), tc.type(), tc.name(), tc.arguments()))
+          .toList(),
+        generation != null ? generation.getFinishReason() : null,
+        chatResponse.getMetadata() != null ? chatResponse.getMetadata().getModel() : null);
+    }
+
+    ChatResponse toChatResponse() {
+      AssistantMessage message = new AssistantMessage(text != null ? text : "", Map.of(),
+        toolCalls != null
+          ? toolCalls.stream()
+          .map(tc -> new AssistantMessage.ToolCall(tc.id(), tc.type(), tc.name(), tc.arguments()))
+          .toList()
+          : List.of());
+      Generation generation = new Generation(message,
+        ChatGenerationMetadata.builder().finishReason(finishReason).build());
+      ChatResponseMetadata metadata = ChatResponseMetadata.builder()
+        .model(model != null ? model : "")
+        .keyValue(CACHE_HIT_METADATA, true)
+        .build();
+      return new ChatResponse(List.of(generation), metadata);
+    }
+  }
+
+  public record CachedToolCall(String id, String type, String name, String arguments) {
+
+  }
+}
@@ -0,0 +1,141 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+
+/**
+ * 将 ChatClient 调用接入 {@link LlmResponseCache}
+ * <p>
+ * 位于 {@link LlmDispatchAdvisor} 之外：命中缓存的请求既不访问模型，也不占用调度许可。
+ * 单次请求可通过 advisor 参数关闭缓存：
+ * <pre>
+ * chatClient.prompt(prompt)
+ *   .advisors(a -> a.param(LlmResponseCacheAdvisor.CACHEABLE, false))
+ * </pre>
+ */
+public class LlmResponseCacheAdvisor implements CallAdvisor, StreamAdvisor {
+
+  public static final String CACHEABLE = "llm_response_cacheable";
+
+  private static final int ORDER = Ordered.LOWEST_PRECEDENCE - 2000;
+
+  private final LlmResponseCache cache;
+  private final String provider;
+
+  public LlmResponseCacheAdvisor(LlmResponseCache cache, String provider) {
+    this.cache = cache;
+    this.provider = provider;
+  }
+
+  @Override
+  public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+    if (!isCacheable(request)) {
+      return chain.nextCall(request);
+    }
+    String key = cache.key(provider, request.prompt());
+    Optional<ChatResponse> cached = cache.get(provider, key);
+    if (cached.isPresent()) {
+      return new ChatClientResponse(cached.get(), request.context());
+    }
+    ChatClientResponse response = chain.nextCall(request);
+    cache.put(key, response.chatResponse());
+    return response;
+  }
+
+  @Override
+  public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+    if (!isCacheable(request)) {
+      return chain.nextStream(request);
+    }
+    String key = cache.key(provider, request.prompt());
+    Optional<ChatResponse> cached = cache.get(provider, key);
+    if (cached.isPresent()) {
+      return Flux.just(new ChatClientResponse(cached.get(), request.context()));
+    }
+    List<ChatResponse> chunks = new ArrayList<>();
+    return chain.nextStream(request)
+      .doOnNext(response -> {
+        if (response.chatResponse() != null) {
+          chunks.add(response.chatResponse());
+        }
+      })
+      .doOnComplete(() -> cache.put(key, aggregate(chunks)));
+  }
+
+  private boolean isCacheable(ChatClientRequest request) {
+    return !Boolean.FALSE.equals(request.context().get(CACHEABLE))
+      && cache.isCacheable(request.prompt());
+  }
+
+  /**
+   * 将流式分片合并为一个完整响应：文本拼接，工具调用按 ID 合并（无 ID 的分片追加到当前调用的参数）
+   */
+  static ChatResponse aggregate(List<ChatResponse> chunks) {
+    StringBuilder text = new StringBuilder();
+    Map<String, ToolCall> toolCalls = new LinkedHashMap<>();
+    String currentId = null;
+    String finishReason = null;
+    String model = null;
+    for (ChatResponse chunk : chunks) {
+      if (chunk.getMetadata() != null && StringUtils.hasText(chunk.getMetadata().getModel())) {
+        model = chunk.getMetadata().getModel();
+      }
+      Generation result = chunk.getResult();
+      if (result == null || result.getOutput() == null) {
+        continue;
+      }
+      if (result.getMetadata() != null && result.getMetadata().getFinishReason() != null) {
+        finishReason = result.getMetadata().getFinishReason();
+      }
+      AssistantMessage output = result.getOutput();
+      if (output.getText() != null) {
+        text.append(output.getText());
+      }
+      for (ToolCall delta : output.getToolCalls()) {
+        if (StringUtils.hasText(delta.id())) {
+          currentId = delta.id();
+          toolCalls.put(delta.id(), delta);
+        } else if (currentId != null) {
+          ToolCall current = toolCalls.get(currentId);
+          toolCalls.put(currentId, new ToolCall(current.id(), current.type(), current.name(),
+            Objects.toString(current.arguments(), "") + Objects.toString(delta.arguments(), "")));
+        }
+      }
+    }
+    AssistantMessage message = new AssistantMessage(text.toString(), Map.of(),
+      new ArrayList<>(toolCalls.values()));
+    Generation generation = new Generation(message,
+      ChatGenerationMetadata.builder().finishReason(finishReason).build());
+    return new ChatResponse(List.of(generation),
+      ChatResponseMetadata.builder().model(model != null ? model : "").build());
+  }
+
+  @Override
+  public String getName() {
+    return "LlmResponseCacheAdvisor";
+  }
+
+  @Override
+  public int getOrder() {
+    return ORDER;
+  }
+}
@@ -0,0 +1,21 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.prompt.ChatOptions;
+
+/**
+ * 一条可调用的模型路由：缓存的 ChatClient 及其基础选项
+ * <p>
+ * 请求级选项（如 prompt 缓存提示）会替换 ChatClient 的默认选项，因此调用方需要以 {@link #options()}
+ * 为基础合并，而不是单独传入新选项，否则会丢失模型名等配置。
+ *
+ * @param spec    模型规格，null 表示未经路由的 ChatClient（使用其默认配置）
+ * @param client  缓存的 ChatClient
+ * @param options 基础选项（模型名 / 温度），null 表示使用 provider 默认值
+ */
+public record ModelRoute(ModelSpec spec, ChatClient client, ChatOptions options) {
+
+  public String provider() {
+    return spec != null ? spec.provider() : null;
+  }
+}
@@ -1,16 +1,22 @@
 package com.github.spud.sample.ai.agent.domain.model;
 
+import com.github.spud.sample.ai.agent.application.config.AgentSchedulers;
 import com.github.spud.sample.ai.agent.domain.model.embedding.ArkMultimodalEmbeddingModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 /**
  * 模型路由配置 基于配置选择使用 OpenAI/Ark 或 Ollama
@@ -35,49 +41,77 @@ public class ModelRoutingConfig {
   @Value("${spring.ai.openai.embedding.options.model:text-embedding-3-small}")
   private String embeddingModelName;
 
+  @Value("${app.model.prompt-cache.enabled:true}")
+  private boolean promptCacheEnabled;
+
+  @Value("${app.model.prompt-cache.ollama-keep-alive:30m}")
+  private String ollamaKeepAlive;
+
+  @Value("${app.model.response-cache.enabled:false}")
+  private boolean responseCacheEnabled;
+
+  @Value("${app.model.response-cache.ttl:86400}")
+  private long responseCacheTtl;
+
   /**
-   * 主 ChatClient - 基于配置的 provider 选择
+   * 主 ChatClient - 基于配置的 provider 选择（从注册中心获取，与会话路由共享同一实例）
    */
   @Bean
   @Primary
-  public ChatClient chatClient(
-    @Qualifier("openAiChatModel") ChatModel openAiChatModel,
-    @Qualifier("ollamaChatModel") ChatModel ollamaChatModel) {
-
-    ChatModel selectedModel = selectChatModel(openAiChatModel, ollamaChatModel);
+  public ChatClient chatClient(ChatClientRegistry chatClientRegistry) {
     log.info("Using {} as primary chat model", modelProvider);
+    return chatClientRegistry.client(ModelSpec.parse(modelProvider, ModelSpec.OPENAI));
+  }
 
-    return ChatClient.builder(selectedModel).build();
+  /**
+   * 全局 LLM 调度器（RPM/TPM 限流、优先级、会话公平排队）
+   */
+  @Bean
+  public LlmDispatcher llmDispatcher(LlmDispatchProperties properties,
+    ObjectProvider<MeterRegistry> meterRegistry) {
+    return new LlmDispatcher(properties, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
   }
 
   /**
-   * 根据 provider 选择 ChatModel
+   * Provider 侧 Prompt 缓存提示（openai: 稳定的缓存路由键；ollama: keep_alive）
    */
-  public ChatModel selectChatModel(ChatModel openAiChatModel, ChatModel ollamaChatModel) {
-    if (modelProvider.equalsIgnoreCase("ollama")) {
-      return ollamaChatModel;
-    }
-    return openAiChatModel;
+  @Bean
+  public PromptCacheHints promptCacheHints(ObjectProvider<MeterRegistry> meterRegistry) {
+    log.info("Prompt cache hints: provider={}, enabled={}", modelProvider, promptCacheEnabled);
+    return new PromptCacheHints(ModelSpec.parse(modelProvider, ModelSpec.OPENAI).provider(),
+      promptCacheEnabled, ollamaKeepAlive,
+      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
   }
 
   /**
-   * 动态获取指定 provider 的 ChatClient
+   * LLM 对冲请求与故障回退
    */
-  public ChatClient getChatClient(String provider, ChatModel openAiChatModel,
-    ChatModel ollamaChatModel) {
-    ChatModel model;
-    if (provider.equalsIgnoreCase("ollama")) {
-      model = ollamaChatModel;
-    } else {
-      model = openAiChatModel;
-    }
-    return ChatClient.builder(model).build();
+  @Bean
+  public LlmHedger llmHedger(LlmHedgingProperties properties, ChatClientRegistry chatClientRegistry,
+    AgentSchedulers agentSchedulers, ObjectProvider<MeterRegistry> meterRegistry) {
+    log.info("LLM hedging: enabled={}, secondary={}, fallbacks={}",
+      properties.isEnabled(), properties.getSecondary(), properties.getFallbacks());
+    return new LlmHedger(properties, chatClientRegistry, agentSchedulers.agentRuns(),
+      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  /**
+   * LLM 响应缓存（确定性请求，Redis）
+   */
+  @Bean
+  public LlmResponseCache llmResponseCache(ObjectProvider<StringRedisTemplate> redisTemplate,
+    ObjectProvider<MeterRegistry> meterRegistry) {
+    log.info("LLM response cache: enabled={}, ttl={}s", responseCacheEnabled, responseCacheTtl);
+    return new LlmResponseCache(responseCacheEnabled ? redisTemplate.getObject() : null,
+      responseCacheEnabled, Duration.ofSeconds(responseCacheTtl),
+      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
   }
 
   @Primary
   @Bean("agentEmbeddingModel")
   public EmbeddingModel getEmbeddingModel(
-    @Qualifier("ollamaEmbeddingModel") EmbeddingModel ollamaEmbeddingModel) {
+    @Qualifier("ollamaEmbeddingModel") EmbeddingModel ollamaEmbeddingModel,
+    ObjectProvider<ObservationRegistry> observationRegistry) {
     if (modelProvider.equalsIgnoreCase("ollama")) {
       log.info("Using Ollama embedding model");
       return ollamaEmbeddingModel;
@@ -86,6 +120,6 @@ public class ModelRoutingConfig {
     log.info("Using Ark multimodal embedding model: baseUrl={}, path={}, model={}",
       openaiBaseUrl, embeddingsPath, embeddingModelName);
     return new ArkMultimodalEmbeddingModel(openaiBaseUrl, embeddingsPath, apiKey,
-      embeddingModelName);
+      embeddingModelName, null, observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
   }
 }
@@ -0,0 +1,17 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+/**
+ * Agent 步骤级模型路由策略
+ */
+public enum ModelRoutingPolicy {
+  /**
+   * 所有步骤都使用会话模型
+   */
+  PRIMARY_ONLY,
+
+  /**
+   * 中间步骤（选择工具、阅读工具结果）使用廉价模型；当廉价模型给出最终回答（terminate 或无工具调用）时，
+   * 丢弃该回答并由会话模型重新完成最终综合
+   */
+  CHEAP_STEPS
+}
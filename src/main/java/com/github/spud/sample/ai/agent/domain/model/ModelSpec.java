@@ -0,0 +1,54 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * 模型规格：provider + 模型名 + 采样参数
+ * <p>
+ * 会话 / Agent 配置中的 {@code modelProvider} 字段使用 {@code provider[:model]} 格式，例如
+ * {@code openai}、{@code openai:gpt-4o-mini}、{@code ollama:qwen2.5:7b}（模型名可包含冒号）。
+ * 未指定模型时使用 provider 的默认模型（spring.ai.*.chat.options.model）。
+ *
+ * @param provider    openai | ollama
+ * @param model       模型名，null 表示 provider 默认模型
+ * @param temperature 采样温度，null 表示默认值
+ */
+public record ModelSpec(String provider, String model, Double temperature) {
+
+  public static final String OPENAI = "openai";
+  public static final String OLLAMA = "ollama";
+
+  public ModelSpec {
+    provider = StringUtils.hasText(provider) ? provider.trim().toLowerCase() : OPENAI;
+    model = StringUtils.hasText(model) ? model.trim() : null;
+  }
+
+  /**
+   * 解析 {@code provider[:model]}
+   *
+   * @param value           配置值
+   * @param defaultProvider 配置值为空时使用的 provider
+   */
+  public static ModelSpec parse(String value, String defaultProvider) {
+    if (!StringUtils.hasText(value)) {
+      return new ModelSpec(defaultProvider, null, null);
+    }
+    int separator = value.indexOf(':');
+    return separator < 0
+      ? new ModelSpec(value, null, null)
+      : new ModelSpec(value.substring(0, separator), value.substring(separator + 1), null);
+  }
+
+  public ModelSpec withTemperature(Double temperature) {
+    return new ModelSpec(provider, model, temperature);
+  }
+
+  public boolean isOllama() {
+    return OLLAMA.equals(provider);
+  }
+
+  @Override
+  public String toString() {
+    return model != null ? provider + ":" + model : provider;
+  }
+}
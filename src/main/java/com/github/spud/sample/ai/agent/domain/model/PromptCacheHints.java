@@ -0,0 +1,105 @@
+package com.github.spud.sample.ai.agent.domain.model;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.ollama.api.OllamaOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+
+/**
+ * Provider 侧 Prompt 缓存提示
+ * <p>
+ * Prompt 缓存只对字节稳定的前缀生效（system prompt + 工具 schema + 历史），前缀的稳定性由 ToolCallAgent 保证；
+ * 这里只负责按 provider 附加缓存提示，并把 usage 中的 cached tokens 作为指标暴露：
+ * <ul>
+ *   <li>openai: 前缀 ≥ 1024 tokens 时自动缓存，无需请求参数；{@code user} 是最终用户标识（滥用追踪），
+ *   不能用作缓存键</li>
+ *   <li>ollama: 通过 {@code keep_alive} 保持模型与 KV cache 常驻，复用相同前缀</li>
+ * </ul>
+ */
+@Slf4j
+public class PromptCacheHints {
+
+  private final String defaultProvider;
+  private final boolean enabled;
+  private final String ollamaKeepAlive;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+  public PromptCacheHints(String defaultProvider, boolean enabled, String ollamaKeepAlive,
+    MeterRegistry meterRegistry) {
+    this.defaultProvider = defaultProvider.toLowerCase();
+    this.enabled = enabled;
+    this.ollamaKeepAlive = ollamaKeepAlive;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * 在基础选项上附加 provider 专属的缓存提示
+   *
+   * @param provider 模型 provider，null 表示默认 provider
+   * @param base     路由的基础选项（模型名等），可为 null；不会被修改
+   * @return 合并后的选项；未启用或 provider 无需提示（openai 自动缓存）时原样返回 base
+   */
+  public ChatOptions options(String provider, ChatOptions base) {
+    if (!enabled) {
+      return base;
+    }
+    return switch (provider != null ? provider : defaultProvider) {
+      case ModelSpec.OLLAMA -> {
+        OllamaOptions options = base instanceof OllamaOptions ollama
+          ? ollama.copy() : new OllamaOptions();
+        options.setKeepAlive(ollamaKeepAlive);
+        yield options;
+      }
+      default -> base;
+    };
+  }
+
+  /**
+   * 记录一次调用的 prompt tokens 与缓存命中的 tokens
+   */
+  public void recordUsage(String provider, ChatResponse chatResponse) {
+    if (chatResponse == null || chatResponse.getMetadata() == null) {
+      return;
+    }
+    Usage usage = chatResponse.getMetadata().getUsage();
+    if (usage == null || usage.getPromptTokens() == null) {
+      return;
+    }
+    String tag = provider != null ? provider : defaultProvider;
+    int cached = cachedTokens(usage);
+    Counter[] providerCounters = counters.computeIfAbsent(tag, this::registerCounters);
+    providerCounters[0].increment(usage.getPromptTokens());
+    providerCounters[1].increment(cached);
+    log.debug("Prompt usage: provider={}, promptTokens={}, cachedTokens={}",
+      tag, usage.getPromptTokens(), cached);
+  }
+
+  private Counter[] registerCounters(String provider) {
+    return new Counter[]{
+      Counter.builder("agent.llm.prompt.tokens")
+        .description("Prompt tokens sent to the chat model")
+        .tag("provider", provider)
+        .register(meterRegistry),
+      Counter.builder("agent.llm.prompt.cached.tokens")
+        .description("Prompt tokens served from the provider prompt cache")
+        .tag("provider", provider)
+        .register(meterRegistry)
+    };
+  }
+
+  private int cachedTokens(Usage usage) {
+    if (usage.getNativeUsage() instanceof OpenAiApi.Usage openAiUsage
+      && openAiUsage.promptTokensDetails() != null
+      && openAiUsage.promptTokensDetails().cachedTokens() != null) {
+      return openAiUsage.promptTokensDetails().cachedTokens();
+    }
+    return 0;
+  }
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.spud.sample.ai.agent.domain.model.embedding.MultimodalEmbeddingsRequest.Input;
 import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.annotation.Nonnull;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +28,7 @@ public class ArkMultimodalEmbeddingModel implements EmbeddingModel {
   private final String apiKey;
   private final String modelName;
   private final RestClient restClient;
+  private final ObservationRegistry observationRegistry;
 
   public ArkMultimodalEmbeddingModel(String baseUrl, String embeddingsPath,
     String apiKey, String modelName) {
@@ -34,11 +37,18 @@ public class ArkMultimodalEmbeddingModel implements EmbeddingModel {
 
   public ArkMultimodalEmbeddingModel(String baseUrl, String embeddingsPath,
     String apiKey, String modelName, RestClient restClient) {
+    this(baseUrl, embeddingsPath, apiKey, modelName, restClient, ObservationRegistry.NOOP);
+  }
+
+  public ArkMultimodalEmbeddingModel(String baseUrl, String embeddingsPath,
+    String apiKey, String modelName, RestClient restClient,
+    ObservationRegistry observationRegistry) {
     this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
     this.embeddingsPath = embeddingsPath.startsWith("/") ? embeddingsPath : "/" + embeddingsPath;
     this.apiKey = apiKey;
     this.modelName = modelName;
     this.restClient = restClient != null ? restClient : RestClient.builder().build();
+    this.observationRegistry = observationRegistry;
 
     log.info("ArkMultimodalEmbeddingModel initialized: baseUrl={}, path={}, model={}",
       this.baseUrl, this.embeddingsPath, this.modelName);
@@ -59,6 +69,10 @@ public class ArkMultimodalEmbeddingModel implements EmbeddingModel {
       .model(modelName)
       .input(inputs)
       .build();
+    Observation observation = Observation.createNotStarted("agent.embedding", observationRegistry)
+      .contextualName("ark embedding")
+      .lowCardinalityKeyValue("model", modelName)
+      .start();
     try {
       // 构造请求体
       ObjectNode requestBody = JsonUtils.objectMapper().createObjectNode();
@@ -94,8 +108,11 @@ public class ArkMultimodalEmbeddingModel implements EmbeddingModel {
       return response.toEmbeddingResponse();
 
     } catch (Exception e) {
+      observation.error(e);
       log.error("Ark embedding call failed: {}", e.getMessage(), e);
       throw new RuntimeException("Ark embedding failed: " + e.getMessage(), e);
+    } finally {
+      observation.stop();
     }
   }
 
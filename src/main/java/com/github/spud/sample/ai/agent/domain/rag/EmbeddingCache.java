@@ -1,5 +1,6 @@
 package com.github.spud.sample.ai.agent.domain.rag;
 
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Optional;
@@ -23,6 +24,7 @@ public class EmbeddingCache {
 
   private final StringRedisTemplate redisTemplate;
   private final RagProperties ragProperties;
+  private final AgentMetrics agentMetrics;
 
   /**
    * 获取缓存的 embedding
@@ -33,11 +35,14 @@ public class EmbeddingCache {
       String cached = redisTemplate.opsForValue().get(key);
       if (cached != null) {
         log.debug("Embedding cache hit for key: {}", key);
-        return Optional.of(deserialize(cached));
+        float[] embedding = deserialize(cached);
+        agentMetrics.recordCache("embedding", true);
+        return Optional.of(embedding);
       }
     } catch (Exception e) {
       log.warn("Failed to get embedding from cache: {}", e.getMessage());
     }
+    agentMetrics.recordCache("embedding", false);
     return Optional.empty();
   }
 
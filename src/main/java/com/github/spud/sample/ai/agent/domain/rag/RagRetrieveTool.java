@@ -1,9 +1,14 @@
 package com.github.spud.sample.ai.agent.domain.rag;
 
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.domain.tools.SideEffectFreeToolCallback;
 import com.github.spud.sample.ai.agent.domain.tools.ToolRegistry;
+import com.github.spud.sample.ai.agent.domain.trace.AgentTraceContext;
 import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
 import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
@@ -28,6 +33,7 @@ public class RagRetrieveTool {
   private final ToolRegistry toolRegistry;
   private final RagProperties ragProperties;
   private final RetrievalCache retrievalCache;
+  private final AgentMetrics agentMetrics;
 
   @PostConstruct
   public void register() {
@@ -55,7 +61,7 @@ public class RagRetrieveTool {
         """)
       .build();
 
-    ToolCallback callback = new ToolCallback() {
+    ToolCallback callback = new SideEffectFreeToolCallback() {
       @Override
       public ToolDefinition getToolDefinition() {
         return definition;
@@ -72,15 +78,22 @@ public class RagRetrieveTool {
 
   private String doRetrieve(String toolInput) {
     try {
-      var node = JsonUtils.readTree(toolInput);
-      String query = node.path("query").asText();
-      int topK = node.has("topK") ? node.path("topK").asInt() : ragProperties.getTopK();
+      String[] arguments = JsonUtils.readFields(toolInput, "query", "topK");
+      String query = arguments[0] != null ? arguments[0] : "";
+      int topK = parseTopK(arguments[1]);
 
       log.debug("RAG retrieve: query='{}', topK={}", query, topK);
 
+      long start = System.nanoTime();
       // 检查缓存
       var cached = retrievalCache.get(query, topK, null);
       if (cached.isPresent()) {
+        if (AgentTraceContext.isActive()) {
+          AgentTraceContext.recordRetrieval(cached.get().stream()
+            .map(doc -> traceDocument(doc.id(), doc.score(), doc.metadata(), query, true))
+            .toList());
+        }
+        agentMetrics.recordRetrieval(true, System.nanoTime() - start, cached.get().size());
         return formatCachedResults(cached.get());
       }
 
@@ -92,10 +105,19 @@ public class RagRetrieveTool {
 
       log.debug("RAG search request: {}", request);
       List<Document> results = vectorStore.similaritySearch(request);
+      agentMetrics.recordRetrieval(false, System.nanoTime() - start, results.size());
 
       // 缓存结果
       retrievalCache.put(query, topK, null, results);
 
+      // 记录到 Agent 步骤追踪（仅在被追踪的运行中）
+      if (AgentTraceContext.isActive()) {
+        AgentTraceContext.recordRetrieval(results.stream()
+          .map(doc -> traceDocument(doc.getId(), doc.getScore() != null ? doc.getScore() : 0.0,
+            doc.getMetadata(), query, false))
+          .toList());
+      }
+
       // 格式化返回
       return formatResults(results);
 
@@ -105,6 +127,33 @@ public class RagRetrieveTool {
     }
   }
 
+  /**
+   * topK 参数可能是数字或数字字符串；缺失或无法解析时使用默认值
+   */
+  private int parseTopK(String topK) {
+    if (topK != null) {
+      try {
+        return Integer.parseInt(topK.trim());
+      } catch (NumberFormatException e) {
+        log.debug("Invalid topK '{}', using default", topK);
+      }
+    }
+    return ragProperties.getTopK();
+  }
+
+  private static Map<String, Object> traceDocument(String id, double score,
+    Map<String, Object> metadata, String query, boolean cached) {
+    Map<String, Object> doc = new LinkedHashMap<>();
+    doc.put("id", id);
+    doc.put("score", score);
+    if (metadata != null && metadata.containsKey("source")) {
+      doc.put("source", metadata.get("source"));
+    }
+    doc.put("query", query);
+    doc.put("cached", cached);
+    return doc;
+  }
+
   private String formatResults(List<Document> documents) {
     if (documents.isEmpty()) {
       return "No relevant documents found.";
@@ -1,6 +1,7 @@
 package com.github.spud.sample.ai.agent.domain.rag;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
 import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
@@ -27,6 +28,7 @@ public class RetrievalCache {
 
   private final StringRedisTemplate redisTemplate;
   private final RagProperties ragProperties;
+  private final AgentMetrics agentMetrics;
 
   /**
    * 获取缓存的检索结果
@@ -39,11 +41,13 @@ public class RetrievalCache {
         log.debug("Retrieval cache hit for key: {}", key);
         List<CachedDocument> docs = JsonUtils.fromJson(cached, new TypeReference<>() {
         });
+        agentMetrics.recordCache("retrieval", true);
         return Optional.of(docs);
       }
     } catch (Exception e) {
       log.warn("Failed to get retrieval from cache: {}", e.getMessage());
     }
+    agentMetrics.recordCache("retrieval", false);
     return Optional.empty();
   }
 
@@ -0,0 +1,325 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageRepository;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * 冷会话归档与按需回灌
+ * <p>
+ * 最后活动早于 {@code archive.after} 的会话，其消息导出为归档目录下的
+ * {@code <conversationId>.jsonl.zst}（每行一条消息，zstd 压缩），随后从 react_agent_message 删除，
+ * 会话状态置为 ARCHIVED（message_count 保留）：
+ * <ul>
+ *   <li>有分叉的会话不归档（分叉会话按引用读取其消息，见 {@link ConversationForker}）</li>
+ *   <li>一致性：文件先写入临时文件，再在同一事务中以版本号 CAS 置 ARCHIVED、原子改名、删除消息；
+ *   CAS 失败（期间有新消息）则放弃，临时文件删除</li>
+ *   <li>回灌：会话再次收到消息时，在加载会话的事务中把状态改回 ACTIVE 并重新插入归档消息
+ *   （保留消息 ID，created_at 取当前时间，落在最新分区），提交后删除归档文件</li>
+ *   <li>归档与回灌都会淘汰本地及其它节点上的会话快照与缓存的 Agent</li>
+ *   <li>多节点：归档由持有维护锁的节点执行，回灌由收到消息的节点执行，归档目录必须是所有节点共享的存储
+ *   （启用归档时必须显式配置）；文件缺失或不可读时抛出 {@link SessionArchiveUnavailableException}，
+ *   会话保持 ARCHIVED</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ConversationArchiver {
+
+  private static final String SUFFIX = ".jsonl.zst";
+
+  private final ReActAgentSessionRepository sessionRepository;
+  private final ReActAgentMessageRepository messageRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final MessageJournal messageJournal;
+  private final SessionConfigCache sessionConfigCache;
+  private final ReActAgentCache agentCache;
+  private final MessageLifecycleProperties.Archive properties;
+  private final Clock clock;
+
+  @Autowired
+  public ConversationArchiver(ReActAgentSessionRepository sessionRepository,
+    ReActAgentMessageRepository messageRepository, TransactionTemplate transactionTemplate,
+    MessageJournal messageJournal, SessionConfigCache sessionConfigCache,
+    ReActAgentCache agentCache, MessageLifecycleProperties properties) {
+    this(sessionRepository, messageRepository, transactionTemplate, messageJournal,
+      sessionConfigCache, agentCache, properties, Clock.systemUTC());
+  }
+
+  public ConversationArchiver(ReActAgentSessionRepository sessionRepository,
+    ReActAgentMessageRepository messageRepository, TransactionTemplate transactionTemplate,
+    MessageJournal messageJournal, SessionConfigCache sessionConfigCache,
+    ReActAgentCache agentCache, MessageLifecycleProperties properties, Clock clock) {
+    this.sessionRepository = sessionRepository;
+    this.messageRepository = messageRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.messageJournal = messageJournal;
+    this.sessionConfigCache = sessionConfigCache;
+    this.agentCache = agentCache;
+    this.properties = properties.getArchive();
+    this.clock = clock;
+    if (this.properties.isEnabled() && !StringUtils.hasText(this.properties.getDir())) {
+      throw new IllegalStateException("app.persistence.lifecycle.archive.dir must be set when"
+        + " archiving is enabled, to a directory shared by all nodes");
+    }
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /**
+   * 归档一批冷会话（最久未活动的优先）
+   *
+   * @return 归档的会话数
+   */
+  public int archiveColdConversations() {
+    if (!properties.isEnabled()) {
+      return 0;
+    }
+    OffsetDateTime before = OffsetDateTime.now(clock).minus(properties.getAfter());
+    List<ReActAgentSession> cold = sessionRepository.findArchivable(ReActSessionStatus.ARCHIVED,
+      before, Limit.of(properties.getBatchSize()));
+    int archived = 0;
+    for (ReActAgentSession session : cold) {
+      try {
+        if (archive(session)) {
+          archived++;
+        }
+      } catch (RuntimeException e) {
+        log.warn("Failed to archive conversationId={}: {}", session.getConversationId(),
+          e.getMessage());
+      }
+    }
+    if (archived > 0) {
+      log.info("Archived {} cold conversations (inactive since {})", archived, before);
+    }
+    return archived;
+  }
+
+  /**
+   * 归档一个会话
+   *
+   * @return false 表示会话在导出期间有新活动，未归档
+   */
+  public boolean archive(ReActAgentSession session) {
+    String conversationId = session.getConversationId();
+    if (messageJournal.isEnabled()) {
+      messageJournal.flush(conversationId).join();
+    }
+    Path target = archivePath(conversationId);
+    Path temp = null;
+    try {
+      Files.createDirectories(target.getParent());
+      temp = Files.createTempFile(target.getParent(), conversationId, ".tmp");
+      List<ReActAgentMessage> messages = messageRepository.listAllMessages(session);
+      write(temp, messages);
+
+      Path written = temp;
+      Boolean archived = transactionTemplate.execute(status -> {
+        Integer updated = sessionRepository.tryUpdateStatus(conversationId, session.getVersion(),
+          ReActSessionStatus.ARCHIVED);
+        if (updated == null || updated != 1) {
+          return false;
+        }
+        // A fork created since the candidates were listed still reads these messages
+        if (sessionRepository.existsByParentConversationId(conversationId)) {
+          status.setRollbackOnly();
+          return false;
+        }
+        move(written, target);
+        messageRepository.deleteAllMessages(session);
+        return true;
+      });
+      if (!Boolean.TRUE.equals(archived)) {
+        log.debug("Conversation {} changed while archiving, skipped", conversationId);
+        return false;
+      }
+      log.debug("Archived {} messages of conversationId={} to {}", messages.size(),
+        conversationId, target);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot write archive of " + conversationId, e);
+    } finally {
+      deleteQuietly(temp);
+    }
+    evict(conversationId);
+    return true;
+  }
+
+  /**
+   * 回灌已归档会话的消息；在调用方事务中执行，提交后删除归档文件。
+   * 并发回灌同一会话时只有一个调用方插入消息，其余调用方直接返回。
+   */
+  public void rehydrate(ReActAgentSession session) {
+    String conversationId = session.getConversationId();
+    Path source = archivePath(conversationId);
+    transactionTemplate.executeWithoutResult(status -> {
+      Integer updated = sessionRepository.transitionStatus(conversationId,
+        ReActSessionStatus.ARCHIVED, ReActSessionStatus.ACTIVE);
+      if (updated == null || updated != 1) {
+        return;
+      }
+      List<ReActAgentMessage> messages = read(source, session);
+      // Throwing above rolls the status back to ARCHIVED with the caller's transaction
+      messageRepository.restoreMessages(conversationId, messages);
+      log.info("Rehydrated {} archived messages of conversationId={}", messages.size(),
+        conversationId);
+      afterCommit(() -> deleteQuietly(source));
+    });
+    evict(conversationId);
+  }
+
+  Path archivePath(String conversationId) {
+    if (!StringUtils.hasText(properties.getDir())) {
+      // Archiving was turned off after sessions had been archived
+      throw new SessionArchiveUnavailableException(conversationId,
+        "Session " + conversationId + " is archived but no archive dir is configured", null);
+    }
+    Path dir = Path.of(properties.getDir()).toAbsolutePath().normalize();
+    Path path = dir.resolve(conversationId + SUFFIX).normalize();
+    if (!dir.equals(path.getParent())) {
+      throw new IllegalArgumentException("Invalid conversationId: " + conversationId);
+    }
+    return path;
+  }
+
+  private void write(Path file, List<ReActAgentMessage> messages) throws IOException {
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+      new ZstdOutputStream(Files.newOutputStream(file), properties.getCompressionLevel()),
+      StandardCharsets.UTF_8))) {
+      for (ReActAgentMessage message : messages) {
+        writer.write(JsonUtils.toJson(ArchivedMessage.of(message)));
+        writer.write('\n');
+      }
+    }
+  }
+
+  private static List<ReActAgentMessage> read(Path file, ReActAgentSession session) {
+    String conversationId = session.getConversationId();
+    if (!Files.isReadable(file)) {
+      throw new SessionArchiveUnavailableException(conversationId,
+        "Archive of " + conversationId + " is not available at " + file
+          + " (the archive dir must be shared by all nodes)", null);
+    }
+    List<ReActAgentMessage> messages = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+      new ZstdInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isBlank()) {
+          messages.add(JsonUtils.fromJson(line, ArchivedMessage.class).toEntity(session));
+        }
+      }
+    } catch (IOException e) {
+      throw new SessionArchiveUnavailableException(conversationId,
+        "Cannot read archive of " + conversationId + " at " + file, e);
+    }
+    return messages;
+  }
+
+  private static void move(Path source, Path target) {
+    try {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot move archive into place: " + target, e);
+    }
+  }
+
+  private void evict(String conversationId) {
+    sessionConfigCache.evictSession(conversationId);
+    agentCache.evict(conversationId);
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Cannot delete {}: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * 归档文件中的一行；seq 与 created_at 仅作审计，回灌时重新分配
+   */
+  public record ArchivedMessage(
+    UUID id,
+    Long seq,
+    MessageType messageType,
+    String content,
+    String toolCallId,
+    String toolName,
+    String toolArguments,
+    Map<String, Object> metadata,
+    List<Map<String, Object>> toolCalls,
+    String createdAt
+  ) {
+
+    static ArchivedMessage of(ReActAgentMessage message) {
+      return new ArchivedMessage(message.getId(), message.getSeq(), message.getMessageType(),
+        message.getContent(), message.getToolCallId(), message.getToolName(),
+        message.getToolArguments(), message.getMetadata(), message.getToolCalls(),
+        message.getCreatedAt() != null ? message.getCreatedAt().toString() : null);
+    }
+
+    ReActAgentMessage toEntity(ReActAgentSession session) {
+      ReActAgentMessage entity = new ReActAgentMessage();
+      entity.setId(id);
+      entity.setConversation(session);
+      entity.setMessageType(messageType);
+      entity.setContent(content);
+      entity.setToolCallId(toolCallId);
+      entity.setToolName(toolName);
+      entity.setToolArguments(toolArguments);
+      entity.setMetadata(metadata);
+      entity.setToolCalls(toolCalls);
+      return entity;
+    }
+  }
+}
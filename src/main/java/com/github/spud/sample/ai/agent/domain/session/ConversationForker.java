@@ -0,0 +1,121 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.SessionNotFoundException;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageBatchRepository.HistorySegment;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageRepository;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 会话分叉（fork / checkpoint）
+ * <p>
+ * 分叉只新建一行会话：记录父会话与分叉点 seq（父会话历史中包含的最后一条消息），配置快照与启用的
+ * MCP server 从父会话复制，消息不复制。加载历史时沿父链解析为若干段（{@link HistorySegment}）合并读取：
+ * <ul>
+ *   <li>seq 来自全局序列，分叉后产生的消息 seq 必然大于分叉点，按 seq 合并即为会话顺序</li>
+ *   <li>祖先会话的上界取沿途分叉点的最小值（在继承部分中分叉时，父会话自身的消息不可见）</li>
+ *   <li>有分叉的会话不再归档（{@link ConversationArchiver}），已归档的会话在分叉前先回灌；
+ *   保留策略（{@link MessagePartitionMaintainer}）也不删除被分叉引用的消息</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConversationForker {
+
+  private final ReActAgentSessionRepository sessionRepository;
+  private final ReActAgentMessageRepository messageRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final MessageJournal messageJournal;
+  private final SessionConfigCache sessionConfigCache;
+  private final ConversationArchiver conversationArchiver;
+
+  /**
+   * 从会话分叉出新会话
+   *
+   * @param conversationId 父会话
+   * @param seq            分叉点（包含）：0（不含任何历史）或父会话历史中某条消息的 seq，
+   *                       为空表示父会话当前的全部历史
+   * @return 新会话
+   * @throws SessionNotFoundException 父会话不存在
+   * @throws IllegalArgumentException 分叉点不是 0，也不是父会话历史中的消息
+   */
+  public ReActAgentSession fork(String conversationId, Long seq) {
+    if (messageJournal.isEnabled()) {
+      // Journaled messages get their seq when they reach the database
+      messageJournal.flush(conversationId).join();
+    }
+    ReActAgentSession child = transactionTemplate.execute(status -> {
+      // The row lock keeps the archiver from archiving the parent while the fork is created
+      ReActAgentSession parent = sessionRepository.lockByConversationId(conversationId)
+        .orElseThrow(() -> new SessionNotFoundException("Session not found: " + conversationId));
+      if (parent.getStatus() == ReActSessionStatus.ARCHIVED) {
+        conversationArchiver.rehydrate(parent);
+      }
+
+      Long own = messageRepository.findMaxSeq(parent);
+      long head = own != null ? own : parent.getForkSeq() != null ? parent.getForkSeq() : 0L;
+      // seq values are global, so a number inside 0..head may belong to another conversation
+      if (seq != null && seq != 0
+        && !messageRepository.containsSeq(historySegments(parent), seq)) {
+        throw new IllegalArgumentException(
+          "seq " + seq + " is not a message in the history of " + conversationId);
+      }
+
+      ReActAgentSession fork = ReActAgentSessionRecord.builder()
+        .conversationId(UUID.randomUUID().toString())
+        .agentId(parent.getAgentId())
+        .agentType(parent.getAgentType())
+        .modelProvider(parent.getModelProvider())
+        .systemPrompt(parent.getSystemPrompt())
+        .nextStepPrompt(parent.getNextStepPrompt())
+        .maxSteps(parent.getMaxSteps())
+        .duplicateThreshold(parent.getDuplicateThreshold())
+        .toolChoice(parent.getToolChoice())
+        .enabledToolsSnapshot(parent.getEnabledToolsSnapshot())
+        .status(ReActSessionStatus.ACTIVE)
+        .version(0)
+        .build()
+        .toEntity();
+      fork.setParentConversationId(conversationId);
+      fork.setForkSeq(seq != null ? seq : head);
+      sessionRepository.create(fork, sessionRepository.listEnabledMcpServers(conversationId));
+      return fork;
+    });
+    log.info("Forked conversationId={} at seq={} into conversationId={}", conversationId,
+      child.getForkSeq(), child.getConversationId());
+    return child;
+  }
+
+  /**
+   * 会话历史对应的读取段：会话自身的全部消息，加上各祖先会话分叉点之前的消息
+   */
+  public List<HistorySegment> historySegments(ReActAgentSession session) {
+    List<HistorySegment> segments = new ArrayList<>();
+    segments.add(new HistorySegment(session.getConversationId(),
+      ReActAgentMessageRepository.partitionLowerBound(session), null));
+    Long bound = session.getForkSeq();
+    String parentId = session.getParentConversationId();
+    while (parentId != null && bound != null) {
+      String id = parentId;
+      // Parent pointers and fork points never change, so cached snapshots are safe to follow
+      ReActAgentSession parent = sessionConfigCache.findSession(id)
+        .map(SessionConfigCache.SessionEntry::session)
+        .orElseThrow(() -> new IllegalStateException("Parent session not found: " + id));
+      segments.add(new HistorySegment(id, ReActAgentMessageRepository.partitionLowerBound(parent),
+        bound));
+      if (parent.getForkSeq() != null) {
+        bound = Math.min(bound, parent.getForkSeq());
+      }
+      parentId = parent.getParentConversationId();
+    }
+    return segments;
+  }
+}
@@ -1,42 +1,116 @@
 package com.github.spud.sample.ai.agent.domain.session;
 
+import com.github.spud.sample.ai.agent.application.config.AgentSchedulers;
 import com.github.spud.sample.ai.agent.domain.mcp.McpClientManager;
 import com.github.spud.sample.ai.agent.domain.agent.McpAgent;
 import com.github.spud.sample.ai.agent.domain.agent.ReActAgent;
 import com.github.spud.sample.ai.agent.domain.agent.ToolCallAgent;
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.domain.model.ChatClientRegistry;
+import com.github.spud.sample.ai.agent.domain.model.LlmHedger;
+import com.github.spud.sample.ai.agent.domain.model.ModelRoute;
+import com.github.spud.sample.ai.agent.domain.model.ModelRoutingPolicy;
+import com.github.spud.sample.ai.agent.domain.model.ModelSpec;
+import com.github.spud.sample.ai.agent.domain.model.PromptCacheHints;
 import com.github.spud.sample.ai.agent.domain.state.ToolChoice;
 import com.github.spud.sample.ai.agent.domain.tools.ToolRegistry;
+import com.github.spud.sample.ai.agent.domain.trace.AgentTracer;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
-import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.AbstractMessage;
 import org.springframework.ai.tool.ToolCallback;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 /**
- * Default implementation of ReactAgentFactory Creates new agent instances (not singletons) for each
- * request
+ * Default implementation of ReactAgentFactory. Agents are per-session (never singletons): a warm
+ * instance released after a run is reused for the next message of the same session, otherwise a
+ * new one is built.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DefaultReActAgentFactory implements ReActAgentFactory {
 
-  private final ChatClient chatClient;
+  private final ChatClientRegistry chatClientRegistry;
+  private final LlmHedger llmHedger;
+  private final PromptCacheHints promptCacheHints;
   private final ToolRegistry toolRegistry;
   private final McpClientManager mcpClientManager;
-  private final ReActAgentSessionRepository sessionRepository;
+  private final SessionConfigCache sessionConfigCache;
+  private final ReActAgentDefaultsProperties defaultsProperties;
+  private final ReActAgentCache agentCache;
+  private final AgentSchedulers agentSchedulers;
+  private final AgentTracer agentTracer;
+  private final AgentMetrics agentMetrics;
 
   @Override
   public ReActAgent create(ReActAgentSession session, List<AbstractMessage> historyMessages) {
+    String conversationId = session.getConversationId();
+    if (session.getStatus() != ReActSessionStatus.ACTIVE) {
+      agentCache.evict(conversationId);
+    } else {
+      ReActAgent cached = agentCache.take(conversationId, fingerprint(session));
+      if (cached != null) {
+        log.debug("Reusing cached {} agent for conversationId={}",
+          session.getAgentType(), conversationId);
+        cached.resetHistory(historyMessages);
+        if (cached instanceof McpAgent mcpAgent) {
+          // MCP catalogues are not versioned; a fresh agent would load the current tools
+          mcpAgent.refreshTools();
+        }
+        return cached;
+      }
+    }
+    return build(session, historyMessages);
+  }
+
+  @Override
+  public void release(ReActAgentSession session, ReActAgent agent) {
+    if (session.getStatus() != ReActSessionStatus.ACTIVE) {
+      agentCache.evict(session.getConversationId());
+      return;
+    }
+    agentCache.put(session.getConversationId(), fingerprint(session), agent);
+  }
+
+  /**
+   * The session configuration is an immutable snapshot, so a cached agent goes stale when the
+   * registry's tool set or the session's enabled MCP servers change underneath it. Changes inside
+   * an MCP server's tool catalogue are picked up by refreshing the tools of a reused MCP agent.
+   */
+  private String fingerprint(ReActAgentSession session) {
+    String fingerprint = session.getAgentType() + ":" + toolRegistry.getVersion();
+    if (session.getAgentType() == ReActAgentType.MCP) {
+      fingerprint += ":" + String.join(",",
+        sessionConfigCache.enabledMcpServers(session.getConversationId()));
+    }
+    return fingerprint;
+  }
+
+  private ReActAgent build(ReActAgentSession session, List<AbstractMessage> historyMessages) {
     log.debug("Creating new {} agent instance for conversationId={}",
       session.getAgentType(), session.getConversationId());
 
     ToolChoice toolChoice = ToolChoice.valueOf(session.getToolChoice());
 
+    // Session model (provider[:model]) and optional cheap model for intermediate steps
+    String sessionModel = StringUtils.hasText(session.getModelProvider())
+      ? session.getModelProvider() : defaultsProperties.getModelProvider();
+    ModelRoute primaryRoute = chatClientRegistry.route(ModelSpec.parse(sessionModel, ModelSpec.OPENAI)
+      .withTemperature(defaultsProperties.getModelTemperature()));
+    ModelRoutingPolicy routingPolicy = defaultsProperties.getModelRoutingPolicy();
+    ModelRoute cheapRoute = null;
+    if (routingPolicy == ModelRoutingPolicy.CHEAP_STEPS) {
+      ModelSpec cheapSpec = ModelSpec.parse(defaultsProperties.getCheapModel(), ModelSpec.OLLAMA)
+        .withTemperature(defaultsProperties.getModelTemperature());
+      if (!cheapSpec.equals(primaryRoute.spec())) {
+        cheapRoute = chatClientRegistry.route(cheapSpec);
+      }
+    }
+
     // Use enabled tools snapshot (immutable copy taken at session creation)
     List<ToolCallback> callbacks = new java.util.ArrayList<>();
     if (session.getEnabledToolsSnapshot() != null) {
@@ -48,35 +122,59 @@ public class DefaultReActAgentFactory implements ReActAgentFactory {
 
         ToolCallAgent toolAgent = ToolCallAgent.builder()
           .name("react-tool_call-" + session.getConversationId())
+          .conversationId(session.getConversationId())
           .description("React tool-calling agent")
           .systemPrompt(session.getSystemPrompt())
           .nextStepPrompt(session.getNextStepPrompt())
-          .chatClient(chatClient)
+          .chatClient(primaryRoute.client())
+          .primaryRoute(primaryRoute)
+          .cheapRoute(cheapRoute)
+          .routingPolicy(routingPolicy)
+          .hedger(llmHedger)
+          .promptCacheHints(promptCacheHints)
           .toolChoice(toolChoice)
+          .completionPolicy(defaultsProperties.getCompletionPolicy())
           .messages(historyMessages)
           .maxSteps(session.getMaxSteps())
           .duplicateThreshold(session.getDuplicateThreshold())
           .availableCallbacks(callbacks)
+          .speculativeToolExecution(defaultsProperties.isSpeculativeToolsEnabled())
+          .sideEffectFreeTools(toolRegistry::isSideEffectFree)
+          .toolScheduler(agentSchedulers.tools())
+          .tracer(agentTracer)
+          .metrics(agentMetrics)
           .build();
 
         return toolAgent;
 
       case MCP:
-        List<String> enabledMcpServers = sessionRepository.listEnabledMcpServers(
+        List<String> enabledMcpServers = sessionConfigCache.enabledMcpServers(
           session.getConversationId()
         );
 
         McpAgent mcpAgent = McpAgent.builder()
           .name("react-mcp-" + session.getConversationId())
+          .conversationId(session.getConversationId())
           .description("React MCP agent")
           .systemPrompt(session.getSystemPrompt())
           .nextStepPrompt(session.getNextStepPrompt())
-          .chatClient(chatClient)
+          .chatClient(primaryRoute.client())
+          .primaryRoute(primaryRoute)
+          .cheapRoute(cheapRoute)
+          .routingPolicy(routingPolicy)
+          .hedger(llmHedger)
+          .promptCacheHints(promptCacheHints)
+          .completionPolicy(defaultsProperties.getCompletionPolicy())
           .messages(historyMessages)
           .maxSteps(session.getMaxSteps())
           .duplicateThreshold(session.getDuplicateThreshold())
           .mcpClientManager(mcpClientManager)
           .availableCallbacks(callbacks)
+          .speculativeToolExecution(defaultsProperties.isSpeculativeToolsEnabled())
+          .sideEffectFreeTools(toolRegistry::isSideEffectFree)
+          .toolScheduler(agentSchedulers.tools())
+          .tracer(agentTracer)
+          .metrics(agentMetrics)
           .build();
 
         // Initialize MCP with enabled servers (builds and injects MCP callbacks)
@@ -0,0 +1,521 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageRepository;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * 消息写后日志（write-behind journal）
+ * <p>
+ * Agent 产生消息时（THINK/ACT 中的 appendMessage）即写入会话级内存缓冲，由后台写线程按批异步刷入数据库，
+ * 响应路径不再等待 Postgres；运行中途失败时，已产生的消息也已进入日志，不会丢失。
+ * <ul>
+ *   <li>顺序：同一会话同一时刻只有一个刷写者，按追加顺序落库</li>
+ *   <li>背压：会话缓冲超过容量时，由写入方同步刷写</li>
+ *   <li>确认：{@link #flush} 返回本会话截至调用时刻的消息全部落库的 future，用于 ack-after-flush 模式
+ *   与加载历史前的读己之写</li>
+ *   <li>崩溃恢复：配置 spool 目录后，每条消息先追加到本地日志文件，每次刷写前 fsync 作为持久化检查点，
+ *   全部落库后截断；启动时重放日志中尚未入库的消息（按消息 ID 去重）</li>
+ *   <li>ASYNC 确认：响应先于落库，因此必须配置 spool 目录，且要求同一会话固定路由到同一节点
+ *   （{@link #flush} 只能等待本节点的日志）；默认 FLUSH</li>
+ *   <li>失败：刷写失败的批次留在队首下次重试，当前等待方收到 {@link MessageJournalException}；
+ *   连续失败 maxAttempts 次后移入死信文件，避免一条坏数据永久阻塞会话</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class MessageJournal {
+
+  private static final String SPOOL_FILE = "message-journal.log";
+  private static final String DEAD_LETTER_FILE = "message-journal.dead.log";
+
+  private final ReActAgentMessageRepository messageRepository;
+  private final ReActAgentSessionRepository sessionRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final MessageJournalProperties properties;
+  private final AgentMetrics agentMetrics;
+
+  // conversationId -> 未落库消息；Lane 只在 compute 系列方法内修改，保证与移除空闲 Lane 原子
+  private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+  private final Object spoolLock = new Object();
+  private FileOutputStream spoolOut;
+  private Writer spoolWriter;
+
+  private ScheduledExecutorService flusher;
+
+  public MessageJournal(ReActAgentMessageRepository messageRepository,
+    ReActAgentSessionRepository sessionRepository, TransactionTemplate transactionTemplate,
+    MessageJournalProperties properties, AgentMetrics agentMetrics) {
+    this.messageRepository = messageRepository;
+    this.sessionRepository = sessionRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.properties = properties;
+    this.agentMetrics = agentMetrics;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    if (properties.getAckMode() == MessageJournalProperties.AckMode.ASYNC
+      && !StringUtils.hasText(properties.getSpoolDir())) {
+      // The reply would go out before the messages are durable anywhere
+      throw new IllegalStateException("app.persistence.journal.ack-mode=ASYNC requires "
+        + "app.persistence.journal.spool-dir; use FLUSH or configure a spool directory");
+    }
+    if (StringUtils.hasText(properties.getSpoolDir())) {
+      recover();
+      openSpool();
+    }
+    flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "message-journal");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long interval = Math.max(1, properties.getFlushInterval().toMillis());
+    flusher.scheduleWithFixedDelay(this::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+    log.info("Message journal started: ackMode={}, flushInterval={}ms, spoolDir={}",
+      properties.getAckMode(), interval, properties.getSpoolDir());
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  public MessageJournalProperties.AckMode getAckMode() {
+    return properties.getAckMode();
+  }
+
+  /**
+   * 追加一条消息（未设置 ID 时分配 ID，作为崩溃恢复的去重键）
+   */
+  public void append(ReActAgentMessage record) {
+    String conversationId = record.getConversation().getConversationId();
+    if (record.getId() == null) {
+      record.setId(UUID.randomUUID());
+    }
+    boolean overCapacity;
+    synchronized (spoolLock) {
+      spool(conversationId, record);
+      Lane lane = lanes.compute(conversationId, (key, existing) -> {
+        Lane target = existing != null ? existing : new Lane();
+        target.pending.addLast(record);
+        target.appended++;
+        return target;
+      });
+      overCapacity = lane.pending.size() >= properties.getCapacity();
+    }
+    if (overCapacity) {
+      flushLane(conversationId);
+    }
+  }
+
+  /**
+   * 请求立即刷写会话，返回截至调用时刻追加的消息全部落库后完成的 future
+   */
+  public CompletableFuture<Void> flush(String conversationId) {
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    boolean[] waiting = new boolean[1];
+    lanes.computeIfPresent(conversationId, (key, lane) -> {
+      if (lane.flushed < lane.appended) {
+        lane.waiters.add(new Waiter(lane.appended, done));
+        waiting[0] = true;
+      }
+      return lane;
+    });
+    if (!waiting[0]) {
+      done.complete(null);
+    } else if (flusher != null && !flusher.isShutdown()) {
+      try {
+        flusher.execute(() -> flushLane(conversationId));
+      } catch (RejectedExecutionException e) {
+        flushLane(conversationId);
+      }
+    } else {
+      flushLane(conversationId);
+    }
+    return done;
+  }
+
+  /**
+   * 后台刷写：检查点 → 逐会话批量落库 → 清理空闲会话 → 全部落库时截断 spool
+   */
+  void flushAll() {
+    try {
+      checkpoint();
+      for (String conversationId : new ArrayList<>(lanes.keySet())) {
+        flushLane(conversationId);
+        lanes.computeIfPresent(conversationId,
+          (key, lane) -> lane.pending.isEmpty() && !lane.flushing && lane.waiters.isEmpty()
+            ? null : lane);
+      }
+      truncateSpoolIfDrained();
+    } catch (RuntimeException e) {
+      log.error("Message journal flush failed: {}", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * 刷写单个会话的全部待写消息（同一会话同一时刻只有一个刷写者）
+   */
+  void flushLane(String conversationId) {
+    while (true) {
+      List<ReActAgentMessage> batch = new ArrayList<>();
+      lanes.computeIfPresent(conversationId, (key, lane) -> {
+        if (!lane.flushing) {
+          for (int i = 0; i < properties.getBatchSize() && !lane.pending.isEmpty(); i++) {
+            batch.add(lane.pending.pollFirst());
+          }
+          lane.flushing = !batch.isEmpty();
+        }
+        return lane;
+      });
+      if (batch.isEmpty()) {
+        return;
+      }
+
+      RuntimeException failure = null;
+      try {
+        transactionTemplate.executeWithoutResult(
+          status -> messageRepository.appendMessages(conversationId, batch));
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+
+      List<Waiter> completed = new ArrayList<>();
+      RuntimeException error = failure;
+      int[] attempts = new int[1];
+      lanes.computeIfPresent(conversationId, (key, lane) -> {
+        lane.flushing = false;
+        if (error == null) {
+          lane.failures = 0;
+          lane.flushed += batch.size();
+          for (Iterator<Waiter> it = lane.waiters.iterator(); it.hasNext(); ) {
+            Waiter waiter = it.next();
+            if (waiter.upTo() <= lane.flushed) {
+              completed.add(waiter);
+              it.remove();
+            }
+          }
+        } else {
+          attempts[0] = ++lane.failures;
+          if (lane.failures >= properties.getMaxAttempts()) {
+            // Give up on the batch so later messages of the conversation can still be written;
+            // stay flushing until the dead letter is durable, so the spool is not truncated first
+            lane.failures = 0;
+            lane.flushed += batch.size();
+            lane.flushing = true;
+          } else {
+            // Keep the batch at the head for the next attempt
+            for (int i = batch.size() - 1; i >= 0; i--) {
+              lane.pending.addFirst(batch.get(i));
+            }
+          }
+          completed.addAll(lane.waiters);
+          lane.waiters.clear();
+        }
+        return lane;
+      });
+
+      if (error != null) {
+        boolean deadLettered = attempts[0] >= properties.getMaxAttempts();
+        agentMetrics.recordJournalFlushFailure(deadLettered, batch.size());
+        MessageJournalException exception;
+        if (deadLettered) {
+          deadLetter(conversationId, batch);
+          lanes.computeIfPresent(conversationId, (key, lane) -> {
+            lane.flushing = false;
+            return lane;
+          });
+          log.error("Dead-lettered {} journaled messages for conversationId={} after {} attempts: {}",
+            batch.size(), conversationId, attempts[0], error.getMessage());
+          exception = new MessageJournalException(conversationId, true,
+            "Journaled messages of " + conversationId + " could not be written after "
+              + attempts[0] + " attempts and were dead-lettered", error);
+        } else {
+          log.warn("Failed to flush {} journaled messages for conversationId={} (attempt {}/{}),"
+              + " will retry: {}", batch.size(), conversationId, attempts[0],
+            properties.getMaxAttempts(), error.getMessage());
+          exception = new MessageJournalException(conversationId, false,
+            "Journaled messages of " + conversationId + " are not written yet (attempt "
+              + attempts[0] + "/" + properties.getMaxAttempts() + ")", error);
+        }
+        completed.forEach(waiter -> waiter.done().completeExceptionally(exception));
+        if (!deadLettered) {
+          return;
+        }
+        // Messages queued behind the dead-lettered batch are written in the next round
+        continue;
+      }
+      log.debug("Flushed {} journaled messages for conversationId={}", batch.size(),
+        conversationId);
+      completed.forEach(waiter -> waiter.done().complete(null));
+    }
+  }
+
+  /**
+   * 当前未落库的消息数
+   */
+  public int pendingCount() {
+    return lanes.values().stream().mapToInt(lane -> lane.pending.size()).sum();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (flusher == null) {
+      return;
+    }
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flushAll();
+    synchronized (spoolLock) {
+      closeSpool();
+    }
+    if (pendingCount() > 0) {
+      log.warn("Message journal stopped with {} unflushed messages{}", pendingCount(),
+        spoolOut != null ? " (kept in spool for recovery)" : "");
+    }
+  }
+
+  // ---------------------------------------------------------------- spool / recovery
+
+  private void openSpool() {
+    try {
+      Path dir = Path.of(properties.getSpoolDir());
+      Files.createDirectories(dir);
+      spoolOut = new FileOutputStream(dir.resolve(SPOOL_FILE).toFile(), true);
+      spoolWriter = new OutputStreamWriter(new BufferedOutputStream(spoolOut),
+        StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open message journal spool", e);
+    }
+  }
+
+  private void closeSpool() {
+    if (spoolWriter != null) {
+      try {
+        spoolWriter.close();
+      } catch (IOException e) {
+        log.warn("Failed to close message journal spool: {}", e.getMessage());
+      }
+      spoolWriter = null;
+    }
+  }
+
+  private void spool(String conversationId, ReActAgentMessage record) {
+    if (spoolWriter == null) {
+      return;
+    }
+    try {
+      spoolWriter.write(JsonUtils.toJson(SpoolEntry.of(conversationId, record)));
+      spoolWriter.write('\n');
+    } catch (IOException e) {
+      log.error("Failed to spool journaled message: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * 追加到死信文件（fsync 后返回），之后 spool 可以安全截断；未配置 spool 时写入错误日志
+   */
+  private void deadLetter(String conversationId, List<ReActAgentMessage> batch) {
+    StringBuilder lines = new StringBuilder();
+    for (ReActAgentMessage record : batch) {
+      lines.append(JsonUtils.toJson(SpoolEntry.of(conversationId, record))).append('\n');
+    }
+    if (!StringUtils.hasText(properties.getSpoolDir())) {
+      log.error("Dropped journaled messages (no spool dir configured):\n{}", lines);
+      return;
+    }
+    try {
+      Files.writeString(Path.of(properties.getSpoolDir(), DEAD_LETTER_FILE), lines,
+        StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+        StandardOpenOption.SYNC);
+    } catch (IOException e) {
+      log.error("Failed to write dead-lettered messages, dropping them:\n{}", lines, e);
+    }
+  }
+
+  /**
+   * 持久化检查点：已追加的消息全部 fsync 到 spool
+   */
+  private void checkpoint() {
+    synchronized (spoolLock) {
+      if (spoolWriter == null) {
+        return;
+      }
+      try {
+        spoolWriter.flush();
+        spoolOut.getChannel().force(false);
+      } catch (IOException e) {
+        log.error("Message journal checkpoint failed: {}", e.getMessage());
+      }
+    }
+  }
+
+  private void truncateSpoolIfDrained() {
+    synchronized (spoolLock) {
+      if (spoolWriter == null || !lanes.isEmpty()) {
+        return;
+      }
+      try {
+        spoolWriter.flush();
+        spoolOut.getChannel().truncate(0);
+      } catch (IOException e) {
+        log.error("Failed to truncate message journal spool: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * 重放 spool 中尚未入库的消息（上次进程未正常刷写时）
+   */
+  void recover() {
+    Path file = Path.of(properties.getSpoolDir(), SPOOL_FILE);
+    if (!Files.exists(file)) {
+      return;
+    }
+    Map<String, List<SpoolEntry>> byConversation = new LinkedHashMap<>();
+    try {
+      for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        if (!StringUtils.hasText(line)) {
+          continue;
+        }
+        try {
+          SpoolEntry entry = JsonUtils.fromJson(line, SpoolEntry.class);
+          byConversation.computeIfAbsent(entry.conversationId(), k -> new ArrayList<>()).add(entry);
+        } catch (RuntimeException e) {
+          // A torn last line from a crash mid-write
+          log.warn("Skipping unreadable message journal spool line");
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read message journal spool", e);
+    }
+
+    int recovered = 0;
+    for (Map.Entry<String, List<SpoolEntry>> group : byConversation.entrySet()) {
+      recovered += recoverConversation(group.getKey(), group.getValue());
+    }
+    try {
+      Files.write(file, new byte[0]);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot truncate message journal spool", e);
+    }
+    if (recovered > 0) {
+      log.info("Recovered {} journaled messages from spool", recovered);
+    }
+  }
+
+  private int recoverConversation(String conversationId, List<SpoolEntry> entries) {
+    ReActAgentSession session = sessionRepository.findById(conversationId).orElse(null);
+    if (session == null) {
+      log.warn("Dropping {} journaled messages of deleted conversationId={}", entries.size(),
+        conversationId);
+      return 0;
+    }
+    Set<UUID> existing = new HashSet<>();
+    messageRepository.findAllById(entries.stream().map(SpoolEntry::id).toList())
+      .forEach(message -> existing.add(message.getId()));
+    List<ReActAgentMessage> missing = entries.stream()
+      .filter(entry -> !existing.contains(entry.id()))
+      .map(entry -> entry.toEntity(session))
+      .toList();
+    if (!missing.isEmpty()) {
+      transactionTemplate.executeWithoutResult(
+        status -> messageRepository.appendMessages(conversationId, missing));
+    }
+    return missing.size();
+  }
+
+  private static final class Lane {
+
+    final ArrayDeque<ReActAgentMessage> pending = new ArrayDeque<>();
+    final List<Waiter> waiters = new ArrayList<>();
+    long appended;
+    long flushed;
+    boolean flushing;
+    // Consecutive failed attempts of the batch at the head
+    int failures;
+  }
+
+  private record Waiter(long upTo, CompletableFuture<Void> done) {
+
+  }
+
+  /**
+   * spool 文件中的一行
+   */
+  public record SpoolEntry(
+    String conversationId,
+    UUID id,
+    MessageType messageType,
+    String content,
+    String toolCallId,
+    String toolName,
+    String toolArguments,
+    Map<String, Object> metadata,
+    List<Map<String, Object>> toolCalls
+  ) {
+
+    static SpoolEntry of(String conversationId, ReActAgentMessage record) {
+      return new SpoolEntry(conversationId, record.getId(), record.getMessageType(),
+        record.getContent(), record.getToolCallId(), record.getToolName(),
+        record.getToolArguments(), record.getMetadata(), record.getToolCalls());
+    }
+
+    ReActAgentMessage toEntity(ReActAgentSession session) {
+      ReActAgentMessage entity = new ReActAgentMessage();
+      entity.setId(id);
+      entity.setConversation(session);
+      entity.setMessageType(messageType);
+      entity.setContent(content);
+      entity.setToolCallId(toolCallId);
+      entity.setToolName(toolName);
+      entity.setToolArguments(toolArguments);
+      entity.setMetadata(metadata);
+      entity.setToolCalls(toolCalls);
+      return entity;
+    }
+  }
+}
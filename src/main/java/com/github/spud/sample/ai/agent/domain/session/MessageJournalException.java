@@ -0,0 +1,21 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import lombok.Getter;
+
+/**
+ * 写后日志中的消息未能落库：{@link MessageJournal#flush} 的等待方收到此异常。
+ * deadLettered 为 true 表示该批消息已达重试上限并移入死信文件，不会再写入数据库。
+ */
+@Getter
+public class MessageJournalException extends RuntimeException {
+
+  private final String conversationId;
+  private final boolean deadLettered;
+
+  public MessageJournalException(String conversationId, boolean deadLettered, String message,
+    Throwable cause) {
+    super(message, cause);
+    this.conversationId = conversationId;
+    this.deadLettered = deadLettered;
+  }
+}
@@ -0,0 +1,61 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 消息写后日志（write-behind journal）配置
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.persistence.journal")
+public class MessageJournalProperties {
+
+  /**
+   * 是否启用；关闭时在运行结束后同步写库
+   */
+  private boolean enabled = false;
+
+  /**
+   * 响应确认时机：FLUSH（默认）等待本会话的消息落库后再响应；ASYNC 不等待写库。
+   * <p>
+   * ASYNC 必须配置 spoolDir（否则启动失败），且只在同一会话的请求总是路由到同一节点时安全：
+   * 其它节点读不到本节点未刷写的消息，会基于不完整的历史运行，并先于本节点落库，seq 顺序随之错乱
+   */
+  private AckMode ackMode = AckMode.FLUSH;
+
+  /**
+   * 每个会话最多缓冲的未落库消息数，超过后由写入方同步刷写（背压）
+   */
+  private int capacity = 1024;
+
+  /**
+   * 单次批量写入的最大消息数
+   */
+  private int batchSize = 500;
+
+  /**
+   * 后台刷写间隔
+   */
+  private Duration flushInterval = Duration.ofMillis(200);
+
+  /**
+   * 同一批消息连续刷写失败的最大次数；达到后该批移入死信文件（spool 目录下
+   * message-journal.dead.log，未配置 spool 时只记录日志），会话的后续消息继续落库
+   */
+  private int maxAttempts = 5;
+
+  /**
+   * 本地 spool 目录（持久化检查点）；为空时不落本地文件，进程崩溃会丢失未刷写的消息
+   */
+  private String spoolDir = "";
+
+  public enum AckMode {
+    ASYNC,
+    FLUSH
+  }
+}
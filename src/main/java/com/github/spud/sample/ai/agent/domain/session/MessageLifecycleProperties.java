@@ -0,0 +1,70 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 消息生命周期配置：月分区维护、保留策略与冷会话归档
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.persistence.lifecycle")
+public class MessageLifecycleProperties {
+
+  /**
+   * 是否启用后台维护（仅 PostgreSQL 生效）
+   */
+  private boolean enabled = true;
+
+  /**
+   * 维护间隔
+   */
+  private Duration interval = Duration.ofHours(1);
+
+  /**
+   * 提前创建的月分区数（不含当月）
+   */
+  private int premakeMonths = 3;
+
+  /**
+   * 默认消息保留时长（Agent 未配置 message_retention_days 时使用）；为空表示永久保留
+   */
+  private Duration defaultRetention;
+
+  private Archive archive = new Archive();
+
+  @Getter
+  @Setter
+  public static class Archive {
+
+    /**
+     * 是否归档冷会话
+     */
+    private boolean enabled = false;
+
+    /**
+     * 归档目录，每个会话一个 {@code <conversationId>.jsonl.zst}；启用归档时必填，
+     * 多节点部署必须是所有节点共享的存储（NFS 等），否则其它节点无法回灌
+     */
+    private String dir;
+
+    /**
+     * 最后活动早于该时长的会话视为冷会话
+     */
+    private Duration after = Duration.ofDays(90);
+
+    /**
+     * 每轮最多归档的会话数
+     */
+    private int batchSize = 100;
+
+    /**
+     * zstd 压缩级别
+     */
+    private int compressionLevel = 3;
+  }
+}
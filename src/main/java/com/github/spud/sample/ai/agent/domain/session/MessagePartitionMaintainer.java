@@ -0,0 +1,335 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * react_agent_message 月分区维护与消息保留
+ * <p>
+ * 后台线程按 {@code interval} 周期执行，每一步各自一个短事务，并用 PostgreSQL 事务级 advisory lock
+ * 保证多节点下同一时刻只有一个节点执行：
+ * <ol>
+ *   <li>提前创建当月及之后 {@code premake-months} 个月的分区（{@code react_agent_message_pYYYYMM}，UTC）</li>
+ *   <li>按 Agent 保留策略删除过期消息：分区只能整体删除，所以按最长保留期删除整个分区，
+ *   保留期更短的 Agent 按行删除（created_at 条件只会扫描旧分区）；删除的消息从 message_count 中扣除。
+ *   分叉会话按 seq 引用的父会话消息（分叉点及之前）不删除，含这类消息的分区只按行删除其余消息</li>
+ *   <li>归档冷会话（{@link ConversationArchiver}）</li>
+ * </ol>
+ * 非 PostgreSQL 数据库（测试用 H2）只执行归档。
+ */
+@Slf4j
+@Component
+public class MessagePartitionMaintainer {
+
+  private static final String PARENT = "react_agent_message";
+  private static final Pattern PARTITION = Pattern.compile(PARENT + "_p(\\d{6})");
+  private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+  /**
+   * advisory lock 键（任意常量，同库内唯一即可）
+   */
+  private static final long LOCK_KEY = 0x72656163746D7367L;
+
+  private static final String CREATE_PARTITION_SQL = """
+    CREATE TABLE IF NOT EXISTS %s PARTITION OF react_agent_message
+      FOR VALUES FROM ('%s') TO ('%s')""";
+
+  private static final String LIST_PARTITIONS_SQL = """
+    SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = 'react_agent_message'::regclass""";
+
+  private static final String UNCOUNT_PARTITION_SQL = """
+    UPDATE react_agent_session s
+    SET message_count = GREATEST(s.message_count - c.cnt, 0)
+    FROM (SELECT conversation_id, COUNT(*) AS cnt FROM %s GROUP BY conversation_id) c
+    WHERE s.conversation_id = c.conversation_id""";
+
+  /**
+   * 消息 m 属于某个分叉会话的历史（父会话分叉点及之前的消息按 seq 被分叉引用，祖先的可见上界不会超过
+   * 直接子会话的分叉点，所以只需检查直接子会话）
+   */
+  private static final String SHARED_WITH_FORK = """
+    EXISTS (SELECT 1 FROM react_agent_session f
+            WHERE f.parent_conversation_id = m.conversation_id AND m.seq <= f.fork_seq)""";
+
+  private static final String DELETE_AGENT_MESSAGES_SQL = """
+    WITH deleted AS (
+      DELETE FROM react_agent_message m
+      USING react_agent_session s
+      WHERE m.conversation_id = s.conversation_id AND s.agent_id = ? AND m.created_at < ?
+        AND NOT %s
+      RETURNING m.conversation_id
+    ), counts AS (
+      SELECT conversation_id, COUNT(*) AS cnt FROM deleted GROUP BY conversation_id
+    )
+    UPDATE react_agent_session s
+    SET message_count = GREATEST(s.message_count - counts.cnt, 0)
+    FROM counts
+    WHERE s.conversation_id = counts.conversation_id""".formatted(SHARED_WITH_FORK);
+
+  private static final String PARTITION_SHARED_WITH_FORK_SQL = """
+    SELECT EXISTS (SELECT 1 FROM %s m WHERE %s)""";
+
+  private static final String DELETE_UNSHARED_PARTITION_ROWS_SQL = """
+    WITH deleted AS (
+      DELETE FROM %s m
+      WHERE NOT %s
+      RETURNING m.conversation_id
+    ), counts AS (
+      SELECT conversation_id, COUNT(*) AS cnt FROM deleted GROUP BY conversation_id
+    )
+    UPDATE react_agent_session s
+    SET message_count = GREATEST(s.message_count - counts.cnt, 0)
+    FROM counts
+    WHERE s.conversation_id = counts.conversation_id""";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final MessageLifecycleProperties properties;
+  private final ConversationArchiver archiver;
+  private final Clock clock;
+
+  private volatile Boolean postgres;
+  private ScheduledExecutorService scheduler;
+
+  @Autowired
+  public MessagePartitionMaintainer(JdbcTemplate jdbcTemplate,
+    TransactionTemplate transactionTemplate, MessageLifecycleProperties properties,
+    ConversationArchiver archiver) {
+    this(jdbcTemplate, transactionTemplate, properties, archiver, Clock.systemUTC());
+  }
+
+  public MessagePartitionMaintainer(JdbcTemplate jdbcTemplate,
+    TransactionTemplate transactionTemplate, MessageLifecycleProperties properties,
+    ConversationArchiver archiver, Clock clock) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.properties = properties;
+    this.archiver = archiver;
+    this.clock = clock;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "message-lifecycle");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long interval = Math.max(1, properties.getInterval().toMillis());
+    // First run right away so the partitions exist before the month rolls over
+    scheduler.scheduleWithFixedDelay(this::maintain, 0, interval, TimeUnit.MILLISECONDS);
+    log.info("Message lifecycle maintenance started: interval={}ms, premakeMonths={}, "
+        + "defaultRetention={}, archive={}", interval, properties.getPremakeMonths(),
+      properties.getDefaultRetention(), archiver.isEnabled());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * 执行一轮维护；单步失败只记录日志，不影响后续步骤
+   */
+  public void maintain() {
+    if (isPostgres()) {
+      step("partition creation", this::ensurePartitions);
+      step("retention", this::applyRetention);
+    }
+    step("archive", archiver::archiveColdConversations);
+  }
+
+  /**
+   * 创建当月起 premake-months 个月内缺失的分区
+   *
+   * @return 执行的建表语句数（已存在的分区不会重复创建）
+   */
+  public int ensurePartitions() {
+    YearMonth current = YearMonth.now(clock.withZone(ZoneOffset.UTC));
+    int statements = 0;
+    for (int i = 0; i <= properties.getPremakeMonths(); i++) {
+      YearMonth month = current.plusMonths(i);
+      String sql = CREATE_PARTITION_SQL.formatted(partitionName(month), boundLiteral(month),
+        boundLiteral(month.plusMonths(1)));
+      Boolean created = locked(() -> {
+        jdbcTemplate.execute(sql);
+        return true;
+      });
+      if (Boolean.TRUE.equals(created)) {
+        statements++;
+      }
+    }
+    return statements;
+  }
+
+  /**
+   * 按保留策略删除过期消息
+   *
+   * @return 删除的分区数
+   */
+  public int applyRetention() {
+    Map<String, Integer> agentRetentionDays = new HashMap<>();
+    jdbcTemplate.query("SELECT agent_id, message_retention_days FROM react_agent",
+      rs -> {
+        int days = rs.getInt("message_retention_days");
+        agentRetentionDays.put(rs.getString("agent_id"), rs.wasNull() ? null : days);
+      });
+    RetentionPlan plan = RetentionPlan.of(properties.getDefaultRetention(), agentRetentionDays);
+    OffsetDateTime now = OffsetDateTime.now(clock);
+
+    for (Map.Entry<String, Duration> agent : plan.rowDeletes().entrySet()) {
+      OffsetDateTime cutoff = now.minus(agent.getValue());
+      Integer sessions = locked(() -> jdbcTemplate.update(DELETE_AGENT_MESSAGES_SQL,
+        agent.getKey(), cutoff));
+      if (sessions != null && sessions > 0) {
+        log.info("Retention: deleted messages older than {} from {} sessions of agentId={}",
+          cutoff, sessions, agent.getKey());
+      }
+    }
+
+    if (plan.partitionRetention() == null) {
+      return 0;
+    }
+    OffsetDateTime cutoff = now.minus(plan.partitionRetention());
+    int dropped = 0;
+    for (String partition : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class)) {
+      Matcher matcher = PARTITION.matcher(partition);
+      if (!matcher.matches()) {
+        continue;
+      }
+      YearMonth month = YearMonth.parse(matcher.group(1), MONTH);
+      if (monthStart(month.plusMonths(1)).isAfter(cutoff)) {
+        continue;
+      }
+      Boolean done = locked(() -> {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+          PARTITION_SHARED_WITH_FORK_SQL.formatted(partition, SHARED_WITH_FORK), Boolean.class))) {
+          // Forks still read part of it: keep the partition, delete only the unshared rows
+          int sessions = jdbcTemplate.update(
+            DELETE_UNSHARED_PARTITION_ROWS_SQL.formatted(partition, SHARED_WITH_FORK));
+          log.info("Retention: kept message partition {} (shared with forks), deleted messages "
+            + "of {} sessions", partition, sessions);
+          return false;
+        }
+        jdbcTemplate.update(UNCOUNT_PARTITION_SQL.formatted(partition));
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        return true;
+      });
+      if (Boolean.TRUE.equals(done)) {
+        log.info("Retention: dropped message partition {} (older than {})", partition, cutoff);
+        dropped++;
+      }
+    }
+    return dropped;
+  }
+
+  private <T> T locked(Supplier<T> action) {
+    return transactionTemplate.execute(status -> {
+      Boolean acquired = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+        Boolean.class, LOCK_KEY);
+      if (!Boolean.TRUE.equals(acquired)) {
+        log.debug("Message lifecycle maintenance running on another node, skipped");
+        return null;
+      }
+      return action.get();
+    });
+  }
+
+  private boolean isPostgres() {
+    Boolean result = postgres;
+    if (result == null) {
+      String product = jdbcTemplate.execute(
+        (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+      result = "PostgreSQL".equals(product);
+      postgres = result;
+    }
+    return result;
+  }
+
+  private static void step(String name, Runnable action) {
+    try {
+      action.run();
+    } catch (RuntimeException e) {
+      log.warn("Message lifecycle {} failed: {}", name, e.getMessage());
+    }
+  }
+
+  static String partitionName(YearMonth month) {
+    return PARENT + "_p" + month.format(MONTH);
+  }
+
+  private static OffsetDateTime monthStart(YearMonth month) {
+    return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+  }
+
+  private static String boundLiteral(YearMonth month) {
+    return month.atDay(1) + " 00:00:00+00";
+  }
+
+  /**
+   * 保留策略拆解：分区按所有会话中最长的保留期整体删除，保留期更短的 Agent 再按行删除
+   *
+   * @param partitionRetention 分区删除使用的保留期；null 表示存在永久保留的会话，不删除分区
+   * @param rowDeletes         需要按行删除的 agentId -> 保留期
+   */
+  public record RetentionPlan(Duration partitionRetention, Map<String, Duration> rowDeletes) {
+
+    /**
+     * @param defaultRetention   默认保留期，null 表示永久
+     * @param agentRetentionDays agentId -> 保留天数，值为 null 的 Agent 使用默认保留期
+     */
+    public static RetentionPlan of(Duration defaultRetention,
+      Map<String, Integer> agentRetentionDays) {
+      Map<String, Duration> effective = new HashMap<>();
+      agentRetentionDays.forEach((agentId, days) -> effective.put(agentId,
+        days != null ? Duration.ofDays(days) : defaultRetention));
+
+      // Sessions without a known agent follow the default, so "forever" there keeps every partition
+      Duration longest = defaultRetention;
+      for (Duration retention : effective.values()) {
+        if (retention == null) {
+          longest = null;
+          break;
+        }
+        if (longest != null && retention.compareTo(longest) > 0) {
+          longest = retention;
+        }
+      }
+
+      Map<String, Duration> rowDeletes = new HashMap<>();
+      for (Map.Entry<String, Duration> agent : effective.entrySet()) {
+        Duration retention = agent.getValue();
+        if (retention != null && (longest == null || retention.compareTo(longest) < 0)) {
+          rowDeletes.put(agent.getKey(), retention);
+        }
+      }
+      return new RetentionPlan(longest, rowDeletes);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import com.github.spud.sample.ai.agent.domain.agent.ReActAgent;
+import com.github.spud.sample.ai.agent.domain.state.AgentState;
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会话级 Agent 缓存（热 Agent 复用）
+ * <p>
+ * 每个会话缓存一个空闲的 Agent 实例及其已解析的工具回调 / MCP 工具目录，避免每条消息重新构建 Agent
+ * （MCP 会话需要重新列举所有 server 的工具并包装回调）。采用借出 / 归还语义：{@link #take} 将实例移出缓存，
+ * 运行结束后通过 {@link #put} 归还，保证同一实例不会被并发运行。
+ * <ul>
+ *   <li>指纹不一致（工具集变更等）时丢弃旧实例</li>
+ *   <li>空闲超过 TTL 的实例惰性淘汰</li>
+ *   <li>超过最大容量时淘汰最久未使用的实例</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ReActAgentCache {
+
+  private final boolean enabled;
+  private final int maxSize;
+  private final long idleTtlMillis;
+  private final Clock clock;
+
+  // conversationId -> 空闲 Agent，按访问顺序排列（LRU）
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  @Autowired
+  public ReActAgentCache(
+    @Value("${app.agent.cache.enabled:true}") boolean enabled,
+    @Value("${app.agent.cache.max-size:256}") int maxSize,
+    @Value("${app.agent.cache.idle-ttl:600}") long idleTtlSeconds) {
+    this(enabled, maxSize, idleTtlSeconds, Clock.systemUTC());
+  }
+
+  public ReActAgentCache(boolean enabled, int maxSize, long idleTtlSeconds, Clock clock) {
+    this.enabled = enabled;
+    this.maxSize = maxSize;
+    this.idleTtlMillis = idleTtlSeconds * 1000;
+    this.clock = clock;
+  }
+
+  /**
+   * 借出会话的空闲 Agent
+   *
+   * @param fingerprint 期望的 Agent 配置指纹，不一致时丢弃缓存实例
+   * @return 可复用的 Agent；无可用实例时返回 null
+   */
+  public synchronized ReActAgent take(String conversationId, String fingerprint) {
+    if (!enabled) {
+      return null;
+    }
+    Entry entry = entries.remove(conversationId);
+    if (entry == null) {
+      return null;
+    }
+    if (isExpired(entry, clock.millis())) {
+      log.debug("Discarding idle agent for conversationId={}: expired", conversationId);
+      return null;
+    }
+    if (!Objects.equals(entry.fingerprint(), fingerprint)) {
+      log.debug("Discarding cached agent for conversationId={}: configuration changed",
+        conversationId);
+      return null;
+    }
+    if (entry.agent().getState() != AgentState.IDLE) {
+      log.warn("Discarding cached agent for conversationId={}: not idle (state={})",
+        conversationId, entry.agent().getState());
+      return null;
+    }
+    return entry.agent();
+  }
+
+  /**
+   * 归还空闲 Agent
+   */
+  public synchronized void put(String conversationId, String fingerprint, ReActAgent agent) {
+    if (!enabled || maxSize <= 0) {
+      return;
+    }
+    long now = clock.millis();
+    entries.put(conversationId, new Entry(agent, fingerprint, now));
+    evictExpired(now);
+    Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+    while (entries.size() > maxSize && it.hasNext()) {
+      String evicted = it.next().getKey();
+      it.remove();
+      log.debug("Evicted least recently used agent: conversationId={}", evicted);
+    }
+  }
+
+  /**
+   * 淘汰会话的缓存 Agent（会话归档 / 结束时调用）
+   */
+  public synchronized void evict(String conversationId) {
+    if (entries.remove(conversationId) != null) {
+      log.debug("Evicted cached agent: conversationId={}", conversationId);
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private void evictExpired(long now) {
+    entries.values().removeIf(entry -> isExpired(entry, now));
+  }
+
+  private boolean isExpired(Entry entry, long now) {
+    return now - entry.lastUsedAt() > idleTtlMillis;
+  }
+
+  private record Entry(ReActAgent agent, String fingerprint, long lastUsedAt) {
+
+  }
+}
@@ -1,5 +1,7 @@
 package com.github.spud.sample.ai.agent.domain.session;
 
+import com.github.spud.sample.ai.agent.domain.model.ModelRoutingPolicy;
+import com.github.spud.sample.ai.agent.domain.state.CompletionPolicy;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -26,6 +28,23 @@ public class ReActAgentDefaultsProperties {
   @Value("${app.model.provider:openai}")
   private String modelProvider;
 
+  // Sampling temperature for agent THINK calls (unset: provider default); 0 makes calls cacheable
+  @Value("${app.model.temperature:#{null}}")
+  private Double modelTemperature;
+
   @Value("${app.agent.tool-choice-default:AUTO}")
   private String toolChoiceDefault;
+
+  @Value("${app.agent.completion-policy:TEXT_ANSWER}")
+  private CompletionPolicy completionPolicy;
+
+  @Value("${app.model.routing.policy:PRIMARY_ONLY}")
+  private ModelRoutingPolicy modelRoutingPolicy;
+
+  // Cheap model for ModelRoutingPolicy.CHEAP_STEPS, provider[:model]
+  @Value("${app.model.routing.cheap-model:ollama}")
+  private String cheapModel;
+
+  @Value("${app.agent.speculative-tools.enabled:false}")
+  private boolean speculativeToolsEnabled;
 }
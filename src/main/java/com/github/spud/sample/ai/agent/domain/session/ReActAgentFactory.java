@@ -11,11 +11,20 @@ import org.springframework.ai.chat.messages.AbstractMessage;
 public interface ReActAgentFactory {
 
   /**
-   * Create a new agent instance based on session configuration
+   * Create (or reuse a cached) agent instance based on session configuration
    *
    * @param session         session configuration record
    * @param historyMessages conversation history to initialize agent with
-   * @return new agent instance
+   * @return agent instance, exclusively owned by the caller until {@link #release}
    */
   ReActAgent create(ReActAgentSession session, List<AbstractMessage> historyMessages);
+
+  /**
+   * Hand an agent back after its run so it can be reused for the next message of the session
+   *
+   * @param session session configuration record
+   * @param agent   agent previously returned by {@link #create}
+   */
+  default void release(ReActAgentSession session, ReActAgent agent) {
+  }
 }
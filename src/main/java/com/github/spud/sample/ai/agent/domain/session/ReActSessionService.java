@@ -1,17 +1,21 @@
 package com.github.spud.sample.ai.agent.domain.session;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.github.spud.sample.ai.agent.application.config.AgentSchedulers;
 import com.github.spud.sample.ai.agent.application.config.MessageHistoryProperties;
-import com.github.spud.sample.ai.agent.domain.agent.BaseAgent;
-import com.github.spud.sample.ai.agent.domain.message.AgentMessage;
+import com.github.spud.sample.ai.agent.domain.agent.ReActAgent;
 import com.github.spud.sample.ai.agent.domain.message.AgentMessageMapper;
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentConfig;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentConfigRepository;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageRepository;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.Data;
@@ -24,6 +28,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 /**
  * Business service for React Agent sessions
@@ -41,6 +46,12 @@ public class ReActSessionService {
   private final AgentMessageMapper messageMapper;
   private final TransactionTemplate transactionTemplate;
   private final MessageHistoryProperties messageHistoryProperties;
+  private final AgentSchedulers agentSchedulers;
+  private final MessageJournal messageJournal;
+  private final SessionConfigCache sessionConfigCache;
+  private final AgentMetrics agentMetrics;
+  private final ConversationArchiver conversationArchiver;
+  private final ConversationForker conversationForker;
   private final com.github.spud.sample.ai.agent.domain.tools.ToolRegistry toolRegistry;
 
   public ReActAgentConfig mergeDefaults(CreateAgentRequest request) {
@@ -66,8 +77,7 @@ public class ReActSessionService {
   @Transactional
   public String defaultAgentId() {
     // Find or create first active agent (optimized query instead of full table scan)
-    return agentConfigRepository.findFirstByStatusOrderByCreatedAtAsc(ReActAgentStatus.ACTIVE)
-        .map(ReActAgentConfig::getAgentId)
+    return sessionConfigCache.findDefaultAgentId()
         .orElseGet(() -> {
           log.warn("No active agent configuration found. Creating a default agent.");
           CreateAgentRequest defaultRequest = CreateAgentRequest.builder()
@@ -91,6 +101,7 @@ public class ReActSessionService {
     config.setName(req.getName());
     config.setDescription(req.getDescription());
     config.setAgentType(req.getAgentType());
+    config.setMessageRetentionDays(req.getMessageRetentionDays());
 
     agentConfigRepository.save(config);
 
@@ -113,7 +124,7 @@ public class ReActSessionService {
     }
 
     // Load agent configuration
-    ReActAgentConfig agent = agentConfigRepository.findByAgentId(agentId)
+    ReActAgentConfig agent = sessionConfigCache.findAgent(agentId)
       .orElseThrow(() -> new IllegalArgumentException("Agent not found: " + agentId));
 
     // Get enabled tools snapshot directly (now List<String> thanks to JSON mapping)
@@ -161,8 +172,68 @@ public class ReActSessionService {
     return conversationId;
   }
 
-  public List<String> listSessions() {
-    return sessionRepository.listAllConversationIds();
+  /**
+   * List sessions, most recently active first, one keyset page at a time
+   *
+   * @param agentId only sessions of this agent, or null
+   * @param status  only sessions in this status, or null
+   * @param cursor  {@link SessionPage#nextCursor()} of the previous page, or null for the first
+   * @param limit   page size
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public SessionPage listSessions(String agentId, ReActSessionStatus status, String cursor,
+    int limit) {
+    SessionPage.Cursor after = StringUtils.hasText(cursor) ? SessionPage.Cursor.decode(cursor) : null;
+    // One extra row tells whether another page follows
+    List<SessionSummary> rows = sessionRepository.listSessions(
+      StringUtils.hasText(agentId) ? agentId : null, status, after, limit + 1);
+    if (rows.size() <= limit) {
+      return new SessionPage(rows, null);
+    }
+    List<SessionSummary> items = rows.subList(0, limit);
+    return new SessionPage(items, SessionPage.Cursor.after(items.get(limit - 1)).encode());
+  }
+
+  /**
+   * Fork a session: the new session continues the parent's history up to {@code seq} (inclusive)
+   * without copying it
+   *
+   * @param seq fork point, or null to fork at the parent's latest message
+   * @return the new session
+   * @throws SessionNotFoundException if the parent does not exist
+   * @throws IllegalArgumentException if {@code seq} is outside the parent's history
+   */
+  public ReActAgentSession forkSession(String conversationId, Long seq) {
+    return conversationForker.fork(conversationId, seq);
+  }
+
+  /**
+   * A session's history including the prefix shared with its ancestors, oldest first
+   *
+   * @throws SessionNotFoundException if the session does not exist
+   */
+  public List<MessageDto> listMessages(String conversationId, int limit) {
+    if (messageJournal.isEnabled()) {
+      messageJournal.flush(conversationId).join();
+    }
+    ReActAgentSession session = findSession(conversationId).session();
+    return messageRepository.readMessages(conversationForker.historySegments(session), limit,
+      (rs, rowNum) -> MessageDto.builder()
+        .seq(rs.getLong("seq"))
+        .messageType(MessageType.valueOf(rs.getString("message_type")))
+        .content(rs.getString("content"))
+        .toolCallId(rs.getString("tool_call_id"))
+        .toolName(rs.getString("tool_name"))
+        .build());
+  }
+
+  /**
+   * Check that a session exists, for endpoints that read its side data (e.g. traces)
+   *
+   * @throws SessionNotFoundException if the session does not exist
+   */
+  public void requireSession(String conversationId) {
+    findSession(conversationId);
   }
 
   /**
@@ -173,42 +244,57 @@ public class ReActSessionService {
     // Step 1: Load and lock session (runs on HTTP thread with transaction context)
     SessionData sessionData = loadSessionForProcessing(conversationId);
     
-    // Step 2+3: Run agent async, then persist
-    return Mono.defer(() -> {
-      // Load history entities with configurable window size
-      List<ReActAgentMessage> historyEntities = messageRepository.listMessages(conversationId, 
-        messageHistoryProperties);
-      List<AgentMessage> historyDomains = messageMapper.toDomainList(historyEntities);
-      List<AbstractMessage> historyMessages = messageMapper.toSpringMessages(historyDomains);
+    // Step 2+3: Run agent async, then persist. With the journal, earlier runs' messages must be
+    // in the database before history is read. The flush completes on the journal's flusher
+    // thread, so history loading and agent set-up move off it.
+    Mono<Void> journalFlushed = messageJournal.isEnabled()
+      ? Mono.fromFuture(() -> messageJournal.flush(conversationId))
+        .publishOn(agentSchedulers.persistence())
+      : Mono.empty();
+    return journalFlushed.then(Mono.defer(() -> {
+      // Load history with configurable window size (following the fork chain), mapping rows
+      // straight to Spring AI messages
+      List<AbstractMessage> historyMessages = messageMapper.pairToolCalls(
+        messageRepository.readMessages(conversationForker.historySegments(sessionData.session),
+          messageHistoryProperties, messageMapper::fromRow));
 
       int beforeSize = historyMessages.size();
-
-      // Create agent instance (new instance, not singleton)
-      BaseAgent agent = agentFactory.create(sessionData.session, historyMessages);
+      agentMetrics.recordHistorySize(beforeSize);
+
+      // Create agent instance (per session, reused across messages via the factory cache)
+      ReActAgent agent = agentFactory.create(sessionData.session, historyMessages);
+      AtomicInteger journaled = new AtomicInteger();
+      if (messageJournal.isEnabled()) {
+        // Journal messages as they are produced instead of persisting at the end of the run
+        agent.setMessageSink(message -> {
+          messageJournal.append(messageMapper.toEntity(message, sessionData.session));
+          journaled.incrementAndGet();
+        });
+      }
 
       // Run agent asynchronously
       return agent.run(content)
-        .subscribeOn(reactor.core.scheduler.Schedulers.boundedElastic())
+        .subscribeOn(agentSchedulers.agentRuns())
         .map(answer -> {
           // Calculate appended messages by comparing sizes
           List<AbstractMessage> appendedSpringMessages = historyMessages.subList(beforeSize,
             historyMessages.size());
 
-          // Convert appended Spring messages back to domain, then to entities for persistence
-          List<AgentMessage> appendedDomains = appendedSpringMessages.stream()
-            .map(messageMapper::fromSpringMessage)
-            .collect(Collectors.toList());
-
-          List<ReActAgentMessage> appendedEntities = appendedDomains.stream()
-            .map(domain -> messageMapper.toEntity(domain, sessionData.session))
-            .collect(Collectors.toList());
+          // Map appended Spring messages straight to entities for persistence
+          List<ReActAgentMessage> appendedEntities = toEntities(appendedSpringMessages,
+            sessionData.session);
 
           // Persist messages - use syncPersistMessages for thread-safe transaction handling
-          syncPersistMessages(conversationId, appendedEntities);
+          if (messageJournal.isEnabled()) {
+            journalRemaining(appendedEntities, journaled.get());
+          } else {
+            syncPersistMessages(conversationId, appendedEntities);
+          }
 
           // Determine if finished (check for terminate or finalAnswer presence)
           boolean finished = answer != null && !answer.isEmpty();
 
+          agentMetrics.recordAppendedMessages(appendedEntities.size());
           log.info("Processed message: conversationId={}, appendedMessages={}, finished={}",
             conversationId, appendedEntities.size(), finished);
 
@@ -216,22 +302,20 @@ public class ReActSessionService {
             .conversationId(conversationId)
             .answer(answer)
             .finished(finished)
-            .appendedMessages(toMessageDtos(appendedDomains))
+            .appendedMessages(toMessageDtos(appendedEntities))
             .build();
         })
         .onErrorResume(ex -> {
           // Ensure we persist any messages the agent appended before the failure
           List<AbstractMessage> appendedSpringMessages = historyMessages.subList(beforeSize,
             historyMessages.size());
-          List<AgentMessage> appendedDomains = appendedSpringMessages.stream()
-            .map(messageMapper::fromSpringMessage)
-            .collect(Collectors.toList());
+          // Map appended Spring messages straight to entities for persistence
+          List<ReActAgentMessage> appendedEntities = toEntities(appendedSpringMessages,
+            sessionData.session);
 
-          List<ReActAgentMessage> appendedEntities = appendedDomains.stream()
-            .map(domain -> messageMapper.toEntity(domain, sessionData.session))
-            .collect(Collectors.toList());
-
-          if (!appendedEntities.isEmpty()) {
+          if (messageJournal.isEnabled()) {
+            journalRemaining(appendedEntities, journaled.get());
+          } else if (!appendedEntities.isEmpty()) {
             try {
               syncPersistMessages(conversationId, appendedEntities);
             } catch (Exception persistEx) {
@@ -245,34 +329,104 @@ public class ReActSessionService {
             .conversationId(conversationId)
             .answer(ex.getMessage())
             .finished(true)
-            .appendedMessages(toMessageDtos(appendedDomains))
+            .appendedMessages(toMessageDtos(appendedEntities))
             .build());
+        })
+        .flatMap(response -> awaitJournalAck(conversationId).thenReturn(response))
+        .doFinally(signal -> {
+          // A cancelled run may still be executing; never hand it out again
+          if (signal != SignalType.CANCEL) {
+            agent.setMessageSink(null);
+            agentFactory.release(sessionData.session, agent);
+          }
         });
-    });
+    }));
+  }
+
+  /**
+   * Journal messages the agent appended without going through its message sink
+   */
+  private void journalRemaining(List<ReActAgentMessage> appendedEntities, int journaled) {
+    for (int i = journaled; i < appendedEntities.size(); i++) {
+      messageJournal.append(appendedEntities.get(i));
+    }
+  }
+
+  /**
+   * In ack-after-flush mode (the default), wait until the conversation's journaled messages are in
+   * the database. The flush only covers this node's journal, which is why ASYNC requires
+   * conversations to be pinned to one node.
+   */
+  private Mono<Void> awaitJournalAck(String conversationId) {
+    if (!messageJournal.isEnabled()
+      || messageJournal.getAckMode() != MessageJournalProperties.AckMode.FLUSH) {
+      return Mono.empty();
+    }
+    // Do not complete the response on the journal's flusher thread
+    return Mono.fromFuture(() -> messageJournal.flush(conversationId))
+      .publishOn(agentSchedulers.persistence());
   }
 
   /**
    * Transactional boundary: Load session and bump version
-   * Uses TransactionTemplate to ensure transaction works on any thread
+   * Uses TransactionTemplate to ensure transaction works on any thread. The session snapshot comes
+   * from {@link SessionConfigCache}, so the version bump is the only database round-trip.
    */
   public SessionData loadSessionForProcessing(String conversationId) {
     // Use TransactionTemplate to execute in a transaction regardless of thread
     return transactionTemplate.execute(status -> {
-      // Load session
-      ReActAgentSession session = sessionRepository.findByConversationId(conversationId)
-        .orElseThrow(() -> new SessionNotFoundException("Session not found: " + conversationId));
+      SessionConfigCache.SessionEntry entry = findActiveSession(conversationId);
 
       // Serialize concurrent requests for same conversation (optimistic locking)
-      Integer versionBumped = sessionRepository.tryBumpVersion(conversationId, session.getVersion());
+      Integer versionBumped = sessionRepository.tryBumpVersion(conversationId, entry.version());
+      String outcome = "ok";
       if (versionBumped != 1) {
-        throw new VersionConflictException(
-          "Concurrent modification detected for conversationId: " + conversationId);
+        // Cached version is behind (another node served the session): reload once and retry
+        if (!sessionConfigCache.invalidateIfUnchanged(conversationId, entry.version())) {
+          throw versionConflict(conversationId);
+        }
+        // The reload may be the first to see that another node archived the session meanwhile
+        entry = findActiveSession(conversationId);
+        versionBumped = sessionRepository.tryBumpVersion(conversationId, entry.version());
+        if (versionBumped != 1) {
+          throw versionConflict(conversationId);
+        }
+        outcome = "stale_retry";
       }
+      sessionConfigCache.versionBumped(conversationId, entry.version());
+      agentMetrics.recordSessionLoad(outcome);
 
-      return new SessionData(session);
+      return new SessionData(entry.session());
     });
   }
 
+  /**
+   * Session snapshot, rehydrating a cold (ARCHIVED) conversation from its archive first
+   */
+  private SessionConfigCache.SessionEntry findActiveSession(String conversationId) {
+    SessionConfigCache.SessionEntry entry = findSession(conversationId);
+    if (entry.session().getStatus() == ReActSessionStatus.ARCHIVED) {
+      // Cold conversation: bring its messages back from the archive before running
+      conversationArchiver.rehydrate(entry.session());
+      entry = findSession(conversationId);
+    }
+    return entry;
+  }
+
+  private SessionConfigCache.SessionEntry findSession(String conversationId) {
+    return sessionConfigCache.findSession(conversationId)
+      .orElseThrow(() -> {
+        agentMetrics.recordSessionLoad("not_found");
+        return new SessionNotFoundException("Session not found: " + conversationId);
+      });
+  }
+
+  private VersionConflictException versionConflict(String conversationId) {
+    agentMetrics.recordSessionLoad("conflict");
+    return new VersionConflictException(
+      "Concurrent modification detected for conversationId: " + conversationId);
+  }
+
   /**
    * Transactional boundary: Persist messages
    * Uses TransactionTemplate to handle transactions from non-HTTP threads (e.g., boundedElastic)
@@ -299,8 +453,17 @@ public class ReActSessionService {
     }
   }
 
-  private List<MessageDto> toMessageDtos(List<AgentMessage> domains) {
-    return domains.stream()
+  private List<ReActAgentMessage> toEntities(List<AbstractMessage> messages,
+    ReActAgentSession session) {
+    List<ReActAgentMessage> entities = new ArrayList<>(messages.size());
+    for (AbstractMessage message : messages) {
+      entities.add(messageMapper.toEntity(message, session));
+    }
+    return entities;
+  }
+
+  private List<MessageDto> toMessageDtos(List<ReActAgentMessage> entities) {
+    return entities.stream()
       .map(d -> MessageDto.builder()
         .messageType(d.getMessageType())
         .content(d.getContent())
@@ -324,6 +487,7 @@ public class ReActSessionService {
     private String nextStepPrompt;
     private Integer maxSteps;
     private String toolChoice;
+    private Integer messageRetentionDays;
   }
 
   @Data
@@ -347,6 +511,11 @@ public class ReActSessionService {
   @lombok.Builder
   public static class MessageDto {
 
+    /**
+     * Position in the conversation (fork point for {@code forkSession}); only set on read
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long seq;
     private MessageType messageType;
     private String content;
     private String toolCallId;
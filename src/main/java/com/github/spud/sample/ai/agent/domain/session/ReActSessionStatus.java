@@ -6,5 +6,9 @@ package com.github.spud.sample.ai.agent.domain.session;
 public enum ReActSessionStatus {
   ACTIVE,
   FINISHED,
-  ERROR
+  ERROR,
+  /**
+   * Messages moved to the cold archive; rehydrated on the next message
+   */
+  ARCHIVED
 }
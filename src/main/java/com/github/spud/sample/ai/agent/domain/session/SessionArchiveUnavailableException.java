@@ -0,0 +1,19 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import lombok.Getter;
+
+/**
+ * 已归档会话的归档文件不存在或不可读，无法回灌（例如归档目录不是各节点共享的存储）。
+ * 会话保持 ARCHIVED，归档文件恢复可读后即可再次回灌。
+ */
+@Getter
+public class SessionArchiveUnavailableException extends RuntimeException {
+
+  private final String conversationId;
+
+  public SessionArchiveUnavailableException(String conversationId, String message,
+    Throwable cause) {
+    super(message, cause);
+    this.conversationId = conversationId;
+  }
+}
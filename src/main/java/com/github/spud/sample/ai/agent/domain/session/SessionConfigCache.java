@@ -0,0 +1,293 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentConfig;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentConfigRepository;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会话 / Agent 配置热缓存（JPA 之前的本地读穿缓存）
+ * <p>
+ * 会话快照、Agent 配置和会话启用的 MCP server 列表在创建后基本不变，每条消息却要各查一次库。
+ * 本缓存在本地保存这些只读快照，发消息时只剩版本号递增这一次数据库往返：
+ * <ul>
+ *   <li>会话版本号记录在缓存条目中，递增成功后就地更新；其它节点递增导致本地版本落后时，
+ *   由调用方通过 {@link #invalidateIfUnchanged} 重新加载一次</li>
+ *   <li>显式淘汰（归档、配置变更）通过 Redis 频道广播到所有节点</li>
+ *   <li>TTL 兜底：Redis 不可用时失效消息可能丢失，最长陈旧时间为 TTL</li>
+ * </ul>
+ * 返回的实体是共享的脱管快照，调用方只读不改。
+ */
+@Slf4j
+@Component
+public class SessionConfigCache implements MessageListener {
+
+  private static final String SESSION = "session";
+  private static final String AGENT = "agent";
+
+  private final ReActAgentSessionRepository sessionRepository;
+  private final ReActAgentConfigRepository agentConfigRepository;
+  private final StringRedisTemplate redisTemplate;
+  private final boolean enabled;
+  private final String channel;
+
+  private final LocalCache<SessionEntry> sessions;
+  private final LocalCache<ReActAgentConfig> agents;
+  private final LocalCache<List<String>> mcpServers;
+  private final LocalCache<String> defaultAgent;
+
+  @Autowired
+  public SessionConfigCache(ReActAgentSessionRepository sessionRepository,
+    ReActAgentConfigRepository agentConfigRepository,
+    ObjectProvider<StringRedisTemplate> redisTemplate,
+    @Value("${app.session.cache.enabled:true}") boolean enabled,
+    @Value("${app.session.cache.max-size:10000}") int maxSize,
+    @Value("${app.session.cache.ttl:600}") long ttlSeconds,
+    @Value("${app.session.cache.invalidation.enabled:true}") boolean invalidationEnabled,
+    @Value("${app.session.cache.invalidation.channel:agent:session-cache:invalidate}") String channel) {
+    this(sessionRepository, agentConfigRepository,
+      invalidationEnabled ? redisTemplate.getIfAvailable() : null, enabled, maxSize, ttlSeconds,
+      channel, Clock.systemUTC());
+  }
+
+  public SessionConfigCache(ReActAgentSessionRepository sessionRepository,
+    ReActAgentConfigRepository agentConfigRepository, StringRedisTemplate redisTemplate,
+    boolean enabled, int maxSize, long ttlSeconds, String channel, Clock clock) {
+    this.sessionRepository = sessionRepository;
+    this.agentConfigRepository = agentConfigRepository;
+    this.redisTemplate = redisTemplate;
+    this.enabled = enabled;
+    this.channel = channel;
+    this.sessions = new LocalCache<>(maxSize, ttlSeconds * 1000, clock);
+    this.agents = new LocalCache<>(maxSize, ttlSeconds * 1000, clock);
+    this.mcpServers = new LocalCache<>(maxSize, ttlSeconds * 1000, clock);
+    this.defaultAgent = new LocalCache<>(1, ttlSeconds * 1000, clock);
+  }
+
+  public String getChannel() {
+    return channel;
+  }
+
+  /**
+   * 会话快照及本节点已知的版本号
+   */
+  public Optional<SessionEntry> findSession(String conversationId) {
+    if (!enabled) {
+      return sessionRepository.findByConversationId(conversationId)
+        .map(session -> new SessionEntry(session, session.getVersion()));
+    }
+    return Optional.ofNullable(sessions.get(conversationId,
+      id -> sessionRepository.findByConversationId(id)
+        .map(session -> new SessionEntry(session, session.getVersion()))
+        .orElse(null)));
+  }
+
+  /**
+   * 记录版本号递增成功（仅当缓存中的版本号仍为 expectedVersion 时更新）
+   */
+  public void versionBumped(String conversationId, int expectedVersion) {
+    sessions.replace(conversationId, entry -> entry.version() == expectedVersion
+      ? new SessionEntry(entry.session(), expectedVersion + 1) : entry);
+  }
+
+  /**
+   * 递增版本号失败后调用：缓存的版本号未变说明是其它节点推进了版本（本地快照落后），淘汰后由调用方重新加载；
+   * 已变说明本节点有并发请求抢先递增，属于真正的冲突
+   *
+   * @return true 表示已淘汰本地快照，可重新加载后重试
+   */
+  public boolean invalidateIfUnchanged(String conversationId, int observedVersion) {
+    if (!enabled) {
+      return false;
+    }
+    return sessions.removeIf(conversationId, entry -> entry.version() == observedVersion);
+  }
+
+  public Optional<ReActAgentConfig> findAgent(String agentId) {
+    if (!enabled) {
+      return agentConfigRepository.findByAgentId(agentId);
+    }
+    return Optional.ofNullable(
+      agents.get(agentId, id -> agentConfigRepository.findByAgentId(id).orElse(null)));
+  }
+
+  /**
+   * 默认 Agent（最早创建的 ACTIVE Agent）ID
+   */
+  public Optional<String> findDefaultAgentId() {
+    Function<String, String> loader = ignored -> agentConfigRepository
+      .findFirstByStatusOrderByCreatedAtAsc(ReActAgentStatus.ACTIVE)
+      .map(ReActAgentConfig::getAgentId)
+      .orElse(null);
+    if (!enabled) {
+      return Optional.ofNullable(loader.apply(AGENT));
+    }
+    return Optional.ofNullable(defaultAgent.get(AGENT, loader));
+  }
+
+  public List<String> enabledMcpServers(String conversationId) {
+    if (!enabled) {
+      return sessionRepository.listEnabledMcpServers(conversationId);
+    }
+    return mcpServers.get(conversationId,
+      id -> List.copyOf(sessionRepository.listEnabledMcpServers(id)));
+  }
+
+  /**
+   * 淘汰会话快照（会话状态变更 / 归档时调用），并通知其它节点
+   */
+  public void evictSession(String conversationId) {
+    evictLocal(SESSION, conversationId);
+    publish(SESSION, conversationId);
+  }
+
+  /**
+   * 淘汰 Agent 配置（配置变更 / 停用时调用），并通知其它节点
+   */
+  public void evictAgent(String agentId) {
+    evictLocal(AGENT, agentId);
+    publish(AGENT, agentId);
+  }
+
+  public void clear() {
+    sessions.clear();
+    agents.clear();
+    mcpServers.clear();
+    defaultAgent.clear();
+  }
+
+  /**
+   * Redis 失效消息，格式：{@code session:<conversationId>} / {@code agent:<agentId>}
+   */
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    int separator = body.indexOf(':');
+    if (separator <= 0) {
+      log.warn("Ignoring malformed session cache invalidation: {}", body);
+      return;
+    }
+    evictLocal(body.substring(0, separator), body.substring(separator + 1));
+  }
+
+  private void evictLocal(String type, String id) {
+    switch (type) {
+      case SESSION -> {
+        sessions.remove(id);
+        mcpServers.remove(id);
+      }
+      case AGENT -> {
+        agents.remove(id);
+        defaultAgent.clear();
+      }
+      default -> log.warn("Ignoring session cache invalidation of unknown type: {}", type);
+    }
+  }
+
+  private void publish(String type, String id) {
+    if (redisTemplate == null) {
+      return;
+    }
+    try {
+      redisTemplate.convertAndSend(channel, type + ":" + id);
+    } catch (Exception e) {
+      log.warn("Failed to publish session cache invalidation {}:{}: {}", type, id, e.getMessage());
+    }
+  }
+
+  /**
+   * 会话快照与版本号；版本号单独保存，快照实体本身不被修改
+   */
+  public record SessionEntry(ReActAgentSession session, int version) {
+
+  }
+
+  /**
+   * 带 TTL 的 LRU 本地缓存；加载在锁外执行，并发未命中时可能重复加载同一键
+   */
+  private static class LocalCache<V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    LocalCache(int maxSize, long ttlMillis, Clock clock) {
+      this.maxSize = maxSize;
+      this.ttlMillis = ttlMillis;
+      this.clock = clock;
+    }
+
+    V get(String key, Function<String, V> loader) {
+      synchronized (this) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && clock.millis() - entry.loadedAt() <= ttlMillis) {
+          return entry.value();
+        }
+      }
+      V value = loader.apply(key);
+      // Misses are not cached: an unknown id may be created right after
+      if (value != null) {
+        put(key, value);
+      }
+      return value;
+    }
+
+    synchronized void replace(String key, Function<V, V> update) {
+      Entry<V> entry = entries.get(key);
+      if (entry != null) {
+        entries.put(key, new Entry<>(update.apply(entry.value()), entry.loadedAt()));
+      }
+    }
+
+    synchronized boolean removeIf(String key, Predicate<V> condition) {
+      Entry<V> entry = entries.get(key);
+      if (entry == null || condition.test(entry.value())) {
+        entries.remove(key);
+        return true;
+      }
+      return false;
+    }
+
+    synchronized void remove(String key) {
+      entries.remove(key);
+    }
+
+    synchronized void clear() {
+      entries.clear();
+    }
+
+    private synchronized void put(String key, V value) {
+      if (maxSize <= 0) {
+        return;
+      }
+      entries.put(key, new Entry<>(value, clock.millis()));
+      Iterator<Map.Entry<String, Entry<V>>> it = entries.entrySet().iterator();
+      while (entries.size() > maxSize && it.hasNext()) {
+        it.next();
+        it.remove();
+      }
+    }
+  }
+
+  private record Entry<V>(V value, long loadedAt) {
+
+  }
+}
@@ -0,0 +1,49 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 会话列表的一页（按 updated_at、conversation_id 倒序的 keyset 分页）
+ *
+ * @param items      本页会话
+ * @param nextCursor 下一页游标，没有更多数据时为 null
+ */
+public record SessionPage(List<SessionSummary> items, String nextCursor) {
+
+  /**
+   * keyset 分页游标：上一页最后一条的 (updated_at, conversation_id)，对客户端不透明
+   */
+  public record Cursor(OffsetDateTime updatedAt, String conversationId) {
+
+    public static Cursor after(SessionSummary last) {
+      return new Cursor(last.getUpdatedAt(), last.getConversationId());
+    }
+
+    public String encode() {
+      String raw = updatedAt + "|" + conversationId;
+      return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException 游标格式不合法
+     */
+    public static Cursor decode(String cursor) {
+      try {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf('|');
+        if (separator <= 0 || separator == raw.length() - 1) {
+          throw new IllegalArgumentException("Invalid session cursor: " + cursor);
+        }
+        return new Cursor(OffsetDateTime.parse(raw.substring(0, separator)),
+          raw.substring(separator + 1));
+      } catch (DateTimeParseException e) {
+        throw new IllegalArgumentException("Invalid session cursor: " + cursor, e);
+      }
+    }
+  }
+}
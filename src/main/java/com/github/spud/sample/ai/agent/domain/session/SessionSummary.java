@@ -0,0 +1,36 @@
+package com.github.spud.sample.ai.agent.domain.session;
+
+import java.time.OffsetDateTime;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * 会话列表项（轻量投影）
+ * <p>
+ * 只包含 react_agent_session 的索引列与维护型计数器，不加载 prompt、工具快照或消息历史；
+ * 完整的会话内容见 {@link SessionSnapshot}
+ */
+@Value
+@Builder
+public class SessionSummary {
+
+  String conversationId;
+
+  String agentId;
+
+  ReActAgentType agentType;
+
+  ReActSessionStatus status;
+
+  /**
+   * 消息条数（追加消息时维护，不做 COUNT(*)）
+   */
+  int messageCount;
+
+  OffsetDateTime createdAt;
+
+  /**
+   * 最后活动时间，也是分页排序键
+   */
+  OffsetDateTime updatedAt;
+}
@@ -1,6 +1,7 @@
 package com.github.spud.sample.ai.agent.domain.state;
 
 import java.util.EnumSet;
+import java.util.List;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
 import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
@@ -27,6 +28,40 @@ import org.springframework.statemachine.config.builders.StateMachineTransitionCo
 @EnableStateMachineFactory
 public class AgentStateConfig extends EnumStateMachineConfigurerAdapter<AgentState, AgentEvent> {
 
+  /**
+   * 状态转换表，Spring StateMachine 与 {@link AgentStateEngine} 共用同一份定义
+   */
+  public static final List<AgentTransition> TRANSITIONS = List.of(
+    // IDLE -> THINKING
+    AgentTransition.of(AgentState.IDLE, AgentEvent.START, AgentState.THINKING),
+
+    // THINKING -> ACTING (有工具调用)
+    AgentTransition.of(AgentState.THINKING, AgentEvent.THINK_DONE_WITH_TOOLS, AgentState.ACTING),
+
+    // THINKING -> FINISHED (无工具调用，直接完成)
+    AgentTransition.of(AgentState.THINKING, AgentEvent.THINK_DONE_NO_TOOLS, AgentState.FINISHED),
+
+    // ACTING -> THINKING (继续循环)
+    AgentTransition.of(AgentState.ACTING, AgentEvent.ACT_DONE, AgentState.THINKING),
+
+    // ACTING -> FINISHED (terminate 工具)
+    AgentTransition.of(AgentState.ACTING, AgentEvent.TOOL_TERMINATE, AgentState.FINISHED),
+
+    // 终止条件: THINKING -> FINISHED
+    AgentTransition.of(AgentState.THINKING, AgentEvent.STOP_MAX_STEPS, AgentState.FINISHED),
+    AgentTransition.of(AgentState.THINKING, AgentEvent.STOP_EMPTY, AgentState.FINISHED),
+    AgentTransition.of(AgentState.THINKING, AgentEvent.STOP_DUPLICATE, AgentState.FINISHED),
+
+    // 终止条件: ACTING -> FINISHED
+    AgentTransition.of(AgentState.ACTING, AgentEvent.STOP_MAX_STEPS, AgentState.FINISHED),
+    AgentTransition.of(AgentState.ACTING, AgentEvent.STOP_EMPTY, AgentState.FINISHED),
+    AgentTransition.of(AgentState.ACTING, AgentEvent.STOP_DUPLICATE, AgentState.FINISHED),
+
+    // 错误处理
+    AgentTransition.of(AgentState.THINKING, AgentEvent.FAIL, AgentState.ERROR),
+    AgentTransition.of(AgentState.ACTING, AgentEvent.FAIL, AgentState.ERROR)
+  );
+
   @Override
   public void configure(StateMachineConfigurationConfigurer<AgentState, AgentEvent> config)
     throws Exception {
@@ -49,72 +84,11 @@ public class AgentStateConfig extends EnumStateMachineConfigurerAdapter<AgentSta
   @Override
   public void configure(StateMachineTransitionConfigurer<AgentState, AgentEvent> transitions)
     throws Exception {
-    transitions
-      // IDLE -> THINKING
-      .withExternal()
-      .source(AgentState.IDLE).target(AgentState.THINKING)
-      .event(AgentEvent.START)
-      .and()
-
-      // THINKING -> ACTING (有工具调用)
-      .withExternal()
-      .source(AgentState.THINKING).target(AgentState.ACTING)
-      .event(AgentEvent.THINK_DONE_WITH_TOOLS)
-      .and()
-
-      // THINKING -> FINISHED (无工具调用，直接完成)
-      .withExternal()
-      .source(AgentState.THINKING).target(AgentState.FINISHED)
-      .event(AgentEvent.THINK_DONE_NO_TOOLS)
-      .and()
-
-      // ACTING -> THINKING (继续循环)
-      .withExternal()
-      .source(AgentState.ACTING).target(AgentState.THINKING)
-      .event(AgentEvent.ACT_DONE)
-      .and()
-
-      // ACTING -> FINISHED (terminate 工具)
-      .withExternal()
-      .source(AgentState.ACTING).target(AgentState.FINISHED)
-      .event(AgentEvent.TOOL_TERMINATE)
-      .and()
-
-      // 终止条件: THINKING -> FINISHED
-      .withExternal()
-      .source(AgentState.THINKING).target(AgentState.FINISHED)
-      .event(AgentEvent.STOP_MAX_STEPS)
-      .and()
-      .withExternal()
-      .source(AgentState.THINKING).target(AgentState.FINISHED)
-      .event(AgentEvent.STOP_EMPTY)
-      .and()
-      .withExternal()
-      .source(AgentState.THINKING).target(AgentState.FINISHED)
-      .event(AgentEvent.STOP_DUPLICATE)
-      .and()
-
-      // 终止条件: ACTING -> FINISHED
-      .withExternal()
-      .source(AgentState.ACTING).target(AgentState.FINISHED)
-      .event(AgentEvent.STOP_MAX_STEPS)
-      .and()
-      .withExternal()
-      .source(AgentState.ACTING).target(AgentState.FINISHED)
-      .event(AgentEvent.STOP_EMPTY)
-      .and()
-      .withExternal()
-      .source(AgentState.ACTING).target(AgentState.FINISHED)
-      .event(AgentEvent.STOP_DUPLICATE)
-      .and()
-
-      // 错误处理
-      .withExternal()
-      .source(AgentState.THINKING).target(AgentState.ERROR)
-      .event(AgentEvent.FAIL)
-      .and()
-      .withExternal()
-      .source(AgentState.ACTING).target(AgentState.ERROR)
-      .event(AgentEvent.FAIL);
+    for (AgentTransition transition : TRANSITIONS) {
+      transitions
+        .withExternal()
+        .source(transition.source()).target(transition.target())
+        .event(transition.event());
+    }
   }
 }
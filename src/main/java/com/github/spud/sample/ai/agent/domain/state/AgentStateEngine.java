@@ -0,0 +1,76 @@
+package com.github.spud.sample.ai.agent.domain.state;
+
+import java.util.Collection;
+
+/**
+ * 轻量级 Agent 状态引擎
+ * <p>
+ * 将 {@link AgentStateConfig#TRANSITIONS} 编译为以枚举序号索引的转换表，查询与触发均为 O(1) 数组访问，
+ * 无锁、无分配。引擎本身不可变、不持有当前状态，因此可在所有 Agent 之间共享，避免每次请求构建
+ * Spring StateMachine 的开销；当前状态由调用方（BaseAgent）持有。
+ */
+public final class AgentStateEngine {
+
+  private static final AgentStateEngine STANDARD = compile(AgentStateConfig.TRANSITIONS);
+
+  // [source.ordinal()][event.ordinal()] -> target, null 表示不允许的转换
+  private final AgentState[][] table;
+
+  private AgentStateEngine(AgentState[][] table) {
+    this.table = table;
+  }
+
+  /**
+   * 与 {@link AgentStateConfig} 定义一致的共享引擎
+   */
+  public static AgentStateEngine standard() {
+    return STANDARD;
+  }
+
+  /**
+   * 编译转换表
+   *
+   * @throws IllegalArgumentException 同一 (source, event) 定义了多个目标状态
+   */
+  public static AgentStateEngine compile(Collection<AgentTransition> transitions) {
+    AgentState[][] table = new AgentState[AgentState.values().length][AgentEvent.values().length];
+    for (AgentTransition transition : transitions) {
+      AgentState[] row = table[transition.source().ordinal()];
+      AgentState existing = row[transition.event().ordinal()];
+      if (existing != null && existing != transition.target()) {
+        throw new IllegalArgumentException("Conflicting transitions for " + transition.source()
+          + " --(" + transition.event() + ")-->: " + existing + ", " + transition.target());
+      }
+      row[transition.event().ordinal()] = transition.target();
+    }
+    return new AgentStateEngine(table);
+  }
+
+  /**
+   * 查询目标状态
+   *
+   * @return 目标状态；转换未定义时返回 null
+   */
+  public AgentState target(AgentState source, AgentEvent event) {
+    return table[source.ordinal()][event.ordinal()];
+  }
+
+  public boolean accepts(AgentState source, AgentEvent event) {
+    return target(source, event) != null;
+  }
+
+  /**
+   * 触发事件
+   *
+   * @return 目标状态
+   * @throws IllegalStateException 当前状态不接受该事件
+   */
+  public AgentState fire(AgentState source, AgentEvent event) {
+    AgentState target = target(source, event);
+    if (target == null) {
+      throw new IllegalStateException(
+        "Invalid agent transition: " + source + " --(" + event + ")--> ?");
+    }
+    return target;
+  }
+}
@@ -0,0 +1,11 @@
+package com.github.spud.sample.ai.agent.domain.state;
+
+/**
+ * Agent 状态转换定义：source --(event)--> target
+ */
+public record AgentTransition(AgentState source, AgentEvent event, AgentState target) {
+
+  public static AgentTransition of(AgentState source, AgentEvent event, AgentState target) {
+    return new AgentTransition(source, event, target);
+  }
+}
@@ -0,0 +1,21 @@
+package com.github.spud.sample.ai.agent.domain.state;
+
+/**
+ * 模型只回复文本、不调用工具时的完成策略（ToolChoice.NONE 下文本总是最终回答）
+ */
+public enum CompletionPolicy {
+  /**
+   * 非空文本直接作为最终回答，简单问题一次 LLM 调用即可完成
+   */
+  TEXT_ANSWER,
+
+  /**
+   * 先注入一次纠正提示要求调用 terminate；再次只回复文本时接受该文本
+   */
+  CORRECT_ONCE,
+
+  /**
+   * 必须调用 terminate 才结束；每次只回复文本都注入纠正提示，直到 terminate 或达到 maxSteps
+   */
+  REQUIRE_TERMINATE
+}
@@ -65,7 +65,7 @@ public class DefaultLocalTool {
         """)
       .build();
 
-    ToolCallback callback = new ToolCallback() {
+    ToolCallback callback = new SideEffectFreeToolCallback() {
       @Override
       public ToolDefinition getToolDefinition() {
         return def;
@@ -99,7 +99,7 @@ public class DefaultLocalTool {
         """)
       .build();
 
-    return new ToolCallback() {
+    return new SideEffectFreeToolCallback() {
       @Override
       public ToolDefinition getToolDefinition() {
         return def;
@@ -109,8 +109,8 @@ public class DefaultLocalTool {
       public String call(String toolInput) {
         // 简单解析 JSON 获取 message
         try {
-          var node = JsonUtils.readTree(toolInput);
-          return "Echo: " + node.path("message").asText();
+          String message = JsonUtils.readField(toolInput, "message");
+          return "Echo: " + (message != null ? message : "");
         } catch (Exception e) {
           return "Echo: " + toolInput;
         }
@@ -0,0 +1,13 @@
+package com.github.spud.sample.ai.agent.domain.tools;
+
+import org.springframework.ai.tool.ToolCallback;
+
+/**
+ * 无副作用（只读）工具回调标记接口
+ * <p>
+ * 实现该接口的工具在注册到 {@link ToolRegistry} 时自动标记为无副作用，可在 THINK 阶段流式输出期间被投机执行；
+ * 若最终响应中不包含该调用，结果直接丢弃。
+ */
+public interface SideEffectFreeToolCallback extends ToolCallback {
+
+}
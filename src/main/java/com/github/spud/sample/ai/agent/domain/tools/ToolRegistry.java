@@ -6,14 +6,19 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 /**
  * 统一工具注册中心 支持本地工具与 MCP 远程工具的统一注册与解析
@@ -24,18 +29,34 @@ import org.springframework.stereotype.Component;
 public class ToolRegistry {
 
   /**
-   * 工具名 -> ToolCallback
+   * 工具名 -> ToolCallback（按工具名排序，保证遍历顺序稳定，工具 schema 前缀可被 provider 缓存）
    */
-  private final Map<String, ToolCallback> callbackMap = new ConcurrentHashMap<>();
+  private final Map<String, ToolCallback> callbackMap = new ConcurrentSkipListMap<>();
 
   /**
-   * 工具名 -> ToolDefinition
+   * 工具名 -> ToolDefinition（按工具名排序）
    */
-  private final Map<String, ToolDefinition> definitionMap = new ConcurrentHashMap<>();
+  private final Map<String, ToolDefinition> definitionMap = new ConcurrentSkipListMap<>();
+
+  /**
+   * 无副作用（只读）工具名，可在 THINK 阶段被投机执行
+   */
+  private final Set<String> sideEffectFreeTools = ConcurrentHashMap.newKeySet();
+
+  /**
+   * 工具集版本号，每次注册 / 注销递增，供缓存判断工具集是否变更
+   */
+  private final AtomicLong version = new AtomicLong();
 
   @Resource
   private List<ToolCallback> toolCallbacks;
 
+  /**
+   * 配置声明为无副作用的 MCP 工具（模型可见名 mcp.&lt;serverId&gt;.&lt;toolName&gt;）
+   */
+  @Value("${app.agent.speculative-tools.mcp-safe-tools:}")
+  private List<String> mcpSafeTools;
+
   /**
    * 初始化注册工具
    */
@@ -44,15 +65,22 @@ public class ToolRegistry {
     for (ToolCallback toolCallback : toolCallbacks) {
       register(toolCallback);
     }
+    if (mcpSafeTools != null) {
+      mcpSafeTools.stream().filter(StringUtils::hasText).forEach(this::markSideEffectFree);
+    }
   }
 
   /**
-   * 注册工具
+   * 注册工具，{@link SideEffectFreeToolCallback} 自动标记为无副作用
    */
   public void register(String toolName, ToolDefinition definition, ToolCallback callback) {
     log.info("Registering tool: {}", toolName);
     definitionMap.put(toolName, definition);
     callbackMap.put(toolName, callback);
+    if (callback instanceof SideEffectFreeToolCallback) {
+      markSideEffectFree(toolName);
+    }
+    version.incrementAndGet();
   }
 
   /**
@@ -63,6 +91,21 @@ public class ToolRegistry {
     register(def.name(), def, callback);
   }
 
+  /**
+   * 标记工具为无副作用（只读），允许投机预执行
+   */
+  public void markSideEffectFree(String toolName) {
+    log.info("Marking tool as side-effect-free: {}", toolName);
+    sideEffectFreeTools.add(toolName);
+  }
+
+  /**
+   * 工具是否无副作用
+   */
+  public boolean isSideEffectFree(String toolName) {
+    return sideEffectFreeTools.contains(toolName);
+  }
+
   /**
    * 注销工具
    */
@@ -70,6 +113,8 @@ public class ToolRegistry {
     log.info("Unregistering tool: {}", toolName);
     definitionMap.remove(toolName);
     callbackMap.remove(toolName);
+    sideEffectFreeTools.remove(toolName);
+    version.incrementAndGet();
   }
 
   /**
@@ -79,6 +124,8 @@ public class ToolRegistry {
     log.info("Unregistering tools with prefix: {}", prefix);
     callbackMap.keySet().removeIf(k -> k.startsWith(prefix));
     definitionMap.keySet().removeIf(k -> k.startsWith(prefix));
+    sideEffectFreeTools.removeIf(k -> k.startsWith(prefix));
+    version.incrementAndGet();
   }
 
   /**
@@ -142,6 +189,13 @@ public class ToolRegistry {
     return callbackMap.containsKey(toolName);
   }
 
+  /**
+   * 工具集版本号
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
   /**
    * 获取工具数量
    */
@@ -156,6 +210,8 @@ public class ToolRegistry {
     log.warn("Clearing all tools from registry");
     callbackMap.clear();
     definitionMap.clear();
+    sideEffectFreeTools.clear();
+    version.incrementAndGet();
   }
 
   /**
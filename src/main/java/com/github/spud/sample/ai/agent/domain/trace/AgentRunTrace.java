@@ -0,0 +1,186 @@
+package com.github.spud.sample.ai.agent.domain.trace;
+
+import com.github.spud.sample.ai.agent.domain.state.AgentEvent;
+import com.github.spud.sample.ai.agent.domain.state.AgentState;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.AgentTrace;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.util.StringUtils;
+
+/**
+ * Trace of one sampled agent run. The agent opens a step, the THINK/ACT phases add LLM and tool
+ * timings to it, and closing the step hands one {@link AgentTrace} row to the tracer's buffer.
+ * Tools running on other threads (speculative prefetch) may record into the open step, hence the
+ * synchronization; the lock is uncontended in the common case.
+ */
+public class AgentRunTrace {
+
+  private final AgentTracer tracer;
+  private final String traceId;
+  private final String conversationId;
+  private final int maxPayloadChars;
+
+  private Step current;
+
+  AgentRunTrace(AgentTracer tracer, String traceId, String conversationId, int maxPayloadChars) {
+    this.tracer = tracer;
+    this.traceId = traceId;
+    this.conversationId = conversationId;
+    this.maxPayloadChars = maxPayloadChars;
+  }
+
+  public String getTraceId() {
+    return traceId;
+  }
+
+  public synchronized void beginStep(int stepNumber) {
+    this.current = new Step(stepNumber, System.nanoTime());
+  }
+
+  public synchronized void onTransition(AgentEvent event, AgentState to) {
+    if (current != null) {
+      current.event = event.name();
+    }
+  }
+
+  /**
+   * One LLM call of the current step; a step may make several (e.g. escalation to the primary model)
+   */
+  public synchronized void recordLlmCall(String model, long durationNanos, ChatResponse response,
+    String promptSummary) {
+    if (current == null) {
+      return;
+    }
+    current.llmNanos += durationNanos;
+    current.promptSummary = promptSummary;
+    current.model = model;
+    if (response != null && response.getMetadata() != null) {
+      if (StringUtils.hasText(response.getMetadata().getModel())) {
+        current.model = response.getMetadata().getModel();
+      }
+      Usage usage = response.getMetadata().getUsage();
+      if (usage != null) {
+        current.promptTokens += orZero(usage.getPromptTokens());
+        current.completionTokens += orZero(usage.getCompletionTokens());
+      }
+    }
+  }
+
+  public synchronized void recordToolCalls(List<ToolCall> toolCalls) {
+    if (current == null) {
+      return;
+    }
+    for (ToolCall toolCall : toolCalls) {
+      Map<String, Object> call = new LinkedHashMap<>();
+      call.put("id", toolCall.id());
+      call.put("name", toolCall.name());
+      call.put("arguments", truncate(toolCall.arguments()));
+      current.toolCalls.add(call);
+    }
+  }
+
+  public synchronized void recordToolResult(ToolCall toolCall, long durationNanos, String result,
+    Throwable error) {
+    if (current == null) {
+      return;
+    }
+    Map<String, Object> entry = new LinkedHashMap<>();
+    entry.put("id", toolCall.id());
+    entry.put("name", toolCall.name());
+    entry.put("latencyMs", durationNanos / 1_000_000);
+    if (error != null) {
+      entry.put("error", truncate(error.getMessage()));
+    } else {
+      entry.put("result", truncate(result));
+    }
+    current.toolResults.add(entry);
+  }
+
+  /**
+   * Documents returned by a retrieval tool during the current step
+   */
+  public synchronized void recordRetrieval(List<Map<String, Object>> documents) {
+    if (current != null) {
+      current.retrievalDocs.addAll(documents);
+    }
+  }
+
+  public synchronized void endStep(AgentState state, Throwable error) {
+    Step step = this.current;
+    if (step == null) {
+      return;
+    }
+    this.current = null;
+
+    AgentTrace trace = new AgentTrace();
+    trace.setTraceId(traceId);
+    trace.setConversationId(conversationId);
+    trace.setStepNumber(step.number);
+    trace.setState(state.name());
+    trace.setEvent(step.event);
+    trace.setPromptSummary(step.promptSummary);
+    trace.setModel(step.model);
+    trace.setDurationMs((System.nanoTime() - step.startNanos) / 1_000_000);
+    if (step.llmNanos > 0) {
+      trace.setLlmDurationMs(step.llmNanos / 1_000_000);
+      trace.setPromptTokens(step.promptTokens);
+      trace.setCompletionTokens(step.completionTokens);
+    }
+    if (!step.toolCalls.isEmpty()) {
+      trace.setToolCalls(Map.of("calls", step.toolCalls));
+    }
+    if (!step.toolResults.isEmpty()) {
+      trace.setToolResults(Map.of("results", step.toolResults));
+    }
+    if (!step.retrievalDocs.isEmpty()) {
+      trace.setRetrievalDocs(Map.of("documents", step.retrievalDocs));
+    }
+    if (error != null) {
+      trace.setError(truncate(error.getMessage()));
+    }
+    trace.setCreatedAt(OffsetDateTime.now());
+    tracer.record(trace);
+  }
+
+  /**
+   * Drop a step left open by a cancelled run
+   */
+  public synchronized void abandon() {
+    this.current = null;
+  }
+
+  private String truncate(String value) {
+    return value != null && value.length() > maxPayloadChars
+      ? value.substring(0, maxPayloadChars) + "..." : value;
+  }
+
+  private static int orZero(Integer value) {
+    return value != null ? value : 0;
+  }
+
+  private static class Step {
+
+    final int number;
+    final long startNanos;
+    final List<Map<String, Object>> toolCalls = new ArrayList<>();
+    final List<Map<String, Object>> toolResults = new ArrayList<>();
+    final List<Map<String, Object>> retrievalDocs = new ArrayList<>();
+    String event;
+    String promptSummary;
+    String model;
+    long llmNanos;
+    int promptTokens;
+    int completionTokens;
+
+    Step(int number, long startNanos) {
+      this.number = number;
+      this.startNanos = startNanos;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.github.spud.sample.ai.agent.domain.trace;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Makes the calling run's trace visible to tool implementations (e.g. the RAG retrieval tool) for
+ * the duration of a tool call, without changing the ToolCallback signature
+ */
+public final class AgentTraceContext {
+
+  private static final ThreadLocal<AgentRunTrace> CURRENT = new ThreadLocal<>();
+
+  private AgentTraceContext() {
+  }
+
+  /**
+   * Run a tool call with the given trace (null: untraced) as the current trace
+   */
+  public static <T> T call(AgentRunTrace trace, Supplier<T> action) {
+    if (trace == null) {
+      return action.get();
+    }
+    AgentRunTrace previous = CURRENT.get();
+    CURRENT.set(trace);
+    try {
+      return action.get();
+    } finally {
+      if (previous != null) {
+        CURRENT.set(previous);
+      } else {
+        CURRENT.remove();
+      }
+    }
+  }
+
+  public static boolean isActive() {
+    return CURRENT.get() != null;
+  }
+
+  /**
+   * Record retrieved documents on the current step; no-op outside a traced tool call
+   */
+  public static void recordRetrieval(List<Map<String, Object>> documents) {
+    AgentRunTrace trace = CURRENT.get();
+    if (trace != null) {
+      trace.recordRetrieval(documents);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.github.spud.sample.ai.agent.domain.trace;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Agent 步骤追踪配置
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.trace")
+public class AgentTraceProperties {
+
+  /**
+   * 是否启用
+   */
+  private boolean enabled = false;
+
+  /**
+   * 采样率（按运行采样，0~1）；被采样的运行记录全部步骤
+   */
+  private double sampleRate = 1.0;
+
+  /**
+   * 环形缓冲区容量（向上取 2 的幂）；写满后丢弃新记录，不阻塞 Agent
+   */
+  private int capacity = 8192;
+
+  /**
+   * 单次批量写入的最大记录数
+   */
+  private int batchSize = 500;
+
+  /**
+   * 后台写入间隔
+   */
+  private Duration flushInterval = Duration.ofSeconds(1);
+
+  /**
+   * 工具参数 / 结果等文本字段的最大长度，超出截断
+   */
+  private int maxPayloadChars = 2000;
+}
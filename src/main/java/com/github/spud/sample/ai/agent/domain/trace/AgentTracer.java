@@ -0,0 +1,174 @@
+package com.github.spud.sample.ai.agent.domain.trace;
+
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.AgentTrace;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.AgentTraceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Agent 步骤追踪器
+ * <p>
+ * 按运行采样，为被采样的运行创建 {@link AgentRunTrace}；每个步骤结束时生成一条
+ * {@code agent_trace} 记录放入无锁环形缓冲区，由后台线程按 JDBC 批量写库。追踪不能拖慢 Agent：
+ * <ul>
+ *   <li>未被采样的运行不产生任何记录</li>
+ *   <li>缓冲区写满时丢弃新记录并计数（agent.trace.records{result=dropped}）</li>
+ *   <li>写库失败时丢弃该批次，不重试</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class AgentTracer {
+
+  private final AgentTraceRepository traceRepository;
+  private final AgentTraceProperties properties;
+  private final TraceRingBuffer<AgentTrace> buffer;
+  private final Counter recorded;
+  private final Counter dropped;
+  private final Counter written;
+  private final Counter failed;
+
+  private ScheduledExecutorService writer;
+
+  public AgentTracer(AgentTraceRepository traceRepository, AgentTraceProperties properties,
+    MeterRegistry meterRegistry) {
+    this.traceRepository = traceRepository;
+    this.properties = properties;
+    this.buffer = new TraceRingBuffer<>(properties.getCapacity());
+    this.recorded = counter(meterRegistry, "recorded");
+    this.dropped = counter(meterRegistry, "dropped");
+    this.written = counter(meterRegistry, "written");
+    this.failed = counter(meterRegistry, "failed");
+    Gauge.builder("agent.trace.buffer.size", buffer, TraceRingBuffer::size)
+      .description("Agent trace records waiting to be written")
+      .register(meterRegistry);
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    writer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "agent-trace-writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long intervalMs = Math.max(1, properties.getFlushInterval().toMillis());
+    writer.scheduleWithFixedDelay(this::flushQuietly, intervalMs, intervalMs,
+      TimeUnit.MILLISECONDS);
+    log.info("Agent tracing enabled: sampleRate={}, capacity={}", properties.getSampleRate(),
+      buffer.capacity());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (writer == null) {
+      return;
+    }
+    writer.shutdown();
+    try {
+      if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+        writer.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flushQuietly();
+    writer = null;
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /**
+   * 开始一次运行的追踪
+   *
+   * @return 运行追踪；未启用或未被采样时返回 null
+   */
+  public AgentRunTrace startRun(String conversationId) {
+    if (!properties.isEnabled()) {
+      return null;
+    }
+    double sampleRate = properties.getSampleRate();
+    if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      return null;
+    }
+    return new AgentRunTrace(this, UUID.randomUUID().toString(), conversationId,
+      properties.getMaxPayloadChars());
+  }
+
+  /**
+   * 放入缓冲区；写满时丢弃，从不阻塞调用方
+   */
+  void record(AgentTrace trace) {
+    if (buffer.offer(trace)) {
+      recorded.increment();
+    } else {
+      dropped.increment();
+    }
+  }
+
+  /**
+   * 将缓冲区中的记录批量写库（后台写入线程与关闭时调用）
+   *
+   * @return 写入的记录数
+   */
+  public synchronized int flush() {
+    int total = 0;
+    List<AgentTrace> batch = new ArrayList<>(Math.min(properties.getBatchSize(), buffer.capacity()));
+    while (buffer.drainTo(batch, properties.getBatchSize()) > 0) {
+      try {
+        traceRepository.insertTraces(batch);
+        written.increment(batch.size());
+        total += batch.size();
+      } catch (Exception e) {
+        failed.increment(batch.size());
+        log.warn("Failed to write {} agent trace records: {}", batch.size(), e.getMessage());
+      }
+      batch.clear();
+    }
+    return total;
+  }
+
+  /**
+   * 查询会话最近的追踪步骤（按时间正序）
+   */
+  public List<AgentTrace> listTraces(String conversationId, int limit) {
+    List<AgentTrace> traces = new ArrayList<>(
+      traceRepository.findAllByConversationIdOrderByCreatedAtDescStepNumberDesc(conversationId,
+        Limit.of(limit)));
+    Collections.reverse(traces);
+    return traces;
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (Exception e) {
+      log.warn("Agent trace flush failed: {}", e.getMessage());
+    }
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("agent.trace.records")
+      .description("Agent trace records by outcome")
+      .tag("result", result)
+      .register(meterRegistry);
+  }
+}
@@ -0,0 +1,68 @@
+package com.github.spud.sample.ai.agent.domain.trace;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 无锁有界环形缓冲区：多生产者（Agent 线程）/ 单消费者（后台写入线程）
+ * <p>
+ * 生产者通过 CAS 占用序号后发布元素，缓冲区满时 {@link #offer} 直接返回 false（丢弃），从不阻塞；
+ * 消费者按序号顺序取出，遇到已占用但尚未发布的槽位即停止，下次再取。
+ */
+class TraceRingBuffer<T> {
+
+  private final AtomicReferenceArray<T> slots;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  // Written by the single consumer only
+  private volatile long head;
+
+  TraceRingBuffer(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  boolean offer(T item) {
+    while (true) {
+      long t = tail.get();
+      if (t - head >= slots.length()) {
+        return false;
+      }
+      if (tail.compareAndSet(t, t + 1)) {
+        slots.lazySet((int) (t & mask), item);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * 取出最多 max 个元素（仅由单个消费者调用）
+   */
+  int drainTo(List<T> sink, int max) {
+    long h = head;
+    int drained = 0;
+    while (drained < max) {
+      int index = (int) (h & mask);
+      T item = slots.get(index);
+      if (item == null) {
+        break;
+      }
+      slots.lazySet(index, null);
+      sink.add(item);
+      h++;
+      drained++;
+    }
+    head = h;
+    return drained;
+  }
+
+  int size() {
+    return (int) (tail.get() - head);
+  }
+
+  int capacity() {
+    return slots.length();
+  }
+}
@@ -34,6 +34,10 @@ public class AgentTrace {
   @Column(name = "trace_id", nullable = false)
   private String traceId;
 
+  @Size(max = 255)
+  @Column(name = "conversation_id")
+  private String conversationId;
+
   @NotNull
   @Column(name = "step_number", nullable = false)
   private Integer stepNumber;
@@ -65,6 +69,19 @@ public class AgentTrace {
   @Column(name = "duration_ms")
   private Long durationMs;
 
+  @Size(max = 100)
+  @Column(name = "model", length = 100)
+  private String model;
+
+  @Column(name = "llm_duration_ms")
+  private Long llmDurationMs;
+
+  @Column(name = "prompt_tokens")
+  private Integer promptTokens;
+
+  @Column(name = "completion_tokens")
+  private Integer completionTokens;
+
   @Column(name = "error", length = Integer.MAX_VALUE)
   private String error;
 
@@ -90,6 +90,12 @@ public class ReActAgentConfig {
   @Column(name = "enabled_tools", columnDefinition = "jsonb")
   private List<String> enabledTools;
 
+  /**
+   * Days to keep this agent's messages; null falls back to the default retention
+   */
+  @Column(name = "message_retention_days")
+  private Integer messageRetentionDays;
+
   @ColumnDefault("now()")
   @CreationTimestamp
   @Column(name = "created_at")
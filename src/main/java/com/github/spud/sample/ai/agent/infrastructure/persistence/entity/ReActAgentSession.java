@@ -90,6 +90,26 @@ public class ReActAgentSession {
   @Column(name = "version", nullable = false)
   private Integer version;
 
+  /**
+   * Session this one was forked from; its history up to {@link #forkSeq} is shared by reference
+   */
+  @Size(max = 255)
+  @Column(name = "parent_conversation_id", updatable = false)
+  private String parentConversationId;
+
+  /**
+   * Last message seq of the parent's history included in this session
+   */
+  @Column(name = "fork_seq", updatable = false)
+  private Long forkSeq;
+
+  /**
+   * Maintained by the message append path; never written through the entity
+   */
+  @ColumnDefault("0")
+  @Column(name = "message_count", nullable = false, insertable = false, updatable = false)
+  private Integer messageCount;
+
   @ColumnDefault("now()")
   @CreationTimestamp
   @Column(name = "created_at")
@@ -0,0 +1,15 @@
+package com.github.spud.sample.ai.agent.infrastructure.persistence.repository;
+
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.AgentTrace;
+import java.util.List;
+
+/**
+ * Bulk write path for agent traces (fragment of {@link AgentTraceRepository})
+ */
+public interface AgentTraceBatchRepository {
+
+  /**
+   * Insert trace steps in one JDBC batch; ids are assigned if missing
+   */
+  void insertTraces(List<AgentTrace> traces);
+}
@@ -0,0 +1,90 @@
+package com.github.spud.sample.ai.agent.infrastructure.persistence.repository;
+
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.AgentTrace;
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC batch implementation of {@link AgentTraceBatchRepository}; JSON parameters are converted the
+ * same way as in {@link ReActAgentMessageBatchRepositoryImpl}
+ */
+@Slf4j
+public class AgentTraceBatchRepositoryImpl implements AgentTraceBatchRepository {
+
+  private static final String INSERT_SQL = """
+    INSERT INTO agent_trace
+      (id, trace_id, conversation_id, step_number, state, event, prompt_summary, tool_calls,
+       tool_results, retrieval_docs, duration_ms, model, llm_duration_ms, prompt_tokens,
+       completion_tokens, error, created_at)
+    VALUES (?, ?, ?, ?, ?, ?, ?, %s, %s, %s, ?, ?, ?, ?, ?, ?, ?)""";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private volatile String insertSql;
+
+  public AgentTraceBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public void insertTraces(List<AgentTrace> traces) {
+    if (traces.isEmpty()) {
+      return;
+    }
+    for (AgentTrace trace : traces) {
+      if (trace.getId() == null) {
+        trace.setId(UUID.randomUUID());
+      }
+    }
+    jdbcTemplate.batchUpdate(insertSql(), traces, traces.size(), AgentTraceBatchRepositoryImpl::bind);
+    log.debug("Batch inserted {} agent trace steps", traces.size());
+  }
+
+  private static void bind(PreparedStatement ps, AgentTrace trace) throws SQLException {
+    ps.setObject(1, trace.getId());
+    ps.setString(2, trace.getTraceId());
+    ps.setString(3, trace.getConversationId());
+    ps.setInt(4, trace.getStepNumber());
+    ps.setString(5, trace.getState());
+    ps.setString(6, trace.getEvent());
+    ps.setString(7, trace.getPromptSummary());
+    ps.setString(8, json(trace.getToolCalls()));
+    ps.setString(9, json(trace.getToolResults()));
+    ps.setString(10, json(trace.getRetrievalDocs()));
+    ps.setObject(11, trace.getDurationMs(), Types.BIGINT);
+    ps.setString(12, trace.getModel());
+    ps.setObject(13, trace.getLlmDurationMs(), Types.BIGINT);
+    ps.setObject(14, trace.getPromptTokens(), Types.INTEGER);
+    ps.setObject(15, trace.getCompletionTokens(), Types.INTEGER);
+    ps.setString(16, trace.getError());
+    ps.setObject(17, trace.getCreatedAt());
+  }
+
+  private static String json(Map<String, Object> value) {
+    return value != null ? JsonUtils.toJson(value) : null;
+  }
+
+  private String insertSql() {
+    String sql = insertSql;
+    if (sql == null) {
+      String product = jdbcTemplate.execute(
+        (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+      String json = switch (product) {
+        case "PostgreSQL" -> "CAST(? AS jsonb)";
+        case "H2" -> "? FORMAT JSON";
+        default -> "?";
+      };
+      sql = INSERT_SQL.formatted(json, json, json);
+      insertSql = sql;
+    }
+    return sql;
+  }
+}
@@ -0,0 +1,20 @@
+package com.github.spud.sample.ai.agent.infrastructure.persistence.repository;
+
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.AgentTrace;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository for per-step agent traces
+ */
+public interface AgentTraceRepository extends JpaRepository<AgentTrace, UUID>,
+  AgentTraceBatchRepository {
+
+  /**
+   * Most recent trace steps of a conversation, newest first
+   */
+  List<AgentTrace> findAllByConversationIdOrderByCreatedAtDescStepNumberDesc(String conversationId,
+    Limit limit);
+}
@@ -0,0 +1,73 @@
+package com.github.spud.sample.ai.agent.infrastructure.persistence.repository;
+
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Bulk write path and row-mapped history read path for conversation messages (fragment of {@link ReActAgentMessageRepository})
+ */
+public interface ReActAgentMessageBatchRepository {
+
+  /**
+   * Append a run's messages to a conversation in one round-trip
+   *
+   * @param conversationId conversation the messages belong to
+   * @param records        messages in conversation order; ids are assigned if missing
+   */
+  void appendMessages(String conversationId, List<ReActAgentMessage> records);
+
+  /**
+   * Re-insert archived messages (ids kept) without counting them as new messages of the session
+   *
+   * @param conversationId conversation the messages belong to
+   * @param records        messages in conversation order
+   */
+  void restoreMessages(String conversationId, List<ReActAgentMessage> records);
+
+  /**
+   * Read a conversation's messages in conversation order straight from the result set, without
+   * materializing entities in the persistence context
+   *
+   * @param conversationId conversation to read
+   * @param since          lower bound on created_at (partition pruning)
+   * @param limit          maximum number of messages
+   * @param rowMapper      maps a row with the columns seq, message_type, content, tool_call_id,
+   *                       tool_name, metadata and tool_calls
+   */
+  default <T> List<T> readMessages(String conversationId, OffsetDateTime since, int limit,
+    RowMapper<T> rowMapper) {
+    return readMessages(List.of(new HistorySegment(conversationId, since, null)), limit,
+      rowMapper);
+  }
+
+  /**
+   * Read a history made of several conversations' messages (a fork and its ancestors), merged in
+   * seq order
+   *
+   * @param segments  one entry per conversation of the chain
+   * @param limit     maximum number of messages
+   * @param rowMapper as for {@link #readMessages(String, OffsetDateTime, int, RowMapper)}
+   */
+  <T> List<T> readMessages(List<HistorySegment> segments, int limit, RowMapper<T> rowMapper);
+
+  /**
+   * Whether the message with the given seq is part of a history
+   *
+   * @param segments one entry per conversation of the chain
+   * @param seq      message seq to look for
+   */
+  boolean containsSeq(List<HistorySegment> segments, long seq);
+
+  /**
+   * Messages of one conversation that belong to a history
+   *
+   * @param conversationId conversation to read
+   * @param since          lower bound on created_at (partition pruning)
+   * @param maxSeq         last seq included, or null for all messages
+   */
+  record HistorySegment(String conversationId, OffsetDateTime since, Long maxSeq) {
+
+  }
+}
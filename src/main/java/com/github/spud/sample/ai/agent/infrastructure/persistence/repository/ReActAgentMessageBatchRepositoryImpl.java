@@ -0,0 +1,190 @@
+package com.github.spud.sample.ai.agent.infrastructure.persistence.repository;
+
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * JDBC batch implementation of {@link ReActAgentMessageBatchRepository}
+ * <p>
+ * The JPA path issues one INSERT per message (UUID generation, JSON type handling and the DB
+ * default {@code seq} are handled row by row). Here ids are generated client side, JSON columns are
+ * serialized once per row and all rows go out as a single JDBC batch; {@code seq} and
+ * {@code created_at} are left to the column defaults, so nothing has to be read back. With the
+ * Postgres driver's {@code reWriteBatchedInserts=true} the batch is sent as one multi-row INSERT.
+ * <p>
+ * Every append also advances the session's {@code message_count} and {@code updated_at} in the same
+ * transaction, which is what the session listing reads instead of counting messages.
+ * <p>
+ * History is read the same way: plain JDBC into a caller-supplied row mapper, so the agent's
+ * history can be built from the rows without entities or an intermediate domain model.
+ */
+@Slf4j
+public class ReActAgentMessageBatchRepositoryImpl implements ReActAgentMessageBatchRepository {
+
+  private static final String INSERT_SQL = """
+    INSERT INTO react_agent_message
+      (id, conversation_id, message_type, content, tool_call_id, tool_name, tool_arguments,
+       metadata, tool_calls)
+    VALUES (?, ?, ?, ?, ?, ?, ?, %s, %s)""";
+
+  private static final String READ_SQL = """
+    SELECT seq, message_type, content, tool_call_id, tool_name, metadata, tool_calls
+    FROM react_agent_message
+    WHERE %s
+    ORDER BY seq ASC
+    LIMIT ?""";
+
+  private static final String CONTAINS_SEQ_SQL = """
+    SELECT COUNT(*)
+    FROM react_agent_message
+    WHERE seq = ? AND (%s)""";
+
+  private static final String SEGMENT = "(conversation_id = ? AND created_at >= ?)";
+
+  private static final String BOUNDED_SEGMENT =
+    "(conversation_id = ? AND created_at >= ? AND seq <= ?)";
+
+  private static final String TOUCH_SESSION_SQL = """
+    UPDATE react_agent_session
+    SET message_count = message_count + ?, updated_at = CURRENT_TIMESTAMP
+    WHERE conversation_id = ?""";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean batchEnabled;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private volatile String insertSql;
+
+  public ReActAgentMessageBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+    @Value("${app.persistence.message-batch.enabled:true}") boolean batchEnabled) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchEnabled = batchEnabled;
+  }
+
+  @Override
+  public void appendMessages(String conversationId, List<ReActAgentMessage> records) {
+    if (records.isEmpty()) {
+      return;
+    }
+    insert(conversationId, records);
+    touchSession(conversationId, records.size());
+  }
+
+  @Override
+  public void restoreMessages(String conversationId, List<ReActAgentMessage> records) {
+    if (!records.isEmpty()) {
+      insert(conversationId, records);
+    }
+  }
+
+  @Override
+  public <T> List<T> readMessages(List<HistorySegment> segments, int limit,
+    RowMapper<T> rowMapper) {
+    List<Object> args = new ArrayList<>(segments.size() * 3 + 1);
+    String where = segmentsWhere(segments, args);
+    args.add(limit);
+    return jdbcTemplate.query(READ_SQL.formatted(where), rowMapper, args.toArray());
+  }
+
+  @Override
+  public boolean containsSeq(List<HistorySegment> segments, long seq) {
+    List<Object> args = new ArrayList<>(segments.size() * 3 + 1);
+    args.add(seq);
+    String where = segmentsWhere(segments, args);
+    Long count = jdbcTemplate.queryForObject(CONTAINS_SEQ_SQL.formatted(where), Long.class,
+      args.toArray());
+    return count != null && count > 0;
+  }
+
+  /**
+   * One OR-ed condition per segment; the segments' arguments are appended to {@code args}
+   */
+  private static String segmentsWhere(List<HistorySegment> segments, List<Object> args) {
+    StringJoiner where = new StringJoiner(" OR ");
+    for (HistorySegment segment : segments) {
+      args.add(segment.conversationId());
+      args.add(segment.since());
+      if (segment.maxSeq() != null) {
+        where.add(BOUNDED_SEGMENT);
+        args.add(segment.maxSeq());
+      } else {
+        where.add(SEGMENT);
+      }
+    }
+    return where.toString();
+  }
+
+  private void insert(String conversationId, List<ReActAgentMessage> records) {
+    if (!batchEnabled) {
+      for (ReActAgentMessage record : records) {
+        if (record.getId() != null) {
+          entityManager.merge(record);
+        } else {
+          entityManager.persist(record);
+        }
+      }
+      return;
+    }
+    for (ReActAgentMessage record : records) {
+      if (record.getId() == null) {
+        record.setId(UUID.randomUUID());
+      }
+    }
+    jdbcTemplate.batchUpdate(insertSql(), records, records.size(),
+      (ps, record) -> bind(ps, conversationId, record));
+    log.debug("Batch inserted {} messages for conversationId={}", records.size(), conversationId);
+  }
+
+  private void touchSession(String conversationId, int appended) {
+    jdbcTemplate.update(TOUCH_SESSION_SQL, appended, conversationId);
+  }
+
+  private static void bind(PreparedStatement ps, String conversationId, ReActAgentMessage record)
+    throws SQLException {
+    ps.setObject(1, record.getId());
+    ps.setString(2, conversationId);
+    ps.setString(3, record.getMessageType().name());
+    ps.setString(4, record.getContent());
+    ps.setString(5, record.getToolCallId());
+    ps.setString(6, record.getToolName());
+    ps.setString(7, record.getToolArguments());
+    ps.setString(8, record.getMetadata() != null ? JsonUtils.toJson(record.getMetadata()) : null);
+    ps.setString(9, record.getToolCalls() != null ? JsonUtils.toJson(record.getToolCalls()) : null);
+  }
+
+  /**
+   * JSON text parameters need a database specific conversion: a jsonb cast on Postgres, FORMAT JSON
+   * on H2 (tests); anything else takes the text as is
+   */
+  private String insertSql() {
+    String sql = insertSql;
+    if (sql == null) {
+      String product = jdbcTemplate.execute(
+        (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+      String json = switch (product) {
+        case "PostgreSQL" -> "CAST(? AS jsonb)";
+        case "H2" -> "? FORMAT JSON";
+        default -> "?";
+      };
+      sql = INSERT_SQL.formatted(json, json);
+      insertSql = sql;
+    }
+    return sql;
+  }
+}
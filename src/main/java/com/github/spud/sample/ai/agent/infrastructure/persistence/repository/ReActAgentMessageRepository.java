@@ -2,21 +2,84 @@ package com.github.spud.sample.ai.agent.infrastructure.persistence.repository;
 
 import com.github.spud.sample.ai.agent.application.config.MessageHistoryProperties;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.RowMapper;
 
 public interface ReActAgentMessageRepository extends JpaRepository<ReActAgentMessage, UUID>,
-  JpaSpecificationExecutor<ReActAgentMessage> {
+  JpaSpecificationExecutor<ReActAgentMessage>, ReActAgentMessageBatchRepository {
+
+  Duration PARTITION_BOUND_MARGIN = Duration.ofDays(1);
+
+  OffsetDateTime EPOCH = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
 
   List<ReActAgentMessage> findAllByConversationIdOrderBySeqAsc(String conversationId, Limit limit);
 
+  List<ReActAgentMessage> findAllByConversationIdAndCreatedAtGreaterThanEqualOrderBySeqAsc(
+    String conversationId, OffsetDateTime since, Limit limit);
+
   @Modifying
-  default void appendMessages(String conversationId, List<ReActAgentMessage> records) {
-    this.saveAll(records);
+  @Query("DELETE FROM ReActAgentMessage m WHERE m.conversationId = :conversationId AND m.createdAt >= :since")
+  int deleteByConversationIdSince(String conversationId, OffsetDateTime since);
+
+  /**
+   * Load a session's messages with configurable window size, scanning only the partitions from
+   * the session's creation onwards
+   */
+  default List<ReActAgentMessage> listMessages(ReActAgentSession session,
+      MessageHistoryProperties historyProperties) {
+    return findAllByConversationIdAndCreatedAtGreaterThanEqualOrderBySeqAsc(
+      session.getConversationId(), partitionLowerBound(session),
+      Limit.of(historyProperties.getMaxMessages()));
+  }
+
+  /**
+   * Row-mapped history window over a fork chain (see {@link #listMessages(ReActAgentSession,
+   * MessageHistoryProperties)} for a single session)
+   */
+  default <T> List<T> readMessages(List<HistorySegment> segments,
+      MessageHistoryProperties historyProperties, RowMapper<T> rowMapper) {
+    return readMessages(segments, historyProperties.getMaxMessages(), rowMapper);
+  }
+
+  @Query("SELECT MAX(m.seq) FROM ReActAgentMessage m WHERE m.conversationId = :conversationId AND m.createdAt >= :since")
+  Long findMaxSeq(String conversationId, OffsetDateTime since);
+
+  /**
+   * Seq of the session's latest message, or null if it has none of its own
+   */
+  default Long findMaxSeq(ReActAgentSession session) {
+    return findMaxSeq(session.getConversationId(), partitionLowerBound(session));
+  }
+
+  /**
+   * All messages of a session, in conversation order
+   */
+  default List<ReActAgentMessage> listAllMessages(ReActAgentSession session) {
+    return findAllByConversationIdAndCreatedAtGreaterThanEqualOrderBySeqAsc(
+      session.getConversationId(), partitionLowerBound(session), Limit.unlimited());
+  }
+
+  default int deleteAllMessages(ReActAgentSession session) {
+    return deleteByConversationIdSince(session.getConversationId(), partitionLowerBound(session));
+  }
+
+  /**
+   * No message of a session is older than the session itself; a margin covers clock skew between
+   * the application (session created_at) and the database (message created_at default)
+   */
+  static OffsetDateTime partitionLowerBound(ReActAgentSession session) {
+    OffsetDateTime createdAt = session.getCreatedAt();
+    return createdAt != null ? createdAt.minus(PARTITION_BOUND_MARGIN) : EPOCH;
   }
 
   /**
@@ -0,0 +1,23 @@
+package com.github.spud.sample.ai.agent.infrastructure.persistence.repository;
+
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionStatus;
+import com.github.spud.sample.ai.agent.domain.session.SessionPage;
+import com.github.spud.sample.ai.agent.domain.session.SessionSummary;
+import java.util.List;
+
+/**
+ * Session listing read path (fragment of {@link ReActAgentSessionRepository})
+ */
+public interface ReActAgentSessionQueryRepository {
+
+  /**
+   * One keyset page of sessions, most recently active first
+   *
+   * @param agentId only sessions of this agent, or null for all
+   * @param status  only sessions in this status, or null for all
+   * @param after   position after the previous page, or null for the first page
+   * @param limit   maximum number of rows
+   */
+  List<SessionSummary> listSessions(String agentId, ReActSessionStatus status,
+    SessionPage.Cursor after, int limit);
+}
@@ -0,0 +1,70 @@
+package com.github.spud.sample.ai.agent.infrastructure.persistence.repository;
+
+import com.github.spud.sample.ai.agent.domain.session.ReActAgentType;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionStatus;
+import com.github.spud.sample.ai.agent.domain.session.SessionPage;
+import com.github.spud.sample.ai.agent.domain.session.SessionSummary;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC implementation of {@link ReActAgentSessionQueryRepository}
+ * <p>
+ * Keyset pagination over {@code (updated_at, conversation_id)} descending, so every page is an
+ * index range scan of {@code limit} rows no matter how deep the client has paged. Only the listed
+ * columns are read; {@code message_count} is the counter maintained by
+ * {@link ReActAgentMessageBatchRepository#appendMessages}. Filters are appended only when present,
+ * keeping the statement sargable for the planner.
+ */
+public class ReActAgentSessionQueryRepositoryImpl implements ReActAgentSessionQueryRepository {
+
+  private static final String SELECT_SQL = """
+    SELECT conversation_id, agent_id, agent_type, status, message_count, created_at, updated_at
+    FROM react_agent_session
+    WHERE 1 = 1""";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ReActAgentSessionQueryRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public List<SessionSummary> listSessions(String agentId, ReActSessionStatus status,
+    SessionPage.Cursor after, int limit) {
+    StringBuilder sql = new StringBuilder(SELECT_SQL);
+    List<Object> args = new ArrayList<>();
+    if (agentId != null) {
+      sql.append(" AND agent_id = ?");
+      args.add(agentId);
+    }
+    if (status != null) {
+      sql.append(" AND status = ?");
+      args.add(status.name());
+    }
+    if (after != null) {
+      sql.append(" AND (updated_at, conversation_id) < (?, ?)");
+      args.add(after.updatedAt());
+      args.add(after.conversationId());
+    }
+    sql.append(" ORDER BY updated_at DESC, conversation_id DESC LIMIT ?");
+    args.add(limit);
+    return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> toSummary(rs), args.toArray());
+  }
+
+  private static SessionSummary toSummary(ResultSet rs) throws SQLException {
+    return SessionSummary.builder()
+      .conversationId(rs.getString("conversation_id"))
+      .agentId(rs.getString("agent_id"))
+      .agentType(ReActAgentType.valueOf(rs.getString("agent_type")))
+      .status(ReActSessionStatus.valueOf(rs.getString("status")))
+      .messageCount(rs.getInt("message_count"))
+      .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+      .updatedAt(rs.getObject("updated_at", OffsetDateTime.class))
+      .build();
+  }
+}
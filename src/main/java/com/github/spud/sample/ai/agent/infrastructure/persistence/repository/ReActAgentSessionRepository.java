@@ -1,16 +1,21 @@
 package com.github.spud.sample.ai.agent.infrastructure.persistence.repository;
 
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionStatus;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import jakarta.persistence.LockModeType;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
 
 public interface ReActAgentSessionRepository extends JpaRepository<ReActAgentSession, String>,
-  JpaSpecificationExecutor<ReActAgentSession> {
+  JpaSpecificationExecutor<ReActAgentSession>, ReActAgentSessionQueryRepository {
 
   @Modifying
   default void create(ReActAgentSession record, List<String> enabledMcpServers) {
@@ -32,11 +37,48 @@ public interface ReActAgentSessionRepository extends JpaRepository<ReActAgentSes
   @NativeQuery("SELECT server_id FROM react_agent_session_mcp_server WHERE conversation_id = ?1")
   List<String> listEnabledMcpServers(String conversationId);
 
+  /**
+   * Bump the version if it is still {@code expectedVersion}; never matches an ARCHIVED session,
+   * which must be rehydrated before it takes new messages
+   */
   @Modifying
-  @Query("UPDATE ReActAgentSession SET version = version + 1 WHERE conversationId = :conversationId AND version = :expectedVersion")
+  @Query("UPDATE ReActAgentSession SET version = version + 1, updatedAt = offset datetime WHERE conversationId = :conversationId AND version = :expectedVersion AND status <> com.github.spud.sample.ai.agent.domain.session.ReActSessionStatus.ARCHIVED")
   Integer tryBumpVersion(String conversationId, int expectedVersion);
 
-  @Query("SELECT distinct r.conversationId FROM ReActAgentSession r")
-  List<String> listAllConversationIds();
+  /**
+   * Change the status, guarded by the version like {@link #tryBumpVersion}
+   */
+  @Modifying
+  @Query("UPDATE ReActAgentSession SET status = :status, version = version + 1 WHERE conversationId = :conversationId AND version = :expectedVersion")
+  Integer tryUpdateStatus(String conversationId, int expectedVersion, ReActSessionStatus status);
+
+  /**
+   * Change the status only if it still is {@code from}; the row lock serializes concurrent callers.
+   * Clears the persistence context so the session is re-read with its new status.
+   */
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE ReActAgentSession SET status = :to WHERE conversationId = :conversationId AND status = :from")
+  Integer transitionStatus(String conversationId, ReActSessionStatus from, ReActSessionStatus to);
+
+  /**
+   * Lock the session row until the end of the transaction
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT r FROM ReActAgentSession r WHERE r.conversationId = :conversationId")
+  Optional<ReActAgentSession> lockByConversationId(String conversationId);
+
+  boolean existsByParentConversationId(String parentConversationId);
+
+  /**
+   * Least recently active sessions not in the given status and without forks (a fork reads its
+   * parent's messages, so the parent must keep them)
+   */
+  @Query("""
+    SELECT s FROM ReActAgentSession s
+    WHERE s.status <> :status AND s.updatedAt < :before
+      AND NOT EXISTS (SELECT 1 FROM ReActAgentSession f WHERE f.parentConversationId = s.conversationId)
+    ORDER BY s.updatedAt ASC""")
+  List<ReActAgentSession> findArchivable(ReActSessionStatus status, OffsetDateTime before,
+    Limit limit);
 
 }
\ No newline at end of file
@@ -1,21 +1,60 @@
 package com.github.spud.sample.ai.agent.infrastructure.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.boot.json.AbstractJsonParser;
 import org.springframework.boot.json.JsonParseException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
+/**
+ * Shared JSON helpers
+ * <p>
+ * The mapper is built with the same {@link Jackson2ObjectMapperBuilder} defaults Spring Boot uses
+ * (unknown properties ignored, java.time support, ISO dates) plus the Blackbird module, which
+ * replaces reflective property access with generated lambdas; {@link #customize} applies the same
+ * tuning to the application's Spring-managed mapper. Readers are cached per target type and one
+ * writer is shared, so root (de)serializers are resolved once.
+ * <p>
+ * For tool arguments, where only one or two top-level fields are needed, {@link #readField} and
+ * {@link #readFields} stream over the input with a {@link JsonParser} instead of building a tree.
+ */
 public class JsonUtils extends AbstractJsonParser {
 
-  private static final ObjectMapper objectMapper = new ObjectMapper();
+  private static final ObjectMapper objectMapper = customize(Jackson2ObjectMapperBuilder.json())
+    .build();
+
+  private static final JsonFactory jsonFactory = objectMapper.getFactory();
+
+  private static final ObjectWriter writer = objectMapper.writer();
+
+  private static final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
 
   private static final JsonUtils INSTANCE = new JsonUtils();
 
+  /**
+   * Tuning shared by {@link JsonUtils} and the application's ObjectMapper; only adds to the
+   * builder (modulesToInstall would replace the modules Spring Boot registers)
+   */
+  public static Jackson2ObjectMapperBuilder customize(Jackson2ObjectMapperBuilder builder) {
+    return builder
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .postConfigurer(mapper -> mapper.registerModule(new BlackbirdModule()));
+  }
+
   public static ObjectMapper objectMapper() {
     return objectMapper;
   }
@@ -25,19 +64,109 @@ public class JsonUtils extends AbstractJsonParser {
   }
 
   public static JsonNode readTree(String json) {
-    return INSTANCE.tryParse(() -> objectMapper.readTree(json), Exception.class);
+    try {
+      return objectMapper.readTree(json);
+    } catch (Exception e) {
+      throw new JsonParseException(e);
+    }
   }
 
   public static String toJson(Object obj) {
-    return INSTANCE.tryParse(() -> objectMapper.writeValueAsString(obj), Exception.class);
+    try {
+      return writer.writeValueAsString(obj);
+    } catch (Exception e) {
+      throw new JsonParseException(e);
+    }
   }
 
   public static <T> T fromJson(String json, Class<T> clazz) {
-    return INSTANCE.tryParse(() -> objectMapper.readValue(json, clazz), Exception.class);
+    try {
+      return reader(clazz).readValue(json);
+    } catch (Exception e) {
+      throw new JsonParseException(e);
+    }
   }
 
   public static <T> T fromJson(String json, TypeReference<T> typeReference) {
-    return INSTANCE.tryParse(() -> objectMapper.readValue(json, typeReference), Exception.class);
+    try {
+      return reader(typeReference.getType()).readValue(json);
+    } catch (Exception e) {
+      throw new JsonParseException(e);
+    }
+  }
+
+  /**
+   * Text value of a top-level field of a JSON object, without building a tree
+   *
+   * @return the scalar value as text, or null if the field is missing, null, or not a scalar
+   * @throws JsonParseException if the input is not a JSON object
+   */
+  public static String readField(String json, String field) {
+    return readFields(json, field)[0];
+  }
+
+  /**
+   * Text values of several top-level fields of a JSON object, in the order requested; parsing
+   * stops as soon as every field has been seen
+   *
+   * @return one entry per field, null where {@link #readField} would return null
+   * @throws JsonParseException if the input is not a JSON object
+   */
+  public static String[] readFields(String json, String... fields) {
+    String[] values = new String[fields.length];
+    try (JsonParser parser = jsonFactory.createParser(json)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(new IllegalArgumentException("Not a JSON object"));
+      }
+      int remaining = fields.length;
+      while (remaining > 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+        int index = indexOf(fields, parser.currentName());
+        JsonToken value = parser.nextToken();
+        if (value.isStructStart()) {
+          parser.skipChildren();
+        } else if (index >= 0 && values[index] == null) {
+          values[index] = parser.getValueAsString();
+          remaining--;
+        }
+      }
+      return values;
+    } catch (JsonParseException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new JsonParseException(e);
+    }
+  }
+
+  /**
+   * Whether the input is one complete JSON value; tokens are streamed, nothing is materialized
+   */
+  public static boolean isValidJson(String json) {
+    if (json == null) {
+      return false;
+    }
+    try (JsonParser parser = jsonFactory.createParser(json)) {
+      if (parser.nextToken() == null) {
+        return false;
+      }
+      parser.skipChildren();
+      return parser.nextToken() == null;
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  private static ObjectReader reader(Type type) {
+    return readers.computeIfAbsent(type,
+      t -> objectMapper.readerFor(objectMapper.getTypeFactory().constructType(t)));
+  }
+
+  private static int indexOf(String[] fields, String name) {
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i].equals(name)) {
+        return i;
+      }
+    }
+    return -1;
   }
 
   @Override
@@ -1,6 +1,7 @@
 package com.github.spud.sample.ai.agent.interfaces.rest;
 
 import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.SessionNotFoundException;
+import com.github.spud.sample.ai.agent.domain.session.SessionArchiveUnavailableException;
 import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.VersionConflictException;
 import java.time.OffsetDateTime;
 import java.util.HashMap;
@@ -49,6 +50,19 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
   }
 
+  @ExceptionHandler(SessionArchiveUnavailableException.class)
+  public ResponseEntity<ErrorResponse> handleArchiveUnavailable(
+      SessionArchiveUnavailableException e) {
+    log.error("Archive unavailable for conversationId={}: {}", e.getConversationId(),
+        e.getMessage());
+    ErrorResponse error = ErrorResponse.builder()
+        .code("SESSION_ARCHIVE_UNAVAILABLE")
+        .message(e.getMessage())
+        .timestamp(OffsetDateTime.now())
+        .build();
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+  }
+
   @ExceptionHandler(WebExchangeBindException.class)
   public ResponseEntity<ErrorResponse> handleWebExchangeBind(WebExchangeBindException e) {
     Map<String, String> fieldErrors = new HashMap<>();
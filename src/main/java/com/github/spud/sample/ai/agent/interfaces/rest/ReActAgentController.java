@@ -1,20 +1,35 @@
 package com.github.spud.sample.ai.agent.interfaces.rest;
 
+import com.github.spud.sample.ai.agent.application.config.AgentSchedulers;
+import com.github.spud.sample.ai.agent.domain.session.MessageJournalException;
 import com.github.spud.sample.ai.agent.domain.session.ReActAgentType;
 import com.github.spud.sample.ai.agent.domain.session.ReActSessionService;
 import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.CreateAgentRequest;
 import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.CreateSessionRequest;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.MessageDto;
 import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.SendMessageResponse;
 import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.SessionNotFoundException;
 import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.VersionConflictException;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionStatus;
+import com.github.spud.sample.ai.agent.domain.session.SessionArchiveUnavailableException;
+import com.github.spud.sample.ai.agent.domain.session.SessionSummary;
+import com.github.spud.sample.ai.agent.domain.trace.AgentTracer;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.AgentTrace;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,9 +37,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 /**
  * ReAct Agent Api
@@ -35,7 +51,11 @@ import reactor.core.scheduler.Schedulers;
 @RequiredArgsConstructor
 public class ReActAgentController {
 
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   private final ReActSessionService sessionService;
+  private final AgentSchedulers agentSchedulers;
+  private final AgentTracer agentTracer;
 
   /**
    * 创建一个新的 ReAct Agent
@@ -57,13 +77,14 @@ public class ReActAgentController {
           .nextStepPrompt(request.getNextStepPrompt())
           .maxSteps(request.getMaxSteps())
           .toolChoice(request.getToolChoice())
+          .messageRetentionDays(request.getMessageRetentionDays())
           .build();
 
         String agentId = sessionService.createAgent(agentRequest);
 
         return ResponseEntity.ok(new CreateAgentResponse(agentId));
       })
-      .subscribeOn(Schedulers.boundedElastic())
+      .subscribeOn(agentSchedulers.persistence())
       .onErrorResume(e -> {
         log.error("Failed to create agent", e);
         return Mono.just(ResponseEntity.badRequest().build());
@@ -88,17 +109,42 @@ public class ReActAgentController {
 
         return ResponseEntity.ok(new CreateSessionResponse(conversationId));
       })
-      .subscribeOn(Schedulers.boundedElastic())
+      .subscribeOn(agentSchedulers.persistence())
       .onErrorResume(e -> {
         log.error("Failed to create session", e);
         return Mono.just(ResponseEntity.badRequest().build());
       });
   }
 
-  @GetMapping("/session/list")
-  public Mono<ResponseEntity<List<String>>> listSessions() {
-    List<String> sessions = sessionService.listSessions();
-    return Mono.just(ResponseEntity.ok(sessions));
+  /**
+   * 分页列出会话（按最后活动时间倒序）
+   * <p>
+   * 本页（最多 500 条）在 persistence 调度器上整页读出后再响应：下一页游标放在
+   * {@value #NEXT_CURSOR_HEADER} 响应头，必须在写响应体之前确定，没有更多数据时不返回该响应头。
+   * 响应体是本页会话的数组，Accept 为 NDJSON 时同一页按行输出
+   */
+  @GetMapping(value = "/session/list",
+    produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Mono<ResponseEntity<Flux<SessionSummaryDto>>> listSessions(
+    @RequestParam(required = false) String agentId,
+    @RequestParam(required = false) ReActSessionStatus status,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(defaultValue = "50") int limit
+  ) {
+    int boundedLimit = Math.max(1, Math.min(limit, 500));
+    return Mono.fromCallable(() -> sessionService.listSessions(agentId, status, cursor, boundedLimit))
+      .subscribeOn(agentSchedulers.persistence())
+      .map(page -> {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+          response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(Flux.fromIterable(page.items()).map(SessionSummaryDto::from));
+      })
+      .onErrorResume(IllegalArgumentException.class, e -> {
+        log.warn("Invalid session list request: {}", e.getMessage());
+        return Mono.just(ResponseEntity.badRequest().build());
+      });
   }
 
   /**
@@ -123,12 +169,83 @@ public class ReActAgentController {
         log.warn("Version conflict for conversationId: {}", conversationId);
         return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
       })
+      .onErrorResume(MessageJournalException.class, e -> {
+        log.warn("Journal not flushed for conversationId={}: {}", conversationId, e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+      })
       .onErrorResume(e -> {
         log.error("Failed to send message to conversationId: {}", conversationId, e);
         return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
       });
   }
 
+  /**
+   * 查询会话历史（含从父会话继承的前缀，按 seq 正序）；seq 可作为分叉点
+   */
+  @GetMapping("/session/{conversationId}/messages")
+  public Mono<ResponseEntity<List<MessageDto>>> listMessages(
+    @PathVariable String conversationId,
+    @RequestParam(defaultValue = "200") int limit
+  ) {
+    int boundedLimit = Math.max(1, Math.min(limit, 1000));
+    return Mono.fromCallable(() -> sessionService.listMessages(conversationId, boundedLimit))
+      .subscribeOn(agentSchedulers.persistence())
+      .map(ResponseEntity::ok)
+      .onErrorResume(SessionNotFoundException.class,
+        e -> Mono.just(ResponseEntity.notFound().build()));
+  }
+
+  /**
+   * 从会话分叉出新会话：新会话按引用共享父会话 seq 及之前的历史（不复制消息），之后独立发展。
+   * 不传 seq 时在父会话最新一条消息处分叉。
+   */
+  @PostMapping("/session/{conversationId}/fork")
+  public Mono<ResponseEntity<ForkSessionResponse>> forkSession(
+    @PathVariable String conversationId,
+    @Validated @RequestBody(required = false) ForkSessionRequestDto request
+  ) {
+    Long seq = request != null ? request.getSeq() : null;
+    return Mono.fromCallable(() -> {
+        ReActAgentSession fork = sessionService.forkSession(conversationId, seq);
+        return ResponseEntity.ok(new ForkSessionResponse(fork.getConversationId(),
+          fork.getParentConversationId(), fork.getForkSeq()));
+      })
+      .subscribeOn(agentSchedulers.persistence())
+      .onErrorResume(SessionNotFoundException.class, e -> {
+        log.warn("Session not found: {}", conversationId);
+        return Mono.just(ResponseEntity.notFound().build());
+      })
+      .onErrorResume(IllegalArgumentException.class, e -> {
+        log.warn("Invalid fork request for conversationId={}: {}", conversationId, e.getMessage());
+        return Mono.just(ResponseEntity.badRequest().build());
+      })
+      .onErrorResume(SessionArchiveUnavailableException.class, e -> {
+        log.error("Cannot fork archived conversationId={}: {}", conversationId, e.getMessage());
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+      });
+  }
+
+  /**
+   * 查询会话最近的 Agent 步骤追踪（按时间正序），会话不存在时返回 404
+   */
+  @GetMapping("/session/{conversationId}/traces")
+  public Mono<ResponseEntity<List<TraceStepDto>>> listTraces(
+    @PathVariable String conversationId,
+    @RequestParam(defaultValue = "200") int limit
+  ) {
+    int boundedLimit = Math.max(1, Math.min(limit, 1000));
+    return Mono.fromCallable(() -> {
+        sessionService.requireSession(conversationId);
+        return agentTracer.listTraces(conversationId, boundedLimit).stream()
+          .map(TraceStepDto::from)
+          .toList();
+      })
+      .subscribeOn(agentSchedulers.persistence())
+      .map(ResponseEntity::ok)
+      .onErrorResume(SessionNotFoundException.class,
+        e -> Mono.just(ResponseEntity.notFound().build()));
+  }
+
   // ===== DTOs =====
 
   @Data
@@ -148,6 +265,9 @@ public class ReActAgentController {
     private String nextStepPrompt;
     private Integer maxSteps;
     private String toolChoice;
+
+    @Positive
+    private Integer messageRetentionDays;
   }
 
   @Data
@@ -176,4 +296,86 @@ public class ReActAgentController {
 
     private String content;
   }
-}
\ No newline at end of file
+
+  @Data
+  public static class ForkSessionRequestDto {
+
+    @PositiveOrZero
+    private Long seq;
+  }
+
+  @Data
+  @AllArgsConstructor
+  public static class ForkSessionResponse {
+
+    private String conversationId;
+    private String parentConversationId;
+    private Long forkSeq;
+  }
+
+  @Data
+  @Builder
+  public static class SessionSummaryDto {
+
+    private String conversationId;
+    private String agentId;
+    private ReActAgentType agentType;
+    private ReActSessionStatus status;
+    private int messageCount;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime updatedAt;
+
+    static SessionSummaryDto from(SessionSummary summary) {
+      return SessionSummaryDto.builder()
+        .conversationId(summary.getConversationId())
+        .agentId(summary.getAgentId())
+        .agentType(summary.getAgentType())
+        .status(summary.getStatus())
+        .messageCount(summary.getMessageCount())
+        .createdAt(summary.getCreatedAt())
+        .updatedAt(summary.getUpdatedAt())
+        .build();
+    }
+  }
+
+  @Data
+  @Builder
+  public static class TraceStepDto {
+
+    private String traceId;
+    private Integer stepNumber;
+    private String state;
+    private String event;
+    private String promptSummary;
+    private String model;
+    private Long durationMs;
+    private Long llmDurationMs;
+    private Integer promptTokens;
+    private Integer completionTokens;
+    private Map<String, Object> toolCalls;
+    private Map<String, Object> toolResults;
+    private Map<String, Object> retrievalDocs;
+    private String error;
+    private OffsetDateTime createdAt;
+
+    static TraceStepDto from(AgentTrace trace) {
+      return TraceStepDto.builder()
+        .traceId(trace.getTraceId())
+        .stepNumber(trace.getStepNumber())
+        .state(trace.getState())
+        .event(trace.getEvent())
+        .promptSummary(trace.getPromptSummary())
+        .model(trace.getModel())
+        .durationMs(trace.getDurationMs())
+        .llmDurationMs(trace.getLlmDurationMs())
+        .promptTokens(trace.getPromptTokens())
+        .completionTokens(trace.getCompletionTokens())
+        .toolCalls(trace.getToolCalls())
+        .toolResults(trace.getToolResults())
+        .retrievalDocs(trace.getRetrievalDocs())
+        .error(trace.getError())
+        .createdAt(trace.getCreatedAt())
+        .build();
+    }
+  }
+}
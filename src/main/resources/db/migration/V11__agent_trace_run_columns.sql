@@ -0,0 +1,20 @@
+-- Per-step agent trace: one trace_id per agent run, looked up per conversation
+-- LLM timing / token usage get their own columns; tool latencies live in tool_results
+
+ALTER TABLE agent_trace
+    ADD COLUMN IF NOT EXISTS conversation_id VARCHAR(255);
+
+ALTER TABLE agent_trace
+    ADD COLUMN IF NOT EXISTS model VARCHAR(100);
+
+ALTER TABLE agent_trace
+    ADD COLUMN IF NOT EXISTS llm_duration_ms BIGINT;
+
+ALTER TABLE agent_trace
+    ADD COLUMN IF NOT EXISTS prompt_tokens INT;
+
+ALTER TABLE agent_trace
+    ADD COLUMN IF NOT EXISTS completion_tokens INT;
+
+CREATE INDEX IF NOT EXISTS agent_trace_conversation_created_idx
+    ON agent_trace (conversation_id, created_at);
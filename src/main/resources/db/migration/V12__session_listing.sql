@@ -0,0 +1,24 @@
+-- Session listing: maintained message counter + keyset pagination indexes
+-- message_count is incremented together with each message append, so listing never runs COUNT(*)
+
+ALTER TABLE react_agent_session
+    ADD COLUMN IF NOT EXISTS message_count INT NOT NULL DEFAULT 0;
+
+UPDATE react_agent_session s
+SET message_count = m.cnt
+FROM (SELECT conversation_id, COUNT(*) AS cnt FROM react_agent_message GROUP BY conversation_id) m
+WHERE s.conversation_id = m.conversation_id;
+
+-- Keyset pagination orders by (updated_at, conversation_id); it must never be NULL
+UPDATE react_agent_session
+SET updated_at = COALESCE(created_at, NOW())
+WHERE updated_at IS NULL;
+
+ALTER TABLE react_agent_session
+    ALTER COLUMN updated_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS react_agent_session_updated_conv_idx
+    ON react_agent_session (updated_at DESC, conversation_id DESC);
+
+CREATE INDEX IF NOT EXISTS react_agent_session_agent_updated_conv_idx
+    ON react_agent_session (agent_id, updated_at DESC, conversation_id DESC);
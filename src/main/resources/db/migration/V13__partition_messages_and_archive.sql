@@ -0,0 +1,82 @@
+-- Message lifecycle: monthly range partitions on react_agent_message, per-agent retention and
+-- cold conversation archive (ARCHIVED sessions have their messages in the archive, not here)
+
+-- 1. Session status ARCHIVED
+ALTER TABLE react_agent_session
+    DROP CONSTRAINT IF EXISTS react_agent_session_status_check;
+
+ALTER TABLE react_agent_session
+    ADD CONSTRAINT react_agent_session_status_check
+        CHECK (status IN ('ACTIVE', 'FINISHED', 'ERROR', 'ARCHIVED'));
+
+-- 2. Per-agent message retention (NULL = app.persistence.lifecycle.default-retention)
+ALTER TABLE react_agent
+    ADD COLUMN IF NOT EXISTS message_retention_days INT;
+
+-- 3. Rebuild react_agent_message as a table partitioned by created_at (one partition per UTC month)
+ALTER TABLE react_agent_message RENAME TO react_agent_message_legacy;
+
+UPDATE react_agent_message_legacy SET created_at = NOW() WHERE created_at IS NULL;
+
+-- Same columns, defaults (seq keeps its sequence) and CHECK constraints
+CREATE TABLE react_agent_message
+(
+    LIKE react_agent_message_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+) PARTITION BY RANGE (created_at);
+
+ALTER TABLE react_agent_message
+    ALTER COLUMN created_at SET NOT NULL;
+
+-- Partitions from the oldest existing message up to three months ahead; later months are created by
+-- MessagePartitionMaintainer. Naming: react_agent_message_pYYYYMM
+DO $$
+DECLARE
+    v_month TIMESTAMP;
+    v_last  TIMESTAMP := date_trunc('month', NOW() AT TIME ZONE 'UTC') + INTERVAL '3 months';
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(created_at) AT TIME ZONE 'UTC'),
+                    date_trunc('month', NOW() AT TIME ZONE 'UTC'))
+    INTO v_month
+    FROM react_agent_message_legacy;
+
+    WHILE v_month <= v_last LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF react_agent_message FOR VALUES FROM (%L) TO (%L)',
+            'react_agent_message_p' || to_char(v_month, 'YYYYMM'),
+            (v_month AT TIME ZONE 'UTC'),
+            ((v_month + INTERVAL '1 month') AT TIME ZONE 'UTC'));
+        v_month := v_month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+-- Safety net for rows outside the maintained range (should stay empty)
+CREATE TABLE IF NOT EXISTS react_agent_message_default PARTITION OF react_agent_message DEFAULT;
+
+INSERT INTO react_agent_message SELECT * FROM react_agent_message_legacy;
+
+-- Keep the seq sequence alive when the legacy table goes away
+DO $$
+DECLARE
+    v_sequence TEXT := pg_get_serial_sequence('react_agent_message_legacy', 'seq');
+BEGIN
+    IF v_sequence IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY react_agent_message.seq', v_sequence);
+    END IF;
+END $$;
+
+DROP TABLE react_agent_message_legacy;
+
+-- Constraints and indexes (created on every partition); the partition key has to be part of the
+-- primary key
+ALTER TABLE react_agent_message
+    ADD CONSTRAINT react_agent_message_pkey PRIMARY KEY (id, created_at);
+
+ALTER TABLE react_agent_message
+    ADD CONSTRAINT react_agent_message_conversation_fk
+        FOREIGN KEY (conversation_id) REFERENCES react_agent_session (conversation_id) ON DELETE CASCADE;
+
+CREATE INDEX IF NOT EXISTS react_agent_message_conv_seq_idx ON react_agent_message (conversation_id, seq);
+CREATE INDEX IF NOT EXISTS idx_react_agent_message_conv_type ON react_agent_message (conversation_id, message_type);
+CREATE INDEX IF NOT EXISTS idx_react_agent_message_created_at ON react_agent_message (created_at);
+
+COMMENT ON TABLE react_agent_message IS 'Conversation messages, range partitioned by created_at (monthly, UTC)';
@@ -0,0 +1,17 @@
+-- Conversation forks: a session may continue another session's history up to a message seq.
+-- The shared prefix is read from the parent (and its ancestors) at load time; nothing is copied.
+-- seq comes from one global sequence, so messages of a fork always sort after its fork point.
+
+ALTER TABLE react_agent_session
+    ADD COLUMN IF NOT EXISTS parent_conversation_id VARCHAR(255)
+        REFERENCES react_agent_session (conversation_id),
+    ADD COLUMN IF NOT EXISTS fork_seq BIGINT;
+
+ALTER TABLE react_agent_session
+    ADD CONSTRAINT react_agent_session_fork_check
+        CHECK ((parent_conversation_id IS NULL) = (fork_seq IS NULL));
+
+-- Archiving skips sessions that have forks (their messages are still referenced)
+CREATE INDEX IF NOT EXISTS react_agent_session_parent_idx
+    ON react_agent_session (parent_conversation_id)
+    WHERE parent_conversation_id IS NOT NULL;
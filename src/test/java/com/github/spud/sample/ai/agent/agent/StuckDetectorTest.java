@@ -0,0 +1,59 @@
+package com.github.spud.sample.ai.agent.agent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.spud.sample.ai.agent.domain.agent.StuckDetector;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+
+/**
+ * 重复响应检测测试
+ */
+class StuckDetectorTest {
+
+  @Test
+  void detectsRepeatedTextIgnoringCaseAndWhitespace() {
+    StuckDetector detector = new StuckDetector();
+    detector.record(new AssistantMessage("I will check the time."));
+    detector.record(new AssistantMessage("I will check  the time."));
+    assertThat(detector.isStuck(2)).isFalse();
+
+    detector.record(new AssistantMessage("i will check the time.\n"));
+    assertThat(detector.isStuck(2)).isTrue();
+  }
+
+  @Test
+  void detectsRepeatedToolCallsWithDifferentText() {
+    StuckDetector detector = new StuckDetector();
+    detector.record(toolCall("Let me look it up", "{\"query\": \"spring\"}"));
+    detector.record(toolCall("Searching again", "{\"query\":\"spring\"}"));
+    detector.record(toolCall("One more try", "{ \"query\" : \"spring\" }"));
+
+    assertThat(detector.getLastDuplicateCount()).isEqualTo(2);
+    assertThat(detector.isStuck(2)).isTrue();
+  }
+
+  @Test
+  void emptyResponsesAndResetDoNotCount() {
+    StuckDetector detector = new StuckDetector();
+    detector.record(new AssistantMessage(""));
+    detector.record(new AssistantMessage(""));
+    assertThat(detector.isStuck(1)).isFalse();
+
+    detector.record(new AssistantMessage("same"));
+    detector.record(new AssistantMessage("same"));
+    assertThat(detector.isStuck(1)).isTrue();
+
+    detector.reset();
+    detector.record(new AssistantMessage("same"));
+    assertThat(detector.isStuck(1)).isFalse();
+  }
+
+  private static AssistantMessage toolCall(String text, String arguments) {
+    return new AssistantMessage(text, Map.of(),
+      List.of(new ToolCall("call-" + text.hashCode(), "function", "retrieve_knowledge", arguments)));
+  }
+}
@@ -0,0 +1,325 @@
+package com.github.spud.sample.ai.agent.agent;
+
+import static com.github.spud.sample.ai.agent.support.ScriptedChatModel.textResponse;
+import static com.github.spud.sample.ai.agent.support.ScriptedChatModel.tool;
+import static com.github.spud.sample.ai.agent.support.ScriptedChatModel.toolCallResponse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.spud.sample.ai.agent.domain.agent.ToolCallAgent;
+import com.github.spud.sample.ai.agent.domain.model.ModelRoute;
+import com.github.spud.sample.ai.agent.domain.model.ModelRoutingPolicy;
+import com.github.spud.sample.ai.agent.domain.model.ModelSpec;
+import com.github.spud.sample.ai.agent.domain.state.AgentEvent;
+import com.github.spud.sample.ai.agent.domain.state.AgentState;
+import com.github.spud.sample.ai.agent.domain.state.CompletionPolicy;
+import com.github.spud.sample.ai.agent.domain.state.ToolChoice;
+import com.github.spud.sample.ai.agent.support.ScriptedChatModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AbstractMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+/**
+ * ToolCallAgent 单元测试（使用脚本化 ChatModel，不依赖外部服务）
+ */
+class ToolCallAgentTest {
+
+  private static final String NEXT_STEP_PROMPT = "Decide the next action.";
+
+  @Test
+  void nextStepPromptIsSentButNotStoredInHistory() {
+    ScriptedChatModel chatModel = new ScriptedChatModel(
+      toolCallResponse("call-1", "echo", "{\"message\":\"hi\"}"),
+      toolCallResponse("call-2", "terminate", "{\"answer\":\"done\"}"));
+
+    List<AbstractMessage> history = new ArrayList<>();
+    ToolCallAgent agent = newAgent(chatModel, history);
+
+    String answer = agent.run("hello").block();
+
+    assertThat(answer).isEqualTo("done");
+    assertThat(chatModel.prompts).hasSize(2);
+    for (Prompt prompt : chatModel.prompts) {
+      List<Message> sent = prompt.getInstructions();
+      // Stable prefix first, transient instruction last
+      assertThat(sent.get(0).getMessageType()).isEqualTo(MessageType.SYSTEM);
+      assertThat(sent.get(0).getText()).isEqualTo("system");
+      assertThat(sent.get(sent.size() - 1).getText()).isEqualTo(NEXT_STEP_PROMPT);
+    }
+    assertThat(history)
+      .filteredOn(m -> m.getMessageType() == MessageType.USER)
+      .extracting(Message::getText)
+      .containsExactly("hello");
+  }
+
+  @Test
+  void runEmitsTransitionsThroughStateEngine() {
+    ScriptedChatModel chatModel = new ScriptedChatModel(
+      toolCallResponse("call-1", "echo", "{\"message\":\"hi\"}"),
+      toolCallResponse("call-2", "terminate", "{\"answer\":\"done\"}"));
+
+    ToolCallAgent agent = newAgent(chatModel, new ArrayList<>());
+    List<AgentEvent> events = new ArrayList<>();
+    agent.addTransitionListener((a, from, event, to) -> events.add(event));
+
+    agent.run("hello").block();
+
+    assertThat(events).containsExactly(
+      AgentEvent.START,
+      AgentEvent.THINK_DONE_WITH_TOOLS, AgentEvent.ACT_DONE,
+      AgentEvent.THINK_DONE_WITH_TOOLS, AgentEvent.TOOL_TERMINATE);
+    assertThat(agent.getState()).isEqualTo(AgentState.IDLE);
+  }
+
+  @Test
+  void malformedTerminateArgumentsStillFinishOnce() {
+    ScriptedChatModel chatModel = new ScriptedChatModel(
+      toolCallResponse("call-1", "terminate", "not json"));
+
+    ToolCallAgent agent = newAgent(chatModel, new ArrayList<>());
+    List<AgentEvent> events = new ArrayList<>();
+    agent.addTransitionListener((a, from, event, to) -> events.add(event));
+
+    assertThat(agent.run("hello").block())
+      .isEqualTo("Task completed (error parsing terminate arguments)");
+    assertThat(events).containsExactly(
+      AgentEvent.START, AgentEvent.THINK_DONE_WITH_TOOLS, AgentEvent.TOOL_TERMINATE);
+  }
+
+  @Test
+  void runStopsOnMaxSteps() {
+    ScriptedChatModel chatModel = new ScriptedChatModel(
+      toolCallResponse("call-1", "echo", "{\"message\":\"1\"}"),
+      toolCallResponse("call-2", "echo", "{\"message\":\"2\"}"));
+
+    ToolCallAgent agent = ToolCallAgent.builder()
+      .name("test")
+      .systemPrompt("system")
+      .chatClient(ChatClient.builder(chatModel).build())
+      .messages(new ArrayList<>())
+      .maxSteps(2)
+      .availableCallbacks(new ArrayList<>(List.of(tool("echo"), tool("terminate"))))
+      .build();
+    List<AgentState> states = new ArrayList<>();
+    agent.addTransitionListener((a, from, event, to) -> states.add(to));
+
+    String result = agent.run("hello").block();
+
+    assertThat(result).contains("Terminated: Reached max steps (2)");
+    assertThat(states).last().isEqualTo(AgentState.FINISHED);
+  }
+
+  @Test
+  void correctionPromptIsTransient() {
+    ScriptedChatModel chatModel = new ScriptedChatModel(
+      textResponse("plain answer"),
+      toolCallResponse("call-1", "terminate", "{\"answer\":\"done\"}"));
+
+    List<AbstractMessage> history = new ArrayList<>();
+    ToolCallAgent agent = ToolCallAgent.builder()
+      .name("test")
+      .systemPrompt("system")
+      .nextStepPrompt(NEXT_STEP_PROMPT)
+      .chatClient(ChatClient.builder(chatModel).build())
+      .toolChoice(ToolChoice.REQUIRED)
+      .completionPolicy(CompletionPolicy.REQUIRE_TERMINATE)
+      .messages(history)
+      .maxSteps(3)
+      .availableCallbacks(new ArrayList<>(List.of(tool("echo"), tool("terminate"))))
+      .build();
+
+    agent.run("hello").block();
+
+    assertThat(chatModel.prompts).hasSize(2);
+    assertThat(chatModel.prompts.get(1).getInstructions())
+      .anyMatch(m -> m.getMessageType() == MessageType.SYSTEM && m.getText().contains("terminate"));
+    assertThat(history).noneMatch(m -> m.getMessageType() == MessageType.SYSTEM);
+  }
+
+  @Test
+  void textAnswerFinishesInOneCall() {
+    ScriptedChatModel chatModel = new ScriptedChatModel(textResponse("Paris"));
+
+    List<AbstractMessage> history = new ArrayList<>();
+    ToolCallAgent agent = newAgent(chatModel, history);
+    List<AgentEvent> events = new ArrayList<>();
+    agent.addTransitionListener((a, from, event, to) -> events.add(event));
+
+    String answer = agent.run("Capital of France?").block();
+
+    assertThat(answer).isEqualTo("Paris");
+    assertThat(chatModel.prompts).hasSize(1);
+    assertThat(events).containsExactly(AgentEvent.START, AgentEvent.THINK_DONE_NO_TOOLS);
+    assertThat(history).extracting(Message::getMessageType)
+      .containsExactly(MessageType.USER, MessageType.ASSISTANT);
+  }
+
+  @Test
+  void correctOnceAcceptsTextAfterOneCorrection() {
+    ScriptedChatModel chatModel = new ScriptedChatModel(
+      textResponse("first"),
+      textResponse("second"));
+
+    ToolCallAgent agent = ToolCallAgent.builder()
+      .name("test")
+      .systemPrompt("system")
+      .chatClient(ChatClient.builder(chatModel).build())
+      .completionPolicy(CompletionPolicy.CORRECT_ONCE)
+      .messages(new ArrayList<>())
+      .maxSteps(5)
+      .availableCallbacks(new ArrayList<>(List.of(tool("echo"), tool("terminate"))))
+      .build();
+
+    assertThat(agent.run("hello").block()).isEqualTo("second");
+    assertThat(chatModel.prompts).hasSize(2);
+    assertThat(chatModel.prompts.get(1).getInstructions())
+      .anyMatch(m -> m.getMessageType() == MessageType.SYSTEM && m.getText().contains("terminate"));
+
+    // The correction budget is per run
+    chatModel.enqueue(textResponse("third"), textResponse("fourth"));
+    assertThat(agent.run("again").block()).isEqualTo("fourth");
+  }
+
+  @Test
+  void requiredToolChoiceIgnoresTextAnswerPolicy() {
+    ScriptedChatModel chatModel = new ScriptedChatModel(
+      textResponse("plain answer"),
+      toolCallResponse("call-1", "terminate", "{\"answer\":\"done\"}"));
+
+    // Default completion policy (TEXT_ANSWER) must not override a REQUIRED session
+    ToolCallAgent agent = ToolCallAgent.builder()
+      .name("test")
+      .systemPrompt("system")
+      .chatClient(ChatClient.builder(chatModel).build())
+      .toolChoice(ToolChoice.REQUIRED)
+      .messages(new ArrayList<>())
+      .maxSteps(5)
+      .availableCallbacks(new ArrayList<>(List.of(tool("echo"), tool("terminate"))))
+      .build();
+
+    assertThat(agent.run("hello").block()).isEqualTo("done");
+    assertThat(chatModel.prompts).hasSize(2);
+    assertThat(chatModel.prompts.get(1).getInstructions())
+      .anyMatch(m -> m.getMessageType() == MessageType.SYSTEM && m.getText().contains("terminate"));
+  }
+
+  @Test
+  void requireTerminateKeepsCorrectingUntilTerminate() {
+    ScriptedChatModel chatModel = new ScriptedChatModel(
+      textResponse("first"),
+      textResponse("second"),
+      toolCallResponse("call-1", "terminate", "{\"answer\":\"done\"}"));
+
+    ToolCallAgent agent = ToolCallAgent.builder()
+      .name("test")
+      .systemPrompt("system")
+      .chatClient(ChatClient.builder(chatModel).build())
+      .completionPolicy(CompletionPolicy.REQUIRE_TERMINATE)
+      .messages(new ArrayList<>())
+      .maxSteps(5)
+      .availableCallbacks(new ArrayList<>(List.of(tool("echo"), tool("terminate"))))
+      .build();
+
+    assertThat(agent.run("hello").block()).isEqualTo("done");
+    assertThat(chatModel.prompts).hasSize(3);
+  }
+
+  @Test
+  void speculativeExecutionPrefetchesSafeToolsWhileStreaming() {
+    // Arguments of the echo call arrive in two chunks
+    ScriptedChatModel chatModel = new ScriptedChatModel(
+      toolCallResponse("call-1", "echo", "{\"message\":"),
+      toolCallResponse(null, "", "\"hi\"}"),
+      toolCallResponse("call-2", "terminate", "{\"answer\":\"done\"}"));
+    chatModel.chunksPerStream = List.of(2, 1);
+
+    List<String> echoThreads = new CopyOnWriteArrayList<>();
+    ToolCallback echo = new ToolCallback() {
+      @Override
+      public ToolDefinition getToolDefinition() {
+        return tool("echo").getToolDefinition();
+      }
+
+      @Override
+      public String call(String toolInput) {
+        echoThreads.add(Thread.currentThread().getName());
+        return "echo:" + toolInput;
+      }
+    };
+
+    List<AbstractMessage> history = new ArrayList<>();
+    ToolCallAgent agent = ToolCallAgent.builder()
+      .name("test")
+      .systemPrompt("system")
+      .nextStepPrompt(NEXT_STEP_PROMPT)
+      .chatClient(ChatClient.builder(chatModel).build())
+      .messages(history)
+      .maxSteps(5)
+      .availableCallbacks(new ArrayList<>(List.of(echo, tool("terminate"))))
+      .speculativeToolExecution(true)
+      .sideEffectFreeTools("echo"::equals)
+      .build();
+
+    String answer = agent.run("hello").block();
+
+    assertThat(answer).isEqualTo("done");
+    assertThat(echoThreads).hasSize(1);
+    assertThat(echoThreads.get(0)).startsWith("boundedElastic");
+    assertThat(history)
+      .filteredOn(m -> m.getMessageType() == MessageType.TOOL)
+      .extracting(m -> ((ToolResponseMessage) m).getResponses().get(0).responseData())
+      .contains("echo:{\"message\":\"hi\"}");
+  }
+
+  @Test
+  void cheapStepsEscalateFinalSynthesisToPrimaryModel() {
+    ScriptedChatModel cheapModel = new ScriptedChatModel(
+      toolCallResponse("call-1", "echo", "{\"message\":\"hi\"}"),
+      toolCallResponse("call-2", "terminate", "{\"answer\":\"cheap\"}"));
+    ScriptedChatModel primaryModel = new ScriptedChatModel(
+      toolCallResponse("call-3", "terminate", "{\"answer\":\"primary\"}"));
+
+    ModelRoute primary = new ModelRoute(new ModelSpec("openai", "big", null),
+      ChatClient.builder(primaryModel).build(), null);
+    ModelRoute cheap = new ModelRoute(new ModelSpec("ollama", "small", null),
+      ChatClient.builder(cheapModel).build(), null);
+    ToolCallAgent agent = ToolCallAgent.builder()
+      .name("test")
+      .systemPrompt("system")
+      .chatClient(primary.client())
+      .primaryRoute(primary)
+      .cheapRoute(cheap)
+      .routingPolicy(ModelRoutingPolicy.CHEAP_STEPS)
+      .messages(new ArrayList<>())
+      .maxSteps(5)
+      .availableCallbacks(new ArrayList<>(List.of(tool("echo"), tool("terminate"))))
+      .build();
+
+    String answer = agent.run("hello").block();
+
+    assertThat(answer).isEqualTo("primary");
+    assertThat(cheapModel.prompts).hasSize(2);
+    assertThat(primaryModel.prompts).hasSize(1);
+  }
+
+  private static ToolCallAgent newAgent(ChatModel chatModel, List<AbstractMessage> history) {
+    return ToolCallAgent.builder()
+      .name("test")
+      .systemPrompt("system")
+      .nextStepPrompt(NEXT_STEP_PROMPT)
+      .chatClient(ChatClient.builder(chatModel).build())
+      .messages(history)
+      .maxSteps(5)
+      .availableCallbacks(new ArrayList<>(List.of(tool("echo"), tool("terminate"))))
+      .build();
+  }
+}
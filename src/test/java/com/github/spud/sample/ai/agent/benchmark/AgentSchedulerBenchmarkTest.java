@@ -0,0 +1,104 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.github.spud.sample.ai.agent.application.config.AgentSchedulers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Agent 调度器基准：boundedElastic vs 虚拟线程
+ * <p>
+ * 模拟 N 个并发会话，每个会话执行若干次阻塞调用（LLM / 工具 / JDBC 延迟），统计同时运行的最大会话数、
+ * 会话端到端延迟 p50/p99 与总耗时。默认跳过，运行方式：
+ * <pre>
+ * mvn test -Dbenchmark=true -Dtest=AgentSchedulerBenchmarkTest   # 在 Java 21+ 上运行时包含 virtual 模式
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AgentSchedulerBenchmarkTest {
+
+  private static final int SESSIONS = Integer.getInteger("benchmark.sessions", 2000);
+  private static final int CALLS_PER_SESSION = 3;
+  private static final Duration CALL_LATENCY = Duration.ofMillis(100);
+
+  @Test
+  void boundedElastic() {
+    AgentSchedulers schedulers = new AgentSchedulers(AgentSchedulers.MODE_BOUNDED_ELASTIC);
+    report("bounded-elastic", run(schedulers.agentRuns()));
+  }
+
+  @Test
+  void virtualThreads() {
+    AgentSchedulers schedulers = new AgentSchedulers(AgentSchedulers.MODE_VIRTUAL);
+    assumeTrue(AgentSchedulers.MODE_VIRTUAL.equals(schedulers.getMode()),
+      "virtual threads need a Java 21+ runtime");
+    try {
+      report("virtual", run(schedulers.agentRuns()));
+    } finally {
+      schedulers.shutdown();
+    }
+  }
+
+  private static Result run(Scheduler scheduler) {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    List<Long> latencies = Collections.synchronizedList(new ArrayList<>(SESSIONS));
+
+    long start = System.nanoTime();
+    Flux.range(0, SESSIONS)
+      .flatMap(i -> {
+        long submitted = System.nanoTime();
+        return Mono.fromRunnable(() -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+              for (int c = 0; c < CALLS_PER_SESSION; c++) {
+                blockingCall();
+              }
+            } finally {
+              inFlight.decrementAndGet();
+            }
+          })
+          .subscribeOn(scheduler)
+          .doOnTerminate(() -> latencies.add(System.nanoTime() - submitted));
+      }, SESSIONS)
+      .blockLast();
+    long elapsed = System.nanoTime() - start;
+
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    return new Result(maxInFlight.get(), percentile(sorted, 0.50), percentile(sorted, 0.99),
+      Duration.ofNanos(elapsed));
+  }
+
+  private static void blockingCall() {
+    try {
+      Thread.sleep(CALL_LATENCY.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Duration percentile(List<Long> sorted, double p) {
+    int index = (int) Math.ceil(p * sorted.size()) - 1;
+    return Duration.ofNanos(sorted.get(Math.max(0, index)));
+  }
+
+  private static void report(String mode, Result result) {
+    System.out.printf("[%s] sessions=%d maxConcurrent=%d p50=%dms p99=%dms total=%dms%n",
+      mode, SESSIONS, result.maxConcurrent(), result.p50().toMillis(), result.p99().toMillis(),
+      result.total().toMillis());
+  }
+
+  private record Result(int maxConcurrent, Duration p50, Duration p99, Duration total) {
+
+  }
+}
@@ -0,0 +1,122 @@
+package com.github.spud.sample.ai.agent.benchmark;
+
+import com.github.spud.sample.ai.agent.domain.session.ReActAgentType;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageRepository;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import com.github.spud.sample.ai.agent.react.ReActAgentTestConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 消息持久化基准：JPA saveAll（逐行 INSERT）vs JDBC 批量写入
+ * <p>
+ * 每轮模拟一次 Agent 运行追加的消息（user + 多轮 assistant/tool，含 metadata 与 tool_calls JSON），
+ * 每轮一个事务，统计平均每轮耗时。默认跳过，运行方式：
+ * <pre>
+ * mvn test -Dbenchmark=true -Dtest=MessagePersistenceBenchmarkTest
+ * mvn test -Dbenchmark=true -Dtest=MessagePersistenceBenchmarkTest -Dspring.profiles.active=it  # Postgres
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(ReActAgentTestConfig.class)
+@EnableAutoConfiguration(exclude = org.springframework.ai.vectorstore.pgvector.autoconfigure.PgVectorStoreAutoConfiguration.class)
+class MessagePersistenceBenchmarkTest {
+
+  private static final int RUNS = Integer.getInteger("benchmark.runs", 500);
+  private static final int MESSAGES_PER_RUN = Integer.getInteger("benchmark.messages", 12);
+  private static final int WARMUP_RUNS = 50;
+
+  @Autowired
+  private ReActAgentMessageRepository messageRepository;
+
+  @Autowired
+  private ReActAgentSessionRepository sessionRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Test
+  void jpaSaveAllVsJdbcBatch() {
+    ReActAgentSession session = newSession();
+    report("jpa-saveAll", measure(session, (id, records) -> messageRepository.saveAll(records)));
+    report("jdbc-batch", measure(session, messageRepository::appendMessages));
+  }
+
+  private Duration measure(ReActAgentSession session,
+    BiConsumer<String, List<ReActAgentMessage>> writer) {
+    for (int i = 0; i < WARMUP_RUNS; i++) {
+      write(session, writer);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < RUNS; i++) {
+      write(session, writer);
+    }
+    return Duration.ofNanos((System.nanoTime() - start) / RUNS);
+  }
+
+  private void write(ReActAgentSession session, BiConsumer<String, List<ReActAgentMessage>> writer) {
+    List<ReActAgentMessage> records = newRun(session);
+    transactionTemplate.executeWithoutResult(
+      status -> writer.accept(session.getConversationId(), records));
+  }
+
+  private ReActAgentSession newSession() {
+    ReActAgentSession session = new ReActAgentSession();
+    session.setConversationId("bench-" + UUID.randomUUID());
+    session.setAgentType(ReActAgentType.TOOLCALL);
+    session.setModelProvider("openai");
+    session.setSystemPrompt("benchmark");
+    session.setMaxSteps(10);
+    session.setDuplicateThreshold(3);
+    session.setToolChoice("AUTO");
+    session.setVersion(0);
+    return sessionRepository.save(session);
+  }
+
+  private static List<ReActAgentMessage> newRun(ReActAgentSession session) {
+    List<ReActAgentMessage> records = new ArrayList<>(MESSAGES_PER_RUN);
+    for (int i = 0; i < MESSAGES_PER_RUN; i++) {
+      ReActAgentMessage record = new ReActAgentMessage();
+      record.setConversation(session);
+      if (i == 0) {
+        record.setMessageType(MessageType.USER);
+        record.setContent("What is the weather in Paris?");
+      } else if (i % 2 == 1) {
+        record.setMessageType(MessageType.ASSISTANT);
+        record.setContent("");
+        record.setToolCalls(List.of(Map.of("id", "call-" + i, "type", "function",
+          "name", "weather", "arguments", "{\"city\":\"Paris\"}")));
+        record.setMetadata(Map.of("model", "gpt-4o", "finishReason", "tool_calls"));
+      } else {
+        record.setMessageType(MessageType.TOOL);
+        record.setContent("{\"temperature\":18,\"condition\":\"cloudy\"}");
+        record.setToolCallId("call-" + (i - 1));
+        record.setToolName("weather");
+      }
+      records.add(record);
+    }
+    return records;
+  }
+
+  private static void report(String mode, Duration perRun) {
+    System.out.printf("[%s] runs=%d messagesPerRun=%d avgPerRun=%.3fms%n",
+      mode, RUNS, MESSAGES_PER_RUN, perRun.toNanos() / 1_000_000.0);
+  }
+}
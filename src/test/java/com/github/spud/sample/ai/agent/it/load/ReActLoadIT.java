@@ -0,0 +1,261 @@
+package com.github.spud.sample.ai.agent.it.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.spud.sample.ai.agent.domain.session.ReActAgentType;
+import com.github.spud.sample.ai.agent.interfaces.rest.ReActAgentController;
+import com.github.spud.sample.ai.agent.it.support.ContainersSupport;
+import com.github.spud.sample.ai.agent.it.support.LatencyDistribution;
+import com.github.spud.sample.ai.agent.it.support.MockMcpServer;
+import com.github.spud.sample.ai.agent.it.support.OpenAiMockSupport;
+import com.github.spud.sample.ai.agent.it.support.RoundTripCounter;
+import com.github.spud.sample.ai.agent.it.support.ScriptedLlmDispatcher;
+import io.modelcontextprotocol.client.McpSyncClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * End-to-end load test: N concurrent conversations x M messages against the REST API
+ * <p>
+ * Runs fully offline against Testcontainers Postgres / Redis, a scripted mock LLM
+ * ({@link ScriptedLlmDispatcher}) and an in-process mock MCP server ({@link MockMcpServer}).
+ * Reports throughput, latency percentiles, 409 / error rates and DB / Redis round-trips per
+ * message, and writes the report as JSON. Skipped by default; run with:
+ * <pre>
+ * mvn test -Dtest=ReActLoadIT -Dloadtest=true \
+ *   -Dloadtest.conversations=50 -Dloadtest.messages=10 \
+ *   -Dloadtest.llm.latency=lognormal:800:0.5 -Dloadtest.llm.tokens-per-second=40
+ * </pre>
+ * Options (system properties, defaults in brackets):
+ * <ul>
+ *   <li>loadtest.conversations [20], loadtest.messages [5] per conversation</li>
+ *   <li>loadtest.messages-in-flight [1]: messages of one conversation sent concurrently;
+ *   above 1 exercises optimistic locking (409)</li>
+ *   <li>loadtest.agent-type [MCP]: MCP or TOOLCALL</li>
+ *   <li>loadtest.llm.script [get_current_time,lookup]: tool per THINK step, then terminate</li>
+ *   <li>loadtest.llm.latency [lognormal:300:0.4], loadtest.llm.tokens-per-second [50]</li>
+ *   <li>loadtest.mcp.latency [uniform:5:50], loadtest.mcp.payload-chars [1000]</li>
+ *   <li>loadtest.seed [42], loadtest.report [target/loadtest/report.json]</li>
+ * </ul>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"it", "load"})
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ReActLoadIT extends ContainersSupport {
+
+  private static final int CONVERSATIONS = Integer.getInteger("loadtest.conversations", 20);
+  private static final int MESSAGES = Integer.getInteger("loadtest.messages", 5);
+  private static final int MESSAGES_IN_FLIGHT = Integer.getInteger("loadtest.messages-in-flight",
+    1);
+  private static final ReActAgentType AGENT_TYPE = ReActAgentType.valueOf(
+    System.getProperty("loadtest.agent-type", "MCP"));
+  private static final long SEED = Long.getLong("loadtest.seed", 42L);
+  private static final Path REPORT = Path.of(
+    System.getProperty("loadtest.report", "target/loadtest/report.json"));
+
+  private static final ScriptedLlmDispatcher LLM = new ScriptedLlmDispatcher(
+    Arrays.asList(System.getProperty("loadtest.llm.script", "get_current_time,lookup").split(",")),
+    LatencyDistribution.parse(System.getProperty("loadtest.llm.latency", "lognormal:300:0.4"),
+      SEED),
+    Integer.getInteger("loadtest.llm.tokens-per-second", 50));
+
+  private static final MockMcpServer MCP = new MockMcpServer(
+    LatencyDistribution.parse(System.getProperty("loadtest.mcp.latency", "uniform:5:50"), SEED),
+    Integer.getInteger("loadtest.mcp.payload-chars", 1000));
+
+  static {
+    OpenAiMockSupport.getServer().setDispatcher(LLM);
+  }
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private RoundTripCounter roundTrips;
+
+  @Autowired
+  private RedisConnectionFactory redisConnectionFactory;
+
+  @TestConfiguration
+  static class LoadTestConfig {
+
+    @Bean
+    static RoundTripCounter roundTripCounter() {
+      return new RoundTripCounter();
+    }
+
+    @Bean
+    McpSyncClient loadTestMcpClient() {
+      return MCP.client();
+    }
+  }
+
+  @Test
+  void conversationsUnderLoad() throws Exception {
+    WebClient client = webClient();
+    String agentId = createAgent(client);
+    List<String> conversations = Flux.range(0, CONVERSATIONS)
+      .flatMap(i -> createSession(client, agentId), 16)
+      .collectList()
+      .block();
+    assertThat(conversations).hasSize(CONVERSATIONS);
+
+    roundTrips.attach(redisConnectionFactory);
+    RoundTripCounter.Snapshot before = roundTrips.snapshot();
+    long llmBefore = LLM.getRequests();
+    long mcpBefore = MCP.getCalls();
+
+    List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+    AtomicInteger ok = new AtomicInteger();
+    AtomicInteger conflicts = new AtomicInteger();
+    AtomicInteger errors = new AtomicInteger();
+
+    long start = System.nanoTime();
+    Flux.fromIterable(conversations)
+      .flatMap(conversationId -> Flux.range(0, MESSAGES)
+        .flatMap(m -> Mono.defer(() -> {
+          long sent = System.nanoTime();
+          return sendMessage(client, conversationId, m)
+            .doOnNext(status -> {
+              latencies.add(System.nanoTime() - sent);
+              if (status == 200) {
+                ok.incrementAndGet();
+              } else if (status == 409) {
+                conflicts.incrementAndGet();
+              } else {
+                errors.incrementAndGet();
+              }
+            });
+        }), MESSAGES_IN_FLIGHT), CONVERSATIONS)
+      .blockLast();
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    RoundTripCounter.Snapshot roundTripsUsed = roundTrips.snapshot().minus(before);
+    int total = ok.get() + conflicts.get() + errors.get();
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("conversations", CONVERSATIONS);
+    report.put("messagesPerConversation", MESSAGES);
+    report.put("messagesInFlight", MESSAGES_IN_FLIGHT);
+    report.put("agentType", AGENT_TYPE.name());
+    report.put("llmLatency", System.getProperty("loadtest.llm.latency", "lognormal:300:0.4"));
+    report.put("requests", total);
+    report.put("ok", ok.get());
+    report.put("durationMs", elapsed.toMillis());
+    report.put("throughputPerSecond", round(total / (elapsed.toNanos() / 1e9)));
+    report.put("p50Ms", percentile(sorted, 0.50).toMillis());
+    report.put("p95Ms", percentile(sorted, 0.95).toMillis());
+    report.put("p99Ms", percentile(sorted, 0.99).toMillis());
+    report.put("conflictRate", round((double) conflicts.get() / total));
+    report.put("errorRate", round((double) errors.get() / total));
+    report.put("dbRoundTripsPerMessage", round((double) roundTripsUsed.jdbc() / total));
+    report.put("redisRoundTripsPerMessage", round((double) roundTripsUsed.redis() / total));
+    report.put("llmCallsPerMessage", round((double) (LLM.getRequests() - llmBefore) / total));
+    report.put("mcpCallsPerMessage", round((double) (MCP.getCalls() - mcpBefore) / total));
+
+    String json = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report);
+    System.out.println("[loadtest] " + json);
+    Files.createDirectories(REPORT.toAbsolutePath().getParent());
+    Files.writeString(REPORT, json);
+
+    assertThat(total).isEqualTo(CONVERSATIONS * MESSAGES);
+    assertThat(ok.get()).isPositive();
+  }
+
+  private WebClient webClient() {
+    ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+      .maxConnections(Math.max(64, CONVERSATIONS * MESSAGES_IN_FLIGHT))
+      .pendingAcquireMaxCount(-1)
+      .build();
+    HttpClient httpClient = HttpClient.create(connections)
+      .responseTimeout(Duration.ofMinutes(5));
+    return WebClient.builder()
+      .baseUrl("http://localhost:" + port + "/agent/react")
+      .clientConnector(new ReactorClientHttpConnector(httpClient))
+      .build();
+  }
+
+  private static String createAgent(WebClient client) {
+    ReActAgentController.CreateAgentRequestDto request = new ReActAgentController.CreateAgentRequestDto();
+    request.setName("Load Test Agent");
+    request.setDescription("Agent for load testing");
+    request.setAgentType(AGENT_TYPE);
+    request.setMaxSteps(10);
+
+    ReActAgentController.CreateAgentResponse response = client.post()
+      .uri("/agent/new")
+      .bodyValue(request)
+      .retrieve()
+      .bodyToMono(ReActAgentController.CreateAgentResponse.class)
+      .block();
+    assertThat(response).isNotNull();
+    return response.getAgentId();
+  }
+
+  private static Mono<String> createSession(WebClient client, String agentId) {
+    ReActAgentController.CreateSessionRequestDto request = new ReActAgentController.CreateSessionRequestDto();
+    request.setAgentId(agentId);
+    if (AGENT_TYPE == ReActAgentType.MCP) {
+      request.setEnabledMcpServers(List.of(MockMcpServer.SERVER_ID));
+    }
+    return client.post()
+      .uri("/session/new")
+      .bodyValue(request)
+      .retrieve()
+      .bodyToMono(ReActAgentController.CreateSessionResponse.class)
+      .map(ReActAgentController.CreateSessionResponse::getConversationId);
+  }
+
+  /**
+   * @return HTTP status, or -1 when the request failed without a response
+   */
+  private static Mono<Integer> sendMessage(WebClient client, String conversationId, int index) {
+    ReActAgentController.SendMessageRequestDto request = new ReActAgentController.SendMessageRequestDto();
+    request.setContent(ScriptedLlmDispatcher.MESSAGE_PREFIX + " message " + index + " of "
+      + conversationId);
+    return client.post()
+      .uri("/session/{id}/messages", conversationId)
+      .bodyValue(request)
+      .exchangeToMono(response -> response.releaseBody()
+        .thenReturn(response.statusCode().value()))
+      .onErrorReturn(-1);
+  }
+
+  private static Duration percentile(List<Long> sorted, double p) {
+    if (sorted.isEmpty()) {
+      return Duration.ZERO;
+    }
+    int index = (int) Math.ceil(p * sorted.size()) - 1;
+    return Duration.ofNanos(sorted.get(Math.max(0, index)));
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 1000) / 1000.0;
+  }
+}
@@ -0,0 +1,146 @@
+package com.github.spud.sample.ai.agent.it.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.spud.sample.ai.agent.domain.session.ConversationArchiver;
+import com.github.spud.sample.ai.agent.domain.session.MessageLifecycleProperties;
+import com.github.spud.sample.ai.agent.domain.session.MessagePartitionMaintainer;
+import com.github.spud.sample.ai.agent.domain.session.ReActAgentType;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionService;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.MessageDto;
+import com.github.spud.sample.ai.agent.it.support.ContainersSupport;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Message retention against real monthly partitions: history that a fork reads from its parent by
+ * seq survives both row deletes and partition drops
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("it")
+class MessageRetentionIT extends ContainersSupport {
+
+  @Autowired
+  private ReActSessionService sessionService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ConversationArchiver archiver;
+
+  @Test
+  @DisplayName("Row deletes keep the parent messages a fork still reads")
+  void rowRetentionKeepsHistorySharedWithFork() {
+    Fixture fixture = forkedParent(YearMonth.now(ZoneOffset.UTC).minusMonths(24), 30);
+
+    maintainer(Duration.ofDays(3650)).applyRetention();
+
+    assertThat(contents(fixture.parent())).containsExactly("before fork 1", "before fork 2");
+    assertThat(sessionService.listMessages(fixture.fork(), 10))
+      .extracting(MessageDto::getContent)
+      .containsExactly("before fork 1", "before fork 2");
+    assertThat(contents(fixture.unrelated())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("An expired partition holding fork history is kept; only unshared rows go")
+  void partitionRetentionKeepsPartitionSharedWithFork() {
+    YearMonth month = YearMonth.now(ZoneOffset.UTC).minusMonths(36);
+    Fixture fixture = forkedParent(month, null);
+
+    maintainer(Duration.ofDays(365)).applyRetention();
+
+    assertThat(partitionExists(month)).isTrue();
+    assertThat(contents(fixture.parent())).containsExactly("before fork 1", "before fork 2");
+    assertThat(sessionService.listMessages(fixture.fork(), 10))
+      .extracting(MessageDto::getContent)
+      .containsExactly("before fork 1", "before fork 2");
+    assertThat(contents(fixture.unrelated())).isEmpty();
+  }
+
+  /**
+   * A parent with three old messages forked after the second, and an unrelated session of the
+   * same agent with one old message
+   */
+  private Fixture forkedParent(YearMonth month, Integer agentRetentionDays) {
+    jdbcTemplate.execute("""
+      CREATE TABLE IF NOT EXISTS %s PARTITION OF react_agent_message
+        FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')""".formatted(
+      partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1)));
+    OffsetDateTime old = month.atDay(10).atStartOfDay().atOffset(ZoneOffset.UTC);
+
+    String agentId = sessionService.createAgent(ReActSessionService.CreateAgentRequest.builder()
+      .name("Retention Agent")
+      .description("Retention Description")
+      .agentType(ReActAgentType.TOOLCALL)
+      .messageRetentionDays(agentRetentionDays)
+      .build());
+    String parent = createSession(agentId, old);
+    String unrelated = createSession(agentId, old);
+    insertMessage(parent, "before fork 1", old);
+    long forkSeq = insertMessage(parent, "before fork 2", old);
+    insertMessage(parent, "after fork", old);
+    insertMessage(unrelated, "unrelated", old);
+
+    String fork = sessionService.forkSession(parent, forkSeq).getConversationId();
+    return new Fixture(parent, fork, unrelated);
+  }
+
+  private String createSession(String agentId, OffsetDateTime createdAt) {
+    ReActSessionService.CreateSessionRequest request = new ReActSessionService.CreateSessionRequest();
+    request.setAgentId(agentId);
+    String conversationId = sessionService.createSession(request);
+    // Backdate the session so its partition lower bound covers the old messages
+    jdbcTemplate.update("UPDATE react_agent_session SET created_at = ? WHERE conversation_id = ?",
+      createdAt, conversationId);
+    return conversationId;
+  }
+
+  private long insertMessage(String conversationId, String content, OffsetDateTime createdAt) {
+    return jdbcTemplate.queryForObject("""
+        INSERT INTO react_agent_message (id, conversation_id, message_type, content, created_at)
+        VALUES (?, ?, 'USER', ?, ?)
+        RETURNING seq""", Long.class, UUID.randomUUID(), conversationId, content, createdAt);
+  }
+
+  private List<String> contents(String conversationId) {
+    return jdbcTemplate.queryForList(
+      "SELECT content FROM react_agent_message WHERE conversation_id = ? ORDER BY seq",
+      String.class, conversationId);
+  }
+
+  private boolean partitionExists(YearMonth month) {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL",
+      Boolean.class, partitionName(month)));
+  }
+
+  private static String partitionName(YearMonth month) {
+    return "react_agent_message_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+  }
+
+  private MessagePartitionMaintainer maintainer(Duration defaultRetention) {
+    MessageLifecycleProperties properties = new MessageLifecycleProperties();
+    properties.setDefaultRetention(defaultRetention);
+    return new MessagePartitionMaintainer(jdbcTemplate, transactionTemplate, properties, archiver);
+  }
+
+  private record Fixture(String parent, String fork, String unrelated) {
+
+  }
+}
@@ -0,0 +1,61 @@
+package com.github.spud.sample.ai.agent.it.support;
+
+import java.util.SplittableRandom;
+import java.util.function.ToLongFunction;
+
+/**
+ * Seeded latency distribution for mock servers in load tests
+ * <p>
+ * Spec format: {@code fixed:<ms>}, {@code uniform:<minMs>:<maxMs>} or
+ * {@code lognormal:<medianMs>:<sigma>} (long-tailed, closest to real LLM latencies)
+ */
+public final class LatencyDistribution {
+
+  private final String spec;
+  private final SplittableRandom random;
+  private final ToLongFunction<SplittableRandom> sampler;
+
+  private LatencyDistribution(String spec, long seed, ToLongFunction<SplittableRandom> sampler) {
+    this.spec = spec;
+    this.random = new SplittableRandom(seed);
+    this.sampler = sampler;
+  }
+
+  public static LatencyDistribution parse(String spec, long seed) {
+    String[] parts = spec.trim().split(":");
+    try {
+      return switch (parts[0]) {
+        case "fixed" -> {
+          long millis = Long.parseLong(parts[1]);
+          yield new LatencyDistribution(spec, seed, r -> millis);
+        }
+        case "uniform" -> {
+          long min = Long.parseLong(parts[1]);
+          long max = Long.parseLong(parts[2]);
+          yield new LatencyDistribution(spec, seed, r -> min + r.nextLong(max - min + 1));
+        }
+        case "lognormal" -> {
+          double median = Double.parseDouble(parts[1]);
+          double sigma = Double.parseDouble(parts[2]);
+          yield new LatencyDistribution(spec, seed,
+            r -> Math.round(median * Math.exp(sigma * r.nextGaussian())));
+        }
+        default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+      };
+    } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid latency distribution: " + spec, e);
+    }
+  }
+
+  /**
+   * Next latency sample; synchronized so a seed always yields the same sequence of samples
+   */
+  public synchronized long sampleMillis() {
+    return Math.max(0, sampler.applyAsLong(random));
+  }
+
+  @Override
+  public String toString() {
+    return spec;
+  }
+}
@@ -0,0 +1,78 @@
+package com.github.spud.sample.ai.agent.it.support;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process mock MCP server for load tests
+ * <p>
+ * Exposed at the {@link McpSyncClient} boundary: McpClientManager, the Spring AI tool callbacks,
+ * McpAgent tool refresh and tool execution run unchanged, while tool calls sleep for a sampled
+ * latency instead of going over a transport.
+ */
+public class MockMcpServer {
+
+  public static final String SERVER_ID = "loadtest";
+
+  public static final String LOOKUP_TOOL = "lookup";
+
+  private static final String INPUT_SCHEMA = """
+    {"type":"object","properties":{"query":{"type":"string"}},"required":["query"]}""";
+
+  private final LatencyDistribution latency;
+  private final String payload;
+  private final AtomicLong calls = new AtomicLong();
+  private final AtomicLong listings = new AtomicLong();
+
+  /**
+   * @param latency      tool call latency
+   * @param payloadChars size of each tool result
+   */
+  public MockMcpServer(LatencyDistribution latency, int payloadChars) {
+    this.latency = latency;
+    this.payload = "x".repeat(Math.max(0, payloadChars));
+  }
+
+  public long getCalls() {
+    return calls.get();
+  }
+
+  public long getListings() {
+    return listings.get();
+  }
+
+  public McpSyncClient client() {
+    McpSyncClient client = mock(McpSyncClient.class);
+    when(client.getServerInfo()).thenReturn(new McpSchema.Implementation(SERVER_ID, "1.0.0"));
+    when(client.getClientInfo()).thenReturn(new McpSchema.Implementation(SERVER_ID, "1.0.0"));
+    when(client.isInitialized()).thenReturn(true);
+    when(client.closeGracefully()).thenReturn(true);
+
+    McpSchema.ListToolsResult tools = new McpSchema.ListToolsResult(List.of(
+      new McpSchema.Tool(LOOKUP_TOOL, "Look up records matching the query", INPUT_SCHEMA)), null);
+    when(client.listTools()).thenAnswer(inv -> {
+      listings.incrementAndGet();
+      return tools;
+    });
+    when(client.listTools(anyString())).thenAnswer(inv -> {
+      listings.incrementAndGet();
+      return tools;
+    });
+    when(client.callTool(any())).thenAnswer(inv -> {
+      calls.incrementAndGet();
+      TimeUnit.MILLISECONDS.sleep(latency.sampleMillis());
+      McpSchema.CallToolRequest request = inv.getArgument(0);
+      return new McpSchema.CallToolResult(
+        List.of(new McpSchema.TextContent(request.arguments() + " -> " + payload)), false);
+    });
+    return client;
+  }
+}
@@ -0,0 +1,98 @@
+package com.github.spud.sample.ai.agent.it.support;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ * Counts database and Redis round-trips made by the application under load
+ * <p>
+ * JDBC: every statement execution ({@code execute*}, a batch counts once) plus commit / rollback,
+ * via a proxy around the {@link DataSource} bean. Redis: every command started on a Lettuce
+ * connection.
+ */
+public class RoundTripCounter implements BeanPostProcessor {
+
+  private final AtomicLong jdbc = new AtomicLong();
+  private final AtomicLong redis = new AtomicLong();
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+      return proxy(DataSource.class, dataSource);
+    }
+    return bean;
+  }
+
+  /**
+   * Start counting Redis commands; drops the shared connection so the next one is created with
+   * the listener attached
+   */
+  public void attach(RedisConnectionFactory connectionFactory) {
+    if (connectionFactory instanceof LettuceConnectionFactory lettuce) {
+      AbstractRedisClient client = lettuce.getRequiredNativeClient();
+      client.addListener(new CommandListener() {
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+          redis.incrementAndGet();
+        }
+      });
+      lettuce.resetConnection();
+    }
+  }
+
+  public Snapshot snapshot() {
+    return new Snapshot(jdbc.get(), redis.get());
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T proxy(Class<T> type, T target) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+      (proxy, method, args) -> {
+        Object result;
+        try {
+          result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+        count(target, method);
+        return wrap(method, result);
+      });
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object wrap(Method method, Object result) {
+    Class<?> returnType = method.getReturnType();
+    if (result != null && (Connection.class.isAssignableFrom(returnType)
+      || Statement.class.isAssignableFrom(returnType))) {
+      return proxy((Class<Object>) returnType, result);
+    }
+    return result;
+  }
+
+  private void count(Object target, Method method) {
+    String name = method.getName();
+    if (target instanceof Statement && name.startsWith("execute")) {
+      jdbc.incrementAndGet();
+    } else if (target instanceof Connection && (name.equals("commit") || name.equals("rollback"))) {
+      jdbc.incrementAndGet();
+    }
+  }
+
+  public record Snapshot(long jdbc, long redis) {
+
+    public Snapshot minus(Snapshot other) {
+      return new Snapshot(jdbc - other.jdbc, redis - other.redis);
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package com.github.spud.sample.ai.agent.it.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stateless OpenAI-compatible dispatcher for load tests
+ * <p>
+ * Unlike the queue in {@link OpenAiMockSupport}, every reply is derived from the request itself,
+ * so any number of conversations can run concurrently and still get the same deterministic
+ * script: the step is the number of assistant tool-call messages after the last user message
+ * starting with {@link #MESSAGE_PREFIX}; step {@code i < script.size()} calls the offered tool
+ * whose name ends with {@code script[i]}, later steps call {@code terminate}. Streaming requests
+ * get an SSE reply whose body is throttled to the configured token rate.
+ */
+@Slf4j
+public class ScriptedLlmDispatcher extends Dispatcher {
+
+  /**
+   * Prefix of driver messages; separates them from the agent's per-step user instructions
+   */
+  public static final String MESSAGE_PREFIX = "[load]";
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+  private static final String TERMINATE = "terminate";
+  private static final String MODEL = "gpt-4o-test";
+
+  private final List<String> script;
+  private final LatencyDistribution latency;
+  private final int tokensPerSecond;
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong streamedRequests = new AtomicLong();
+
+  /**
+   * @param script          tool name suffixes to call, one per step
+   * @param latency         delay before the response headers (time to first token)
+   * @param tokensPerSecond streaming pace; 0 sends the whole stream at once
+   */
+  public ScriptedLlmDispatcher(List<String> script, LatencyDistribution latency,
+    int tokensPerSecond) {
+    this.script = List.copyOf(script);
+    this.latency = latency;
+    this.tokensPerSecond = tokensPerSecond;
+  }
+
+  public long getRequests() {
+    return requests.get();
+  }
+
+  public long getStreamedRequests() {
+    return streamedRequests.get();
+  }
+
+  @NotNull
+  @Override
+  public MockResponse dispatch(@NotNull RecordedRequest request) {
+    String path = request.getPath();
+    if (path == null || !path.contains("/chat/completions")) {
+      return new MockResponse()
+        .setResponseCode(404)
+        .setBody("{\"error\": {\"message\": \"Invalid path: " + path + "\"}}");
+    }
+    requests.incrementAndGet();
+
+    JsonNode body;
+    String rawBody = request.getBody().readUtf8();
+    try {
+      body = JSON.readTree(rawBody);
+    } catch (Exception e) {
+      return new MockResponse()
+        .setResponseCode(400)
+        .setBody("{\"error\": {\"message\": \"Invalid JSON body\"}}");
+    }
+
+    Reply reply = reply(body);
+    int promptTokens = rawBody.length() / 4;
+    MockResponse response;
+    if (body.path("stream").asBoolean(false)) {
+      streamedRequests.incrementAndGet();
+      response = streamResponse(reply, promptTokens);
+    } else {
+      response = reply.toolName() != null
+        ? new OpenAiMockSupport.ResponseBuilder()
+        .withToolCall(reply.toolCallId(), reply.toolName(), reply.arguments())
+        .build()
+        : new OpenAiMockSupport.ResponseBuilder().withContent(reply.content()).build();
+    }
+    return response.setHeadersDelay(latency.sampleMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private Reply reply(JsonNode body) {
+    JsonNode messages = body.path("messages");
+    int lastUser = -1;
+    for (int i = 0; i < messages.size(); i++) {
+      JsonNode message = messages.get(i);
+      if ("user".equals(message.path("role").asText())
+        && message.path("content").asText("").startsWith(MESSAGE_PREFIX)) {
+        lastUser = i;
+      }
+    }
+    String userMessage = lastUser >= 0 ? messages.get(lastUser).path("content").asText() : "";
+    int step = 0;
+    for (int i = lastUser + 1; i < messages.size(); i++) {
+      JsonNode message = messages.get(i);
+      if ("assistant".equals(message.path("role").asText())
+        && message.path("tool_calls").size() > 0) {
+        step++;
+      }
+    }
+
+    List<String> offeredTools = new ArrayList<>();
+    for (JsonNode tool : body.path("tools")) {
+      offeredTools.add(tool.path("function").path("name").asText());
+    }
+
+    String callId = "call-" + Integer.toHexString(userMessage.hashCode()) + "-" + step;
+    if (step < script.size()) {
+      String toolName = resolve(script.get(step), offeredTools);
+      if (toolName != null) {
+        return new Reply(null, callId, toolName, json(Map.of("query", userMessage)));
+      }
+      log.debug("Scripted tool '{}' not offered, terminating", script.get(step));
+    }
+    String answer = "Load test answer for: " + userMessage;
+    if (offeredTools.contains(TERMINATE)) {
+      return new Reply(null, callId, TERMINATE, json(Map.of("answer", answer)));
+    }
+    return new Reply(answer, null, null, null);
+  }
+
+  private static String resolve(String suffix, List<String> offeredTools) {
+    for (String tool : offeredTools) {
+      if (tool.equals(suffix) || tool.endsWith(suffix)) {
+        return tool;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * SSE chat completion chunks: content tokens, then the tool call, then finish reason and usage
+   */
+  private MockResponse streamResponse(Reply reply, int promptTokens) {
+    String id = "chatcmpl-load-" + System.nanoTime();
+    StringBuilder sse = new StringBuilder();
+    int tokens = 0;
+    if (reply.content() != null) {
+      for (String token : reply.content().split("(?<= )")) {
+        sse.append(chunk(id, Map.of("content", token), null, null));
+        tokens++;
+      }
+    }
+    if (reply.toolName() != null) {
+      Map<String, Object> function = Map.of("name", reply.toolName(),
+        "arguments", reply.arguments());
+      Map<String, Object> toolCall = new LinkedHashMap<>();
+      toolCall.put("index", 0);
+      toolCall.put("id", reply.toolCallId());
+      toolCall.put("type", "function");
+      toolCall.put("function", function);
+      sse.append(chunk(id, Map.of("role", "assistant", "tool_calls", List.of(toolCall)), null,
+        null));
+      tokens += Math.max(1, reply.arguments().length() / 4);
+    }
+    Map<String, Object> usage = Map.of("prompt_tokens", promptTokens,
+      "completion_tokens", tokens, "total_tokens", promptTokens + tokens);
+    sse.append(chunk(id, Map.of(), reply.toolName() != null ? "tool_calls" : "stop", usage));
+    sse.append("data: [DONE]\n\n");
+
+    MockResponse response = new MockResponse()
+      .setResponseCode(200)
+      .addHeader("Content-Type", "text/event-stream")
+      .setBody(sse.toString());
+    if (tokensPerSecond > 0 && tokens > 0) {
+      long bytesPerToken = Math.max(1, sse.length() / tokens);
+      response.throttleBody(bytesPerToken, 1000L / tokensPerSecond, TimeUnit.MILLISECONDS);
+    }
+    return response;
+  }
+
+  private static String chunk(String id, Map<String, Object> delta, String finishReason,
+    Map<String, Object> usage) {
+    Map<String, Object> choice = new HashMap<>();
+    choice.put("index", 0);
+    choice.put("delta", delta);
+    choice.put("finish_reason", finishReason);
+    Map<String, Object> chunk = new LinkedHashMap<>();
+    chunk.put("id", id);
+    chunk.put("object", "chat.completion.chunk");
+    chunk.put("created", System.currentTimeMillis() / 1000);
+    chunk.put("model", MODEL);
+    chunk.put("choices", List.of(choice));
+    if (usage != null) {
+      chunk.put("usage", usage);
+    }
+    return "data: " + json(chunk) + "\n\n";
+  }
+
+  private static String json(Object value) {
+    try {
+      return JSON.writeValueAsString(value);
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to serialize mock LLM response", e);
+    }
+  }
+
+  private record Reply(String content, String toolCallId, String toolName, String arguments) {
+
+  }
+}
@@ -0,0 +1,145 @@
+package com.github.spud.sample.ai.agent.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.spud.sample.ai.agent.domain.message.AgentMessageMapper;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AbstractMessage;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage.ToolResponse;
+import org.springframework.ai.chat.messages.UserMessage;
+
+/**
+ * 消息映射往返测试：Spring AI → 实体 → Spring AI 后 tool_calls 与多条工具响应保持不变，
+ * 直接映射路径（行 → Spring AI、Spring AI → 实体）与经由领域模型的结果一致
+ */
+class AgentMessageMapperTest {
+
+  private final AgentMessageMapper mapper = new AgentMessageMapper();
+  private final ReActAgentSession session = new ReActAgentSession();
+
+  @Test
+  void roundTripKeepsToolCallsAndAllToolResponses() {
+    List<AbstractMessage> history = realisticHistory();
+
+    List<AbstractMessage> replayed = replay(history);
+
+    assertThat(replayed).hasSize(history.size());
+    AssistantMessage assistant = (AssistantMessage) replayed.get(1);
+    assertThat(assistant.getText()).isEqualTo("Let me check both cities.");
+    assertThat(assistant.getToolCalls()).isEqualTo(((AssistantMessage) history.get(1)).getToolCalls());
+    assertThat(((ToolResponseMessage) replayed.get(2)).getResponses())
+      .isEqualTo(((ToolResponseMessage) history.get(2)).getResponses());
+    assertThat(((AssistantMessage) replayed.get(3)).getToolCalls())
+      .isEqualTo(((AssistantMessage) history.get(3)).getToolCalls());
+    assertThat(((ToolResponseMessage) replayed.get(4)).getResponses())
+      .isEqualTo(((ToolResponseMessage) history.get(4)).getResponses());
+    assertThat(((AssistantMessage) replayed.get(5)).hasToolCalls()).isFalse();
+
+    // Single responses stay in the tool columns; only multi-response messages use tool_calls
+    ReActAgentMessage single = mapper.toEntity(mapper.fromSpringMessage(history.get(4)), session);
+    assertThat(single.getToolCallId()).isEqualTo("call-3");
+    assertThat(single.getToolCalls()).isNull();
+  }
+
+  @Test
+  void unmatchedToolCallsAndResponsesAreDropped() {
+    List<AbstractMessage> history = List.of(
+      // Window starts after the assistant message that issued call-0
+      new ToolResponseMessage(List.of(new ToolResponse("call-0", "lookup", "stale"))),
+      new UserMessage("Next question"),
+      // terminate stopped the run before call-2 was executed
+      new AssistantMessage("", Map.of(), List.of(
+        new ToolCall("call-1", "function", "terminate", "{}"),
+        new ToolCall("call-2", "function", "lookup", "{}"))),
+      new ToolResponseMessage(List.of(new ToolResponse("call-1", "terminate", "done"))));
+
+    List<AbstractMessage> replayed = replay(history);
+
+    assertThat(replayed).hasSize(3);
+    assertThat(replayed.get(0)).isInstanceOf(UserMessage.class);
+    assertThat(((AssistantMessage) replayed.get(1)).getToolCalls())
+      .extracting(ToolCall::id).containsExactly("call-1");
+    assertThat(((ToolResponseMessage) replayed.get(2)).getResponses())
+      .extracting(ToolResponse::id).containsExactly("call-1");
+  }
+
+  @Test
+  void directMappingMatchesDomainMapping() throws Exception {
+    List<AbstractMessage> history = realisticHistory();
+
+    List<AbstractMessage> fromRows = new ArrayList<>();
+    for (AbstractMessage message : history) {
+      ReActAgentMessage direct = mapper.toEntity(message, session);
+      ReActAgentMessage viaDomain = mapper.toEntity(mapper.fromSpringMessage(message), session);
+      assertThat(direct).usingRecursiveComparison().isEqualTo(viaDomain);
+      fromRows.add(mapper.fromRow(row(direct), fromRows.size()));
+    }
+
+    List<AbstractMessage> replayed = replay(history);
+    assertThat(mapper.pairToolCalls(fromRows)).hasSameSizeAs(replayed);
+    for (int i = 0; i < replayed.size(); i++) {
+      AbstractMessage expected = replayed.get(i);
+      AbstractMessage actual = fromRows.get(i);
+      assertThat(actual.getMessageType()).isEqualTo(expected.getMessageType());
+      assertThat(actual.getText()).isEqualTo(expected.getText());
+      if (expected instanceof AssistantMessage assistant) {
+        assertThat(((AssistantMessage) actual).getToolCalls()).isEqualTo(assistant.getToolCalls());
+      } else if (expected instanceof ToolResponseMessage tool) {
+        assertThat(((ToolResponseMessage) actual).getResponses()).isEqualTo(tool.getResponses());
+      }
+    }
+  }
+
+  private static List<AbstractMessage> realisticHistory() {
+    return List.of(
+      new UserMessage("Compare the weather in Paris and Berlin"),
+      new AssistantMessage("Let me check both cities.", Map.of("finishReason", "TOOL_CALLS"),
+        List.of(
+          new ToolCall("call-1", "function", "get_weather", "{\"city\":\"Paris\"}"),
+          new ToolCall("call-2", "function", "get_weather", "{\"city\":\"Berlin\"}"))),
+      new ToolResponseMessage(List.of(
+        new ToolResponse("call-1", "get_weather", "Sunny, 21"),
+        new ToolResponse("call-2", "get_weather", "Rain, 14"))),
+      new AssistantMessage("", Map.of(), List.of(
+        new ToolCall("call-3", "function", "terminate", "{\"answer\":\"Paris is warmer\"}"))),
+      new ToolResponseMessage(List.of(new ToolResponse("call-3", "terminate", "done"))),
+      new AssistantMessage("Paris is warmer."));
+  }
+
+  /**
+   * A react_agent_message row as read by the JDBC history query (JSON columns as text)
+   */
+  private static ResultSet row(ReActAgentMessage entity) throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getString("message_type")).thenReturn(entity.getMessageType().name());
+    when(rs.getString("content")).thenReturn(entity.getContent());
+    when(rs.getString("tool_call_id")).thenReturn(entity.getToolCallId());
+    when(rs.getString("tool_name")).thenReturn(entity.getToolName());
+    when(rs.getString("metadata")).thenReturn(
+      entity.getMetadata() != null ? JsonUtils.toJson(entity.getMetadata()) : null);
+    when(rs.getString("tool_calls")).thenReturn(
+      entity.getToolCalls() != null ? JsonUtils.toJson(entity.getToolCalls()) : null);
+    return rs;
+  }
+
+  private List<AbstractMessage> replay(List<AbstractMessage> history) {
+    List<ReActAgentMessage> entities = new ArrayList<>();
+    for (AbstractMessage message : history) {
+      entities.add(mapper.toEntity(mapper.fromSpringMessage(message), session));
+    }
+    return mapper.toSpringMessages(mapper.toDomainList(entities));
+  }
+}
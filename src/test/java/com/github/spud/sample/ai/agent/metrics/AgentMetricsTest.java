@@ -0,0 +1,93 @@
+package com.github.spud.sample.ai.agent.metrics;
+
+import static com.github.spud.sample.ai.agent.support.ScriptedChatModel.tool;
+import static com.github.spud.sample.ai.agent.support.ScriptedChatModel.toolCallResponse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.spud.sample.ai.agent.domain.agent.ToolCallAgent;
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.support.ScriptedChatModel;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+
+/**
+ * ReAct 流水线指标测试：运行 / 阶段 / 工具 / token 指标，工具标签基数上限
+ */
+class AgentMetricsTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+
+  AgentMetricsTest() {
+    observationRegistry.observationConfig()
+      .observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+  }
+
+  @Test
+  void runPhasesToolsAndTokensAreRecorded() {
+    AgentMetrics metrics = new AgentMetrics(meterRegistry, observationRegistry, 100);
+    ChatModel chatModel = new ScriptedChatModel(
+      toolCallResponse("call-1", "lookup", "{\"q\":\"paris\"}"),
+      toolCallResponse("call-2", "terminate", "{\"answer\":\"done\"}"));
+    ToolCallAgent agent = ToolCallAgent.builder()
+      .name("test")
+      .conversationId("c1")
+      .systemPrompt("system")
+      .chatClient(ChatClient.builder(chatModel).build())
+      .messages(new ArrayList<>())
+      .availableCallbacks(new ArrayList<>(List.of(tool("lookup"), tool("terminate"))))
+      .metrics(metrics)
+      .build();
+
+    assertThat(agent.run("hello").block()).isEqualTo("done");
+
+    Timer run = meterRegistry.find("agent.run")
+      .tags("agent.type", "ToolCallAgent", "outcome", "answered").timer();
+    assertThat(run).isNotNull();
+    assertThat(run.count()).isEqualTo(1);
+    // The conversation id is a span attribute only, never a metric tag
+    assertThat(run.getId().getTag("conversation.id")).isNull();
+    assertThat(meterRegistry.get("agent.run.steps").tag("outcome", "answered").summary()
+      .totalAmount()).isEqualTo(2);
+    DistributionSummary answerSteps = meterRegistry.get("agent.answer.steps")
+      .tag("completion", AgentMetrics.COMPLETION_TERMINATE).summary();
+    assertThat(answerSteps.count()).isEqualTo(1);
+    assertThat(answerSteps.totalAmount()).isEqualTo(2);
+
+    assertThat(meterRegistry.get("agent.phase").tag("phase", AgentMetrics.PHASE_THINK).timer()
+      .count()).isEqualTo(2);
+    assertThat(meterRegistry.get("agent.phase").tag("phase", AgentMetrics.PHASE_ACT).timer()
+      .count()).isEqualTo(2);
+    assertThat(meterRegistry.get("agent.tool").tag("tool", "lookup").timer().count())
+      .isEqualTo(1);
+    assertThat(meterRegistry.get("agent.llm.call").tag("provider", "default").timer().count())
+      .isEqualTo(2);
+
+    DistributionSummary promptTokens = meterRegistry.get("agent.llm.tokens")
+      .tags("provider", "default", "type", "prompt").summary();
+    assertThat(promptTokens.totalAmount()).isEqualTo(20);
+  }
+
+  @Test
+  void toolTagsBeyondTheCapCollapseToOther() {
+    AgentMetrics metrics = new AgentMetrics(meterRegistry, observationRegistry, 2);
+
+    for (int i = 0; i < 5; i++) {
+      metrics.observeTool("mcp_tool_" + i, "c" + i, () -> "ok");
+    }
+
+    assertThat(meterRegistry.find("agent.tool").timers())
+      .extracting(timer -> timer.getId().getTag("tool"))
+      .containsExactlyInAnyOrder("mcp_tool_0", "mcp_tool_1", "other");
+    assertThat(meterRegistry.get("agent.tool").tag("tool", "other").timer().count())
+      .isEqualTo(3);
+  }
+}
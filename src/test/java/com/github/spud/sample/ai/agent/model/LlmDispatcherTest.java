@@ -0,0 +1,143 @@
+package com.github.spud.sample.ai.agent.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.github.spud.sample.ai.agent.domain.model.LlmDispatchProperties;
+import com.github.spud.sample.ai.agent.domain.model.LlmDispatcher;
+import com.github.spud.sample.ai.agent.domain.model.LlmOverloadedException;
+import com.github.spud.sample.ai.agent.domain.model.LlmPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+
+/**
+ * LLM 调度器测试：排队上限、等待超时、优先级与会话公平、TPM 修正
+ */
+class LlmDispatcherTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void rejectsWhenQueueIsFull() {
+    LlmDispatcher dispatcher = dispatcher(limits(1, 0), 1, 5000);
+    LlmDispatcher.Permit held = dispatcher.acquire("openai", "a", LlmPriority.INTERACTIVE, 1);
+
+    Thread waiter = startAcquire(dispatcher, "b", LlmPriority.INTERACTIVE, new ArrayList<>());
+    awaitQueued(1);
+
+    assertThatThrownBy(() -> dispatcher.acquire("openai", "c", LlmPriority.INTERACTIVE, 1))
+      .isInstanceOf(LlmOverloadedException.class)
+      .hasMessageContaining("queue full");
+
+    held.close();
+    joinQuietly(waiter);
+  }
+
+  @Test
+  void rejectsAfterMaxWait() {
+    LlmDispatcher dispatcher = dispatcher(limits(1, 0), 10, 100);
+    LlmDispatcher.Permit held = dispatcher.acquire("openai", "a", LlmPriority.INTERACTIVE, 1);
+
+    assertThatThrownBy(() -> dispatcher.acquire("openai", "b", LlmPriority.INTERACTIVE, 1))
+      .isInstanceOf(LlmOverloadedException.class)
+      .hasMessageContaining("no capacity within 100ms");
+
+    held.close();
+  }
+
+  @Test
+  void interactiveBeforeBatchAndRoundRobinAcrossConversations() {
+    LlmDispatcher dispatcher = dispatcher(limits(1, 0), 10, 5000);
+    LlmDispatcher.Permit held = dispatcher.acquire("openai", "x", LlmPriority.INTERACTIVE, 1);
+
+    List<String> order = new CopyOnWriteArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    threads.add(startAcquire(dispatcher, "batch", LlmPriority.BATCH, order));
+    awaitQueued(1);
+    threads.add(startAcquire(dispatcher, "a", LlmPriority.INTERACTIVE, order));
+    awaitQueued(2);
+    threads.add(startAcquire(dispatcher, "a", LlmPriority.INTERACTIVE, order));
+    awaitQueued(3);
+    threads.add(startAcquire(dispatcher, "b", LlmPriority.INTERACTIVE, order));
+    awaitQueued(4);
+
+    held.close();
+    threads.forEach(LlmDispatcherTest::joinQuietly);
+
+    assertThat(order).containsExactly("a", "b", "a", "batch");
+  }
+
+  @Test
+  void tokenBucketIsCorrectedByActualUsage() {
+    LlmDispatcher dispatcher = dispatcher(limits(10, 600), 10, 200);
+
+    LlmDispatcher.Permit first = dispatcher.acquire("openai", "a", LlmPriority.INTERACTIVE, 600);
+    first.complete(100);
+    first.close();
+
+    // 500 tokens refunded: admitted without waiting for the bucket to refill
+    long start = System.nanoTime();
+    dispatcher.acquire("openai", "a", LlmPriority.INTERACTIVE, 400).close();
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(100));
+
+    // Bucket nearly drained: a further large request cannot be admitted within max wait
+    assertThatThrownBy(() -> dispatcher.acquire("openai", "a", LlmPriority.INTERACTIVE, 400))
+      .isInstanceOf(LlmOverloadedException.class);
+  }
+
+  @Test
+  void disabledDispatcherAdmitsEverything() {
+    LlmDispatchProperties properties = new LlmDispatchProperties();
+    properties.setEnabled(false);
+    properties.setDefaults(limits(1, 1));
+    LlmDispatcher dispatcher = new LlmDispatcher(properties, meterRegistry);
+
+    dispatcher.acquire("openai", "a", LlmPriority.INTERACTIVE, 1000);
+    dispatcher.acquire("openai", "a", LlmPriority.INTERACTIVE, 1000).close();
+  }
+
+  private LlmDispatcher dispatcher(LlmDispatchProperties.Limits limits, int maxQueueSize,
+    long maxWaitMs) {
+    LlmDispatchProperties properties = new LlmDispatchProperties();
+    properties.setMaxQueueSize(maxQueueSize);
+    properties.setMaxWaitMs(maxWaitMs);
+    properties.setDefaults(limits);
+    return new LlmDispatcher(properties, meterRegistry);
+  }
+
+  private static LlmDispatchProperties.Limits limits(int maxConcurrent, int tpm) {
+    LlmDispatchProperties.Limits limits = new LlmDispatchProperties.Limits();
+    limits.setMaxConcurrent(maxConcurrent);
+    limits.setTpm(tpm);
+    return limits;
+  }
+
+  private static Thread startAcquire(LlmDispatcher dispatcher, String conversationId,
+    LlmPriority priority, List<String> order) {
+    Thread thread = new Thread(() -> {
+      try (LlmDispatcher.Permit permit = dispatcher.acquire("openai", conversationId, priority, 1)) {
+        order.add(conversationId);
+      }
+    });
+    thread.start();
+    return thread;
+  }
+
+  private void awaitQueued(int expected) {
+    await().atMost(Duration.ofSeconds(5)).until(() ->
+      meterRegistry.get("agent.llm.dispatch.queued").gauge().value() == expected);
+  }
+
+  private static void joinQuietly(Thread thread) {
+    try {
+      thread.join(5000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.github.spud.sample.ai.agent.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.spud.sample.ai.agent.domain.model.ChatClientRegistry;
+import com.github.spud.sample.ai.agent.domain.model.LlmDispatchProperties;
+import com.github.spud.sample.ai.agent.domain.model.LlmDispatcher;
+import com.github.spud.sample.ai.agent.domain.model.LlmHedger;
+import com.github.spud.sample.ai.agent.domain.model.LlmHedgingProperties;
+import com.github.spud.sample.ai.agent.domain.model.LlmResponseCache;
+import com.github.spud.sample.ai.agent.domain.model.ModelRoute;
+import com.github.spud.sample.ai.agent.domain.model.ModelSpec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * LLM 对冲与回退测试：慢请求被对冲、失败请求回退、对冲延迟取近期分位数
+ */
+class LlmHedgerTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final FakeChatModel openAi = new FakeChatModel("openai");
+  private final FakeChatModel ollama = new FakeChatModel("ollama");
+  private final LlmHedgingProperties properties = new LlmHedgingProperties();
+  private final ChatClientRegistry registry = registry();
+  private final LlmHedger hedger = new LlmHedger(properties, registry, Schedulers.boundedElastic(),
+    meterRegistry);
+  private final ModelRoute primary = registry.route(new ModelSpec(ModelSpec.OPENAI, null, null));
+
+  @Test
+  void slowPrimaryIsHedgedToSecondary() {
+    properties.setEnabled(true);
+    properties.setInitialDelay(Duration.ofMillis(50));
+    openAi.delayMs = 2000;
+
+    long start = System.nanoTime();
+    String answer = text(hedger.call(primary, LlmHedgerTest::call));
+
+    assertThat(answer).isEqualTo("ollama");
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+    assertThat(meterRegistry.counter("agent.llm.hedging", "outcome", "hedge_win",
+      "provider", "ollama").count()).isEqualTo(1);
+  }
+
+  @Test
+  void fastPrimaryIsNotHedged() {
+    properties.setEnabled(true);
+    properties.setInitialDelay(Duration.ofMillis(500));
+
+    assertThat(text(hedger.call(primary, LlmHedgerTest::call))).isEqualTo("openai");
+    assertThat(ollama.calls).hasValue(0);
+  }
+
+  @Test
+  void failedCallFallsBackInOrder() {
+    properties.setFallbacks(List.of("ollama"));
+    openAi.fail = true;
+
+    assertThat(text(hedger.call(primary, LlmHedgerTest::call))).isEqualTo("ollama");
+
+    ollama.fail = true;
+    assertThatThrownBy(() -> hedger.call(primary, LlmHedgerTest::call))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("ollama down");
+  }
+
+  @Test
+  void hedgeDelayFollowsRecentPercentile() {
+    properties.setEnabled(true);
+    properties.setMinSamples(5);
+    properties.setMinDelay(Duration.ofMillis(1));
+    properties.setInitialDelay(Duration.ofSeconds(10));
+    assertThat(hedger.hedgeDelay(primary)).isEqualTo(Duration.ofSeconds(10));
+
+    openAi.delayMs = 20;
+    for (int i = 0; i < 5; i++) {
+      hedger.call(primary, LlmHedgerTest::call);
+    }
+
+    assertThat(hedger.hedgeDelay(primary))
+      .isGreaterThanOrEqualTo(Duration.ofMillis(20))
+      .isLessThan(Duration.ofSeconds(1));
+  }
+
+  private static ChatResponse call(ModelRoute route) {
+    return route.client().prompt("q").call().chatResponse();
+  }
+
+  private static String text(ChatResponse response) {
+    return response.getResult().getOutput().getText();
+  }
+
+  private ChatClientRegistry registry() {
+    LlmDispatchProperties dispatch = new LlmDispatchProperties();
+    dispatch.setEnabled(false);
+    return new ChatClientRegistry(openAi, ollama, new LlmDispatcher(dispatch, meterRegistry),
+      new LlmResponseCache(null, false, Duration.ZERO, meterRegistry));
+  }
+
+  /**
+   * ChatModel answering with its own name, optionally slow or failing
+   */
+  private static class FakeChatModel implements ChatModel {
+
+    final String name;
+    final AtomicInteger calls = new AtomicInteger();
+    volatile long delayMs;
+    volatile boolean fail;
+
+    FakeChatModel(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+      calls.incrementAndGet();
+      if (fail) {
+        throw new IllegalStateException(name + " down");
+      }
+      if (delayMs > 0) {
+        try {
+          Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("interrupted", e);
+        }
+      }
+      return new ChatResponse(List.of(new Generation(new AssistantMessage(name))));
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package com.github.spud.sample.ai.agent.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.spud.sample.ai.agent.domain.model.LlmResponseCache;
+import com.github.spud.sample.ai.agent.domain.model.LlmResponseCacheAdvisor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import reactor.core.publisher.Flux;
+
+/**
+ * LLM 响应缓存测试：确定性请求命中缓存，非确定性 / 显式关闭的请求直达模型
+ */
+class LlmResponseCacheTest {
+
+  private final Map<String, String> store = new ConcurrentHashMap<>();
+  private final CountingChatModel chatModel = new CountingChatModel();
+  private final ChatClient chatClient = ChatClient.builder(chatModel)
+    .defaultAdvisors(new LlmResponseCacheAdvisor(cache(), "openai"))
+    .build();
+
+  @Test
+  void deterministicCallIsServedFromCache() {
+    String first = call(0.0, true);
+    String second = call(0.0, true);
+
+    assertThat(first).isEqualTo("answer-1");
+    assertThat(second).isEqualTo("answer-1");
+    assertThat(chatModel.calls).hasValue(1);
+    assertThat(store).hasSize(1);
+  }
+
+  @Test
+  void cachedToolCallsAreReplayed() {
+    chatModel.toolCall = true;
+    ChatResponse first = chatClient.prompt(prompt("q", 0.0)).call().chatResponse();
+    ChatResponse second = chatClient.prompt(prompt("q", 0.0)).call().chatResponse();
+
+    assertThat(chatModel.calls).hasValue(1);
+    assertThat(second.getResult().getOutput().getToolCalls())
+      .isEqualTo(first.getResult().getOutput().getToolCalls());
+    assertThat((Boolean) second.getMetadata().get(LlmResponseCache.CACHE_HIT_METADATA)).isTrue();
+  }
+
+  @Test
+  void nonDeterministicOrOptedOutCallsBypassCache() {
+    call(0.7, true);
+    call(0.7, true);
+    call(0.0, false);
+    call(0.0, false);
+
+    assertThat(chatModel.calls).hasValue(4);
+    assertThat(store).isEmpty();
+  }
+
+  @Test
+  void streamedResponseIsAggregatedAndReplayed() {
+    List<String> first = chatClient.prompt(prompt("q", 0.0)).stream().content().collectList().block();
+    List<String> second = chatClient.prompt(prompt("q", 0.0)).stream().content().collectList()
+      .block();
+
+    assertThat(String.join("", first)).isEqualTo("answer-1");
+    assertThat(second).containsExactly("answer-1");
+    assertThat(chatModel.calls).hasValue(1);
+  }
+
+  private String call(double temperature, boolean cacheable) {
+    return chatClient.prompt(prompt("q", temperature))
+      .advisors(a -> a.param(LlmResponseCacheAdvisor.CACHEABLE, cacheable))
+      .call()
+      .content();
+  }
+
+  private static Prompt prompt(String text, double temperature) {
+    return new Prompt(text, ChatOptions.builder().model("m").temperature(temperature).build());
+  }
+
+  @SuppressWarnings("unchecked")
+  private LlmResponseCache cache() {
+    StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    ValueOperations<String, String> ops = mock(ValueOperations.class);
+    when(redisTemplate.opsForValue()).thenReturn(ops);
+    when(ops.get(anyString())).thenAnswer(inv -> store.get(inv.<String>getArgument(0)));
+    doAnswer(inv -> store.put(inv.getArgument(0), inv.getArgument(1)))
+      .when(ops).set(anyString(), anyString(), any(Duration.class));
+    return new LlmResponseCache(redisTemplate, true, Duration.ofMinutes(5),
+      new SimpleMeterRegistry());
+  }
+
+  /**
+   * ChatModel that numbers its answers, streaming them in two chunks
+   */
+  private static class CountingChatModel implements ChatModel {
+
+    final AtomicInteger calls = new AtomicInteger();
+    boolean toolCall;
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+      int n = calls.incrementAndGet();
+      AssistantMessage message = toolCall
+        ? new AssistantMessage("", Map.of(),
+        List.of(new AssistantMessage.ToolCall("call-" + n, "function", "echo", "{}")))
+        : new AssistantMessage("answer-" + n);
+      return new ChatResponse(List.of(new Generation(message)));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+      int n = calls.incrementAndGet();
+      return Flux.just("answer-", String.valueOf(n))
+        .map(text -> new ChatResponse(List.of(new Generation(new AssistantMessage(text)))));
+    }
+  }
+}
@@ -2,15 +2,26 @@ package com.github.spud.sample.ai.agent.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.github.spud.sample.ai.agent.domain.message.AgentMessageMapper;
 import com.github.spud.sample.ai.agent.domain.session.ReActAgentType;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionService.MessageDto;
+import com.github.spud.sample.ai.agent.domain.state.AgentState;
+import com.github.spud.sample.ai.agent.domain.trace.AgentRunTrace;
+import com.github.spud.sample.ai.agent.domain.trace.AgentTracer;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageRepository;
 import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
 import com.github.spud.sample.ai.agent.interfaces.rest.ReActAgentController;
 import com.github.spud.sample.ai.agent.react.ReActAgentTestConfig;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AbstractMessage;
 import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
@@ -38,6 +49,12 @@ class ReActAgentControllerTest {
   @Autowired
   private ReActAgentMessageRepository messageRepository;
 
+  @Autowired
+  private AgentTracer agentTracer;
+
+  @Autowired
+  private AgentMessageMapper messageMapper;
+
   @Test
   void shouldCreateToolCallSessionAndSendMessage() {
     // Create agent first
@@ -109,6 +126,15 @@ class ReActAgentControllerTest {
     assertThat(messages).isNotEmpty();
     assertThat(messages).anyMatch(m -> m.getMessageType() == MessageType.USER);
     assertThat(messages).anyMatch(m -> m.getMessageType() == MessageType.ASSISTANT);
+
+    // The JDBC history read builds the same messages straight from the rows
+    List<AbstractMessage> history = messageRepository.readMessages(conversationId,
+      ReActAgentMessageRepository.EPOCH, 10, messageMapper::fromRow);
+    assertThat(history).extracting(AbstractMessage::getMessageType)
+      .containsExactlyElementsOf(messages.stream().map(m -> m.getMessageType()).toList());
+    assertThat(history).extracting(m -> m instanceof ToolResponseMessage tool
+        ? tool.getResponses().get(0).responseData() : m.getText())
+      .containsExactlyElementsOf(messages.stream().map(m -> m.getContent()).toList());
   }
 
   @Test
@@ -173,4 +199,243 @@ class ReActAgentControllerTest {
       .exchange()
       .expectStatus().isNotFound();
   }
+
+  @Test
+  void shouldPageSessionsByLastActivity() {
+    String agentId = webTestClient.post()
+      .uri("/agent/react/agent/new")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("""
+        {
+          "name": "Listing Agent",
+          "description": "Listing Description",
+          "agentType": "TOOLCALL"
+        }
+        """)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(ReActAgentController.CreateAgentResponse.class)
+      .returnResult()
+      .getResponseBody()
+      .getAgentId();
+
+    List<String> created = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      created.add(webTestClient.post()
+        .uri("/agent/react/session/new")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"agentId\": \"%s\"}".formatted(agentId))
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(ReActAgentController.CreateSessionResponse.class)
+        .returnResult()
+        .getResponseBody()
+        .getConversationId());
+    }
+    String active = created.get(0);
+    webTestClient.post()
+      .uri("/agent/react/session/" + active + "/messages")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"content\": \"Hello agent\"}")
+      .exchange()
+      .expectStatus().isOk();
+
+    var firstPage = webTestClient.get()
+      .uri("/agent/react/session/list?agentId={agentId}&limit=2", agentId)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(ReActAgentController.SessionSummaryDto.class)
+      .returnResult();
+    List<ReActAgentController.SessionSummaryDto> first = firstPage.getResponseBody();
+    String cursor = firstPage.getResponseHeaders()
+      .getFirst(ReActAgentController.NEXT_CURSOR_HEADER);
+
+    // The session that received a message is the most recently active one
+    assertThat(first).hasSize(2);
+    assertThat(first.get(0).getConversationId()).isEqualTo(active);
+    assertThat(first.get(0).getMessageCount())
+      .isEqualTo(messageRepository.findAllByConversationIdOrderBySeqAsc(active, Limit.unlimited()).size())
+      .isPositive();
+    assertThat(cursor).isNotBlank();
+
+    var secondPage = webTestClient.get()
+      .uri("/agent/react/session/list?agentId={agentId}&limit=2&cursor={cursor}", agentId, cursor)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(ReActAgentController.SessionSummaryDto.class)
+      .returnResult();
+    List<ReActAgentController.SessionSummaryDto> second = secondPage.getResponseBody();
+
+    assertThat(second).hasSize(1);
+    assertThat(second.get(0).getMessageCount()).isZero();
+    assertThat(secondPage.getResponseHeaders()
+      .containsKey(ReActAgentController.NEXT_CURSOR_HEADER)).isFalse();
+    assertThat(Stream.concat(first.stream(), second.stream())
+      .map(ReActAgentController.SessionSummaryDto::getConversationId))
+      .containsExactlyInAnyOrderElementsOf(created);
+
+    webTestClient.get()
+      .uri("/agent/react/session/list?cursor=not-a-cursor")
+      .exchange()
+      .expectStatus().isBadRequest();
+  }
+
+  @Test
+  void shouldForkSessionSharingHistoryByReference() {
+    String agentId = webTestClient.post()
+      .uri("/agent/react/agent/new")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("""
+        {
+          "name": "Fork Agent",
+          "description": "Fork Description",
+          "agentType": "TOOLCALL"
+        }
+        """)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(ReActAgentController.CreateAgentResponse.class)
+      .returnResult()
+      .getResponseBody()
+      .getAgentId();
+    String parent = webTestClient.post()
+      .uri("/agent/react/session/new")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"agentId\": \"%s\"}".formatted(agentId))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(ReActAgentController.CreateSessionResponse.class)
+      .returnResult()
+      .getResponseBody()
+      .getConversationId();
+    sendMessage(parent, "First question");
+
+    List<MessageDto> parentHistory = listMessages(parent);
+    assertThat(parentHistory).hasSizeGreaterThan(1);
+    assertThat(parentHistory.get(0).getContent()).isEqualTo("First question");
+    long parentRows = messageRepository.count();
+
+    // Fork right after the user message, as a "regenerate answer" flow would
+    long forkSeq = parentHistory.get(0).getSeq();
+    ReActAgentController.ForkSessionResponse fork = webTestClient.post()
+      .uri("/agent/react/session/" + parent + "/fork")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"seq\": %d}".formatted(forkSeq))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(ReActAgentController.ForkSessionResponse.class)
+      .returnResult()
+      .getResponseBody();
+    assertThat(fork.getParentConversationId()).isEqualTo(parent);
+    assertThat(fork.getForkSeq()).isEqualTo(forkSeq);
+    assertThat(messageRepository.count()).isEqualTo(parentRows);
+    assertThat(listMessages(fork.getConversationId())).extracting(MessageDto::getSeq)
+      .containsExactly(forkSeq);
+
+    // The fork continues from the shared prefix; the parent is unaffected
+    sendMessage(fork.getConversationId(), "Second question");
+    List<MessageDto> forkHistory = listMessages(fork.getConversationId());
+    assertThat(forkHistory.get(0)).isEqualTo(parentHistory.get(0));
+    assertThat(forkHistory).extracting(MessageDto::getContent).contains("Second question")
+      .doesNotContain(parentHistory.get(1).getContent());
+    assertThat(listMessages(parent)).isEqualTo(parentHistory);
+
+    // Without a seq the fork takes the parent's whole history
+    ReActAgentController.ForkSessionResponse full = webTestClient.post()
+      .uri("/agent/react/session/" + parent + "/fork")
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(ReActAgentController.ForkSessionResponse.class)
+      .returnResult()
+      .getResponseBody();
+    assertThat(listMessages(full.getConversationId())).isEqualTo(parentHistory);
+
+    webTestClient.post()
+      .uri("/agent/react/session/" + parent + "/fork")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"seq\": %d}".formatted(Long.MAX_VALUE))
+      .exchange()
+      .expectStatus().isBadRequest();
+    webTestClient.post()
+      .uri("/agent/react/session/non-existent-id/fork")
+      .exchange()
+      .expectStatus().isNotFound();
+  }
+
+  private void sendMessage(String conversationId, String content) {
+    webTestClient.post()
+      .uri("/agent/react/session/" + conversationId + "/messages")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"content\": \"%s\"}".formatted(content))
+      .exchange()
+      .expectStatus().isOk();
+  }
+
+  private List<MessageDto> listMessages(String conversationId) {
+    return webTestClient.get()
+      .uri("/agent/react/session/" + conversationId + "/messages")
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(MessageDto.class)
+      .returnResult()
+      .getResponseBody();
+  }
+
+  @Test
+  void shouldListTracesOfConversation() {
+    String agentId = webTestClient.post()
+      .uri("/agent/react/agent/new")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("""
+        {
+          "name": "Trace Agent",
+          "description": "Trace Description",
+          "agentType": "TOOLCALL"
+        }
+        """)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(ReActAgentController.CreateAgentResponse.class)
+      .returnResult()
+      .getResponseBody()
+      .getAgentId();
+    String conversationId = webTestClient.post()
+      .uri("/agent/react/session/new")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"agentId\": \"%s\"}".formatted(agentId))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(ReActAgentController.CreateSessionResponse.class)
+      .returnResult()
+      .getResponseBody()
+      .getConversationId();
+    AgentRunTrace run = agentTracer.startRun(conversationId);
+    run.beginStep(1);
+    run.recordRetrieval(List.of(Map.of("id", "doc-1", "score", 0.9)));
+    run.endStep(AgentState.THINKING, null);
+    run.beginStep(2);
+    run.endStep(AgentState.FINISHED, new IllegalStateException("boom"));
+    agentTracer.flush();
+
+    List<ReActAgentController.TraceStepDto> steps = webTestClient.get()
+      .uri("/agent/react/session/{conversationId}/traces", conversationId)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(ReActAgentController.TraceStepDto.class)
+      .returnResult()
+      .getResponseBody();
+
+    assertThat(steps).extracting(ReActAgentController.TraceStepDto::getStepNumber)
+      .containsExactly(1, 2);
+    assertThat(steps.get(0).getRetrievalDocs()).containsKey("documents");
+    assertThat(steps.get(1).getError()).isEqualTo("boom");
+  }
+
+  @Test
+  void shouldReturn404ForTracesOfNonExistentSession() {
+    webTestClient.get()
+      .uri("/agent/react/session/non-existent-id/traces")
+      .exchange()
+      .expectStatus().isNotFound();
+  }
 }
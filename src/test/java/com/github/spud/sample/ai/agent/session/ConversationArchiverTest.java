@@ -0,0 +1,220 @@
+package com.github.spud.sample.ai.agent.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.spud.sample.ai.agent.domain.session.ConversationArchiver;
+import com.github.spud.sample.ai.agent.domain.session.MessageJournal;
+import com.github.spud.sample.ai.agent.domain.session.MessageLifecycleProperties;
+import com.github.spud.sample.ai.agent.domain.session.MessagePartitionMaintainer.RetentionPlan;
+import com.github.spud.sample.ai.agent.domain.session.ReActAgentCache;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionStatus;
+import com.github.spud.sample.ai.agent.domain.session.SessionArchiveUnavailableException;
+import com.github.spud.sample.ai.agent.domain.session.SessionConfigCache;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageRepository;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 冷会话归档测试：导出 / 删除 / 回灌往返、并发修改或已分叉时放弃归档，归档文件缺失，以及保留策略拆解
+ */
+class ConversationArchiverTest {
+
+  private final ReActAgentSessionRepository sessionRepository = mock(
+    ReActAgentSessionRepository.class);
+  private final ReActAgentMessageRepository messageRepository = mock(
+    ReActAgentMessageRepository.class);
+  private final SessionConfigCache sessionConfigCache = mock(SessionConfigCache.class);
+  private final ReActAgentCache agentCache = mock(ReActAgentCache.class);
+  private final PlatformTransactionManager transactionManager = mock(
+    PlatformTransactionManager.class);
+  private final ReActAgentSession session = session("c1");
+
+  @TempDir
+  Path archiveDir;
+
+  @Test
+  void archiveAndRehydrateRoundTrip() {
+    ConversationArchiver archiver = archiver();
+    List<ReActAgentMessage> messages = List.of(
+      message(MessageType.USER, "What time is it?", null),
+      message(MessageType.ASSISTANT, "", List.of(Map.of("id", "call-1", "name", "get_time",
+        "arguments", "{}"))),
+      message(MessageType.TOOL, "12:00", null));
+    when(messageRepository.listAllMessages(session)).thenReturn(messages);
+    when(sessionRepository.tryUpdateStatus("c1", 3, ReActSessionStatus.ARCHIVED)).thenReturn(1);
+
+    assertThat(archiver.archive(session)).isTrue();
+
+    Path archive = archiveDir.resolve("c1.jsonl.zst");
+    assertThat(archive).exists();
+    assertThat(archiveDir.toFile().list()).containsExactly("c1.jsonl.zst");
+    verify(messageRepository).deleteAllMessages(session);
+    verify(sessionConfigCache).evictSession("c1");
+    verify(agentCache).evict("c1");
+
+    when(sessionRepository.transitionStatus("c1", ReActSessionStatus.ARCHIVED,
+      ReActSessionStatus.ACTIVE)).thenReturn(1);
+    archiver.rehydrate(session);
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<ReActAgentMessage>> restored = ArgumentCaptor.forClass(List.class);
+    verify(messageRepository).restoreMessages(eq("c1"), restored.capture());
+    assertThat(restored.getValue()).extracting(ReActAgentMessage::getId)
+      .containsExactlyElementsOf(messages.stream().map(ReActAgentMessage::getId).toList());
+    assertThat(restored.getValue()).extracting(ReActAgentMessage::getContent)
+      .containsExactly("What time is it?", "", "12:00");
+    assertThat(restored.getValue().get(1).getToolCalls()).containsExactly(
+      Map.of("id", "call-1", "name", "get_time", "arguments", "{}"));
+    assertThat(restored.getValue()).allMatch(m -> m.getConversation() == session);
+    assertThat(archive).doesNotExist();
+  }
+
+  @Test
+  void archiveIsAbandonedWhenSessionChanged() {
+    ConversationArchiver archiver = archiver();
+    when(messageRepository.listAllMessages(session)).thenReturn(
+      List.of(message(MessageType.USER, "hello", null)));
+    when(sessionRepository.tryUpdateStatus("c1", 3, ReActSessionStatus.ARCHIVED)).thenReturn(0);
+
+    assertThat(archiver.archive(session)).isFalse();
+
+    assertThat(archiveDir.toFile().list()).isEmpty();
+    verify(messageRepository, never()).deleteAllMessages(any());
+    verify(sessionConfigCache, never()).evictSession(any());
+  }
+
+  @Test
+  void archiveIsAbandonedWhenSessionWasForked() {
+    ConversationArchiver archiver = archiver();
+    when(messageRepository.listAllMessages(session)).thenReturn(
+      List.of(message(MessageType.USER, "hello", null)));
+    when(sessionRepository.tryUpdateStatus("c1", 3, ReActSessionStatus.ARCHIVED)).thenReturn(1);
+    when(sessionRepository.existsByParentConversationId("c1")).thenReturn(true);
+
+    assertThat(archiver.archive(session)).isFalse();
+
+    assertThat(archiveDir.toFile().list()).isEmpty();
+    verify(messageRepository, never()).deleteAllMessages(any());
+    // The status CAS to ARCHIVED must not be committed
+    ArgumentCaptor<TransactionStatus> status = ArgumentCaptor.forClass(TransactionStatus.class);
+    verify(transactionManager).commit(status.capture());
+    assertThat(status.getValue().isRollbackOnly()).isTrue();
+  }
+
+  @Test
+  void rehydrateIsNoOpWhenAlreadyActive() throws Exception {
+    ConversationArchiver archiver = archiver();
+    Files.writeString(archiveDir.resolve("c1.jsonl.zst"), "unused");
+    when(sessionRepository.transitionStatus("c1", ReActSessionStatus.ARCHIVED,
+      ReActSessionStatus.ACTIVE)).thenReturn(0);
+
+    archiver.rehydrate(session);
+
+    verify(messageRepository, never()).restoreMessages(any(), anyList());
+    assertThat(archiveDir.resolve("c1.jsonl.zst")).exists();
+  }
+
+  @Test
+  void rehydrateFailsExplicitlyWhenArchiveIsMissing() {
+    ConversationArchiver archiver = archiver();
+    when(sessionRepository.transitionStatus("c1", ReActSessionStatus.ARCHIVED,
+      ReActSessionStatus.ACTIVE)).thenReturn(1);
+
+    // e.g. archived by another node into a directory this node cannot see
+    assertThatThrownBy(() -> archiver.rehydrate(session))
+      .isInstanceOf(SessionArchiveUnavailableException.class)
+      .hasMessageContaining("c1");
+    verify(messageRepository, never()).restoreMessages(any(), anyList());
+  }
+
+  @Test
+  void archiveDirIsRequiredWhenEnabled() {
+    MessageLifecycleProperties properties = new MessageLifecycleProperties();
+    properties.getArchive().setEnabled(true);
+
+    assertThatThrownBy(() -> new ConversationArchiver(sessionRepository, messageRepository,
+      new TransactionTemplate(transactionManager), mock(MessageJournal.class), sessionConfigCache,
+      agentCache, properties))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("shared");
+  }
+
+  @Test
+  void retentionPlanDropsPartitionsByLongestRetention() {
+    Map<String, Integer> agents = new HashMap<>();
+    agents.put("short", 30);
+    agents.put("long", 365);
+    agents.put("default", null);
+
+    RetentionPlan plan = RetentionPlan.of(Duration.ofDays(90), agents);
+
+    assertThat(plan.partitionRetention()).isEqualTo(Duration.ofDays(365));
+    assertThat(plan.rowDeletes()).containsOnly(
+      Map.entry("short", Duration.ofDays(30)),
+      Map.entry("default", Duration.ofDays(90)));
+
+    // Any session kept forever keeps every partition; the others are deleted row by row
+    RetentionPlan forever = RetentionPlan.of(null, agents);
+    assertThat(forever.partitionRetention()).isNull();
+    assertThat(forever.rowDeletes()).containsOnlyKeys("short", "long");
+  }
+
+  private ConversationArchiver archiver() {
+    MessageLifecycleProperties properties = new MessageLifecycleProperties();
+    properties.getArchive().setEnabled(true);
+    properties.getArchive().setDir(archiveDir.toString());
+    return new ConversationArchiver(sessionRepository, messageRepository,
+      new TransactionTemplate(transactionManager), mock(MessageJournal.class),
+      sessionConfigCache, agentCache, properties);
+  }
+
+  {
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+  }
+
+  private static ReActAgentSession session(String conversationId) {
+    ReActAgentSession session = new ReActAgentSession();
+    session.setConversationId(conversationId);
+    session.setVersion(3);
+    session.setStatus(ReActSessionStatus.ACTIVE);
+    session.setCreatedAt(OffsetDateTime.now().minusDays(120));
+    return session;
+  }
+
+  private ReActAgentMessage message(MessageType type, String content,
+    List<Map<String, Object>> toolCalls) {
+    ReActAgentMessage message = new ReActAgentMessage();
+    message.setId(UUID.randomUUID());
+    message.setConversation(session);
+    message.setMessageType(type);
+    message.setContent(content);
+    message.setToolCalls(toolCalls);
+    message.setCreatedAt(OffsetDateTime.now().minusDays(100));
+    return message;
+  }
+}
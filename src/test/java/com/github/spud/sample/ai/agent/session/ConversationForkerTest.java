@@ -0,0 +1,103 @@
+package com.github.spud.sample.ai.agent.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.spud.sample.ai.agent.domain.session.ConversationForker;
+import com.github.spud.sample.ai.agent.domain.session.MessageJournal;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionStatus;
+import com.github.spud.sample.ai.agent.domain.session.SessionConfigCache;
+import com.github.spud.sample.ai.agent.domain.session.SessionConfigCache.SessionEntry;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageBatchRepository.HistorySegment;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageRepository;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 会话分叉测试：分叉点必须是 0 或父会话历史（含祖先分叉点之前）中的消息 seq
+ */
+class ConversationForkerTest {
+
+  private final ReActAgentSessionRepository sessionRepository = mock(
+    ReActAgentSessionRepository.class);
+  private final ReActAgentMessageRepository messageRepository = mock(
+    ReActAgentMessageRepository.class);
+  private final SessionConfigCache sessionConfigCache = mock(SessionConfigCache.class);
+  private final PlatformTransactionManager transactionManager = mock(
+    PlatformTransactionManager.class);
+  private final ConversationForker forker;
+
+  ConversationForkerTest() {
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    forker = new ConversationForker(sessionRepository, messageRepository,
+      new TransactionTemplate(transactionManager), mock(MessageJournal.class), sessionConfigCache,
+      null);
+  }
+
+  @Test
+  void seqInsideRangeButNotInHistoryIsRejected() {
+    // c2 was forked from c1 at seq 10 and has messages up to seq 40; 25 belongs to another session
+    ReActAgentSession parent = session("c2", "c1", 10L);
+    when(sessionRepository.lockByConversationId("c2")).thenReturn(Optional.of(parent));
+    when(sessionConfigCache.findSession("c1"))
+      .thenReturn(Optional.of(new SessionEntry(session("c1", null, null), 0)));
+    when(messageRepository.findMaxSeq(parent)).thenReturn(40L);
+    when(messageRepository.containsSeq(anyList(), anyLong())).thenReturn(false);
+
+    assertThatThrownBy(() -> forker.fork("c2", 25L))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("not a message in the history of c2");
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<HistorySegment>> segments = ArgumentCaptor.forClass(List.class);
+    verify(messageRepository).containsSeq(segments.capture(), eq(25L));
+    assertThat(segments.getValue())
+      .extracting(HistorySegment::conversationId, HistorySegment::maxSeq)
+      .containsExactly(tuple("c2", null),
+        tuple("c1", 10L));
+    verify(sessionRepository, never()).create(any(), any());
+  }
+
+  @Test
+  void seqOfHistoryMessageOrZeroIsAccepted() {
+    ReActAgentSession parent = session("c1", null, null);
+    when(sessionRepository.lockByConversationId("c1")).thenReturn(Optional.of(parent));
+    when(messageRepository.findMaxSeq(parent)).thenReturn(40L);
+    when(messageRepository.containsSeq(anyList(), eq(12L))).thenReturn(true);
+
+    ReActAgentSession atMessage = forker.fork("c1", 12L);
+    ReActAgentSession empty = forker.fork("c1", 0L);
+    ReActAgentSession atHead = forker.fork("c1", null);
+
+    assertThat(atMessage.getForkSeq()).isEqualTo(12L);
+    assertThat(empty.getForkSeq()).isZero();
+    assertThat(atHead.getForkSeq()).isEqualTo(40L);
+    assertThat(atMessage.getParentConversationId()).isEqualTo("c1");
+    verify(messageRepository, never()).containsSeq(anyList(), eq(0L));
+  }
+
+  private static ReActAgentSession session(String conversationId, String parentId, Long forkSeq) {
+    ReActAgentSession session = new ReActAgentSession();
+    session.setConversationId(conversationId);
+    session.setStatus(ReActSessionStatus.ACTIVE);
+    session.setParentConversationId(parentId);
+    session.setForkSeq(forkSeq);
+    return session;
+  }
+}
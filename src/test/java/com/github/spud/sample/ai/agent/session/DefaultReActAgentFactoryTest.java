@@ -0,0 +1,119 @@
+package com.github.spud.sample.ai.agent.session;
+
+import static com.github.spud.sample.ai.agent.support.ScriptedChatModel.tool;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.spud.sample.ai.agent.application.config.AgentSchedulers;
+import com.github.spud.sample.ai.agent.domain.agent.McpAgent;
+import com.github.spud.sample.ai.agent.domain.agent.ReActAgent;
+import com.github.spud.sample.ai.agent.domain.mcp.McpClientManager;
+import com.github.spud.sample.ai.agent.domain.mcp.McpToolNaming;
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.domain.model.ChatClientRegistry;
+import com.github.spud.sample.ai.agent.domain.model.ModelRoute;
+import com.github.spud.sample.ai.agent.domain.model.ModelRoutingPolicy;
+import com.github.spud.sample.ai.agent.domain.model.ModelSpec;
+import com.github.spud.sample.ai.agent.domain.session.DefaultReActAgentFactory;
+import com.github.spud.sample.ai.agent.domain.session.ReActAgentCache;
+import com.github.spud.sample.ai.agent.domain.session.ReActAgentDefaultsProperties;
+import com.github.spud.sample.ai.agent.domain.session.ReActAgentType;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionStatus;
+import com.github.spud.sample.ai.agent.domain.session.SessionConfigCache;
+import com.github.spud.sample.ai.agent.domain.state.CompletionPolicy;
+import com.github.spud.sample.ai.agent.domain.state.ToolChoice;
+import com.github.spud.sample.ai.agent.domain.tools.ToolRegistry;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.support.ScriptedChatModel;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+
+/**
+ * Agent 工厂复用测试：缓存的 MCP Agent 在复用时刷新工具目录，启用的 MCP server 变化时不复用
+ */
+class DefaultReActAgentFactoryTest {
+
+  private final McpClientManager mcpClientManager = mock(McpClientManager.class);
+  private final SessionConfigCache sessionConfigCache = mock(SessionConfigCache.class);
+  private final ReActAgentCache agentCache = new ReActAgentCache(true, 10, 600,
+    Clock.systemUTC());
+  private final ChatClientRegistry chatClientRegistry = mock(ChatClientRegistry.class);
+  private final ReActAgentDefaultsProperties defaultsProperties = mock(
+    ReActAgentDefaultsProperties.class);
+  private final DefaultReActAgentFactory factory = new DefaultReActAgentFactory(chatClientRegistry,
+    null, null, mock(ToolRegistry.class), mcpClientManager, sessionConfigCache, defaultsProperties,
+    agentCache, new AgentSchedulers(AgentSchedulers.MODE_BOUNDED_ELASTIC), null,
+    AgentMetrics.NOOP);
+  private final ReActAgentSession session = session();
+
+  DefaultReActAgentFactoryTest() {
+    when(defaultsProperties.getModelProvider()).thenReturn(ModelSpec.OPENAI);
+    when(defaultsProperties.getModelRoutingPolicy()).thenReturn(ModelRoutingPolicy.PRIMARY_ONLY);
+    when(defaultsProperties.getCompletionPolicy()).thenReturn(CompletionPolicy.TEXT_ANSWER);
+    when(chatClientRegistry.route(any())).thenAnswer(inv -> new ModelRoute(inv.getArgument(0),
+      ChatClient.builder(new ScriptedChatModel()).build(), null));
+  }
+
+  @Test
+  void reusedMcpAgentPicksUpChangedToolCatalogue() {
+    when(sessionConfigCache.enabledMcpServers("c1")).thenReturn(List.of("s1"));
+    when(mcpClientManager.isConnected("s1")).thenReturn(true);
+    when(mcpClientManager.listToolCallbacks("s1")).thenReturn(List.of(tool("search")));
+    McpAgent agent = mcpAgent();
+    factory.release(session, agent);
+
+    // The server adds a tool between two short runs
+    when(mcpClientManager.listToolCallbacks("s1"))
+      .thenReturn(List.of(tool("search"), tool("fetch")));
+    ReActAgent reused = factory.create(session, new ArrayList<>());
+
+    assertThat(reused).isSameAs(agent);
+    assertThat(agent.getAvailableCallbacks())
+      .extracting(callback -> callback.getToolDefinition().name())
+      .containsExactly(McpToolNaming.toModelToolName("s1", "search"),
+        McpToolNaming.toModelToolName("s1", "fetch"));
+  }
+
+  @Test
+  void changedMcpServersAreNotServedFromCache() {
+    when(sessionConfigCache.enabledMcpServers("c1")).thenReturn(List.of("s1"));
+    McpAgent agent = mcpAgent();
+    factory.release(session, agent);
+
+    when(sessionConfigCache.enabledMcpServers("c1")).thenReturn(List.of("s1", "s2"));
+    ReActAgent created = factory.create(session, new ArrayList<>());
+
+    assertThat(created).isNotSameAs(agent);
+    assertThat(((McpAgent) created).getEnabledMcpServers()).containsExactly("s1", "s2");
+  }
+
+  private McpAgent mcpAgent() {
+    McpAgent agent = McpAgent.builder()
+      .name("test")
+      .conversationId("c1")
+      .systemPrompt("system")
+      .chatClient(ChatClient.builder(new ScriptedChatModel()).build())
+      .messages(new ArrayList<>())
+      .mcpClientManager(mcpClientManager)
+      .availableCallbacks(new ArrayList<>())
+      .build();
+    agent.initializeMcp(List.of("s1"), 5);
+    return agent;
+  }
+
+  private static ReActAgentSession session() {
+    ReActAgentSession session = new ReActAgentSession();
+    session.setConversationId("c1");
+    session.setAgentType(ReActAgentType.MCP);
+    session.setStatus(ReActSessionStatus.ACTIVE);
+    session.setToolChoice(ToolChoice.AUTO.name());
+    session.setMaxSteps(5);
+    session.setDuplicateThreshold(3);
+    return session;
+  }
+}
@@ -0,0 +1,225 @@
+package com.github.spud.sample.ai.agent.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.domain.session.MessageJournal;
+import com.github.spud.sample.ai.agent.domain.session.MessageJournalException;
+import com.github.spud.sample.ai.agent.domain.session.MessageJournalProperties;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentMessage;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentMessageRepository;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 消息写后日志测试：批量有序落库、失败重试与死信、spool 崩溃恢复、ASYNC 确认须配置 spool
+ */
+class MessageJournalTest {
+
+  private final List<ReActAgentMessage> stored = new CopyOnWriteArrayList<>();
+  private final ReActAgentMessageRepository messageRepository = mock(
+    ReActAgentMessageRepository.class);
+  private final ReActAgentSessionRepository sessionRepository = mock(
+    ReActAgentSessionRepository.class);
+  private final ReActAgentSession session = session("c1");
+  private final List<MessageJournal> journals = new ArrayList<>();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private volatile boolean databaseDown;
+
+  @TempDir
+  Path spoolDir;
+
+  MessageJournalTest() {
+    doAnswer(inv -> {
+      if (databaseDown) {
+        throw new IllegalStateException("database down");
+      }
+      stored.addAll(inv.<List<ReActAgentMessage>>getArgument(1));
+      return null;
+    }).when(messageRepository).appendMessages(anyString(), anyList());
+    when(messageRepository.findAllById(any())).thenAnswer(inv -> {
+      Collection<UUID> ids = inv.getArgument(0);
+      return stored.stream().filter(m -> ids.contains(m.getId())).toList();
+    });
+    when(sessionRepository.findById("c1")).thenReturn(Optional.of(session));
+  }
+
+  @AfterEach
+  void stop() {
+    journals.forEach(MessageJournal::shutdown);
+  }
+
+  @Test
+  void flushWritesAppendedMessagesInOrder() {
+    MessageJournal journal = journal(properties(Duration.ofHours(1), ""));
+
+    for (int i = 0; i < 5; i++) {
+      journal.append(message(session, "m" + i));
+    }
+    assertThat(stored).isEmpty();
+
+    journal.flush("c1").join();
+
+    assertThat(stored).extracting(ReActAgentMessage::getContent)
+      .containsExactly("m0", "m1", "m2", "m3", "m4");
+    assertThat(journal.pendingCount()).isZero();
+  }
+
+  @Test
+  void backgroundWriterFlushesWithoutBeingAsked() throws Exception {
+    MessageJournal journal = journal(properties(Duration.ofMillis(20), ""));
+
+    journal.append(message(session, "m0"));
+
+    for (int i = 0; i < 100 && stored.isEmpty(); i++) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertThat(stored).hasSize(1);
+  }
+
+  @Test
+  void failedFlushKeepsMessagesForRetry() {
+    MessageJournal journal = journal(properties(Duration.ofHours(1), ""));
+    journal.append(message(session, "m0"));
+
+    databaseDown = true;
+    assertThatThrownBy(() -> journal.flush("c1").join())
+      .isInstanceOf(CompletionException.class)
+      .hasCauseInstanceOf(MessageJournalException.class)
+      .hasRootCauseMessage("database down");
+    assertThat(journal.pendingCount()).isEqualTo(1);
+
+    databaseDown = false;
+    journal.flush("c1").join();
+    assertThat(stored).extracting(ReActAgentMessage::getContent).containsExactly("m0");
+  }
+
+  @Test
+  void batchFailingRepeatedlyIsDeadLetteredAndLaneContinues() throws Exception {
+    MessageJournalProperties properties = properties(Duration.ofHours(1), spoolDir.toString());
+    properties.setMaxAttempts(2);
+    MessageJournal journal = journal(properties);
+    journal.append(message(session, "bad"));
+
+    databaseDown = true;
+    assertThatThrownBy(() -> journal.flush("c1").join())
+      .hasCauseInstanceOf(MessageJournalException.class);
+    assertThatThrownBy(() -> journal.flush("c1").join())
+      .cause()
+      .isInstanceOfSatisfying(MessageJournalException.class,
+        e -> assertThat(e.isDeadLettered()).isTrue());
+    assertThat(journal.pendingCount()).isZero();
+    assertThat(Files.readString(spoolDir.resolve("message-journal.dead.log"))).contains("bad");
+
+    // The conversation is no longer blocked by the bad batch
+    databaseDown = false;
+    journal.append(message(session, "next"));
+    journal.flush("c1").join();
+    assertThat(stored).extracting(ReActAgentMessage::getContent).containsExactly("next");
+
+    assertThat(meterRegistry.get("agent.journal.flush.failures").tag("result", "retry")
+      .counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("agent.journal.flush.failures").tag("result", "dead_letter")
+      .counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("agent.journal.dead.letters").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void spoolReplaysUnflushedMessagesAfterCrash() {
+    MessageJournal crashed = new MessageJournal(messageRepository, sessionRepository,
+      transactionTemplate(), properties(Duration.ofHours(1), spoolDir.toString()),
+      new AgentMetrics(meterRegistry, ObservationRegistry.NOOP, 100));
+    crashed.start();
+    ReActAgentMessage flushed = message(session, "flushed");
+    crashed.append(flushed);
+    crashed.flush("c1").join();
+    crashed.append(message(session, "lost-1"));
+    crashed.append(message(session, "lost-2"));
+    // Database unavailable until the process goes down: the last two only exist in the spool
+    databaseDown = true;
+    crashed.shutdown();
+    assertThat(stored).hasSize(1);
+    databaseDown = false;
+
+    MessageJournal restarted = journal(properties(Duration.ofHours(1), spoolDir.toString()));
+
+    assertThat(restarted.pendingCount()).isZero();
+    assertThat(stored).extracting(ReActAgentMessage::getContent)
+      .containsExactly("flushed", "lost-1", "lost-2");
+  }
+
+  @Test
+  void asyncAckRequiresSpoolDir() {
+    MessageJournalProperties properties = properties(Duration.ofHours(1), "");
+    assertThat(properties.getAckMode()).isEqualTo(MessageJournalProperties.AckMode.FLUSH);
+    properties.setAckMode(MessageJournalProperties.AckMode.ASYNC);
+
+    assertThatThrownBy(() -> journal(properties))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("spool-dir");
+
+    properties.setSpoolDir(spoolDir.toString());
+    assertThat(journal(properties).getAckMode()).isEqualTo(MessageJournalProperties.AckMode.ASYNC);
+  }
+
+  private MessageJournal journal(MessageJournalProperties properties) {
+    MessageJournal journal = new MessageJournal(messageRepository, sessionRepository,
+      transactionTemplate(), properties, new AgentMetrics(meterRegistry, ObservationRegistry.NOOP,
+      100));
+    journal.start();
+    journals.add(journal);
+    return journal;
+  }
+
+  private static MessageJournalProperties properties(Duration flushInterval, String spoolDir) {
+    MessageJournalProperties properties = new MessageJournalProperties();
+    properties.setEnabled(true);
+    properties.setFlushInterval(flushInterval);
+    properties.setSpoolDir(spoolDir);
+    return properties;
+  }
+
+  private static TransactionTemplate transactionTemplate() {
+    return new TransactionTemplate(mock(PlatformTransactionManager.class));
+  }
+
+  private static ReActAgentSession session(String conversationId) {
+    ReActAgentSession session = new ReActAgentSession();
+    session.setConversationId(conversationId);
+    return session;
+  }
+
+  private static ReActAgentMessage message(ReActAgentSession session, String content) {
+    ReActAgentMessage message = new ReActAgentMessage();
+    message.setConversation(session);
+    message.setMessageType(MessageType.USER);
+    message.setContent(content);
+    return message;
+  }
+}
@@ -0,0 +1,100 @@
+package com.github.spud.sample.ai.agent.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.spud.sample.ai.agent.domain.agent.ReActAgent;
+import com.github.spud.sample.ai.agent.domain.agent.ToolCallAgent;
+import com.github.spud.sample.ai.agent.domain.session.ReActAgentCache;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 会话级 Agent 缓存测试
+ */
+class ReActAgentCacheTest {
+
+  private final MutableClock clock = new MutableClock();
+
+  @Test
+  void takeReturnsReleasedAgentOnce() {
+    ReActAgentCache cache = new ReActAgentCache(true, 10, 60, clock);
+    ReActAgent agent = agent();
+
+    cache.put("c1", "fp", agent);
+
+    assertThat(cache.take("c1", "fp")).isSameAs(agent);
+    // Borrowed: not handed out twice
+    assertThat(cache.take("c1", "fp")).isNull();
+  }
+
+  @Test
+  void fingerprintMismatchDiscardsAgent() {
+    ReActAgentCache cache = new ReActAgentCache(true, 10, 60, clock);
+    cache.put("c1", "tools-v1", agent());
+
+    assertThat(cache.take("c1", "tools-v2")).isNull();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void idleAgentsExpire() {
+    ReActAgentCache cache = new ReActAgentCache(true, 10, 60, clock);
+    cache.put("c1", "fp", agent());
+
+    clock.advance(Duration.ofSeconds(61));
+
+    assertThat(cache.take("c1", "fp")).isNull();
+  }
+
+  @Test
+  void leastRecentlyUsedAgentIsEvictedAtMaxSize() {
+    ReActAgentCache cache = new ReActAgentCache(true, 2, 60, clock);
+    cache.put("c1", "fp", agent());
+    cache.put("c2", "fp", agent());
+    cache.put("c3", "fp", agent());
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.take("c1", "fp")).isNull();
+    assertThat(cache.take("c3", "fp")).isNotNull();
+  }
+
+  @Test
+  void disabledCacheNeverStores() {
+    ReActAgentCache cache = new ReActAgentCache(false, 10, 60, clock);
+    cache.put("c1", "fp", agent());
+
+    assertThat(cache.take("c1", "fp")).isNull();
+  }
+
+  private static ReActAgent agent() {
+    return ToolCallAgent.builder().name("test").messages(new ArrayList<>()).build();
+  }
+
+  private static class MutableClock extends Clock {
+
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(java.time.ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
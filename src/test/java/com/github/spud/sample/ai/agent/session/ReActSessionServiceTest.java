@@ -0,0 +1,62 @@
+package com.github.spud.sample.ai.agent.session;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.spud.sample.ai.agent.domain.metrics.AgentMetrics;
+import com.github.spud.sample.ai.agent.domain.session.ConversationArchiver;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionService;
+import com.github.spud.sample.ai.agent.domain.session.ReActSessionStatus;
+import com.github.spud.sample.ai.agent.domain.session.SessionConfigCache;
+import com.github.spud.sample.ai.agent.domain.session.SessionConfigCache.SessionEntry;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 会话加载测试：本地快照早于其它节点的归档时，重新加载后先回灌再递增版本号
+ */
+class ReActSessionServiceTest {
+
+  private final ReActAgentSessionRepository sessionRepository = mock(
+    ReActAgentSessionRepository.class);
+  private final SessionConfigCache sessionConfigCache = mock(SessionConfigCache.class);
+  private final ConversationArchiver conversationArchiver = mock(ConversationArchiver.class);
+
+  @Test
+  void staleSnapshotOfArchivedSessionIsRehydratedBeforeVersionBump() {
+    ReActSessionService service = new ReActSessionService(null, sessionRepository, null, null,
+      null, null, new TransactionTemplate(mock(PlatformTransactionManager.class)), null, null, null,
+      sessionConfigCache, AgentMetrics.NOOP, conversationArchiver, null, null);
+    // Cached before another node archived the session (archiving bumped the version to 4)
+    SessionEntry stale = new SessionEntry(session(ReActSessionStatus.ACTIVE, 3), 3);
+    SessionEntry archived = new SessionEntry(session(ReActSessionStatus.ARCHIVED, 4), 4);
+    SessionEntry rehydrated = new SessionEntry(session(ReActSessionStatus.ACTIVE, 4), 4);
+    when(sessionConfigCache.findSession("c1"))
+      .thenReturn(Optional.of(stale), Optional.of(archived), Optional.of(rehydrated));
+    when(sessionRepository.tryBumpVersion("c1", 3)).thenReturn(0);
+    when(sessionConfigCache.invalidateIfUnchanged("c1", 3)).thenReturn(true);
+    when(sessionRepository.tryBumpVersion("c1", 4)).thenReturn(1);
+
+    service.loadSessionForProcessing("c1");
+
+    InOrder order = inOrder(conversationArchiver, sessionRepository);
+    order.verify(conversationArchiver).rehydrate(archived.session());
+    order.verify(sessionRepository).tryBumpVersion("c1", 4);
+    verify(sessionConfigCache).versionBumped("c1", 4);
+  }
+
+  private static ReActAgentSession session(ReActSessionStatus status, int version) {
+    ReActAgentSession session = new ReActAgentSession();
+    session.setConversationId("c1");
+    session.setStatus(status);
+    session.setVersion(version);
+    return session;
+  }
+}
@@ -0,0 +1,139 @@
+package com.github.spud.sample.ai.agent.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.spud.sample.ai.agent.domain.session.SessionConfigCache;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.ReActAgentSession;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentConfigRepository;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.ReActAgentSessionRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 会话配置热缓存测试：读穿、版本号跟踪、跨节点失效、TTL
+ */
+class SessionConfigCacheTest {
+
+  private static final String CHANNEL = "agent:session-cache:invalidate";
+
+  private final MutableClock clock = new MutableClock();
+  private final ReActAgentSessionRepository sessionRepository = mock(
+    ReActAgentSessionRepository.class);
+  private final ReActAgentConfigRepository agentConfigRepository = mock(
+    ReActAgentConfigRepository.class);
+  private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+  private final SessionConfigCache cache = new SessionConfigCache(sessionRepository,
+    agentConfigRepository, redisTemplate, true, 100, 60, CHANNEL, clock);
+
+  @Test
+  void sessionAndMcpServersAreLoadedOnce() {
+    when(sessionRepository.findByConversationId("c1")).thenReturn(Optional.of(session("c1", 0)));
+    when(sessionRepository.listEnabledMcpServers("c1")).thenReturn(List.of("fs"));
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(cache.findSession("c1")).isPresent();
+      assertThat(cache.enabledMcpServers("c1")).containsExactly("fs");
+    }
+
+    verify(sessionRepository, times(1)).findByConversationId("c1");
+    verify(sessionRepository, times(1)).listEnabledMcpServers("c1");
+  }
+
+  @Test
+  void versionBumpIsTrackedWithoutReloading() {
+    when(sessionRepository.findByConversationId("c1")).thenReturn(Optional.of(session("c1", 0)));
+
+    cache.findSession("c1");
+    cache.versionBumped("c1", 0);
+
+    assertThat(cache.findSession("c1")).get().extracting(SessionConfigCache.SessionEntry::version)
+      .isEqualTo(1);
+    verify(sessionRepository, times(1)).findByConversationId("c1");
+  }
+
+  @Test
+  void staleVersionIsInvalidatedButLocalConflictIsNot() {
+    when(sessionRepository.findByConversationId("c1")).thenReturn(Optional.of(session("c1", 0)));
+    cache.findSession("c1");
+
+    // A concurrent request on this node already moved the version on: a real conflict
+    cache.versionBumped("c1", 0);
+    assertThat(cache.invalidateIfUnchanged("c1", 0)).isFalse();
+
+    // Another node moved it on: the local snapshot is stale and gets reloaded
+    assertThat(cache.invalidateIfUnchanged("c1", 1)).isTrue();
+    when(sessionRepository.findByConversationId("c1")).thenReturn(Optional.of(session("c1", 5)));
+    assertThat(cache.findSession("c1")).get().extracting(SessionConfigCache.SessionEntry::version)
+      .isEqualTo(5);
+  }
+
+  @Test
+  void evictionIsPublishedAndAppliedFromOtherNodes() {
+    when(sessionRepository.findByConversationId("c1")).thenReturn(Optional.of(session("c1", 0)));
+    cache.findSession("c1");
+
+    cache.evictSession("c1");
+    verify(redisTemplate).convertAndSend(CHANNEL, "session:c1");
+    cache.findSession("c1");
+
+    cache.onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+      "session:c1".getBytes(StandardCharsets.UTF_8)), null);
+    cache.findSession("c1");
+
+    verify(sessionRepository, times(3)).findByConversationId("c1");
+  }
+
+  @Test
+  void entriesExpireAfterTtl() {
+    when(sessionRepository.findByConversationId("c1")).thenReturn(Optional.of(session("c1", 0)));
+    cache.findSession("c1");
+
+    clock.advance(Duration.ofSeconds(61));
+    cache.findSession("c1");
+
+    verify(sessionRepository, times(2)).findByConversationId("c1");
+  }
+
+  private static ReActAgentSession session(String conversationId, int version) {
+    ReActAgentSession session = new ReActAgentSession();
+    session.setConversationId(conversationId);
+    session.setVersion(version);
+    return session;
+  }
+
+  private static class MutableClock extends Clock {
+
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(java.time.ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.github.spud.sample.ai.agent.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.spud.sample.ai.agent.domain.state.AgentEvent;
+import com.github.spud.sample.ai.agent.domain.state.AgentState;
+import com.github.spud.sample.ai.agent.domain.state.AgentStateConfig;
+import com.github.spud.sample.ai.agent.domain.state.AgentStateEngine;
+import com.github.spud.sample.ai.agent.domain.state.AgentTransition;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineBuilder;
+
+/**
+ * 编译状态引擎测试：与 Spring StateMachine 在同一转换表上的行为保持一致
+ */
+class AgentStateEngineTest {
+
+  private final AgentStateEngine engine = AgentStateEngine.standard();
+
+  @Test
+  void shouldMatchSpringStateMachineForEveryStateAndEvent() throws Exception {
+    for (AgentState source : AgentState.values()) {
+      for (AgentEvent event : AgentEvent.values()) {
+        StateMachine<AgentState, AgentEvent> stateMachine = buildStateMachineAt(source);
+        stateMachine.sendEvent(event);
+        AgentState expected = stateMachine.getState().getId();
+
+        AgentState actual = engine.accepts(source, event) ? engine.fire(source, event) : source;
+        assertEquals(expected, actual, source + " --(" + event + ")-->");
+      }
+    }
+  }
+
+  @Test
+  void shouldRejectUndeclaredTransitions() {
+    assertFalse(engine.accepts(AgentState.IDLE, AgentEvent.ACT_DONE));
+    assertThrows(IllegalStateException.class,
+      () -> engine.fire(AgentState.FINISHED, AgentEvent.START));
+    assertThrows(IllegalStateException.class,
+      () -> engine.fire(AgentState.ERROR, AgentEvent.FAIL));
+  }
+
+  @Test
+  void shouldRejectConflictingTransitions() {
+    List<AgentTransition> conflicting = List.of(
+      AgentTransition.of(AgentState.IDLE, AgentEvent.START, AgentState.THINKING),
+      AgentTransition.of(AgentState.IDLE, AgentEvent.START, AgentState.ACTING));
+    assertThrows(IllegalArgumentException.class, () -> AgentStateEngine.compile(conflicting));
+  }
+
+  /**
+   * Build a Spring StateMachine from the shared transition table, starting at {@code initial}
+   */
+  private static StateMachine<AgentState, AgentEvent> buildStateMachineAt(AgentState initial)
+    throws Exception {
+    StateMachineBuilder.Builder<AgentState, AgentEvent> builder = StateMachineBuilder.builder();
+    builder.configureStates()
+      .withStates()
+      .initial(initial)
+      .states(EnumSet.allOf(AgentState.class));
+    for (AgentTransition transition : AgentStateConfig.TRANSITIONS) {
+      builder.configureTransitions()
+        .withExternal()
+        .source(transition.source()).target(transition.target())
+        .event(transition.event());
+    }
+    StateMachine<AgentState, AgentEvent> stateMachine = builder.build();
+    stateMachine.start();
+    return stateMachine;
+  }
+}
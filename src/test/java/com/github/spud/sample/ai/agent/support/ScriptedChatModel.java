@@ -0,0 +1,110 @@
+package com.github.spud.sample.ai.agent.support;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import reactor.core.publisher.Flux;
+
+/**
+ * ChatModel that returns scripted responses and records every prompt it receives
+ * <p>
+ * Shared by the agent, metrics and trace tests together with the response / tool factories
+ * below. Every scripted response reports model {@code scripted} and usage 10 prompt / 5
+ * completion tokens; once the script is exhausted an empty text answer is returned.
+ */
+public class ScriptedChatModel implements ChatModel {
+
+  public static final String MODEL = "scripted";
+
+  public final List<Prompt> prompts = new ArrayList<>();
+  private final Queue<ChatResponse> responses;
+  // Number of scripted responses emitted as chunks of each stream() call (default one)
+  public List<Integer> chunksPerStream = List.of();
+  private int streams;
+
+  public ScriptedChatModel(ChatResponse... responses) {
+    this.responses = new LinkedList<>(List.of(responses));
+  }
+
+  public void enqueue(ChatResponse... more) {
+    responses.addAll(List.of(more));
+  }
+
+  @Override
+  public ChatResponse call(Prompt prompt) {
+    prompts.add(prompt);
+    ChatResponse next = responses.poll();
+    return next != null ? next : textResponse("");
+  }
+
+  @Override
+  public Flux<ChatResponse> stream(Prompt prompt) {
+    prompts.add(prompt);
+    int chunks = streams < chunksPerStream.size() ? chunksPerStream.get(streams) : 1;
+    streams++;
+    List<ChatResponse> emitted = new ArrayList<>();
+    for (int i = 0; i < chunks && !responses.isEmpty(); i++) {
+      emitted.add(responses.poll());
+    }
+    return emitted.isEmpty() ? Flux.just(textResponse("")) : Flux.fromIterable(emitted);
+  }
+
+  public static ChatResponse toolCallResponse(String id, String name, String arguments) {
+    return response(new AssistantMessage("", Map.of(),
+      List.of(new AssistantMessage.ToolCall(id, "function", name, arguments))));
+  }
+
+  public static ChatResponse textResponse(String text) {
+    return response(new AssistantMessage(text));
+  }
+
+  /**
+   * Tool echoing its input as {@code name:input}
+   */
+  public static ToolCallback tool(String name) {
+    return tool(name, () -> {
+    });
+  }
+
+  /**
+   * Tool echoing its input as {@code name:input}, running {@code onCall} first
+   */
+  public static ToolCallback tool(String name, Runnable onCall) {
+    ToolDefinition definition = ToolDefinition.builder()
+      .name(name)
+      .description(name)
+      .inputSchema("{\"type\":\"object\",\"properties\":{}}")
+      .build();
+    return new ToolCallback() {
+      @Override
+      public ToolDefinition getToolDefinition() {
+        return definition;
+      }
+
+      @Override
+      public String call(String toolInput) {
+        onCall.run();
+        return name + ":" + toolInput;
+      }
+    };
+  }
+
+  private static ChatResponse response(AssistantMessage message) {
+    return ChatResponse.builder()
+      .generations(List.of(new Generation(message)))
+      .metadata(ChatResponseMetadata.builder().model(MODEL).usage(new DefaultUsage(10, 5))
+        .build())
+      .build();
+  }
+}
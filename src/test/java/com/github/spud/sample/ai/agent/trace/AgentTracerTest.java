@@ -0,0 +1,118 @@
+package com.github.spud.sample.ai.agent.trace;
+
+import static com.github.spud.sample.ai.agent.support.ScriptedChatModel.tool;
+import static com.github.spud.sample.ai.agent.support.ScriptedChatModel.toolCallResponse;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.github.spud.sample.ai.agent.domain.agent.ToolCallAgent;
+import com.github.spud.sample.ai.agent.domain.state.AgentState;
+import com.github.spud.sample.ai.agent.domain.trace.AgentRunTrace;
+import com.github.spud.sample.ai.agent.domain.trace.AgentTraceContext;
+import com.github.spud.sample.ai.agent.domain.trace.AgentTraceProperties;
+import com.github.spud.sample.ai.agent.domain.trace.AgentTracer;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.entity.AgentTrace;
+import com.github.spud.sample.ai.agent.infrastructure.persistence.repository.AgentTraceRepository;
+import com.github.spud.sample.ai.agent.support.ScriptedChatModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.tool.ToolCallback;
+
+/**
+ * Agent 步骤追踪测试：每步一条记录、采样、缓冲区满时丢弃
+ */
+class AgentTracerTest {
+
+  private final List<AgentTrace> written = new CopyOnWriteArrayList<>();
+  private final AgentTraceRepository repository = mock(AgentTraceRepository.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AgentTraceProperties properties = new AgentTraceProperties();
+
+  AgentTracerTest() {
+    doAnswer(inv -> written.addAll(inv.<List<AgentTrace>>getArgument(0)))
+      .when(repository).insertTraces(anyList());
+    properties.setEnabled(true);
+  }
+
+  @Test
+  void runIsTracedOneRecordPerStep() {
+    AgentTracer tracer = new AgentTracer(repository, properties, meterRegistry);
+    ChatModel chatModel = new ScriptedChatModel(
+      toolCallResponse("call-1", "lookup", "{\"q\":\"paris\"}"),
+      toolCallResponse("call-2", "terminate", "{\"answer\":\"done\"}"));
+    ToolCallAgent agent = ToolCallAgent.builder()
+      .name("test")
+      .conversationId("c1")
+      .systemPrompt("system")
+      .chatClient(ChatClient.builder(chatModel).build())
+      .messages(new ArrayList<>())
+      .availableCallbacks(new ArrayList<>(List.of(lookupTool(), tool("terminate"))))
+      .tracer(tracer)
+      .build();
+
+    assertThat(agent.run("hello").block()).isEqualTo("done");
+    // Nothing is written on the agent's thread
+    assertThat(written).isEmpty();
+    tracer.flush();
+
+    assertThat(written).hasSize(2);
+    AgentTrace first = written.get(0);
+    assertThat(first.getConversationId()).isEqualTo("c1");
+    assertThat(first.getStepNumber()).isEqualTo(1);
+    assertThat(first.getState()).isEqualTo(AgentState.THINKING.name());
+    assertThat(first.getEvent()).isEqualTo("ACT_DONE");
+    assertThat(first.getModel()).isEqualTo("scripted");
+    assertThat(first.getPromptTokens()).isEqualTo(10);
+    assertThat(first.getCompletionTokens()).isEqualTo(5);
+    assertThat(first.getLlmDurationMs()).isNotNull();
+    assertThat(first.getToolCalls().toString()).contains("lookup");
+    assertThat(first.getToolResults().toString()).contains("latencyMs").contains("lookup:");
+    assertThat(first.getRetrievalDocs().toString()).contains("doc-1");
+
+    AgentTrace second = written.get(1);
+    assertThat(second.getTraceId()).isEqualTo(first.getTraceId());
+    assertThat(second.getState()).isEqualTo(AgentState.FINISHED.name());
+    assertThat(second.getEvent()).isEqualTo("TOOL_TERMINATE");
+  }
+
+  @Test
+  void unsampledRunsAreNotTraced() {
+    properties.setSampleRate(0.0);
+    AgentTracer tracer = new AgentTracer(repository, properties, meterRegistry);
+
+    assertThat(tracer.startRun("c1")).isNull();
+  }
+
+  @Test
+  void fullBufferDropsInsteadOfBlocking() {
+    properties.setCapacity(2);
+    AgentTracer tracer = new AgentTracer(repository, properties, meterRegistry);
+    AgentRunTrace run = tracer.startRun("c1");
+
+    for (int i = 1; i <= 5; i++) {
+      run.beginStep(i);
+      run.endStep(AgentState.THINKING, null);
+    }
+    tracer.flush();
+
+    assertThat(written).extracting(AgentTrace::getStepNumber).containsExactly(1, 2);
+    assertThat(meterRegistry.counter("agent.trace.records", "result", "dropped").count())
+      .isEqualTo(3);
+  }
+
+  /**
+   * Tool echoing its input; records a retrieved document like the RAG tool does
+   */
+  private static ToolCallback lookupTool() {
+    return tool("lookup",
+      () -> AgentTraceContext.recordRetrieval(List.of(Map.of("id", "doc-1", "score", 0.9))));
+  }
+}
@@ -0,0 +1,64 @@
+package com.github.spud.sample.ai.agent.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.github.spud.sample.ai.agent.infrastructure.util.JsonUtils;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.json.JsonParseException;
+
+/**
+ * JsonUtils：流式字段提取、完整性校验，以及共享 ObjectMapper 的调优
+ */
+class JsonUtilsTest {
+
+  @Test
+  void readFieldsStreamsTopLevelScalars() {
+    String json = """
+      {"filters":{"query":"nested"},"query":"weather in Paris","topK":5,"tags":["a","b"],\
+      "missing":null}""";
+
+    assertThat(JsonUtils.readFields(json, "query", "topK", "missing", "absent"))
+      .containsExactly("weather in Paris", "5", null, null);
+    // Containers are skipped, so only top-level fields match
+    assertThat(JsonUtils.readField(json, "filters")).isNull();
+    assertThat(JsonUtils.readField("{\"answer\":\"done\"}", "answer")).isEqualTo("done");
+  }
+
+  @Test
+  void readFieldRejectsNonObjects() {
+    assertThatThrownBy(() -> JsonUtils.readField("[1,2]", "answer"))
+      .isInstanceOf(JsonParseException.class);
+    assertThatThrownBy(() -> JsonUtils.readField("not json", "answer"))
+      .isInstanceOf(JsonParseException.class);
+  }
+
+  @Test
+  void isValidJsonRequiresOneCompleteValue() {
+    assertThat(JsonUtils.isValidJson("{\"query\":\"a\",\"topK\":[1,{\"x\":2}]}")).isTrue();
+    assertThat(JsonUtils.isValidJson("{\"query\":\"a\"")).isFalse();
+    assertThat(JsonUtils.isValidJson("{\"query\":\"a\"} trailing")).isFalse();
+    assertThat(JsonUtils.isValidJson("")).isFalse();
+  }
+
+  @Test
+  void sharedMapperIsTuned() {
+    ObjectMapper mapper = JsonUtils.objectMapper();
+    assertThat(mapper.getRegisteredModuleIds()).contains(new BlackbirdModule().getTypeId());
+
+    record Event(String name, OffsetDateTime at) {
+    }
+    Event event = new Event("run", OffsetDateTime.of(2026, 1, 2, 3, 4, 5, 0, ZoneOffset.UTC));
+    String json = JsonUtils.toJson(event);
+    assertThat(json).contains("\"2026-01-02T03:04:05Z\"");
+    // Unknown properties are ignored, as with Spring's mapper
+    assertThat(JsonUtils.fromJson(json.replace("{", "{\"extra\":1,"), Event.class))
+      .isEqualTo(event);
+    assertThat(JsonUtils.fromJson("{\"a\":1}", Map.class)).containsEntry("a", 1);
+  }
+}